@@ -0,0 +1,270 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package org.dcm4che2.tool.dcmof;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded replacement of {@link org.dcm4che2.net.NewThreadExecutor} running
+ * associations and asynchronous DIMSE operations of the Order Filler on a
+ * pool of at most {@link #getMaximumPoolSize()} threads with a work queue of
+ * {@link #getQueueCapacity()} entries.
+ * <p>
+ * A task is handed over to a new thread as long as the pool has less than
+ * {@link #getMaximumPoolSize()} threads and is only queued if all of them are
+ * busy, because an association occupies its thread until it is released and
+ * would otherwise wait in the queue behind long-lived associations although
+ * the pool could still grow. {@link #prestartCoreThreads()} starts
+ * {@link #getCorePoolSize()} threads in advance; if it is less than the
+ * maximum pool size, idle threads terminate after one minute.
+ * <p>
+ * A task which is neither accepted by a pool thread nor by the queue is
+ * counted as rejected. If the executor has a busy pool, the rejected task is
+ * run by one of its {@link #getBusyPoolSize()} threads, so the thread
+ * submitting associations - the acceptor - never runs an association itself
+ * and keeps accepting. If all busy threads are occupied as well, the task is
+ * refused with a {@link RejectedExecutionException}. Without a busy pool the
+ * rejected task is run by the submitting thread, which suits tasks submitted
+ * by an association like the writers of C-FIND responses. While a rejected
+ * task is running {@link #isRejected()} returns <code>true</code> on its
+ * thread, which lets the SCPs answer the requests of the association with a
+ * "resources busy" status instead of performing them.
+ */
+public class BoundedExecutor implements Executor {
+
+    static final int DEF_CORE_POOL_SIZE = 4;
+
+    static final int DEF_MAX_POOL_SIZE = 32;
+
+    static final int DEF_QUEUE_CAPACITY = 64;
+
+    static final int DEF_BUSY_POOL_SIZE = 2;
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final ThreadPoolExecutor pool;
+
+    private final ThreadPoolExecutor busyPool;
+
+    private final int corePoolSize;
+
+    private final int queueCapacity;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final ThreadLocal<Boolean> rejected = new ThreadLocal<Boolean>();
+
+    /**
+     * Creates an executor which runs rejected tasks in the submitting thread.
+     */
+    public BoundedExecutor(String name, int corePoolSize, int maxPoolSize,
+            int queueCapacity) {
+        this(name, corePoolSize, maxPoolSize, queueCapacity, 0);
+    }
+
+    /**
+     * Creates an executor which runs rejected tasks on a busy pool of given
+     * size, or in the submitting thread if <code>busyPoolSize</code> is 0.
+     */
+    public BoundedExecutor(final String name, int corePoolSize,
+            int maxPoolSize, int queueCapacity, int busyPoolSize) {
+        if (corePoolSize < 0 || maxPoolSize < 1 || maxPoolSize < corePoolSize
+                || queueCapacity < 0 || busyPoolSize < 0)
+            throw new IllegalArgumentException("corePoolSize=" + corePoolSize
+                    + ", maxPoolSize=" + maxPoolSize + ", queueCapacity="
+                    + queueCapacity + ", busyPoolSize=" + busyPoolSize);
+        this.corePoolSize = corePoolSize;
+        this.queueCapacity = queueCapacity;
+        this.pool = new ThreadPoolExecutor(maxPoolSize, maxPoolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<Runnable>()
+                        : new ArrayBlockingQueue<Runnable>(queueCapacity),
+                newThreadFactory(name + "-"), new RejectedExecutionHandler() {
+
+                    public void rejectedExecution(Runnable r,
+                            ThreadPoolExecutor executor) {
+                        onRejected(r);
+                    }
+                });
+        pool.allowCoreThreadTimeOut(corePoolSize < maxPoolSize);
+        if (busyPoolSize == 0) {
+            busyPool = null;
+        } else {
+            busyPool = new ThreadPoolExecutor(busyPoolSize, busyPoolSize,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(),
+                    newThreadFactory(name + "-BUSY-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            busyPool.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                return new Thread(r, prefix + count.incrementAndGet());
+            }
+        };
+    }
+
+    /**
+     * Starts {@link #getCorePoolSize()} idle threads in advance.
+     */
+    public void prestartCoreThreads() {
+        for (int i = pool.getPoolSize(); i < corePoolSize; i++)
+            pool.prestartCoreThread();
+    }
+
+    public void execute(Runnable command) {
+        pool.execute(command);
+    }
+
+    private void onRejected(final Runnable r) {
+        long count = rejectedCount.incrementAndGet();
+        if (busyPool == null) {
+            DcmOF.LOG.warn("Thread pool exhausted (active: "
+                    + pool.getActiveCount() + ", queued: "
+                    + pool.getQueue().size() + ", rejected: " + count
+                    + ") - run task in " + Thread.currentThread().getName());
+            runRejected(r);
+            return;
+        }
+        DcmOF.LOG.warn("Thread pool exhausted (active: "
+                + pool.getActiveCount() + ", queued: " + pool.getQueue().size()
+                + ", rejected: " + count + ") - run task on busy pool");
+        busyPool.execute(new Runnable() {
+
+            public void run() {
+                runRejected(r);
+            }
+        });
+    }
+
+    private void runRejected(Runnable r) {
+        Boolean prev = rejected.get();
+        rejected.set(Boolean.TRUE);
+        try {
+            r.run();
+        } finally {
+            if (prev == null)
+                rejected.remove();
+            else
+                rejected.set(prev);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the current thread runs a task which was
+     * rejected by the pool.
+     */
+    public boolean isRejected() {
+        return rejected.get() != null;
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public int getMaximumPoolSize() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getBusyPoolSize() {
+        return busyPool == null ? 0 : busyPool.getMaximumPoolSize();
+    }
+
+    public int getBusyActiveCount() {
+        return busyPool == null ? 0 : busyPool.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return pool.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    /**
+     * Stops accepting new tasks; running and queued tasks are completed.
+     * Tasks submitted afterwards are handled like rejected tasks.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        if (busyPool != null)
+            busyPool.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedExecutor[pool=" + getPoolSize() + "/"
+                + getMaximumPoolSize() + ", active=" + getActiveCount()
+                + ", queued=" + getQueuedCount() + "/" + queueCapacity
+                + ", busy=" + getBusyActiveCount() + "/" + getBusyPoolSize()
+                + ", rejected=" + getRejectedCount() + "]";
+    }
+}
@@ -50,6 +50,7 @@ import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -74,10 +75,11 @@ import org.dcm4che2.io.ContentHandlerAdapter;
 import org.dcm4che2.io.DicomInputStream;
 import org.dcm4che2.io.DicomOutputStream;
 import org.dcm4che2.io.SAXWriter;
+import org.dcm4che2.net.Association;
 import org.dcm4che2.net.Device;
+import org.dcm4che2.net.DicomServiceException;
 import org.dcm4che2.net.NetworkApplicationEntity;
 import org.dcm4che2.net.NetworkConnection;
-import org.dcm4che2.net.NewThreadExecutor;
 import org.dcm4che2.net.TransferCapability;
 import org.dcm4che2.net.service.VerificationService;
 import org.dcm4che2.util.CloseUtils;
@@ -96,6 +98,14 @@ public class DcmOF {
 
     private static final int KB = 1024;
 
+    private static final int MB = KB * KB;
+
+    /** C-FIND/C-STORE failure status: Refused: Out of Resources */
+    static final int OUT_OF_RESOURCES = 0xA700;
+
+    /** N-CREATE/N-SET failure status: Processing failure: Resource limitation */
+    static final int RESOURCE_LIMITATION = 0x0213;
+
     private static final String USAGE = "dcmof [Options] [<aet>[@<ip>]:]<port>";
 
     private static final String DESCRIPTION = "DICOM Server providing DICOM service of IHE actor Order Filler:\n"
@@ -138,7 +148,9 @@ public class DcmOF {
     private static final String[] NATIVE_LE_TS = { UID.ExplicitVRLittleEndian,
             UID.ImplicitVRLittleEndian };
 
-    private final Executor executor;
+    private final BoundedExecutor executor;
+
+    private final BoundedExecutor rspExecutor;
 
     private final Device device;
 
@@ -151,6 +163,14 @@ public class DcmOF {
     private boolean indent = false;
     private boolean comments = false;
 
+    private int mppsCacheCapacity = MppsCache.DEF_CAPACITY;
+
+    private int journalSyncDelay = Journal.DEF_SYNC_DELAY;
+
+    private long journalMaxSegmentSize = Journal.DEF_MAX_SEGMENT_SIZE;
+
+    private final List<Journal> journals = new ArrayList<Journal>();
+
     private String keyStoreURL = "resource:tls/test_sys_2.p12";
     
     private char[] keyStorePassword = SECRET; 
@@ -162,8 +182,18 @@ public class DcmOF {
     private char[] trustStorePassword = SECRET; 
     
     public DcmOF(String name) {
+        this(name, BoundedExecutor.DEF_CORE_POOL_SIZE,
+                BoundedExecutor.DEF_MAX_POOL_SIZE,
+                BoundedExecutor.DEF_QUEUE_CAPACITY);
+    }
+
+    public DcmOF(String name, int corePoolSize, int maxPoolSize,
+            int queueCapacity) {
         device = new Device(name);
-        executor = new NewThreadExecutor(name);
+        executor = new BoundedExecutor(name, corePoolSize, maxPoolSize,
+                queueCapacity, BoundedExecutor.DEF_BUSY_POOL_SIZE);
+        rspExecutor = new BoundedExecutor(name + "-RSP", corePoolSize,
+                maxPoolSize, queueCapacity);
         device.setNetworkApplicationEntity(ae);
         device.setNetworkConnection(nc);
         ae.setNetworkConnection(nc);
@@ -171,6 +201,45 @@ public class DcmOF {
         ae.register(new VerificationService());
     }
 
+    /**
+     * Returns the executor running the associations, which exposes the
+     * number of active, queued and rejected tasks.
+     */
+    public final BoundedExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the executor running the writers of C-FIND responses, which
+     * exposes the number of active, queued and rejected tasks. A writer
+     * rejected by it is run by the thread of its association.
+     */
+    public final BoundedExecutor getResponseExecutor() {
+        return rspExecutor;
+    }
+
+    /**
+     * Returns <code>true</code> if the current thread runs an association
+     * which was rejected by the thread pool. Requests of such associations
+     * shall be answered with a "resources busy" status.
+     */
+    final boolean isBusy() {
+        return executor.isRejected();
+    }
+
+    /**
+     * Refuses given request with given status if the current thread runs an
+     * association which was rejected by the thread pool.
+     */
+    final void checkBusy(DicomObject rq, int status)
+            throws DicomServiceException {
+        if (isBusy()) {
+            LOG.warn("Refuse request - " + executor);
+            throw new DicomServiceException(rq, status,
+                    "Order Filler busy");
+        }
+    }
+
     public final void setAEtitle(String aet) {
         ae.setAETitle(aet);
     }
@@ -332,11 +401,16 @@ public class DcmOF {
                 "password for truststore file, 'secret' by default");
         opts.addOption(OptionBuilder.create("truststorepw"));
         
+        OptionGroup mwl = new OptionGroup();
         OptionBuilder.withArgName("dir");
         OptionBuilder.hasArg();
         OptionBuilder
                 .withDescription("Activate MWL SCP, providing MWL Items stored in specified directory.");
-        opts.addOption(OptionBuilder.create("mwl"));
+        mwl.addOption(OptionBuilder.create("mwl"));
+        OptionBuilder
+                .withDescription("Activate MWL SCP, providing MWL Items of the scheduled radiology orders in the OpenMRS database.");
+        mwl.addOption(OptionBuilder.create("mwldb"));
+        opts.addOptionGroup(mwl);
 
         OptionGroup mpps = new OptionGroup();
         OptionBuilder.withArgName("dir");
@@ -349,6 +423,11 @@ public class DcmOF {
         OptionBuilder
                 .withDescription("Activate MPPS SCP, storing XML received MPPS in specified directory in XML format.");
         mpps.addOption(OptionBuilder.create("mppsxml"));
+        OptionBuilder.withArgName("dir");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("Activate MPPS SCP, storing received MPPS in a journal in specified directory.");
+        mpps.addOption(OptionBuilder.create("mppsjournal"));
         opts.addOptionGroup(mpps);
 
         OptionGroup ian = new OptionGroup();
@@ -362,6 +441,11 @@ public class DcmOF {
         OptionBuilder
                 .withDescription("Activate IAN SCP, storing received IAN in specified directory in XML format.");
         ian.addOption(OptionBuilder.create("ianxml"));
+        OptionBuilder.withArgName("dir");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("Activate IAN SCP, storing received IAN in a journal in specified directory.");
+        ian.addOption(OptionBuilder.create("ianjournal"));
         opts.addOptionGroup(ian);
 
         OptionGroup scn = new OptionGroup();
@@ -375,8 +459,37 @@ public class DcmOF {
         OptionBuilder
                 .withDescription("Activate SCN SCP, storing received SCN in specified directory in XML format.");
         scn.addOption(OptionBuilder.create("scnxml"));
+        OptionBuilder.withArgName("dir");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("Activate SCN SCP, storing received SCN in a journal in specified directory.");
+        scn.addOption(OptionBuilder.create("scnjournal"));
         opts.addOptionGroup(scn);
 
+        OptionBuilder.withArgName("num");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("maximum number of MPPS in progress kept in memory "
+                        + "for N-SET, " + MppsCache.DEF_CAPACITY
+                        + " by default. 0 loads the MPPS for every N-SET.");
+        opts.addOption(OptionBuilder.create("mppscache"));
+
+        OptionBuilder.withArgName("ms");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("delay in ms to collect further objects before "
+                        + "forcing objects stored in a journal to disk, "
+                        + Journal.DEF_SYNC_DELAY + " by default. -1 leaves "
+                        + "flushing to the operating system.");
+        opts.addOption(OptionBuilder.create("journalsync"));
+
+        OptionBuilder.withArgName("MB");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("maximum size of a journal segment file in MB, "
+                        + Journal.DEF_MAX_SEGMENT_SIZE / MB + " by default.");
+        opts.addOption(OptionBuilder.create("journalsegment"));
+
         opts.addOption("c", "compact", false,
                 "suppress additional whitespaces in XML output");
         opts.addOption("C", "comments", false,
@@ -397,6 +510,33 @@ public class DcmOF {
                         + "asynchronously, unlimited by default.");
         opts.addOption(OptionBuilder.create("async"));
 
+        OptionBuilder.withArgName("num");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("number of threads started in advance to serve associations, "
+                        + BoundedExecutor.DEF_CORE_POOL_SIZE + " by default. Idle threads "
+                        + "terminate after one minute if less than -poolmax.");
+        opts.addOption(OptionBuilder.create("poolcore"));
+
+        OptionBuilder.withArgName("num");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("maximum number of threads serving associations, "
+                        + BoundedExecutor.DEF_MAX_POOL_SIZE + " by default.");
+        opts.addOption(OptionBuilder.create("poolmax"));
+
+        OptionBuilder.withArgName("num");
+        OptionBuilder.hasArg();
+        OptionBuilder
+                .withDescription("maximum number of associations waiting for a thread "
+                        + "once -poolmax threads are busy, "
+                        + BoundedExecutor.DEF_QUEUE_CAPACITY + " by default. "
+                        + "Requests of further associations are answered with "
+                        + "a resources busy status by "
+                        + BoundedExecutor.DEF_BUSY_POOL_SIZE + " extra threads, "
+                        + "associations exceeding these are aborted.");
+        opts.addOption(OptionBuilder.create("poolqueue"));
+
         opts.addOption("pdv1", false,
                 "send only one PDV in one P-Data-TF PDU, " +
                 "pack command and data PDV in one P-DATA-TF PDU by default.");
@@ -484,8 +624,21 @@ public class DcmOF {
     @SuppressWarnings("unchecked")
     public static DcmOF main(String[] args) {
         CommandLine cl = parse(args);
+        int poolMax = cl.hasOption("poolmax")
+                ? parseInt(cl.getOptionValue("poolmax"),
+                        "illegal argument of option -poolmax", 1, 0xffff)
+                : BoundedExecutor.DEF_MAX_POOL_SIZE;
+        int poolCore = cl.hasOption("poolcore")
+                ? parseInt(cl.getOptionValue("poolcore"),
+                        "illegal argument of option -poolcore", 0, poolMax)
+                : Math.min(BoundedExecutor.DEF_CORE_POOL_SIZE, poolMax);
+        int poolQueue = cl.hasOption("poolqueue")
+                ? parseInt(cl.getOptionValue("poolqueue"),
+                        "illegal argument of option -poolqueue", 0, 0xffff)
+                : BoundedExecutor.DEF_QUEUE_CAPACITY;
         DcmOF dcmof = new DcmOF(cl.hasOption("device") 
-                ? cl.getOptionValue("device") : "DCMOF");
+                ? cl.getOptionValue("device") : "DCMOF", poolCore, poolMax,
+                poolQueue);
         final List<String> argList = cl.getArgList();
         String port = argList.get(0);
         String[] aetPort = split(port, ':', 1);
@@ -552,8 +705,14 @@ public class DcmOF {
         ArrayList<TransferCapability> tc = new ArrayList<TransferCapability>();
         tc.add(new TransferCapability(UID.VerificationSOPClass, ONLY_DEF_TS,
                 TransferCapability.SCP));
+        if (cl.hasOption("mppscache"))
+            dcmof.setMppsCacheCapacity(parseInt(
+                    cl.getOptionValue("mppscache"),
+                    "illegal argument of option -mppscache", 0, 0xffff));
         if (cl.hasOption("mwl"))
             dcmof.registerMWLSCP(new File(cl.getOptionValue("mwl")), tc);
+        if (cl.hasOption("mwldb"))
+            dcmof.registerMWLDBSCP(tc);
         if (cl.hasOption("mpps"))
             dcmof.registerMPPSSCP(new File(cl.getOptionValue("mpps")), tc);
         if (cl.hasOption("mppsxml"))
@@ -566,6 +725,30 @@ public class DcmOF {
             dcmof.registerSCNSCP(new File(cl.getOptionValue("scn")), tc);
         if (cl.hasOption("scnxml"))
             dcmof.registerSCNXMLSCP(new File(cl.getOptionValue("scnxml")), tc);
+        if (cl.hasOption("journalsync"))
+            dcmof.setJournalSyncDelay(parseInt(
+                    cl.getOptionValue("journalsync"),
+                    "illegal argument of option -journalsync", -1, 60000));
+        if (cl.hasOption("journalsegment"))
+            dcmof.setJournalMaxSegmentSize(parseInt(
+                    cl.getOptionValue("journalsegment"),
+                    "illegal argument of option -journalsegment", 1, 2047)
+                    * (long) MB);
+        try {
+            if (cl.hasOption("mppsjournal"))
+                dcmof.registerMPPSJournalSCP(
+                        new File(cl.getOptionValue("mppsjournal")), tc);
+            if (cl.hasOption("ianjournal"))
+                dcmof.registerIANJournalSCP(
+                        new File(cl.getOptionValue("ianjournal")), tc);
+            if (cl.hasOption("scnjournal"))
+                dcmof.registerSCNJournalSCP(
+                        new File(cl.getOptionValue("scnjournal")), tc);
+        } catch (IOException e) {
+            LOG.error("Failed to open journal", e);
+            dcmof.closeJournals();
+            return null;
+        }
         dcmof.setComments(cl.hasOption("C"));
         dcmof.setIndent(!cl.hasOption("c"));
 
@@ -645,13 +828,20 @@ public class DcmOF {
     }
 
     private void registerMWLSCP(File dir, ArrayList<TransferCapability> tc) {
-        MWLSCP mwlscp = new MWLSCP(executor, this);
+        MWLSCP mwlscp = new MWLSCP(rspExecutor, this);
         mwlscp.setSource(dir);
         ae.register(mwlscp);
         tc.add(new TransferCapability(mwlscp.getSopClass(), tsuids,
                 TransferCapability.SCP));
     }
 
+    private void registerMWLDBSCP(ArrayList<TransferCapability> tc) {
+        MWLSCP mwlscp = new MWLSCP.Database(rspExecutor, this);
+        ae.register(mwlscp);
+        tc.add(new TransferCapability(mwlscp.getSopClass(), tsuids,
+                TransferCapability.SCP));
+    }
+
     private void registerMPPSSCP(File dir, ArrayList<TransferCapability> tc) {
         register(new MPPSSCP(this), dir, tc);
     }
@@ -660,8 +850,20 @@ public class DcmOF {
         register(new MPPSSCP.XML(this), dir, tc);
     }
 
+    private void registerMPPSJournalSCP(File dir,
+            ArrayList<TransferCapability> tc) throws IOException {
+        MPPSSCP.Journaled mppsscp = new MPPSSCP.Journaled(this);
+        mppsscp.setJournal(openJournal(dir));
+        register(mppsscp, dir, tc);
+    }
+
+    private void setMppsCacheCapacity(int mppsCacheCapacity) {
+        this.mppsCacheCapacity = mppsCacheCapacity;
+    }
+
     private void register(MPPSSCP mppsscp, File dir, ArrayList<TransferCapability> tc) {
         mppsscp.setDestination(dir);
+        mppsscp.setCacheCapacity(mppsCacheCapacity);
         ae.register(mppsscp.getNCreateSCP());
         ae.register(mppsscp.getNSetSCP());
         tc.add(new TransferCapability(mppsscp.getNCreateSCP().getSopClass(),
@@ -677,6 +879,13 @@ public class DcmOF {
         register(new IANSCP(this), dir, tc);
     }
 
+    private void registerIANJournalSCP(File dir,
+            ArrayList<TransferCapability> tc) throws IOException {
+        IANSCP.Journaled ianscp = new IANSCP.Journaled(this);
+        ianscp.setJournal(openJournal(dir));
+        register(ianscp, dir, tc);
+    }
+
     private void register(IANSCP ianscp, File dir, ArrayList<TransferCapability> tc) {
         ianscp.setDestination(dir);
         ae.register(ianscp);
@@ -692,6 +901,28 @@ public class DcmOF {
         register(new SCNSCP.XML(this), dir, tc);
     }
 
+    private void registerSCNJournalSCP(File dir,
+            ArrayList<TransferCapability> tc) throws IOException {
+        SCNSCP.Journaled scnscp = new SCNSCP.Journaled(this);
+        scnscp.setJournal(openJournal(dir));
+        register(scnscp, dir, tc);
+    }
+
+    private Journal openJournal(File dir) throws IOException {
+        Journal journal = new Journal(dir, journalMaxSegmentSize,
+                journalSyncDelay, Journal.DEF_COMPACT_PERIOD);
+        journals.add(journal);
+        return journal;
+    }
+
+    private void setJournalSyncDelay(int journalSyncDelay) {
+        this.journalSyncDelay = journalSyncDelay;
+    }
+
+    private void setJournalMaxSegmentSize(long journalMaxSegmentSize) {
+        this.journalMaxSegmentSize = journalMaxSegmentSize;
+    }
+
     private void register(SCNSCP scnscp, File dir, ArrayList<TransferCapability> tc) {
         scnscp.setDestination(dir);
         ae.register(scnscp);
@@ -707,17 +938,49 @@ public class DcmOF {
         ae.setMaxOpsPerformed(maxOps);
     }
 
+    /**
+     * Starts listening for associations. The acceptor runs on a thread of its
+     * own, so it never occupies a thread of the pool and keeps accepting
+     * while all pool threads are serving associations. An association which
+     * neither the pool nor its busy threads can take is aborted.
+     */
     public void start() throws IOException {
-        device.startListening(executor);
+        executor.prestartCoreThreads();
+        final String acceptorName = device.getDeviceName() + "-ACCEPTOR";
+        device.startListening(new Executor() {
+
+            public void execute(Runnable command) {
+                if (!(command instanceof Association)) {
+                    new Thread(command, acceptorName).start();
+                    return;
+                }
+                try {
+                    executor.execute(command);
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("Abort association - " + executor);
+                    ((Association) command).abort();
+                }
+            }
+        });
         LOG.info("Order filler server listening on port " + nc.getPort());
     }
     
     public void stop() {
     	if (device != null)
     	device.stopListening();
-    	LOG.info("Order filler server stopped on "+ nc.getPort());
+    	executor.shutdown();
+    	rspExecutor.shutdown();
+    	closeJournals();
+    	LOG.info("Order filler server stopped on "+ nc.getPort() + " - " + executor
+    	        + ", responses: " + rspExecutor);
 	}
 
+    private void closeJournals() {
+        for (Journal journal : journals)
+            journal.close();
+        journals.clear();
+    }
+
     private static String[] split(String s, char delim, int defPos) {
         String[] s2 = new String[2];
         s2[defPos] = s;
@@ -74,6 +74,7 @@ class IANSCP extends NCreateService {
     @Override
     protected DicomObject doNCreate(Association as, int pcid, DicomObject rq,
             DicomObject data, DicomObject rsp) throws DicomServiceException {
+        dcmOF.checkBusy(rq, DcmOF.RESOURCE_LIMITATION);
         String iuid = rsp.getString(Tag.AffectedSOPInstanceUID);
         if (iuid == null) {
             iuid = UIDUtils.createUID();
@@ -108,4 +109,25 @@ class IANSCP extends NCreateService {
         }
     }
 
+    /**
+     * Stores the IAN in a {@link Journal} instead of one file per IAN.
+     */
+    static class Journaled extends IANSCP {
+
+        private Journal journal;
+
+        public Journaled(DcmOF dcmOF) {
+            super(dcmOF);
+        }
+
+        public final void setJournal(Journal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        protected void store(String iuid, DicomObject data) throws Exception {
+            journal.put(iuid, data);
+        }
+    }
+
 }
@@ -0,0 +1,673 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.io.DicomInputStream;
+import org.dcm4che2.io.DicomOutputStream;
+
+/**
+ * Append-only store of DICOM objects keyed by SOP Instance UID, used by the
+ * MPPS, IAN and SCN SCPs instead of one file per SOP instance.
+ * <p>
+ * Objects are appended as records to segment files of at most
+ * {@link #getMaxSegmentSize()} bytes. An in-memory index maps each SOP
+ * Instance UID to the record of its latest version, which is rebuilt by
+ * scanning the segments when the journal is opened. A torn record at the end
+ * of the last segment, e.g. after a crash, is truncated.
+ * <p>
+ * {@link #put(String, DicomObject)} returns once the record is forced to disk
+ * (group commit): a single sync thread forces all records appended since its
+ * last force, waiting up to the configured sync delay for further records
+ * first. A negative sync delay disables forcing and leaves flushing to the
+ * operating system.
+ * <p>
+ * Records superseded by a later version, e.g. of an MPPS updated by N-SET,
+ * are garbage. Full segments consisting mostly of garbage are compacted in
+ * the background by appending their live records to the current segment and
+ * deleting them.
+ */
+class Journal {
+
+    static final String SEGMENT_SUFFIX = ".jnl";
+
+    static final long DEF_MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    static final int DEF_SYNC_DELAY = 0;
+
+    static final long DEF_COMPACT_PERIOD = 60000L;
+
+    /** Maximum share of live bytes of a segment to be compacted. */
+    static final double COMPACT_THRESHOLD = 0.5;
+
+    /** Payload length, CRC32 of version and payload, version. */
+    private static final int HEADER_LENGTH = 4 + 4 + 8;
+
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    private final File dir;
+
+    private final long maxSegmentSize;
+
+    private final int syncDelay;
+
+    private final ConcurrentMap<String, Location> index =
+            new ConcurrentHashMap<String, Location>();
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments =
+            new ConcurrentSkipListMap<Integer, Segment>();
+
+    /** Guards appending records, the current segment and the index. */
+    private final Object writeLock = new Object();
+
+    private volatile Segment current;
+
+    private long nextVersion = 1;
+
+    /** Guards written, synced, syncFailure and closed. */
+    private final Object syncLock = new Object();
+
+    private long written;
+
+    private long synced;
+
+    private IOException syncFailure;
+
+    private boolean closed;
+
+    private final AtomicLong syncCount = new AtomicLong();
+
+    private final AtomicLong compactedSegmentCount = new AtomicLong();
+
+    private Thread syncer;
+
+    private ScheduledExecutorService compactor;
+
+    /**
+     * Opens the journal in given directory, recovering the index from the
+     * segments found there.
+     * 
+     * @param syncDelay milliseconds to wait for further records before
+     *            forcing appended records to disk, negative to not force
+     * @param compactPeriod milliseconds between compactions, 0 to not compact
+     *            in the background
+     */
+    public Journal(File dir, long maxSegmentSize, int syncDelay,
+            long compactPeriod) throws IOException {
+        if (maxSegmentSize <= HEADER_LENGTH || compactPeriod < 0)
+            throw new IllegalArgumentException("maxSegmentSize="
+                    + maxSegmentSize + ", compactPeriod=" + compactPeriod);
+        dir.mkdirs();
+        this.dir = dir;
+        this.maxSegmentSize = maxSegmentSize;
+        this.syncDelay = syncDelay;
+        recover();
+        if (syncDelay >= 0) {
+            syncer = new Thread(new Runnable() {
+
+                public void run() {
+                    runSyncer();
+                }
+            }, "journal-sync-" + dir.getName());
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        if (compactPeriod > 0) {
+            final String name = "journal-compact-" + dir.getName();
+            compactor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactory() {
+
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, name);
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            compactor.scheduleWithFixedDelay(new Runnable() {
+
+                public void run() {
+                    try {
+                        compact();
+                    } catch (Throwable e) {
+                        DcmOF.LOG.error("Compaction of " + Journal.this
+                                + " failed", e);
+                    }
+                }
+            }, compactPeriod, compactPeriod, TimeUnit.MILLISECONDS);
+        }
+        DcmOF.LOG.info("Opened " + this);
+    }
+
+    public final File getDirectory() {
+        return dir;
+    }
+
+    public final long getMaxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    public final int getSyncDelay() {
+        return syncDelay;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    public long getCompactedSegmentCount() {
+        return compactedSegmentCount.get();
+    }
+
+    public boolean contains(String iuid) {
+        return index.containsKey(iuid);
+    }
+
+    /**
+     * Returns the latest version of the object with given SOP Instance UID or
+     * <code>null</code> if there is none.
+     */
+    public DicomObject get(String iuid) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            Location location = index.get(iuid);
+            if (location == null)
+                return null;
+            try {
+                return decode(read(location));
+            } catch (ClosedChannelException e) {
+                // segment was compacted meanwhile, look up the copy
+                if (attempt == MAX_READ_ATTEMPTS)
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * Appends given object as latest version of the object with given SOP
+     * Instance UID and waits until it is forced to disk.
+     */
+    public void put(String iuid, DicomObject data) throws IOException {
+        byte[] payload = encode(iuid, data);
+        long seq;
+        synchronized (writeLock) {
+            ensureOpen();
+            ByteBuffer record = record(nextVersion++, payload);
+            append(iuid, record);
+            seq = appended();
+        }
+        awaitSync(seq);
+    }
+
+    /**
+     * Compacts the full segments whose share of live bytes is at most
+     * {@link #COMPACT_THRESHOLD}.
+     * 
+     * @return number of compacted segments
+     */
+    int compact() throws IOException {
+        int count = 0;
+        for (Segment segment : segments.values()) {
+            if (segment != current && segment.liveBytes.get()
+                    <= segment.size * COMPACT_THRESHOLD) {
+                compact(segment);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void compact(Segment segment) throws IOException {
+        List<Map.Entry<String, Location>> live =
+                new ArrayList<Map.Entry<String, Location>>();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == segment)
+                live.add(entry);
+        }
+        long seq = 0;
+        for (Map.Entry<String, Location> entry : live) {
+            synchronized (writeLock) {
+                ensureOpen();
+                // skip objects updated since collecting them
+                if (index.get(entry.getKey()) == entry.getValue()) {
+                    append(entry.getKey(), read(entry.getValue()));
+                    seq = appended();
+                }
+            }
+        }
+        if (seq > 0)
+            awaitSync(seq);
+        synchronized (writeLock) {
+            segments.remove(segment.id);
+            segment.close();
+        }
+        if (!segment.file.delete())
+            DcmOF.LOG.warn("Failed to delete compacted " + segment.file);
+        compactedSegmentCount.incrementAndGet();
+        DcmOF.LOG.info("Compacted " + segment.file + ", moved "
+                + live.size() + " objects");
+    }
+
+    /**
+     * Stops the background threads, forces and closes all segments.
+     */
+    public void close() {
+        if (compactor != null)
+            compactor.shutdownNow();
+        synchronized (syncLock) {
+            if (closed)
+                return;
+            closed = true;
+            syncLock.notifyAll();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            for (Segment segment : segments.values()) {
+                try {
+                    if (syncDelay >= 0)
+                        segment.channel.force(false);
+                } catch (IOException e) {
+                    DcmOF.LOG.warn("Failed to force " + segment.file, e);
+                }
+                segment.close();
+            }
+        }
+        DcmOF.LOG.info("Closed " + this);
+    }
+
+    private void ensureOpen() throws IOException {
+        synchronized (syncLock) {
+            if (closed)
+                throw new IOException("Closed " + this);
+        }
+    }
+
+    /**
+     * Appends given record as latest version of given SOP Instance UID.
+     * Caller must hold the write lock.
+     */
+    private void append(String iuid, ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        Segment segment = current;
+        if (segment.size > 0 && segment.size + length > maxSegmentSize)
+            segment = roll();
+        long offset = segment.size;
+        while (record.hasRemaining())
+            segment.channel.write(record, offset + record.position());
+        segment.size += length;
+        segment.liveBytes.addAndGet(length);
+        record.rewind();
+        Location prev = index.put(iuid,
+                new Location(segment, offset, length, record.getLong(8)));
+        if (prev != null)
+            prev.segment.liveBytes.addAndGet(-prev.length);
+    }
+
+    private long appended() {
+        synchronized (syncLock) {
+            long seq = ++written;
+            syncLock.notifyAll();
+            return seq;
+        }
+    }
+
+    /**
+     * Starts a new segment, forcing the current one. Caller must hold the
+     * write lock.
+     */
+    private Segment roll() throws IOException {
+        Segment prev = current;
+        if (syncDelay >= 0)
+            prev.channel.force(false);
+        Segment segment = new Segment(prev.id + 1, segmentFile(prev.id + 1));
+        segments.put(segment.id, segment);
+        current = segment;
+        return segment;
+    }
+
+    private void awaitSync(long seq) throws IOException {
+        if (syncDelay < 0)
+            return;
+        synchronized (syncLock) {
+            while (synced < seq) {
+                if (syncFailure != null)
+                    throw syncFailure;
+                if (closed)
+                    throw new IOException("Closed " + this);
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for sync of "
+                            + this);
+                }
+            }
+        }
+    }
+
+    private void runSyncer() {
+        for (;;) {
+            synchronized (syncLock) {
+                while (written == synced && !closed) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (written == synced)
+                    return;
+            }
+            if (syncDelay > 0) {
+                try {
+                    Thread.sleep(syncDelay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            long target;
+            synchronized (syncLock) {
+                target = written;
+            }
+            // records of previous segments were forced on roll
+            IOException failure = null;
+            try {
+                current.channel.force(false);
+                syncCount.incrementAndGet();
+            } catch (IOException e) {
+                DcmOF.LOG.error("Failed to force " + current.file, e);
+                failure = e;
+            }
+            synchronized (syncLock) {
+                if (failure != null)
+                    syncFailure = failure;
+                else
+                    synced = target;
+                syncLock.notifyAll();
+            }
+            if (failure != null)
+                return;
+        }
+    }
+
+    private ByteBuffer read(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(location.length);
+        FileChannel channel = location.segment.channel;
+        while (record.hasRemaining()) {
+            if (channel.read(record, location.offset + record.position()) < 0)
+                throw new EOFException("Truncated record in "
+                        + location.segment.file);
+        }
+        record.flip();
+        if (record.getInt(0) != location.length - HEADER_LENGTH
+                || record.getInt(4) != crc(record))
+            throw new IOException("Corrupt record in " + location.segment.file
+                    + " at " + location.offset);
+        return record;
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles();
+        List<Integer> ids = new ArrayList<Integer>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        ids.add(Integer.valueOf(name.substring(0,
+                                name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        DcmOF.LOG.warn("Ignoring " + file);
+                    }
+                }
+            }
+        }
+        Integer[] sorted = ids.toArray(new Integer[ids.size()]);
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            Segment segment = new Segment(sorted[i], segmentFile(sorted[i]));
+            segments.put(segment.id, segment);
+            scan(segment, i == sorted.length - 1);
+        }
+        if (segments.isEmpty()) {
+            Segment segment = new Segment(1, segmentFile(1));
+            segments.put(segment.id, segment);
+        }
+        current = segments.lastEntry().getValue();
+    }
+
+    /**
+     * Adds the records of given segment to the index, truncating a torn
+     * record at the end of the last segment.
+     */
+    private void scan(Segment segment, boolean last) throws IOException {
+        long fileLength = segment.channel.size();
+        long offset = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(segment.file)));
+        try {
+            while (offset + HEADER_LENGTH <= fileLength) {
+                int payloadLength = in.readInt();
+                if (payloadLength <= 0
+                        || offset + HEADER_LENGTH + payloadLength > fileLength)
+                    break;
+                ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH
+                        + payloadLength);
+                record.putInt(payloadLength);
+                in.readFully(record.array(), 4, record.capacity() - 4);
+                if (record.getInt(4) != crc(record))
+                    break;
+                long version = record.getLong(8);
+                String iuid = readIUID(record);
+                int length = record.capacity();
+                Location prev = index.get(iuid);
+                if (prev == null || prev.version < version) {
+                    index.put(iuid, new Location(segment, offset, length,
+                            version));
+                    segment.liveBytes.addAndGet(length);
+                    if (prev != null)
+                        prev.segment.liveBytes.addAndGet(-prev.length);
+                }
+                nextVersion = Math.max(nextVersion, version + 1);
+                offset += length;
+            }
+        } finally {
+            in.close();
+        }
+        if (offset < fileLength) {
+            if (last) {
+                DcmOF.LOG.warn("Truncating torn record in " + segment.file
+                        + " at " + offset);
+                segment.channel.truncate(offset);
+            } else {
+                DcmOF.LOG.warn("Ignoring corrupt records in " + segment.file
+                        + " from " + offset);
+            }
+        }
+        segment.size = offset;
+    }
+
+    private File segmentFile(int id) {
+        return new File(dir, String.format("%08d", id) + SEGMENT_SUFFIX);
+    }
+
+    private static ByteBuffer record(long version, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        record.putInt(payload.length);
+        record.putInt(0);
+        record.putLong(version);
+        record.put(payload);
+        record.putInt(4, crc(record));
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Returns the CRC32 of version and payload of given record.
+     */
+    private static int crc(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, record.capacity() - 8);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(String iuid, DicomObject data)
+            throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bout);
+        out.writeUTF(iuid);
+        DicomOutputStream dout = new DicomOutputStream(out);
+        dout.writeDicomFile(data);
+        dout.close();
+        return bout.toByteArray();
+    }
+
+    private static String readIUID(ByteBuffer record) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(record.array(),
+                HEADER_LENGTH, record.capacity() - HEADER_LENGTH)).readUTF();
+    }
+
+    private static DicomObject decode(ByteBuffer record) throws IOException {
+        ByteArrayInputStream bin = new ByteArrayInputStream(record.array(),
+                HEADER_LENGTH, record.capacity() - HEADER_LENGTH);
+        new DataInputStream(bin).readUTF();
+        DicomInputStream in = new DicomInputStream(bin);
+        try {
+            return in.readDicomObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Journal[dir=" + dir + ", objects=" + size() + ", segments="
+                + getSegmentCount() + ", syncDelay=" + syncDelay
+                + ", syncs=" + getSyncCount() + ", compacted="
+                + getCompactedSegmentCount() + "]";
+    }
+
+    private static final class Segment {
+
+        final int id;
+
+        final File file;
+
+        final RandomAccessFile raf;
+
+        final FileChannel channel;
+
+        /** Written by the appending thread holding the write lock. */
+        volatile long size;
+
+        final AtomicLong liveBytes = new AtomicLong();
+
+        Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+        }
+
+        void close() {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                DcmOF.LOG.warn("Failed to close " + file, e);
+            }
+        }
+    }
+
+    private static final class Location {
+
+        final Segment segment;
+
+        final long offset;
+
+        final int length;
+
+        final long version;
+
+        Location(Segment segment, long offset, int length, long version) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.version = version;
+        }
+    }
+}
@@ -39,6 +39,7 @@
 package org.dcm4che2.tool.dcmof;
 
 import java.io.File;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.log4j.Logger;
 import org.dcm4che2.data.DicomObject;
@@ -51,7 +52,7 @@ import org.dcm4che2.net.service.DicomService;
 import org.dcm4che2.net.service.NCreateService;
 import org.dcm4che2.net.service.NSetService;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.radiology.DicomUtils;
+import org.openmrs.module.radiology.MppsStatusUpdateQueue;
 
 /**
  * @author gunter zeilinger(gunterze@gmail.com)
@@ -91,6 +92,14 @@ class MPPSSCP {
 	protected final DcmOF dcmOF;
 	protected File destination;
 
+	/**
+	 * Serializes N-CREATE and N-SET of the same MPPS, e.g. of a retransmitting
+	 * modality, while other MPPS are processed in parallel.
+	 */
+	private final StripedLock locks = new StripedLock(StripedLock.DEF_STRIPES);
+
+	private MppsCache cache = new MppsCache(MppsCache.DEF_CAPACITY);
+
 	public MPPSSCP(DcmOF dcmOF) {
 		this.dcmOF = dcmOF;
 	}
@@ -108,50 +117,88 @@ class MPPSSCP {
 		return nsetscp;
 	}
 
-	private DicomObject doNCreate(DicomObject rq, DicomObject data,
+	/**
+	 * Sets the maximal number of MPPS in progress kept in memory for N-SET,
+	 * 0 to load the MPPS for every N-SET.
+	 */
+	public final void setCacheCapacity(int capacity) {
+		this.cache = new MppsCache(capacity);
+	}
+
+	public final MppsCache getCache() {
+		return cache;
+	}
+
+	DicomObject doNCreate(DicomObject rq, DicomObject data,
 			DicomObject rsp) throws DicomServiceException {
+		dcmOF.checkBusy(rq, DcmOF.RESOURCE_LIMITATION);
 		String iuid = rq.getString(Tag.AffectedSOPInstanceUID);
 		if (iuid == null)
 			iuid = rsp.getString(Tag.AffectedSOPInstanceUID);
-		File f = mkFile(iuid);
-		if (f.exists()) {
-			throw new DicomServiceException(rq, Status.DuplicateSOPinstance);
-		}
-		data.initFileMetaInformation(
-				UID.ModalityPerformedProcedureStepSOPClass, iuid,
-				UID.ExplicitVRLittleEndian);
+		Lock lock = locks.get(iuid);
+		lock.lock();
 		try {
-			store(f, data);
+			if (cache.contains(iuid) || exists(iuid)) {
+				throw new DicomServiceException(rq, Status.DuplicateSOPinstance);
+			}
+			data.initFileMetaInformation(
+					UID.ModalityPerformedProcedureStepSOPClass, iuid,
+					UID.ExplicitVRLittleEndian);
+			if (!updateStudy(data)) {
+				throw new DicomServiceException(rq,
+						DcmOF.RESOURCE_LIMITATION);
+			}
 			try {
-				Context.openSession();
-				DicomUtils.updateStudyPerformedStatusByMpps(data);
+				store(iuid, data);
+				cache.update(iuid, data);
 			} catch (Exception e) {
-				debug("Can not update database with");
-				debug(data.toString());
-				e.printStackTrace();
-			}finally{
-				Context.closeSession();
+				throw new DicomServiceException(rq, Status.ProcessingFailure);
 			}
-		} catch (Exception e) {
-			throw new DicomServiceException(rq, Status.ProcessingFailure);
+		} finally {
+			lock.unlock();
 		}
 		return null;
 	}
 
+	protected boolean exists(String iuid) {
+		return mkFile(iuid).exists();
+	}
+
+	protected DicomObject load(String iuid) throws Exception {
+		return dcmOF.load(mkFile(iuid));
+	}
+
+	protected void store(String iuid, DicomObject data) throws Exception {
+		store(mkFile(iuid), data);
+	}
+
 	protected void store(File f, DicomObject data) throws Exception {
 		dcmOF.storeAsDICOM(f, data);
 	}
 
-	private DicomObject doNSet(DicomObject rq, DicomObject data)
+	DicomObject doNSet(DicomObject rq, DicomObject data)
 			throws DicomServiceException {
+		dcmOF.checkBusy(rq, DcmOF.RESOURCE_LIMITATION);
 		final String iuid = rq.getString(Tag.RequestedSOPInstanceUID);
-		File f = mkFile(iuid);
-		if (!f.exists()) {
+		Lock lock = locks.get(iuid);
+		lock.lock();
+		try {
+			return doNSet(rq, data, iuid);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private DicomObject doNSet(DicomObject rq, DicomObject data, String iuid)
+			throws DicomServiceException {
+		DicomObject mpps = cache.get(iuid);
+		if (mpps == null && !exists(iuid)) {
 			throw new DicomServiceException(rq, Status.NoSuchObjectInstance,
 					iuid);
 		}
 		try {
-			DicomObject mpps = dcmOF.load(f);
+			if (mpps == null)
+				mpps = load(iuid);
 			String status = mpps.getString(Tag.PerformedProcedureStepStatus);
 			if (!"IN PROGRESS".equals(status)) {
 				DicomServiceException ex = new DicomServiceException(rq,
@@ -161,17 +208,20 @@ class MPPSSCP {
 				throw ex;
 			}
 			data.copyTo(mpps);
-			store(f, mpps);
+			if (!updateStudy(mpps)) {
+				// the cached mpps was modified, reload it on next N-SET
+				cache.remove(iuid);
+				throw new DicomServiceException(rq,
+						DcmOF.RESOURCE_LIMITATION);
+			}
 			try {
-				Context.openSession();
-				DicomUtils.updateStudyPerformedStatusByMpps(mpps);
+				store(iuid, mpps);
 			} catch (Exception e) {
-				debug("Can not update database with");
-				debug(mpps.toString());
-				e.printStackTrace();
-			}finally{
-				Context.closeSession();
+				// the cached mpps was modified, reload it on next N-SET
+				cache.remove(iuid);
+				throw e;
 			}
+			cache.update(iuid, mpps);
 		} catch (DicomServiceException e) {
 			throw e;
 		} catch (Exception e) {
@@ -181,6 +231,31 @@ class MPPSSCP {
 		return null;
 	}
 
+	/**
+	 * Hands the Performed Procedure Step Status of the MPPS over to the
+	 * database update queue, so the response is not held back by the
+	 * database. Called while holding the lock of the MPPS and before the
+	 * MPPS is stored, so the status changes of one MPPS are queued in the
+	 * order they were received and a refused MPPS can be sent again.
+	 * 
+	 * @return false if the queue stayed full, so the MPPS has to be refused
+	 *         with a resource limitation instead of holding the lock
+	 */
+	protected boolean updateStudy(DicomObject mpps) {
+		try {
+			Context.openSession();
+			return Context.getRegisteredComponent("mppsStatusUpdateQueue",
+					MppsStatusUpdateQueue.class).offer(mpps);
+		} catch (Exception e) {
+			debug("Can not update database with");
+			debug(mpps.toString());
+			e.printStackTrace();
+			return true;
+		} finally {
+			Context.closeSession();
+		}
+	}
+
 	protected File mkFile(String iuid) {
 		return new File(destination, iuid);
 	}
@@ -202,4 +277,35 @@ class MPPSSCP {
 		}
 	}
 
+	/**
+	 * Stores the MPPS in a {@link Journal} instead of one file per MPPS.
+	 */
+	static class Journaled extends MPPSSCP {
+
+		private Journal journal;
+
+		public Journaled(DcmOF dcmOF) {
+			super(dcmOF);
+		}
+
+		public final void setJournal(Journal journal) {
+			this.journal = journal;
+		}
+
+		@Override
+		protected boolean exists(String iuid) {
+			return journal.contains(iuid);
+		}
+
+		@Override
+		protected DicomObject load(String iuid) throws Exception {
+			return journal.get(iuid);
+		}
+
+		@Override
+		protected void store(String iuid, DicomObject data) throws Exception {
+			journal.put(iuid, data);
+		}
+	}
+
 }
@@ -39,6 +39,7 @@
 package org.dcm4che2.tool.dcmof;
 
 import java.io.File;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.dcm4che2.data.DicomObject;
@@ -46,7 +47,10 @@ import org.dcm4che2.data.UID;
 import org.dcm4che2.net.Association;
 import org.dcm4che2.net.DicomServiceException;
 import org.dcm4che2.net.DimseRSP;
+import org.dcm4che2.net.Status;
 import org.dcm4che2.net.service.CFindService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.DicomUtils;
 
 /**
  * @author gunter zeilinger(gunterze@gmail.com)
@@ -58,6 +62,7 @@ import org.dcm4che2.net.service.CFindService;
 class MWLSCP extends CFindService {
     protected final DcmOF dcmOF;
     protected File source;
+    protected WorklistStore store;
 
     public MWLSCP(Executor executor, DcmOF dcmOF) {
         super(UID.ModalityWorklistInformationModelFIND, executor);
@@ -67,11 +72,48 @@ class MWLSCP extends CFindService {
     public final void setSource(File source) {
         source.mkdirs();
         this.source = source;
+        this.store = new WorklistStore(dcmOF, source);
+        this.store.refresh();
+    }
+
+    public final WorklistStore getStore() {
+        return store;
     }
 
     @Override
     protected DimseRSP doCFind(Association as, int pcid, DicomObject cmd,
             DicomObject keys, DicomObject rsp) throws DicomServiceException {
-        return new MultiFindRSP(dcmOF, keys, rsp, source);
+        dcmOF.checkBusy(cmd, DcmOF.OUT_OF_RESOURCES);
+        return new MultiFindRSP(keys, rsp, store.query(keys));
+    }
+
+    /**
+     * MWL SCP answering C-FIND requests with the worklist items of the
+     * scheduled radiology orders, selected by a database query translated
+     * from the matching keys.
+     */
+    static class Database extends MWLSCP {
+
+        public Database(Executor executor, DcmOF dcmOF) {
+            super(executor, dcmOF);
+        }
+
+        @Override
+        protected DimseRSP doCFind(Association as, int pcid, DicomObject cmd,
+                DicomObject keys, DicomObject rsp)
+                throws DicomServiceException {
+            dcmOF.checkBusy(cmd, DcmOF.OUT_OF_RESOURCES);
+            List<DicomObject> items;
+            try {
+                Context.openSession();
+                items = DicomUtils.getModalityWorklistItems(keys);
+            } catch (Exception e) {
+                throw new DicomServiceException(cmd, Status.ProcessingFailure,
+                        e.getMessage());
+            } finally {
+                Context.closeSession();
+            }
+            return new MultiFindRSP(keys, rsp, items);
+        }
     }
 }
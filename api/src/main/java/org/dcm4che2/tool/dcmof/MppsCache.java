@@ -0,0 +1,152 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+
+/**
+ * Bounded cache of the MPPS in progress, keyed by SOP Instance UID, which
+ * saves {@link MPPSSCP} from loading the MPPS for every N-SET. MPPS which are
+ * completed or discontinued are removed, as they may no longer be updated;
+ * beyond {@link #getCapacity()} the least recently used MPPS is evicted.
+ * <p>
+ * The cache is filled lazily: an MPPS which is not cached, e.g. after a
+ * restart, is loaded by the SCP and cached afterwards. Cached objects are
+ * updated in place, so callers must hold the lock of the MPPS and remove it if
+ * storing it fails.
+ */
+class MppsCache {
+
+    static final int DEF_CAPACITY = 1000;
+
+    static final String IN_PROGRESS = "IN PROGRESS";
+
+    private final int capacity;
+
+    private final LinkedHashMap<String, DicomObject> map;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    public MppsCache(final int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity=" + capacity);
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<String, DicomObject>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, DicomObject> eldest) {
+                if (size() <= capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public final int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the cached MPPS with given SOP Instance UID or
+     * <code>null</code> if it is not cached.
+     */
+    public synchronized DicomObject get(String iuid) {
+        DicomObject mpps = map.get(iuid);
+        if (mpps != null)
+            hits++;
+        else
+            misses++;
+        return mpps;
+    }
+
+    public synchronized boolean contains(String iuid) {
+        return map.containsKey(iuid);
+    }
+
+    /**
+     * Caches given MPPS if it is in progress, otherwise removes it.
+     */
+    public synchronized void update(String iuid, DicomObject mpps) {
+        if (capacity > 0
+                && IN_PROGRESS.equals(mpps.getString(
+                        Tag.PerformedProcedureStepStatus)))
+            map.put(iuid, mpps);
+        else
+            map.remove(iuid);
+    }
+
+    public synchronized void remove(String iuid) {
+        map.remove(iuid);
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MppsCache[size=" + map.size() + "/" + capacity + ", hits="
+                + hits + ", misses=" + misses + ", evictions=" + evictions
+                + "]";
+    }
+}
@@ -39,6 +39,7 @@
 package org.dcm4che2.tool.dcmof;
 
 import java.io.File;
+import java.util.List;
 
 import org.dcm4che2.data.DicomObject;
 import org.dcm4che2.data.Tag;
@@ -57,6 +58,8 @@ class MultiFindRSP implements DimseRSP {
 
     private final DcmOF dcmOF;
     private File[] files;
+    private List<DicomObject> items;
+    private boolean canceled;
     private int cur = 0;
     private DicomObject rsp;
     private DicomObject keys;
@@ -75,15 +78,36 @@ class MultiFindRSP implements DimseRSP {
         }
     }
 
+    /**
+     * Creates a response which matches the keys against the given worklist
+     * items, e.g. the candidates selected by a {@link WorklistStore}. The
+     * items are shared and therefore must not be modified.
+     */
+    public MultiFindRSP(DicomObject keys, DicomObject rsp,
+            List<DicomObject> items) {
+        this.dcmOF = null;
+        this.keys = keys;
+        // always return Specific Character Set
+        if (!keys.contains(Tag.SpecificCharacterSet))
+            keys.putNull(Tag.SpecificCharacterSet, VR.CS);
+        this.rsp = rsp;
+        this.items = items;
+    }
+
+    private DicomObject nextItem() throws Exception {
+        if (items != null)
+            return cur < items.size() ? items.get(cur++) : null;
+        return cur < files.length ? dcmOF.load(files[cur++]) : null;
+    }
+
     public synchronized boolean next() {
         if (cur < 0)
             return false;
-        if (files == null) {
+        if (canceled) {
             rsp.putInt(Tag.Status, VR.US, Status.Cancel);
         } else {
             try {
-                while (cur < files.length) {
-                    mwl = dcmOF.load(files[cur++]);
+                while ((mwl = nextItem()) != null) {
                     if (mwl.matches(keys, true)) {
                         // always return Specific Character Set
                         if (!mwl.contains(Tag.SpecificCharacterSet))
@@ -113,7 +137,7 @@ class MultiFindRSP implements DimseRSP {
     }
 
     public synchronized void cancel(Association a) {
-        files = null;
+        canceled = true;
     }
 
 }
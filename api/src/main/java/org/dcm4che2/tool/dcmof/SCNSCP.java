@@ -105,4 +105,25 @@ class SCNSCP extends StorageService
             dcmOF.storeAsXML(new File(destination, iuid + ".xml"), data);
         }
     }
+
+    /**
+     * Stores the SCN in a {@link Journal} instead of one file per SCN.
+     */
+    static class Journaled extends SCNSCP {
+
+        private Journal journal;
+
+        public Journaled(DcmOF dcmOF) {
+            super(dcmOF);
+        }
+
+        public final void setJournal(Journal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        protected void store(String iuid, DicomObject data) throws Exception {
+            journal.put(iuid, data);
+        }
+    }
 }
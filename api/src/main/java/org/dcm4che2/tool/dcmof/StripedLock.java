@@ -0,0 +1,97 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed number of locks shared by an unbounded number of keys, e.g. SOP
+ * Instance UIDs. Operations on the same key are serialized, operations on
+ * keys mapped to different stripes run in parallel. Keys mapped to the same
+ * stripe are serialized as well, which is harmless as long as the number of
+ * stripes exceeds the number of concurrently processed keys.
+ */
+class StripedLock {
+
+    static final int DEF_STRIPES = 64;
+
+    private final Lock[] locks;
+
+    private final int mask;
+
+    /**
+     * Creates a striped lock with the smallest power of two stripes not less
+     * than the given number.
+     */
+    public StripedLock(int stripes) {
+        if (stripes < 1 || stripes > 1 << 16)
+            throw new IllegalArgumentException("stripes=" + stripes);
+        int n = 1;
+        while (n < stripes)
+            n <<= 1;
+        locks = new Lock[n];
+        for (int i = 0; i < n; i++)
+            locks[i] = new ReentrantLock();
+        mask = n - 1;
+    }
+
+    public int getStripes() {
+        return locks.length;
+    }
+
+    /**
+     * Returns the lock of given key.
+     */
+    public Lock get(String key) {
+        if (key == null)
+            throw new NullPointerException("key");
+        return locks[index(key.hashCode())];
+    }
+
+    /**
+     * Spreads the bits of the hash code, UIDs sharing their root differ
+     * mostly in their last characters.
+     */
+    private int index(int h) {
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return h & mask;
+    }
+}
@@ -0,0 +1,429 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package org.dcm4che2.tool.dcmof;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.dcm4che2.data.DicomElement;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+
+/**
+ * Resident store of the Modality Worklist items found in the worklist
+ * directory of the Order Filler.
+ * <p>
+ * Items are loaded once and kept current by an incremental rescan of the
+ * directory which only re-reads new or modified files. The store maintains
+ * indexes on Scheduled Station AE Title, Modality, Scheduled Procedure Step
+ * Start Date, Patient ID and Accession Number. {@link #query(DicomObject)}
+ * uses the most selective index applicable to the C-FIND keys to select the
+ * candidate items, so the cost of a query depends on the number of candidates
+ * rather than on the number of items in the directory. Candidates still have
+ * to be matched against the keys by the caller.
+ */
+class WorklistStore {
+
+    static final long DEF_REFRESH_INTERVAL = 5000L;
+
+    private final DcmOF dcmOF;
+
+    private final File source;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private static final int PATIENT_ID = 0;
+
+    private static final int ACCESSION_NUMBER = 1;
+
+    private static final int SCHEDULED_STATION_AET = 2;
+
+    private static final int MODALITY = 3;
+
+    private static final int SPS_START_DATE = 4;
+
+    private static final int INDEXES = 5;
+
+    private final Index[] indexes = { new Index(), new Index(), new Index(),
+            new Index(), new DateIndex() };
+
+    private volatile long refreshInterval = DEF_REFRESH_INTERVAL;
+
+    private volatile long lastRefresh;
+
+    public WorklistStore(DcmOF dcmOF, File source) {
+        this.dcmOF = dcmOF;
+        this.source = source;
+    }
+
+    public final File getSource() {
+        return source;
+    }
+
+    public final long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public final void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the worklist items which are candidates for matching the given
+     * C-FIND keys. The directory is rescanned first if the refresh interval
+     * elapsed since the last scan.
+     */
+    public List<DicomObject> query(DicomObject keys) {
+        if (System.currentTimeMillis() - lastRefresh >= refreshInterval)
+            refresh();
+        String[][] values = new String[INDEXES][];
+        values[PATIENT_ID] = keys.getStrings(Tag.PatientID);
+        values[ACCESSION_NUMBER] = keys.getStrings(Tag.AccessionNumber);
+        DicomObject sps = keys.getNestedDicomObject(
+                Tag.ScheduledProcedureStepSequence);
+        if (sps != null) {
+            values[SCHEDULED_STATION_AET] =
+                    sps.getStrings(Tag.ScheduledStationAETitle);
+            values[MODALITY] = sps.getStrings(Tag.Modality);
+            values[SPS_START_DATE] =
+                    sps.getStrings(Tag.ScheduledProcedureStepStartDate);
+        }
+        lock.readLock().lock();
+        try {
+            Collection<Entry> candidates = entries.values();
+            int best = -1;
+            int min = candidates.size();
+            for (int i = 0; i < INDEXES; i++) {
+                int estimate = indexes[i].estimate(values[i]);
+                if (estimate >= 0 && estimate < min) {
+                    best = i;
+                    min = estimate;
+                }
+            }
+            if (best >= 0)
+                candidates = indexes[best].select(values[best]);
+            List<DicomObject> result = new ArrayList<DicomObject>(
+                    candidates.size());
+            for (Entry entry : candidates)
+                result.add(entry.mwl);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Synchronizes the store with the worklist directory. Only files which
+     * were added or modified since the last scan are read; items of deleted
+     * files are removed. Concurrent callers do not wait for a refresh which
+     * is already running.
+     */
+    public void refresh() {
+        if (!refreshLock.tryLock())
+            return;
+        try {
+            File[] files = source.listFiles();
+            if (files == null)
+                files = new File[0];
+            List<Entry> loaded = new ArrayList<Entry>();
+            Set<String> present = new HashSet<String>();
+            for (File f : files) {
+                if (!f.isFile())
+                    continue;
+                String name = f.getName();
+                present.add(name);
+                Entry prev = get(name);
+                long lastModified = f.lastModified();
+                long length = f.length();
+                if (prev != null && prev.lastModified == lastModified
+                        && prev.length == length)
+                    continue;
+                try {
+                    loaded.add(new Entry(name, lastModified, length,
+                            normalize(dcmOF.load(f))));
+                } catch (Exception e) {
+                    DcmOF.LOG.warn("Failed to load worklist item " + f, e);
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                for (Entry entry : new ArrayList<Entry>(entries.values()))
+                    if (!present.contains(entry.name))
+                        remove(entry);
+                for (Entry entry : loaded)
+                    add(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastRefresh = System.currentTimeMillis();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Entry get(String name) {
+        lock.readLock().lock();
+        try {
+            return entries.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static DicomObject normalize(DicomObject mwl) {
+        // always return Specific Character Set
+        if (!mwl.contains(Tag.SpecificCharacterSet))
+            mwl.putNull(Tag.SpecificCharacterSet, VR.CS);
+        return mwl;
+    }
+
+    private void add(Entry entry) {
+        Entry prev = entries.put(entry.name, entry);
+        if (prev != null)
+            unindex(prev);
+        DicomObject mwl = entry.mwl;
+        indexes[PATIENT_ID].add(mwl.getString(Tag.PatientID), entry);
+        indexes[ACCESSION_NUMBER].add(mwl.getString(Tag.AccessionNumber),
+                entry);
+        DicomElement spsSeq = mwl.get(Tag.ScheduledProcedureStepSequence);
+        int n = spsSeq != null ? spsSeq.countItems() : 0;
+        if (n == 0) {
+            indexes[SCHEDULED_STATION_AET].add(null, entry);
+            indexes[MODALITY].add(null, entry);
+            indexes[SPS_START_DATE].add(null, entry);
+        }
+        for (int i = 0; i < n; i++) {
+            DicomObject sps = spsSeq.getDicomObject(i);
+            indexes[SCHEDULED_STATION_AET].add(
+                    sps.getString(Tag.ScheduledStationAETitle), entry);
+            indexes[MODALITY].add(sps.getString(Tag.Modality), entry);
+            indexes[SPS_START_DATE].add(
+                    sps.getString(Tag.ScheduledProcedureStepStartDate), entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.name);
+        unindex(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (Index index : indexes)
+            index.remove(entry);
+    }
+
+    private static final class Entry {
+        final String name;
+        final long lastModified;
+        final long length;
+        final DicomObject mwl;
+
+        Entry(String name, long lastModified, long length, DicomObject mwl) {
+            this.name = name;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.mwl = mwl;
+        }
+    }
+
+    /**
+     * Index of worklist items by the values of one attribute. Items without
+     * a value for the attribute are kept in a separate set which is part of
+     * every selection, so a selection never misses an item which may match.
+     */
+    private static class Index {
+        final NavigableMap<String, Set<Entry>> map =
+                new TreeMap<String, Set<Entry>>();
+        final Set<Entry> unvalued = new HashSet<Entry>();
+        final Map<Entry, List<String>> valuesOf =
+                new HashMap<Entry, List<String>>();
+
+        void add(String value, Entry entry) {
+            value = indexValue(value);
+            if (value == null) {
+                unvalued.add(entry);
+                return;
+            }
+            Set<Entry> set = map.get(value);
+            if (set == null)
+                map.put(value, set = new HashSet<Entry>());
+            if (set.add(entry)) {
+                List<String> values = valuesOf.get(entry);
+                if (values == null)
+                    valuesOf.put(entry, values = new ArrayList<String>(1));
+                values.add(value);
+            }
+        }
+
+        String indexValue(String value) {
+            return value == null || value.length() == 0 ? null : value;
+        }
+
+        void remove(Entry entry) {
+            unvalued.remove(entry);
+            List<String> values = valuesOf.remove(entry);
+            if (values == null)
+                return;
+            for (String value : values) {
+                Set<Entry> set = map.get(value);
+                set.remove(entry);
+                if (set.isEmpty())
+                    map.remove(value);
+            }
+        }
+
+        /**
+         * Returns the number of candidates selected by the given key values,
+         * or -1 if the index cannot be used for these key values.
+         */
+        int estimate(String[] values) {
+            if (!usable(values))
+                return -1;
+            int count = unvalued.size();
+            for (String value : values)
+                for (Set<Entry> set : lookup(value))
+                    count += set.size();
+            return count;
+        }
+
+        Collection<Entry> select(String[] values) {
+            Set<Entry> result = new HashSet<Entry>(unvalued);
+            for (String value : values)
+                for (Set<Entry> set : lookup(value))
+                    result.addAll(set);
+            return result;
+        }
+
+        boolean usable(String[] values) {
+            if (values == null || values.length == 0)
+                return false;
+            for (String value : values)
+                if (value == null || value.length() == 0
+                        || value.indexOf('*') >= 0 || value.indexOf('?') >= 0)
+                    return false;
+            return true;
+        }
+
+        Collection<Set<Entry>> lookup(String value) {
+            Set<Entry> set = map.get(value);
+            return set != null ? Collections.singleton(set)
+                    : Collections.<Set<Entry>> emptySet();
+        }
+    }
+
+    /**
+     * Index of worklist items by date, which also supports DICOM date range
+     * keys of the form {@code <from>-<to>}, {@code <from>-} and {@code -<to>}.
+     * Item values which are not plain {@code YYYYMMDD} dates are treated as
+     * unvalued, so they are always selected.
+     */
+    private static final class DateIndex extends Index {
+
+        @Override
+        String indexValue(String value) {
+            return isDate(value) ? value : null;
+        }
+
+        @Override
+        boolean usable(String[] values) {
+            if (values == null || values.length != 1 || values[0] == null)
+                return false;
+            String value = values[0];
+            int dash = value.indexOf('-');
+            if (dash < 0)
+                return isDate(value);
+            String from = value.substring(0, dash);
+            String to = value.substring(dash + 1);
+            return (from.length() > 0 || to.length() > 0)
+                    && (from.length() == 0 || isDate(from))
+                    && (to.length() == 0 || isDate(to));
+        }
+
+        @Override
+        Collection<Set<Entry>> lookup(String value) {
+            int dash = value.indexOf('-');
+            if (dash < 0)
+                return super.lookup(value);
+            String from = value.substring(0, dash);
+            String to = value.substring(dash + 1);
+            NavigableMap<String, Set<Entry>> range = map;
+            if (from.length() > 0)
+                range = range.tailMap(from, true);
+            if (to.length() > 0)
+                range = range.headMap(to, true);
+            return range.values();
+        }
+
+        private static boolean isDate(String value) {
+            if (value == null || value.length() != 8)
+                return false;
+            for (int i = 0; i < 8; i++)
+                if (!Character.isDigit(value.charAt(i)))
+                    return false;
+            return true;
+        }
+    }
+}
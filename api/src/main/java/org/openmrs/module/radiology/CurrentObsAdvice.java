@@ -0,0 +1,51 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.lang.reflect.Method;
+
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.aop.MethodBeforeAdvice;
+
+/**
+ * Advice around {@link org.openmrs.api.ObsService} keeping the current obs of radiology orders up
+ * to date. Every obs returned by saveObs, including the new version created when an existing obs
+ * is revised, is recorded through {@link RadiologyService#updateCurrentObs(Obs)}. An obs about to
+ * be purged is replaced by its previous version through
+ * {@link RadiologyService#removeCurrentObs(Obs)}.
+ */
+public class CurrentObsAdvice implements AfterReturningAdvice, MethodBeforeAdvice {
+	
+	/**
+	 * @see MethodBeforeAdvice#before(Method, Object[], Object)
+	 * @should remove purged obs from current obs and restore its previous version
+	 * @should ignore methods other than purge obs
+	 */
+	@Override
+	public void before(Method method, Object[] args, Object target) throws Throwable {
+		if ("purgeObs".equals(method.getName()) && args.length > 0 && args[0] instanceof Obs) {
+			Context.getService(RadiologyService.class).removeCurrentObs((Obs) args[0]);
+		}
+	}
+	
+	/**
+	 * @see AfterReturningAdvice#afterReturning(Object, Method, Object[], Object)
+	 * @should record saved obs of radiology order as current obs
+	 * @should ignore methods other than save obs
+	 */
+	@Override
+	public void afterReturning(Object returnValue, Method method, Object[] args, Object target) throws Throwable {
+		if ("saveObs".equals(method.getName()) && returnValue instanceof Obs) {
+			Context.getService(RadiologyService.class).updateCurrentObs((Obs) returnValue);
+		}
+	}
+}
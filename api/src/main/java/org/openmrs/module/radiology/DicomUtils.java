@@ -9,16 +9,24 @@
  */
 package org.openmrs.module.radiology;
 
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
 import org.apache.log4j.Logger;
-import org.dcm4che.tool.hl7snd.HL7Snd;
-import org.dcm4che2.data.DicomElement;
+import org.dcm4che2.data.BasicDicomObject;
 import org.dcm4che2.data.DicomObject;
-import org.dcm4che2.data.SpecificCharacterSet;
 import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
 import org.openmrs.Order;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.radiology.hl7.CommonOrderOrderControl;
 import org.openmrs.module.radiology.hl7.CommonOrderPriority;
+import org.openmrs.module.radiology.hl7.MLLPClient;
 import org.openmrs.module.radiology.hl7.message.RadiologyORMO01;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -30,6 +38,8 @@ public class DicomUtils {
 	private static RadiologyProperties radiologyProperties = Context.getRegisteredComponent("radiologyProperties",
 	    RadiologyProperties.class);
 	
+	private static final MppsAttributeExtractor mppsAttributeExtractor = new MppsAttributeExtractor(radiologyProperties);
+	
 	/**
 	 * <p>
 	 * Updates the PerformedStatus of an existing Study in the database to the Performed Procedure
@@ -48,13 +58,16 @@ public class DicomUtils {
 	 */
 	public static void updateStudyPerformedStatusByMpps(DicomObject mppsObject) {
 		try {
-			String studyInstanceUid = getStudyInstanceUidFromMpps(mppsObject);
+			MppsAttributeExtractor.MppsAttributes mppsAttributes = mppsAttributeExtractor.extract(mppsObject);
+			String studyInstanceUid = mppsAttributes.getStudyInstanceUid();
 			
-			String performedProcedureStepStatusString = getPerformedProcedureStepStatus(mppsObject);
+			String performedProcedureStepStatusString = mppsAttributes.getPerformedProcedureStepStatus();
 			PerformedProcedureStepStatus performedProcedureStepStatus = PerformedProcedureStepStatus
 			        .getMatchForDisplayName(performedProcedureStepStatusString);
 			
-			radiologyService().updateStudyPerformedStatus(studyInstanceUid, performedProcedureStepStatus);
+			if (radiologyService().updateStudyPerformedStatus(studyInstanceUid, performedProcedureStepStatus) == null) {
+				return;
+			}
 			log.info("Received Update from dcm4chee. Updating Performed Procedure Step Status for study :"
 			        + studyInstanceUid + " to Status : "
 			        + PerformedProcedureStepStatus.getNameOrUnknown(performedProcedureStepStatus));
@@ -79,22 +92,7 @@ public class DicomUtils {
 	 *         study instance uid tag
 	 */
 	public static String getStudyInstanceUidFromMpps(DicomObject mppsObject) {
-		
-		SpecificCharacterSet specificCharacterSet = new SpecificCharacterSet(radiologyProperties.getSpecificCharacterSet());
-		
-		DicomElement scheduledStepAttributesSequenceElement = mppsObject.get(Tag.ScheduledStepAttributesSequence);
-		if (scheduledStepAttributesSequenceElement == null)
-			return null;
-		
-		DicomObject scheduledStepAttributesSequence = scheduledStepAttributesSequenceElement.getDicomObject();
-		
-		DicomElement studyInstanceUidElement = scheduledStepAttributesSequence.get(Tag.StudyInstanceUID);
-		if (studyInstanceUidElement == null)
-			return null;
-		
-		String studyInstanceUid = studyInstanceUidElement.getValueAsString(specificCharacterSet, 0);
-		
-		return studyInstanceUid;
+		return mppsAttributeExtractor.getStudyInstanceUid(mppsObject);
 	}
 	
 	/**
@@ -107,16 +105,167 @@ public class DicomUtils {
 	 * @should return null given given dicom object without performed procedure step status
 	 */
 	public static String getPerformedProcedureStepStatus(DicomObject dicomObject) {
+		return mppsAttributeExtractor.getPerformedProcedureStepStatus(dicomObject);
+	}
+	
+	/**
+	 * <p>
+	 * Gets the Study Instance UID and Performed Procedure Step Status of a DICOM MPPS object in one
+	 * pass
+	 * </p>
+	 * 
+	 * @param mppsObject the DICOM MPPS object
+	 * @return study instance uid and performed procedure step status of given mpps object
+	 */
+	public static MppsAttributeExtractor.MppsAttributes getMppsAttributes(DicomObject mppsObject) {
+		return mppsAttributeExtractor.extract(mppsObject);
+	}
+	
+	/**
+	 * <p>
+	 * Gets the DICOM Modality Worklist items from the database which are candidates for matching
+	 * the given DICOM C-FIND matching keys
+	 * </p>
+	 * 
+	 * @param keys DICOM Modality Worklist C-FIND matching keys
+	 * @return modality worklist items which are candidates for matching given keys
+	 */
+	public static List<DicomObject> getModalityWorklistItems(DicomObject keys) {
 		
-		SpecificCharacterSet specificCharacterSet = new SpecificCharacterSet(radiologyProperties.getSpecificCharacterSet());
+		List<DicomObject> result = new ArrayList<DicomObject>();
+		WorklistItemSearchCriteria worklistItemSearchCriteria = createWorklistItemSearchCriteria(keys);
+		if (worklistItemSearchCriteria == null) {
+			return result;
+		}
 		
-		DicomElement performedProcedureStepStatusElement = dicomObject.get(Tag.PerformedProcedureStepStatus);
-		if (performedProcedureStepStatusElement == null)
-			return null;
+		for (WorklistItem worklistItem : radiologyService().getWorklistItems(worklistItemSearchCriteria)) {
+			result.add(createModalityWorklistItem(worklistItem));
+		}
+		return result;
+	}
+	
+	/**
+	 * <p>
+	 * Creates the search criteria for worklist items from DICOM Modality Worklist C-FIND matching
+	 * keys. Patient ID, Accession Number, Modality, Scheduled Station AE Title and Scheduled
+	 * Procedure Step Start Date (single date or range) are translated. Other keys are left to the
+	 * matching of the returned items against the keys.
+	 * </p>
+	 * 
+	 * @param keys DICOM Modality Worklist C-FIND matching keys
+	 * @return worklist item search criteria or null if no worklist item can match given keys
+	 * @should return search criteria given dicom matching keys
+	 * @should return search criteria with date range given scheduled procedure step start date range
+	 * @should return null given modality not known to the radiology module
+	 */
+	public static WorklistItemSearchCriteria createWorklistItemSearchCriteria(DicomObject keys) {
 		
-		String performedProcedureStepStatus = performedProcedureStepStatusElement.getValueAsString(specificCharacterSet, 0);
+		WorklistItemSearchCriteria result = new WorklistItemSearchCriteria();
+		result.setPatientId(getMatchingKeyValue(keys, Tag.PatientID));
+		result.setAccessionNumber(getMatchingKeyValue(keys, Tag.AccessionNumber));
 		
-		return performedProcedureStepStatus;
+		DicomObject scheduledProcedureStep = keys.getNestedDicomObject(Tag.ScheduledProcedureStepSequence);
+		if (scheduledProcedureStep == null) {
+			return result;
+		}
+		
+		String modality = getMatchingKeyValue(scheduledProcedureStep, Tag.Modality);
+		if (modality != null && modality.indexOf('*') < 0 && modality.indexOf('?') < 0) {
+			try {
+				result.setModality(Modality.valueOf(modality));
+			}
+			catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+		result.setScheduledStationAETitle(getMatchingKeyValue(scheduledProcedureStep, Tag.ScheduledStationAETitle));
+		
+		String startDate = getMatchingKeyValue(scheduledProcedureStep, Tag.ScheduledProcedureStepStartDate);
+		if (startDate != null) {
+			try {
+				int dash = startDate.indexOf('-');
+				String fromDate = dash < 0 ? startDate : startDate.substring(0, dash);
+				String toDate = dash < 0 ? startDate : startDate.substring(dash + 1);
+				if (fromDate.length() > 0) {
+					result.setFromDate(new SimpleDateFormat("yyyyMMdd").parse(fromDate));
+				}
+				if (toDate.length() > 0) {
+					Calendar endOfDay = Calendar.getInstance();
+					endOfDay.setTime(new SimpleDateFormat("yyyyMMdd").parse(toDate));
+					endOfDay.add(Calendar.DAY_OF_MONTH, 1);
+					endOfDay.add(Calendar.MILLISECOND, -1);
+					result.setToDate(endOfDay.getTime());
+				}
+			}
+			catch (ParseException e) {
+				log.warn("Ignoring unparsable Scheduled Procedure Step Start Date matching key: " + startDate);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Get the value of a single valued matching key or null if the key requests universal matching
+	 */
+	private static String getMatchingKeyValue(DicomObject keys, int tag) {
+		String value = keys.getString(tag);
+		return value == null || value.length() == 0 || "*".equals(value) ? null : value;
+	}
+	
+	/**
+	 * <p>
+	 * Creates a DICOM Modality Worklist item from a worklist item
+	 * </p>
+	 * 
+	 * @param worklistItem worklist item of a radiology order
+	 * @return DICOM Modality Worklist item
+	 * @should return modality worklist item given worklist item
+	 */
+	public static DicomObject createModalityWorklistItem(WorklistItem worklistItem) {
+		
+		DicomObject result = new BasicDicomObject();
+		result.putNull(Tag.SpecificCharacterSet, VR.CS);
+		putStringOrNull(result, Tag.AccessionNumber, VR.SH, worklistItem.getAccessionNumber());
+		putStringOrNull(result, Tag.PatientName, VR.PN, worklistItem.getPatientName());
+		putStringOrNull(result, Tag.PatientID, VR.LO, worklistItem.getPatientId());
+		putDateOrNull(result, Tag.PatientBirthDate, VR.DA, worklistItem.getPatientBirthDate());
+		putStringOrNull(result, Tag.PatientSex, VR.CS, worklistItem.getPatientSex());
+		putStringOrNull(result, Tag.StudyInstanceUID, VR.UI, worklistItem.getStudyInstanceUid());
+		putStringOrNull(result, Tag.RequestedProcedureID, VR.SH, worklistItem.getRequestedProcedureId());
+		putStringOrNull(result, Tag.RequestedProcedureDescription, VR.LO, worklistItem
+		        .getRequestedProcedureDescription());
+		
+		DicomObject scheduledProcedureStep = new BasicDicomObject();
+		scheduledProcedureStep.putString(Tag.Modality, VR.CS, worklistItem.getModality().name());
+		putStringOrNull(scheduledProcedureStep, Tag.ScheduledStationAETitle, VR.AE, worklistItem
+		        .getScheduledStationAETitle());
+		putDateOrNull(scheduledProcedureStep, Tag.ScheduledProcedureStepStartDate, VR.DA, worklistItem
+		        .getScheduledProcedureStepStartDate());
+		putDateOrNull(scheduledProcedureStep, Tag.ScheduledProcedureStepStartTime, VR.TM, worklistItem
+		        .getScheduledProcedureStepStartDate());
+		putStringOrNull(scheduledProcedureStep, Tag.ScheduledProcedureStepID, VR.SH, worklistItem
+		        .getRequestedProcedureId());
+		putStringOrNull(scheduledProcedureStep, Tag.ScheduledProcedureStepDescription, VR.LO, worklistItem
+		        .getRequestedProcedureDescription());
+		result.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, scheduledProcedureStep);
+		
+		return result;
+	}
+	
+	private static void putStringOrNull(DicomObject dicomObject, int tag, VR vr, String value) {
+		if (value == null) {
+			dicomObject.putNull(tag, vr);
+		} else {
+			dicomObject.putString(tag, vr, value);
+		}
+	}
+	
+	private static void putDateOrNull(DicomObject dicomObject, int tag, VR vr, Date value) {
+		if (value == null) {
+			dicomObject.putNull(tag, vr);
+		} else {
+			dicomObject.putDate(tag, vr, value);
+		}
 	}
 	
 	public enum OrderRequest {
@@ -228,13 +377,23 @@ public class DicomUtils {
 		return result;
 	}
 	
-	//Send HL7 ORU message to dcm4chee.
+	/**
+	 * Send HL7 ORM message to dcm4chee over a pooled MLLP connection.
+	 * 
+	 * @param hl7blob encoded HL7 message
+	 * @return 1 if the message was acknowledged, 0 otherwise
+	 */
 	public static int sendHL7Worklist(String hl7blob) {
-		String serverIP = radiologyProperties.getServersAddress();
-		String input[] = { "-c", serverIP.substring(7) + ":" + radiologyProperties.getServersHL7Port(), hl7blob };
-		//String input[]={"--help"};
-		int result = HL7Snd.main(input);
-		return result;
+		try {
+			Context.getRegisteredComponent("mllpClient", MLLPClient.class).send(hl7blob.getBytes());
+			log.info("Order sent successfully.");
+			return 1;
+		}
+		catch (IOException e) {
+			log.error("Sending HL7 message to " + radiologyProperties.getServersHostname() + ":"
+			        + radiologyProperties.getServersHL7Port() + " failed: " + e.getMessage(), e);
+			return 0;
+		}
 	}
 	
 	static RadiologyService radiologyService() {
@@ -0,0 +1,130 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+import org.openmrs.module.radiology.DicomUtils.OrderRequest;
+
+/**
+ * <p>
+ * An HL7 ORM^O01 message of a <code>RadiologyOrder</code> waiting in the outbox for delivery to
+ * the RIS/PACS. Messages are queued in the same transaction as the change of the radiology order
+ * they announce and delivered in the background, in the order they were queued, until the
+ * receiver acknowledges them.
+ * </p>
+ */
+public class HL7OutboxMessage {
+	
+	private Integer hl7OutboxMessageId;
+	
+	private RadiologyOrder radiologyOrder;
+	
+	private OrderRequest orderRequest;
+	
+	private String message;
+	
+	private Date dateCreated;
+	
+	private int attempts;
+	
+	private Date nextAttemptDate;
+	
+	private String lastError;
+	
+	private Date dateSent;
+	
+	public Integer getHl7OutboxMessageId() {
+		return hl7OutboxMessageId;
+	}
+	
+	public void setHl7OutboxMessageId(Integer hl7OutboxMessageId) {
+		this.hl7OutboxMessageId = hl7OutboxMessageId;
+	}
+	
+	public RadiologyOrder getRadiologyOrder() {
+		return radiologyOrder;
+	}
+	
+	public void setRadiologyOrder(RadiologyOrder radiologyOrder) {
+		this.radiologyOrder = radiologyOrder;
+	}
+	
+	public OrderRequest getOrderRequest() {
+		return orderRequest;
+	}
+	
+	public void setOrderRequest(OrderRequest orderRequest) {
+		this.orderRequest = orderRequest;
+	}
+	
+	public String getMessage() {
+		return message;
+	}
+	
+	public void setMessage(String message) {
+		this.message = message;
+	}
+	
+	public Date getDateCreated() {
+		return dateCreated;
+	}
+	
+	public void setDateCreated(Date dateCreated) {
+		this.dateCreated = dateCreated;
+	}
+	
+	public int getAttempts() {
+		return attempts;
+	}
+	
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+	
+	public Date getNextAttemptDate() {
+		return nextAttemptDate;
+	}
+	
+	public void setNextAttemptDate(Date nextAttemptDate) {
+		this.nextAttemptDate = nextAttemptDate;
+	}
+	
+	public String getLastError() {
+		return lastError;
+	}
+	
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+	
+	public Date getDateSent() {
+		return dateSent;
+	}
+	
+	public void setDateSent(Date dateSent) {
+		this.dateSent = dateSent;
+	}
+	
+	/**
+	 * Returns true if the receiver answered this message for good, either acknowledging it or
+	 * rejecting it. A rejected message keeps the reason in its last error.
+	 * 
+	 * @return true if this message has been delivered
+	 */
+	public boolean isSent() {
+		return dateSent != null;
+	}
+	
+	@Override
+	public String toString() {
+		return "HL7OutboxMessage[" + hl7OutboxMessageId + ", " + orderRequest + ", attempts=" + attempts + "]";
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import org.dcm4che2.data.DicomElement;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.SpecificCharacterSet;
+import org.dcm4che2.data.Tag;
+
+/**
+ * Extracts the attributes needed to update a study from a DICOM MPPS object, the Study Instance
+ * UID of its Scheduled Step Attributes Sequence and its Performed Procedure Step Status.
+ * <p>
+ * The {@link SpecificCharacterSet} used to decode them is created once per value of the specific
+ * character set global property instead of once per attribute.
+ */
+public class MppsAttributeExtractor {
+	
+	private final RadiologyProperties radiologyProperties;
+	
+	private volatile CachedCharacterSet cachedCharacterSet;
+	
+	public MppsAttributeExtractor(RadiologyProperties radiologyProperties) {
+		this.radiologyProperties = radiologyProperties;
+	}
+	
+	/**
+	 * Extract Study Instance UID and Performed Procedure Step Status of given DICOM MPPS object
+	 * 
+	 * @param mppsObject the DICOM MPPS object
+	 * @return attributes of given mpps object
+	 * @should return study instance uid and performed procedure step status given dicom mpps object
+	 * @should return null attributes given dicom mpps object without them
+	 */
+	public MppsAttributes extract(DicomObject mppsObject) {
+		
+		SpecificCharacterSet specificCharacterSet = getSpecificCharacterSet();
+		return new MppsAttributes(getStudyInstanceUid(mppsObject, specificCharacterSet), getPerformedProcedureStepStatus(
+		    mppsObject, specificCharacterSet));
+	}
+	
+	/**
+	 * Extract Study Instance UID of the Scheduled Step Attributes Sequence of given DICOM MPPS object
+	 * 
+	 * @param mppsObject the DICOM MPPS object
+	 * @return study instance uid or null if there is none
+	 */
+	public String getStudyInstanceUid(DicomObject mppsObject) {
+		return getStudyInstanceUid(mppsObject, getSpecificCharacterSet());
+	}
+	
+	/**
+	 * Extract Performed Procedure Step Status of given DICOM object
+	 * 
+	 * @param dicomObject the DICOM object
+	 * @return performed procedure step status or null if there is none
+	 */
+	public String getPerformedProcedureStepStatus(DicomObject dicomObject) {
+		return getPerformedProcedureStepStatus(dicomObject, getSpecificCharacterSet());
+	}
+	
+	private String getStudyInstanceUid(DicomObject mppsObject, SpecificCharacterSet specificCharacterSet) {
+		
+		DicomElement scheduledStepAttributesSequenceElement = mppsObject.get(Tag.ScheduledStepAttributesSequence);
+		if (scheduledStepAttributesSequenceElement == null || !scheduledStepAttributesSequenceElement.hasItems())
+			return null;
+		
+		DicomElement studyInstanceUidElement = scheduledStepAttributesSequenceElement.getDicomObject().get(
+		    Tag.StudyInstanceUID);
+		if (studyInstanceUidElement == null)
+			return null;
+		
+		return studyInstanceUidElement.getValueAsString(specificCharacterSet, 0);
+	}
+	
+	private String getPerformedProcedureStepStatus(DicomObject dicomObject, SpecificCharacterSet specificCharacterSet) {
+		
+		DicomElement performedProcedureStepStatusElement = dicomObject.get(Tag.PerformedProcedureStepStatus);
+		if (performedProcedureStepStatusElement == null)
+			return null;
+		
+		return performedProcedureStepStatusElement.getValueAsString(specificCharacterSet, 0);
+	}
+	
+	/**
+	 * Return specific character set of the current specific character set global property
+	 * 
+	 * @return specific character set
+	 * @should return same specific character set while global property is unchanged
+	 * @should return new specific character set once global property changed
+	 */
+	SpecificCharacterSet getSpecificCharacterSet() {
+		
+		String characterSetName = radiologyProperties.getSpecificCharacterSet();
+		CachedCharacterSet cached = cachedCharacterSet;
+		if (cached == null || cached.name == null || !cached.name.equals(characterSetName)) {
+			cached = new CachedCharacterSet(characterSetName, new SpecificCharacterSet(characterSetName));
+			cachedCharacterSet = cached;
+		}
+		return cached.specificCharacterSet;
+	}
+	
+	/**
+	 * Study Instance UID and Performed Procedure Step Status of a DICOM MPPS object
+	 */
+	public static class MppsAttributes {
+		
+		private final String studyInstanceUid;
+		
+		private final String performedProcedureStepStatus;
+		
+		MppsAttributes(String studyInstanceUid, String performedProcedureStepStatus) {
+			this.studyInstanceUid = studyInstanceUid;
+			this.performedProcedureStepStatus = performedProcedureStepStatus;
+		}
+		
+		public String getStudyInstanceUid() {
+			return studyInstanceUid;
+		}
+		
+		public String getPerformedProcedureStepStatus() {
+			return performedProcedureStepStatus;
+		}
+	}
+	
+	private static class CachedCharacterSet {
+		
+		private final String name;
+		
+		private final SpecificCharacterSet specificCharacterSet;
+		
+		CachedCharacterSet(String name, SpecificCharacterSet specificCharacterSet) {
+			this.name = name;
+			this.specificCharacterSet = specificCharacterSet;
+		}
+	}
+}
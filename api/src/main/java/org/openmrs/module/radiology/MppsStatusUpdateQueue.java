@@ -0,0 +1,439 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dcm4che2.data.DicomObject;
+import org.openmrs.api.context.Context;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the Performed Procedure Step Status of received DICOM MPPS objects to the studies in the
+ * database in the background, so that the MPPS SCP can respond to the modality without waiting for
+ * the database.
+ * <p>
+ * Status changes are queued per Study Instance UID. A status change for a study which is still
+ * queued replaces the queued one, so a study is updated once with its latest status no matter how
+ * many N-CREATE/N-SET it received in the meantime. A worker thread applies the queued status
+ * changes in batches, one transaction and bulk update per batch. If a batch fails, its status changes are applied
+ * one by one so a single study cannot hold back the others.
+ * <p>
+ * The queue is bounded. If it is full, the thread offering a status change waits up to a timeout
+ * until the worker took a batch off the queue and is told to refuse the MPPS if there is still no
+ * room, so the modality sends it again later instead of the status change being lost.
+ * Status changes are never applied next to a running worker, since the worker could otherwise
+ * overwrite a newer status with an older one from the batch it is applying. Only if the worker is
+ * not running is a status change which does not fit the queue applied in the thread offering it.
+ */
+@Component("mppsStatusUpdateQueue")
+public class MppsStatusUpdateQueue {
+	
+	private static final Log log = LogFactory.getLog(MppsStatusUpdateQueue.class);
+	
+	static final int DEFAULT_CAPACITY = 1000;
+	
+	static final int DEFAULT_BATCH_SIZE = 100;
+	
+	static final long DEFAULT_OFFER_TIMEOUT = 5000L;
+	
+	private final int capacity;
+	
+	private final int batchSize;
+	
+	private final LinkedHashMap<String, QueuedStatus> queue = new LinkedHashMap<String, QueuedStatus>();
+	
+	private final AtomicLong queuedCount = new AtomicLong();
+	
+	private final AtomicLong coalescedCount = new AtomicLong();
+	
+	private final AtomicLong overflowCount = new AtomicLong();
+	
+	private final AtomicLong refusedCount = new AtomicLong();
+	
+	private final AtomicLong appliedCount = new AtomicLong();
+	
+	private final AtomicLong failedCount = new AtomicLong();
+	
+	private volatile long lastLag;
+	
+	private Thread worker;
+	
+	private boolean stopping;
+	
+	private boolean running;
+	
+	public MppsStatusUpdateQueue() {
+		this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+	}
+	
+	MppsStatusUpdateQueue(int capacity, int batchSize) {
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * Queue the Performed Procedure Step Status of given DICOM MPPS object for the study referenced
+	 * by its Study Instance UID, waiting up to {@link #DEFAULT_OFFER_TIMEOUT} ms for room in the
+	 * queue
+	 * 
+	 * @param mppsObject the DICOM MPPS object containing a DICOM N-CREATE/N-SET command
+	 * @return false if the queue is still full after the timeout
+	 * @see #offer(DicomObject, long)
+	 */
+	public boolean offer(DicomObject mppsObject) {
+		return offer(mppsObject, DEFAULT_OFFER_TIMEOUT);
+	}
+	
+	/**
+	 * Queue the Performed Procedure Step Status of given DICOM MPPS object for the study referenced
+	 * by its Study Instance UID, waiting up to given timeout for room in the queue
+	 * 
+	 * @param mppsObject the DICOM MPPS object containing a DICOM N-CREATE/N-SET command
+	 * @param timeout maximum time in ms to wait for room in the queue
+	 * @return false if the queue is still full after given timeout, true otherwise
+	 * @should replace queued status of same study instance uid
+	 * @should ignore dicom mpps object without study instance uid or with unknown status
+	 * @should update study in calling thread if queue is full and worker is not running
+	 */
+	public boolean offer(DicomObject mppsObject, long timeout) {
+		
+		MppsAttributeExtractor.MppsAttributes mppsAttributes = DicomUtils.getMppsAttributes(mppsObject);
+		String studyInstanceUid = mppsAttributes.getStudyInstanceUid();
+		String performedProcedureStepStatusString = mppsAttributes.getPerformedProcedureStepStatus();
+		if (studyInstanceUid == null || performedProcedureStepStatusString == null) {
+			log.warn("Ignoring MPPS without Study Instance UID or Performed Procedure Step Status");
+			return true;
+		}
+		PerformedProcedureStepStatus performedProcedureStepStatus = PerformedProcedureStepStatus
+		        .getMatchForDisplayName(performedProcedureStepStatusString);
+		if (performedProcedureStepStatus == null) {
+			log.warn("Ignoring MPPS for study " + studyInstanceUid + " with unknown Performed Procedure Step Status "
+			        + performedProcedureStepStatusString);
+			return true;
+		}
+		
+		synchronized (queue) {
+			boolean overflowed = false;
+			long deadline = System.currentTimeMillis() + timeout;
+			while (true) {
+				QueuedStatus queuedStatus = queue.get(studyInstanceUid);
+				if (queuedStatus != null) {
+					queuedStatus.performedStatus = performedProcedureStepStatus;
+					coalescedCount.incrementAndGet();
+					return true;
+				}
+				if (queue.size() < capacity) {
+					queue.put(studyInstanceUid, new QueuedStatus(performedProcedureStepStatus));
+					queuedCount.incrementAndGet();
+					queue.notifyAll();
+					return true;
+				}
+				if (!running) {
+					break;
+				}
+				if (!overflowed) {
+					overflowed = true;
+					overflowCount.incrementAndGet();
+					log.warn("MPPS status update queue is full, waiting to queue status of study " + studyInstanceUid);
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					refusedCount.incrementAndGet();
+					log.warn("MPPS status update queue is still full, refusing status of study " + studyInstanceUid);
+					return false;
+				}
+				try {
+					queue.wait(remaining);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					refusedCount.incrementAndGet();
+					return false;
+				}
+			}
+		}
+		
+		overflowCount.incrementAndGet();
+		log.warn("MPPS status update queue is full and not running, updating study " + studyInstanceUid
+		        + " in calling thread");
+		Map<String, QueuedStatus> batch = new LinkedHashMap<String, QueuedStatus>();
+		batch.put(studyInstanceUid, new QueuedStatus(performedProcedureStepStatus));
+		apply(batch);
+		return true;
+	}
+	
+	/**
+	 * Start the worker applying the queued status changes
+	 */
+	public synchronized void start() {
+		if (worker != null) {
+			return;
+		}
+		synchronized (queue) {
+			stopping = false;
+			running = true;
+		}
+		worker = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				Map<String, QueuedStatus> batch;
+				while ((batch = takeBatch()) != null) {
+					try {
+						apply(batch);
+					}
+					catch (Throwable t) {
+						log.error("Applying MPPS status updates failed", t);
+					}
+				}
+			}
+		}, "radiology-mpps-status-update");
+		worker.setDaemon(true);
+		worker.start();
+		log.info("Started MPPS status update queue");
+	}
+	
+	/**
+	 * Stop the worker after it applied the status changes queued so far
+	 */
+	public synchronized void stop() {
+		if (worker == null) {
+			return;
+		}
+		synchronized (queue) {
+			stopping = true;
+			queue.notifyAll();
+		}
+		try {
+			worker.join(30000);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		worker = null;
+		log.info("Stopped MPPS status update queue " + this);
+	}
+	
+	/**
+	 * Apply all queued status changes in the calling thread
+	 * 
+	 * @return number of applied status changes
+	 * @should apply status of other studies in batch if one cannot be applied
+	 */
+	int drain() {
+		
+		long applied = appliedCount.get();
+		Map<String, QueuedStatus> batch;
+		while ((batch = pollBatch()) != null) {
+			apply(batch);
+		}
+		return (int) (appliedCount.get() - applied);
+	}
+	
+	/**
+	 * Wait for queued status changes and remove up to batch size of them from the queue
+	 * 
+	 * @return queued status changes or null once the queue is stopping and empty
+	 */
+	private Map<String, QueuedStatus> takeBatch() {
+		synchronized (queue) {
+			while (queue.isEmpty()) {
+				if (stopping) {
+					running = false;
+					queue.notifyAll();
+					return null;
+				}
+				try {
+					queue.wait();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					running = false;
+					queue.notifyAll();
+					return null;
+				}
+			}
+			return pollBatch();
+		}
+	}
+	
+	/**
+	 * Remove up to batch size of queued status changes from the queue
+	 * 
+	 * @return queued status changes or null if the queue is empty
+	 */
+	private Map<String, QueuedStatus> pollBatch() {
+		synchronized (queue) {
+			if (queue.isEmpty()) {
+				return null;
+			}
+			Map<String, QueuedStatus> batch = new LinkedHashMap<String, QueuedStatus>();
+			Iterator<Map.Entry<String, QueuedStatus>> iterator = queue.entrySet().iterator();
+			while (iterator.hasNext() && batch.size() < batchSize) {
+				Map.Entry<String, QueuedStatus> entry = iterator.next();
+				batch.put(entry.getKey(), entry.getValue());
+				iterator.remove();
+			}
+			// wake up threads waiting for room in the queue
+			queue.notifyAll();
+			return batch;
+		}
+	}
+	
+	/**
+	 * Apply given status changes in one transaction with a bulk update, falling back to one
+	 * transaction per status change if that fails
+	 */
+	private void apply(final Map<String, QueuedStatus> batch) {
+		
+		Context.openSession();
+		try {
+			RadiologyService radiologyService = Context.getService(RadiologyService.class);
+			try {
+				Map<String, PerformedProcedureStepStatus> performedStatuses = new LinkedHashMap<String, PerformedProcedureStepStatus>();
+				for (Map.Entry<String, QueuedStatus> entry : batch.entrySet()) {
+					performedStatuses.put(entry.getKey(), entry.getValue().performedStatus);
+				}
+				Set<String> unknownStudyInstanceUids = radiologyService.updateStudyPerformedStatuses(performedStatuses);
+				for (Map.Entry<String, QueuedStatus> entry : batch.entrySet()) {
+					if (unknownStudyInstanceUids.contains(entry.getKey())) {
+						unknown(entry.getKey());
+					} else {
+						applied(entry.getValue());
+					}
+				}
+			}
+			catch (RuntimeException e) {
+				log.warn("Applying batch of " + batch.size() + " MPPS status updates failed, applying them one by one",
+				    e);
+				for (Map.Entry<String, QueuedStatus> entry : batch.entrySet()) {
+					try {
+						Study study = radiologyService.updateStudyPerformedStatus(entry.getKey(),
+						    entry.getValue().performedStatus);
+						if (study == null) {
+							unknown(entry.getKey());
+						} else {
+							applied(entry.getValue());
+						}
+					}
+					catch (Exception ex) {
+						failedCount.incrementAndGet();
+						log.error("Can not update performed status of study " + entry.getKey() + " to "
+						        + entry.getValue().performedStatus + ": " + ex.getMessage());
+					}
+				}
+			}
+		}
+		finally {
+			Context.closeSession();
+		}
+	}
+	
+	private void applied(QueuedStatus queuedStatus) {
+		appliedCount.incrementAndGet();
+		lastLag = System.currentTimeMillis() - queuedStatus.queuedAt;
+	}
+	
+	private void unknown(String studyInstanceUid) {
+		failedCount.incrementAndGet();
+		log.warn("Can not update performed status of unknown study " + studyInstanceUid);
+	}
+	
+	/**
+	 * Return number of studies with a queued status change
+	 * 
+	 * @return queue depth
+	 */
+	public int getQueueDepth() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Return how long the oldest queued status change is waiting
+	 * 
+	 * @return lag in milliseconds, 0 if the queue is empty
+	 */
+	public long getLag() {
+		synchronized (queue) {
+			if (queue.isEmpty()) {
+				return 0;
+			}
+			return System.currentTimeMillis() - queue.values().iterator().next().queuedAt;
+		}
+	}
+	
+	/**
+	 * Return how long the last applied status change was queued
+	 * 
+	 * @return lag in milliseconds
+	 */
+	public long getLastLag() {
+		return lastLag;
+	}
+	
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+	
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+	
+	public long getOverflowCount() {
+		return overflowCount.get();
+	}
+	
+	public long getRefusedCount() {
+		return refusedCount.get();
+	}
+	
+	public long getAppliedCount() {
+		return appliedCount.get();
+	}
+	
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+	
+	@Override
+	public String toString() {
+		return "MppsStatusUpdateQueue[depth=" + getQueueDepth() + "/" + capacity + ", lag=" + getLag() + "ms, lastLag="
+		        + lastLag + "ms, queued=" + getQueuedCount() + ", coalesced=" + getCoalescedCount() + ", overflow="
+		        + getOverflowCount() + ", refused=" + getRefusedCount() + ", applied=" + getAppliedCount() + ", failed="
+		        + getFailedCount() + "]";
+	}
+	
+	/**
+	 * Status change queued for a study
+	 */
+	private static class QueuedStatus {
+		
+		private final long queuedAt = System.currentTimeMillis();
+		
+		private PerformedProcedureStepStatus performedStatus;
+		
+		QueuedStatus(PerformedProcedureStepStatus performedStatus) {
+			this.performedStatus = performedStatus;
+		}
+	}
+}
@@ -9,13 +9,17 @@
  */
 package org.openmrs.module.radiology;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.dcm4che2.tool.dcmof.DcmOF;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.BaseModuleActivator;
+import org.openmrs.module.radiology.hl7.HL7OutboxDispatcher;
+import org.openmrs.module.radiology.hl7.MLLPClient;
 
 /**
  * This class contains the logic that is run every time this module is either started or shutdown
@@ -27,6 +31,8 @@ public class RadiologyActivator extends BaseModuleActivator {
 	
 	private DcmOF dicomOrderFiller;
 	
+	private final HL7OutboxDispatcher hl7OutboxDispatcher = new HL7OutboxDispatcher();
+	
 	private RadiologyProperties radiologyProperties;
 	
 	@Override
@@ -37,6 +43,8 @@ public class RadiologyActivator extends BaseModuleActivator {
 	@Override
 	public void started() {
 		startDicomOrderFiller();
+		getMppsStatusUpdateQueue().start();
+		hl7OutboxDispatcher.start();
 		log.info("Radiology Module successfully started");
 	}
 	
@@ -48,6 +56,9 @@ public class RadiologyActivator extends BaseModuleActivator {
 	@Override
 	public void stopped() {
 		stopDicomOrderFiller();
+		getMppsStatusUpdateQueue().stop();
+		hl7OutboxDispatcher.stop();
+		closeHL7Connections();
 		log.info("Radiology Module successfully stopped");
 	}
 	
@@ -67,12 +78,40 @@ public class RadiologyActivator extends BaseModuleActivator {
 	 * 
 	 * @return dicom order filler arguments
 	 * @should return dicom order filler arguments
+	 * @should return dicom order filler arguments for database mwl backend
+	 * @should return dicom order filler arguments with thread pool configuration
+	 * @should return dicom order filler arguments for journal mpps storage
 	 */
 	String[] getDicomOrderFillerArguments() {
 		log.info("Loading dicom order filler arguments");
 		radiologyProperties = Context.getRegisteredComponent("radiologyProperties", RadiologyProperties.class);
-		return new String[] { "-mwl", radiologyProperties.getMwlDir(), "-mpps", radiologyProperties.getMppsDir(),
-		        radiologyProperties.getApplicationEntityTitle() + ":" + radiologyProperties.getMwlMppsPort() };
+		List<String> arguments = new ArrayList<String>();
+		if (RadiologyConstants.MWL_BACKEND_DATABASE.equalsIgnoreCase(radiologyProperties.getMwlBackend())) {
+			arguments.add("-mwldb");
+		} else {
+			arguments.add("-mwl");
+			arguments.add(radiologyProperties.getMwlDir());
+		}
+		if (RadiologyConstants.MPPS_STORAGE_JOURNAL.equalsIgnoreCase(radiologyProperties.getMppsStorage())) {
+			arguments.add("-mppsjournal");
+			addDicomOrderFillerArgument(arguments, "-journalsync", radiologyProperties
+			        .getDicomOrderFillerJournalSyncDelay());
+		} else {
+			arguments.add("-mpps");
+		}
+		arguments.add(radiologyProperties.getMppsDir());
+		addDicomOrderFillerArgument(arguments, "-poolcore", radiologyProperties.getDicomOrderFillerCorePoolSize());
+		addDicomOrderFillerArgument(arguments, "-poolmax", radiologyProperties.getDicomOrderFillerMaxPoolSize());
+		addDicomOrderFillerArgument(arguments, "-poolqueue", radiologyProperties.getDicomOrderFillerQueueCapacity());
+		arguments.add(radiologyProperties.getApplicationEntityTitle() + ":" + radiologyProperties.getMwlMppsPort());
+		return arguments.toArray(new String[arguments.size()]);
+	}
+	
+	private void addDicomOrderFillerArgument(List<String> arguments, String option, Integer value) {
+		if (value != null) {
+			arguments.add(option);
+			arguments.add(value.toString());
+		}
 	}
 	
 	/**
@@ -85,4 +124,16 @@ public class RadiologyActivator extends BaseModuleActivator {
 		log.info("Trying to stop MPPSScu : OpenMRS MPPS SCU Client (dcmof)");
 		dicomOrderFiller.stop();
 	}
+	
+	private MppsStatusUpdateQueue getMppsStatusUpdateQueue() {
+		return Context.getRegisteredComponent("mppsStatusUpdateQueue", MppsStatusUpdateQueue.class);
+	}
+	
+	/**
+	 * Close the connections to the hl7 receiver of the pacs
+	 */
+	void closeHL7Connections() {
+		log.info("Closing connections to the HL7 receiver");
+		Context.getRegisteredComponent("mllpClient", MLLPClient.class).close();
+	}
 }
@@ -18,10 +18,30 @@ public class RadiologyConstants {
 	
 	public static final String GP_MPPS_DIR = "radiology.mppsDirectory";
 	
+	public static final String GP_MPPS_STORAGE = "radiology.mppsStorage";
+	
+	public static final String MPPS_STORAGE_FILE = "file";
+	
+	public static final String MPPS_STORAGE_JOURNAL = "journal";
+	
+	public static final String GP_DICOM_ORDER_FILLER_JOURNAL_SYNC_DELAY = "radiology.dicomOrderFillerJournalSyncDelay";
+	
 	public static final String GP_MWL_DIR = "radiology.mwlDirectory";
 	
+	public static final String GP_MWL_BACKEND = "radiology.mwlBackend";
+	
+	public static final String MWL_BACKEND_DIRECTORY = "directory";
+	
+	public static final String MWL_BACKEND_DATABASE = "database";
+	
 	public static final String GP_MWL_MPPS_PORT = "radiology.mwlMppsPort";
 	
+	public static final String GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE = "radiology.dicomOrderFillerCorePoolSize";
+	
+	public static final String GP_DICOM_ORDER_FILLER_MAX_POOL_SIZE = "radiology.dicomOrderFillerMaxPoolSize";
+	
+	public static final String GP_DICOM_ORDER_FILLER_QUEUE_CAPACITY = "radiology.dicomOrderFillerQueueCapacity";
+	
 	public static final String GP_SERVERS_ADDRESS = "radiology.serversAddress";
 	
 	public static final String GP_APPLICATION_UID = "radiology.applicationUID";
@@ -34,6 +54,30 @@ public class RadiologyConstants {
 	
 	public static final String GP_SERVERS_HL7_PORT = "radiology.serversHL7Port";
 	
+	public static final String GP_HL7_CONNECTION_POOL_SIZE = "radiology.hl7ConnectionPoolSize";
+	
+	public static final String GP_HL7_CONNECT_TIMEOUT = "radiology.hl7ConnectTimeout";
+	
+	public static final String GP_HL7_RESPONSE_TIMEOUT = "radiology.hl7ResponseTimeout";
+	
+	public static final String GP_HL7_IDLE_TIMEOUT = "radiology.hl7IdleTimeout";
+	
+	public static final int DEFAULT_HL7_CONNECTION_POOL_SIZE = 2;
+	
+	public static final int DEFAULT_HL7_CONNECT_TIMEOUT = 5000;
+	
+	public static final int DEFAULT_HL7_RESPONSE_TIMEOUT = 10000;
+	
+	public static final int DEFAULT_HL7_IDLE_TIMEOUT = 60000;
+	
+	public static final long HL7_OUTBOX_INITIAL_RETRY_DELAY = 10000L;
+	
+	public static final long HL7_OUTBOX_MAX_RETRY_DELAY = 3600000L;
+	
+	public static final String GP_ORDER_PLACEMENT_CHUNK_SIZE = "radiology.orderPlacementChunkSize";
+	
+	public static final int DEFAULT_ORDER_PLACEMENT_CHUNK_SIZE = 50;
+	
 	public static final String GP_DICOM_VIEWER_LOCAL_SERVER_NAME = "radiology.dicomViewerLocalServerName";
 	
 	public static final String GP_DICOM_VIEWER_URL_BASE = "radiology.dicomViewerUrlBase";
@@ -0,0 +1,142 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+import org.openmrs.Order.Urgency;
+import org.openmrs.PersonName;
+
+/**
+ * A read-only row of the radiology order list holding the values the order search portlet and the
+ * radiology dashboard show of a <code>RadiologyOrder</code>. Rows are projected from the database
+ * by {@link RadiologyService#getRadiologyOrderListRowsByPatients(java.util.List)} without loading
+ * the radiology order, its patient or its orderer into the session.
+ */
+public class RadiologyOrderListRow {
+	
+	private final Integer orderId;
+	
+	private final String patientIdentifier;
+	
+	private final PersonName patientPersonName;
+	
+	private final Urgency urgency;
+	
+	private final Date scheduledDate;
+	
+	private final Date dateActivated;
+	
+	private final String providerName;
+	
+	private final PersonName ordererPersonName;
+	
+	private final Modality modality;
+	
+	private final ScheduledProcedureStepStatus scheduledStatus;
+	
+	private final PerformedProcedureStepStatus performedStatus;
+	
+	private final MwlStatus mwlStatus;
+	
+	private final String instructions;
+	
+	/**
+	 * Creates a row from the columns projected by the radiology order list query. Names are given
+	 * in parts of the preferred person name and are null if the person has none.
+	 */
+	public RadiologyOrderListRow(Integer orderId, String patientIdentifier, String patientGivenName,
+	        String patientMiddleName, String patientFamilyName, Urgency urgency, Date scheduledDate, Date dateActivated,
+	        String providerName, String ordererGivenName, String ordererMiddleName, String ordererFamilyName,
+	        Modality modality, ScheduledProcedureStepStatus scheduledStatus, PerformedProcedureStepStatus performedStatus,
+	        MwlStatus mwlStatus, String instructions) {
+		this.orderId = orderId;
+		this.patientIdentifier = patientIdentifier;
+		this.patientPersonName = getPersonName(patientGivenName, patientMiddleName, patientFamilyName);
+		this.urgency = urgency;
+		this.scheduledDate = scheduledDate;
+		this.dateActivated = dateActivated;
+		this.providerName = providerName;
+		this.ordererPersonName = getPersonName(ordererGivenName, ordererMiddleName, ordererFamilyName);
+		this.modality = modality;
+		this.scheduledStatus = scheduledStatus;
+		this.performedStatus = performedStatus;
+		this.mwlStatus = mwlStatus;
+		this.instructions = instructions;
+	}
+	
+	private static PersonName getPersonName(String givenName, String middleName, String familyName) {
+		if (givenName == null && middleName == null && familyName == null) {
+			return null;
+		}
+		return new PersonName(givenName, middleName, familyName);
+	}
+	
+	public Integer getOrderId() {
+		return orderId;
+	}
+	
+	/**
+	 * @return preferred identifier of the patient or null if the patient has none
+	 */
+	public String getPatientIdentifier() {
+		return patientIdentifier;
+	}
+	
+	/**
+	 * @return full preferred name of the patient or null if the patient has none
+	 */
+	public String getPatientName() {
+		return patientPersonName == null ? null : patientPersonName.getFullName();
+	}
+	
+	public Urgency getUrgency() {
+		return urgency;
+	}
+	
+	/**
+	 * @return scheduled date for orders with urgency ON_SCHEDULED_DATE and the date activated
+	 *         otherwise, like {@link org.openmrs.Order#getEffectiveStartDate()}
+	 */
+	public Date getEffectiveStartDate() {
+		return urgency == Urgency.ON_SCHEDULED_DATE ? scheduledDate : dateActivated;
+	}
+	
+	/**
+	 * @return full preferred name of the person of the orderer and the name of the provider if the
+	 *         orderer is no person, like {@link org.openmrs.Provider#getName()}
+	 */
+	public String getOrdererName() {
+		return ordererPersonName == null ? providerName : ordererPersonName.getFullName();
+	}
+	
+	/**
+	 * @return modality of the study or null if the radiology order has no study
+	 */
+	public Modality getModality() {
+		return modality;
+	}
+	
+	public ScheduledProcedureStepStatus getScheduledStatus() {
+		return scheduledStatus;
+	}
+	
+	public PerformedProcedureStepStatus getPerformedStatus() {
+		return performedStatus;
+	}
+	
+	public MwlStatus getMwlStatus() {
+		return mwlStatus;
+	}
+	
+	public String getInstructions() {
+		return instructions;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+/**
+ * <p>
+ * Page of <code>RadiologyOrder</code>'s requested from
+ * {@link RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria, RadiologyOrderPageRequest)}
+ * . Radiology orders are paged by ascending orderId by default. The next page is then requested
+ * by setting <code>afterOrderId</code> to {@link RadiologyOrderSearchResult#getNextAfterOrderId()}
+ * of the previous page, so the database seeks to the page instead of skipping all previous rows.
+ * Pages sorted by another property can only be requested by <code>firstResult</code>.
+ * </p>
+ */
+public class RadiologyOrderPageRequest {
+	
+	/**
+	 * Properties radiology orders can be sorted by. Ties are always broken by ascending orderId.
+	 */
+	public enum SortProperty {
+		ORDER_ID, URGENCY, EFFECTIVE_START_DATE;
+	}
+	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	
+	private Integer afterOrderId;
+	
+	private int firstResult;
+	
+	private SortProperty sortProperty = SortProperty.ORDER_ID;
+	
+	private boolean ascending = true;
+	
+	public RadiologyOrderPageRequest() {
+	}
+	
+	public RadiologyOrderPageRequest(int pageSize, Integer afterOrderId) {
+		this.pageSize = pageSize;
+		this.afterOrderId = afterOrderId;
+	}
+	
+	/**
+	 * @return maximum number of radiology orders on the page
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+	
+	/**
+	 * @return orderId after which the page starts or null for the first page
+	 */
+	public Integer getAfterOrderId() {
+		return afterOrderId;
+	}
+	
+	public void setAfterOrderId(Integer afterOrderId) {
+		this.afterOrderId = afterOrderId;
+	}
+	
+	/**
+	 * @return number of matching radiology orders to skip before the page starts
+	 */
+	public int getFirstResult() {
+		return firstResult;
+	}
+	
+	public void setFirstResult(int firstResult) {
+		this.firstResult = firstResult;
+	}
+	
+	public SortProperty getSortProperty() {
+		return sortProperty;
+	}
+	
+	public void setSortProperty(SortProperty sortProperty) {
+		this.sortProperty = sortProperty;
+	}
+	
+	public boolean isAscending() {
+		return ascending;
+	}
+	
+	public void setAscending(boolean ascending) {
+		this.ascending = ascending;
+	}
+	
+	/**
+	 * @return true if this page request is sorted by ascending orderId so it can be continued by
+	 *         afterOrderId
+	 */
+	public boolean isSortedByOrderId() {
+		return sortProperty == SortProperty.ORDER_ID && ascending;
+	}
+}
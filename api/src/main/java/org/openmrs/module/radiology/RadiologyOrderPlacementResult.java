@@ -0,0 +1,46 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import org.springframework.validation.Errors;
+
+/**
+ * Outcome of placing one <code>RadiologyOrder</code> of a batch placed by
+ * {@link RadiologyService#placeRadiologyOrders(java.util.List)}
+ */
+public class RadiologyOrderPlacementResult {
+	
+	private final RadiologyOrder radiologyOrder;
+	
+	private final Errors errors;
+	
+	public RadiologyOrderPlacementResult(RadiologyOrder radiologyOrder, Errors errors) {
+		this.radiologyOrder = radiologyOrder;
+		this.errors = errors;
+	}
+	
+	/**
+	 * @return radiology order as given, saved if it was placed
+	 */
+	public RadiologyOrder getRadiologyOrder() {
+		return radiologyOrder;
+	}
+	
+	/**
+	 * @return errors why the radiology order was not placed, without errors if it was placed
+	 */
+	public Errors getErrors() {
+		return errors;
+	}
+	
+	public boolean isPlaced() {
+		return !errors.hasErrors();
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+import org.openmrs.Order.Urgency;
+
+/**
+ * <p>
+ * Restricts the <code>RadiologyOrder</code>'s returned by
+ * {@link RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria, RadiologyOrderPageRequest)}
+ * . Attributes which are <code>null</code> do not restrict the result. Modality, scheduled and
+ * performed status restrict on the <code>Study</code> of a radiology order so orders without a
+ * study will not match if one of them is set. Patients are restricted on by a patient query, which
+ * is resolved by the same SQL query as the radiology orders rather than by the caller, so a broad
+ * query does not end up as a list of thousands of patients in the SQL statement.
+ * </p>
+ */
+public class RadiologyOrderSearchCriteria {
+	
+	private String patientQuery;
+	
+	private String patientFilter;
+	
+	private Date fromDate;
+	
+	private Date toDate;
+	
+	private Urgency urgency;
+	
+	private Modality modality;
+	
+	private ScheduledProcedureStepStatus scheduledStatus;
+	
+	private PerformedProcedureStepStatus performedStatus;
+	
+	/**
+	 * @return identifier of the patient or words the name parts of the patient have to start with,
+	 *         blank does not restrict the result
+	 */
+	public String getPatientQuery() {
+		return patientQuery;
+	}
+	
+	public void setPatientQuery(String patientQuery) {
+		this.patientQuery = patientQuery;
+	}
+	
+	/**
+	 * @return further identifier or words the patient has to match like the patient query, such as
+	 *         the filter of a list, blank does not restrict the result
+	 */
+	public String getPatientFilter() {
+		return patientFilter;
+	}
+	
+	public void setPatientFilter(String patientFilter) {
+		this.patientFilter = patientFilter;
+	}
+	
+	/**
+	 * @return earliest effective start date (inclusive)
+	 */
+	public Date getFromDate() {
+		return fromDate;
+	}
+	
+	public void setFromDate(Date fromDate) {
+		this.fromDate = fromDate;
+	}
+	
+	/**
+	 * @return latest effective start date (inclusive)
+	 */
+	public Date getToDate() {
+		return toDate;
+	}
+	
+	public void setToDate(Date toDate) {
+		this.toDate = toDate;
+	}
+	
+	public Urgency getUrgency() {
+		return urgency;
+	}
+	
+	public void setUrgency(Urgency urgency) {
+		this.urgency = urgency;
+	}
+	
+	public Modality getModality() {
+		return modality;
+	}
+	
+	public void setModality(Modality modality) {
+		this.modality = modality;
+	}
+	
+	public ScheduledProcedureStepStatus getScheduledStatus() {
+		return scheduledStatus;
+	}
+	
+	public void setScheduledStatus(ScheduledProcedureStepStatus scheduledStatus) {
+		this.scheduledStatus = scheduledStatus;
+	}
+	
+	public PerformedProcedureStepStatus getPerformedStatus() {
+		return performedStatus;
+	}
+	
+	public void setPerformedStatus(PerformedProcedureStepStatus performedStatus) {
+		this.performedStatus = performedStatus;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.List;
+
+/**
+ * A page of <code>RadiologyOrder</code>'s returned by
+ * {@link RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria, RadiologyOrderPageRequest)}
+ * together with the total number of radiology orders matching the search criteria.
+ */
+public class RadiologyOrderSearchResult {
+	
+	private final List<RadiologyOrder> radiologyOrders;
+	
+	private final int totalCount;
+	
+	private final Integer nextAfterOrderId;
+	
+	public RadiologyOrderSearchResult(List<RadiologyOrder> radiologyOrders, int totalCount, Integer nextAfterOrderId) {
+		this.radiologyOrders = radiologyOrders;
+		this.totalCount = totalCount;
+		this.nextAfterOrderId = nextAfterOrderId;
+	}
+	
+	/**
+	 * @return radiology orders of the requested page in requested order
+	 */
+	public List<RadiologyOrder> getRadiologyOrders() {
+		return radiologyOrders;
+	}
+	
+	/**
+	 * @return number of radiology orders matching the search criteria over all pages
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * @return afterOrderId requesting the next page or null if this is the last page, only a valid
+	 *         cursor for pages sorted by ascending orderId
+	 */
+	public Integer getNextAfterOrderId() {
+		return nextAfterOrderId;
+	}
+	
+	public boolean hasNextPage() {
+		return nextAfterOrderId != null;
+	}
+}
@@ -9,25 +9,65 @@
  */
 package org.openmrs.module.radiology;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.openmrs.CareSetting;
 import org.openmrs.ConceptClass;
 import org.openmrs.EncounterRole;
 import org.openmrs.EncounterType;
+import org.openmrs.GlobalProperty;
 import org.openmrs.OrderType;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.EncounterService;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.OrderService;
-import org.openmrs.api.context.Context;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Properties, mostly configured via GPs for this module.
+ * <p>
+ * Global properties and the metadata resolved from them are read at once into an immutable
+ * {@link RadiologyPropertiesSnapshot} on first access, so hot paths do not hit the database for
+ * configuration. The snapshot is replaced as a whole whenever a radiology global property changes,
+ * this class is registered as {@link GlobalPropertyListener} in the moduleApplicationContext.xml.
+ * Metadata in the snapshot is loaded once with its lazy associations initialized and is shared by
+ * all callers, it must not be modified.
+ * </p>
  */
 @Component
-public class RadiologyProperties {
+public class RadiologyProperties implements GlobalPropertyListener {
+	
+	private static final String RADIOLOGY_GLOBAL_PROPERTY_PREFIX = "radiology.";
+	
+	private static final String[] RADIOLOGY_GLOBAL_PROPERTIES = { RadiologyConstants.GP_APPLICATION_ENTITY_TITLE,
+	        RadiologyConstants.GP_MPPS_DIR, RadiologyConstants.GP_MPPS_STORAGE,
+	        RadiologyConstants.GP_DICOM_ORDER_FILLER_JOURNAL_SYNC_DELAY, RadiologyConstants.GP_MWL_DIR,
+	        RadiologyConstants.GP_MWL_BACKEND, RadiologyConstants.GP_MWL_MPPS_PORT,
+	        RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE, RadiologyConstants.GP_DICOM_ORDER_FILLER_MAX_POOL_SIZE,
+	        RadiologyConstants.GP_DICOM_ORDER_FILLER_QUEUE_CAPACITY, RadiologyConstants.GP_SERVERS_ADDRESS,
+	        RadiologyConstants.GP_APPLICATION_UID, RadiologyConstants.GP_STUDY_UID_SLUG,
+	        RadiologyConstants.GP_SPECIFIC_CHARCATER_SET, RadiologyConstants.GP_SERVERS_PORT,
+	        RadiologyConstants.GP_SERVERS_HL7_PORT, RadiologyConstants.GP_HL7_CONNECTION_POOL_SIZE,
+	        RadiologyConstants.GP_HL7_CONNECT_TIMEOUT, RadiologyConstants.GP_HL7_RESPONSE_TIMEOUT,
+	        RadiologyConstants.GP_HL7_IDLE_TIMEOUT, RadiologyConstants.GP_ORDER_PLACEMENT_CHUNK_SIZE,
+	        RadiologyConstants.GP_DICOM_VIEWER_LOCAL_SERVER_NAME, RadiologyConstants.GP_DICOM_VIEWER_URL_BASE,
+	        RadiologyConstants.GP_RADIOLOGY_CARE_SETTING, RadiologyConstants.GP_RADIOLOGY_CONCEPT_CLASSES };
+	
+	private final AtomicReference<RadiologyPropertiesSnapshot> snapshot = new AtomicReference<RadiologyPropertiesSnapshot>();
+	
+	/**
+	 * Incremented whenever the snapshot is cleared, so a snapshot built from values read before
+	 * is not used even if it is published after it was cleared
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
 	
 	@Autowired
 	@Qualifier("adminService")
@@ -48,7 +88,7 @@ public class RadiologyProperties {
 	 * @return application entity title
 	 */
 	public String getApplicationEntityTitle() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_APPLICATION_ENTITY_TITLE);
+		return getSnapshot().getApplicationEntityTitle();
 	}
 	
 	/**
@@ -57,7 +97,22 @@ public class RadiologyProperties {
 	 * @return mpps directory
 	 */
 	public String getMppsDir() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_MPPS_DIR);
+		return getSnapshot().getMppsDir();
+	}
+	
+	/**
+	 * Return how the MPPS SCP stores received mpps in the mpps directory
+	 * 
+	 * @return mpps storage, either file (default) or journal
+	 * @should return mpps storage if defined in global properties
+	 * @should return file if mpps storage is not defined in global properties
+	 */
+	public String getMppsStorage() {
+		String mppsStorage = getGlobalProperty(RadiologyConstants.GP_MPPS_STORAGE);
+		if (mppsStorage == null || mppsStorage.trim().isEmpty())
+			return RadiologyConstants.MPPS_STORAGE_FILE;
+		else
+			return mppsStorage.trim();
 	}
 	
 	/**
@@ -66,7 +121,22 @@ public class RadiologyProperties {
 	 * @return mwl directory
 	 */
 	public String getMwlDir() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_MWL_DIR);
+		return getSnapshot().getMwlDir();
+	}
+	
+	/**
+	 * Return mwl backend, the source of the mwl entries served by the MWL SCP
+	 * 
+	 * @return mwl backend, either directory (default) or database
+	 * @should return mwl backend if defined in global properties
+	 * @should return directory if mwl backend is not defined in global properties
+	 */
+	public String getMwlBackend() {
+		String mwlBackend = getGlobalProperty(RadiologyConstants.GP_MWL_BACKEND);
+		if (mwlBackend == null || mwlBackend.trim().isEmpty())
+			return RadiologyConstants.MWL_BACKEND_DIRECTORY;
+		else
+			return mwlBackend.trim();
 	}
 	
 	/**
@@ -75,7 +145,66 @@ public class RadiologyProperties {
 	 * @return mwl mpps port
 	 */
 	public String getMwlMppsPort() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_MWL_MPPS_PORT);
+		return getSnapshot().getMwlMppsPort();
+	}
+	
+	/**
+	 * Return number of threads the dicom order filler keeps to serve associations
+	 * 
+	 * @return core pool size of the dicom order filler or null if not defined in global properties
+	 * @should return core pool size if defined in global properties
+	 * @should return null if core pool size is not defined in global properties
+	 * @should throw illegal state exception if core pool size is not a non negative integer
+	 */
+	public Integer getDicomOrderFillerCorePoolSize() {
+		return getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE);
+	}
+	
+	/**
+	 * Return maximum number of threads the dicom order filler uses to serve associations
+	 * 
+	 * @return max pool size of the dicom order filler or null if not defined in global properties
+	 */
+	public Integer getDicomOrderFillerMaxPoolSize() {
+		return getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_MAX_POOL_SIZE);
+	}
+	
+	/**
+	 * Return maximum number of associations waiting for a thread of the dicom order filler
+	 * 
+	 * @return queue capacity of the dicom order filler or null if not defined in global properties
+	 */
+	public Integer getDicomOrderFillerQueueCapacity() {
+		return getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_QUEUE_CAPACITY);
+	}
+	
+	/**
+	 * Return milliseconds the dicom order filler waits for further mpps before forcing the journal
+	 * to disk
+	 * 
+	 * @return journal sync delay of the dicom order filler or null if not defined in global
+	 *         properties
+	 */
+	public Integer getDicomOrderFillerJournalSyncDelay() {
+		return getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_JOURNAL_SYNC_DELAY);
+	}
+	
+	private Integer getNonNegativeIntegerGlobalProperty(String globalPropertyName) {
+		String value = getGlobalProperty(globalPropertyName);
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		try {
+			Integer result = Integer.valueOf(value.trim());
+			if (result >= 0) {
+				return result;
+			}
+		}
+		catch (NumberFormatException e) {
+			// fall through
+		}
+		throw new IllegalStateException("Global property " + globalPropertyName
+		        + " must be a non negative integer, but is: " + value);
 	}
 	
 	/**
@@ -84,7 +213,16 @@ public class RadiologyProperties {
 	 * @return server address
 	 */
 	public String getServersAddress() {
-		return "http://" + administrationService.getGlobalProperty(RadiologyConstants.GP_SERVERS_ADDRESS);
+		return "http://" + getSnapshot().getServersAddress();
+	}
+	
+	/**
+	 * Return hostname of the server
+	 * 
+	 * @return hostname of the server
+	 */
+	public String getServersHostname() {
+		return getSnapshot().getServersAddress();
 	}
 	
 	/**
@@ -93,7 +231,7 @@ public class RadiologyProperties {
 	 * @return prefix for dicom objects in the application
 	 */
 	public String getApplicationUID() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_APPLICATION_UID);
+		return getSnapshot().getApplicationUID();
 	}
 	
 	/**
@@ -102,7 +240,7 @@ public class RadiologyProperties {
 	 * @return study uid slug
 	 */
 	public String getStudyUIDSlug() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_STUDY_UID_SLUG);
+		return getSnapshot().getStudyUIDSlug();
 	}
 	
 	/**
@@ -111,7 +249,7 @@ public class RadiologyProperties {
 	 * @return specific character set
 	 */
 	public String getSpecificCharacterSet() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_SPECIFIC_CHARCATER_SET);
+		return getSnapshot().getSpecificCharacterSet();
 	}
 	
 	/**
@@ -121,7 +259,7 @@ public class RadiologyProperties {
 	 * @should return study prefix consisting of application uid and study uid slug
 	 */
 	public String getStudyPrefix() {
-		return getApplicationUID() + "." + getStudyUIDSlug() + ".";
+		return getSnapshot().getStudyPrefix();
 	}
 	
 	/**
@@ -130,7 +268,7 @@ public class RadiologyProperties {
 	 * @return servers port
 	 */
 	public String getServersPort() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_SERVERS_PORT);
+		return getSnapshot().getServersPort();
 	}
 	
 	/**
@@ -139,7 +277,62 @@ public class RadiologyProperties {
 	 * @return servers hl7 port
 	 */
 	public String getServersHL7Port() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_SERVERS_HL7_PORT);
+		return getSnapshot().getServersHL7Port();
+	}
+	
+	/**
+	 * Return maximum number of connections to the servers hl7 port
+	 * 
+	 * @return hl7 connection pool size
+	 * @should return hl7 connection pool size if defined in global properties
+	 * @should return default hl7 connection pool size if not defined in global properties
+	 */
+	public int getHL7ConnectionPoolSize() {
+		Integer result = getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_HL7_CONNECTION_POOL_SIZE);
+		return result == null || result == 0 ? RadiologyConstants.DEFAULT_HL7_CONNECTION_POOL_SIZE : result;
+	}
+	
+	/**
+	 * Return number of radiology orders placed in bulk between flushing and clearing them from the
+	 * session
+	 * 
+	 * @return order placement chunk size
+	 * @should return order placement chunk size if defined in global properties
+	 * @should return default order placement chunk size if not defined in global properties
+	 */
+	public int getOrderPlacementChunkSize() {
+		Integer result = getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_ORDER_PLACEMENT_CHUNK_SIZE);
+		return result == null || result == 0 ? RadiologyConstants.DEFAULT_ORDER_PLACEMENT_CHUNK_SIZE : result;
+	}
+	
+	/**
+	 * Return timeout in ms for connecting to the servers hl7 port
+	 * 
+	 * @return hl7 connect timeout
+	 */
+	public int getHL7ConnectTimeout() {
+		Integer result = getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_HL7_CONNECT_TIMEOUT);
+		return result == null ? RadiologyConstants.DEFAULT_HL7_CONNECT_TIMEOUT : result;
+	}
+	
+	/**
+	 * Return timeout in ms for receiving the acknowledgement of a hl7 message
+	 * 
+	 * @return hl7 response timeout
+	 */
+	public int getHL7ResponseTimeout() {
+		Integer result = getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_HL7_RESPONSE_TIMEOUT);
+		return result == null ? RadiologyConstants.DEFAULT_HL7_RESPONSE_TIMEOUT : result;
+	}
+	
+	/**
+	 * Return time in ms after which an unused connection to the servers hl7 port is closed
+	 * 
+	 * @return hl7 idle timeout
+	 */
+	public int getHL7IdleTimeout() {
+		Integer result = getNonNegativeIntegerGlobalProperty(RadiologyConstants.GP_HL7_IDLE_TIMEOUT);
+		return result == null ? RadiologyConstants.DEFAULT_HL7_IDLE_TIMEOUT : result;
 	}
 	
 	/**
@@ -151,8 +344,7 @@ public class RadiologyProperties {
 	 *         properties
 	 */
 	public String getDicomViewerLocalServerName() {
-		String dicomViewerLocalServerName = administrationService
-		        .getGlobalProperty(RadiologyConstants.GP_DICOM_VIEWER_LOCAL_SERVER_NAME);
+		String dicomViewerLocalServerName = getSnapshot().getDicomViewerLocalServerName();
 		if (dicomViewerLocalServerName == null)
 			return "";
 		else
@@ -165,7 +357,7 @@ public class RadiologyProperties {
 	 * @return dicom viewer url base
 	 */
 	public String getDicomViewerUrlBase() {
-		return administrationService.getGlobalProperty(RadiologyConstants.GP_DICOM_VIEWER_URL_BASE);
+		return getSnapshot().getDicomViewerUrlBase();
 	}
 	
 	/**
@@ -191,10 +383,10 @@ public class RadiologyProperties {
 	 * @should throw illegal state exception if radiology care setting cannot be found
 	 */
 	public CareSetting getRadiologyCareSetting() {
-		String radiologyCareSettingUuid = administrationService
-		        .getGlobalProperty(RadiologyConstants.GP_RADIOLOGY_CARE_SETTING);
-		CareSetting result = orderService.getCareSettingByUuid(radiologyCareSettingUuid);
-		
+		CareSetting result = getSnapshot().getRadiologyCareSetting();
+		if (result == null) {
+			result = refreshSnapshot().getRadiologyCareSetting();
+		}
 		if (result == null) {
 			throw new IllegalStateException("Configuration required for property: "
 			        + RadiologyConstants.GP_RADIOLOGY_CARE_SETTING);
@@ -210,7 +402,10 @@ public class RadiologyProperties {
 	 * @should throw illegal state exception for non existing radiology test order type
 	 */
 	public OrderType getRadiologyTestOrderType() {
-		OrderType result = orderService.getOrderTypeByUuid(RadiologyConstants.RADIOLOGY_TEST_ORDER_TYPE_UUID);
+		OrderType result = getSnapshot().getRadiologyTestOrderType();
+		if (result == null) {
+			result = refreshSnapshot().getRadiologyTestOrderType();
+		}
 		if (result == null) {
 			throw new IllegalStateException("OrderType for radiology orders not in database (not found under uuid="
 			        + RadiologyConstants.RADIOLOGY_TEST_ORDER_TYPE_UUID + ").");
@@ -226,7 +421,10 @@ public class RadiologyProperties {
 	 * @should throw illegal state exception for non existing radiology encounter type
 	 */
 	public EncounterType getRadiologyEncounterType() {
-		EncounterType result = encounterService.getEncounterTypeByUuid(RadiologyConstants.RADIOLOGY_ENCOUNTER_TYPE_UUID);
+		EncounterType result = getSnapshot().getRadiologyEncounterType();
+		if (result == null) {
+			result = refreshSnapshot().getRadiologyEncounterType();
+		}
 		if (result == null) {
 			throw new IllegalStateException("EncounterType for radiology orders not in database (not found under uuid="
 			        + RadiologyConstants.RADIOLOGY_ENCOUNTER_TYPE_UUID + ").");
@@ -242,8 +440,10 @@ public class RadiologyProperties {
 	 * @should throw illegal state exception for non existing ordering provider encounter role
 	 */
 	public EncounterRole getOrderingProviderEncounterRole() {
-		EncounterRole result = encounterService
-		        .getEncounterRoleByUuid(RadiologyConstants.ORDERING_PROVIDER_ENCOUNTER_ROLE_UUID);
+		EncounterRole result = getSnapshot().getOrderingProviderEncounterRole();
+		if (result == null) {
+			result = refreshSnapshot().getOrderingProviderEncounterRole();
+		}
 		if (result == null) {
 			throw new IllegalStateException("EncounterRole for ordering provider not in database (not found under uuid="
 			        + RadiologyConstants.ORDERING_PROVIDER_ENCOUNTER_ROLE_UUID + ").");
@@ -266,9 +466,25 @@ public class RadiologyProperties {
 	 *         in global property radiologyConceptClasses
 	 */
 	public String getRadiologyConceptClassNames() {
+		RadiologyPropertiesSnapshot snapshot = getSnapshot();
+		if (snapshot.getRadiologyConceptClassNames() == null) {
+			snapshot = refreshSnapshot();
+		}
+		if (snapshot.getRadiologyConceptClassNames() == null) {
+			throw new IllegalStateException(snapshot.getRadiologyConceptClassNamesError());
+		}
+		return snapshot.getRadiologyConceptClassNames();
+	}
+	
+	/**
+	 * Resolve the names of the concept classes configured via their UUIDs
+	 * 
+	 * @param radiologyConceptClassUuidSetting value of global property radiologyConceptClasses
+	 * @return comma separated list of concept class names
+	 * @throws IllegalStateException if the concept classes are not configured or cannot be found
+	 */
+	private String resolveRadiologyConceptClassNames(String radiologyConceptClassUuidSetting) {
 		
-		String radiologyConceptClassUuidSetting = Context.getAdministrationService().getGlobalProperty(
-		    RadiologyConstants.GP_RADIOLOGY_CONCEPT_CLASSES);
 		if (radiologyConceptClassUuidSetting == null) {
 			throw new IllegalStateException(
 			        "There is no Concept Class defined for the Concept Filter, Setting: radiologyConceptClasses");
@@ -290,7 +506,150 @@ public class RadiologyProperties {
 			}
 			result = result + fetchedConceptClass.getName() + ",";
 		}
-		result = result.substring(0, result.length() - 1);
+		return result.substring(0, result.length() - 1);
+	}
+	
+	/**
+	 * Get value of given global property from the snapshot
+	 * 
+	 * @param globalPropertyName name of the global property
+	 * @return value of the global property or null if it is not defined
+	 */
+	private String getGlobalProperty(String globalPropertyName) {
+		return getSnapshot().getGlobalProperty(globalPropertyName);
+	}
+	
+	/**
+	 * Get the current snapshot, building it if it was cleared
+	 * 
+	 * @return current snapshot
+	 */
+	private RadiologyPropertiesSnapshot getSnapshot() {
+		RadiologyPropertiesSnapshot result = snapshot.get();
+		if (result != null && result.getGeneration() == generation.get()) {
+			return result;
+		}
+		return refreshSnapshot();
+	}
+	
+	/**
+	 * Build a new snapshot from the database and swap it in for the current one
+	 * 
+	 * @return new snapshot
+	 */
+	private RadiologyPropertiesSnapshot refreshSnapshot() {
+		RadiologyPropertiesSnapshot current = snapshot.get();
+		RadiologyPropertiesSnapshot result = buildSnapshot(generation.get());
+		snapshot.compareAndSet(current, result);
 		return result;
 	}
+	
+	/**
+	 * Read all radiology global properties and resolve the metadata configured by them
+	 * 
+	 * @param generation generation of the snapshot
+	 * @return new snapshot
+	 */
+	private RadiologyPropertiesSnapshot buildSnapshot(int generation) {
+		
+		Map<String, String> globalProperties = new HashMap<String, String>();
+		for (String globalPropertyName : RADIOLOGY_GLOBAL_PROPERTIES) {
+			globalProperties.put(globalPropertyName, administrationService.getGlobalProperty(globalPropertyName));
+		}
+		
+		CareSetting radiologyCareSetting = orderService.getCareSettingByUuid(globalProperties
+		        .get(RadiologyConstants.GP_RADIOLOGY_CARE_SETTING));
+		
+		OrderType radiologyTestOrderType = orderService
+		        .getOrderTypeByUuid(RadiologyConstants.RADIOLOGY_TEST_ORDER_TYPE_UUID);
+		if (radiologyTestOrderType != null) {
+			// initialize lazy associations, the order type outlives the session it is loaded in
+			radiologyTestOrderType.getConceptClasses().size();
+			if (radiologyTestOrderType.getParent() != null) {
+				radiologyTestOrderType.getParent().getName();
+			}
+		}
+		
+		EncounterType radiologyEncounterType = encounterService
+		        .getEncounterTypeByUuid(RadiologyConstants.RADIOLOGY_ENCOUNTER_TYPE_UUID);
+		if (radiologyEncounterType != null) {
+			// initialize lazy associations, the encounter type outlives the session it is loaded in
+			if (radiologyEncounterType.getViewPrivilege() != null) {
+				radiologyEncounterType.getViewPrivilege().getPrivilege();
+			}
+			if (radiologyEncounterType.getEditPrivilege() != null) {
+				radiologyEncounterType.getEditPrivilege().getPrivilege();
+			}
+		}
+		
+		EncounterRole orderingProviderEncounterRole = encounterService
+		        .getEncounterRoleByUuid(RadiologyConstants.ORDERING_PROVIDER_ENCOUNTER_ROLE_UUID);
+		
+		String radiologyConceptClassNames = null;
+		String radiologyConceptClassNamesError = null;
+		try {
+			radiologyConceptClassNames = resolveRadiologyConceptClassNames(globalProperties
+			        .get(RadiologyConstants.GP_RADIOLOGY_CONCEPT_CLASSES));
+		}
+		catch (IllegalStateException e) {
+			radiologyConceptClassNamesError = e.getMessage();
+		}
+		
+		return new RadiologyPropertiesSnapshot(generation, globalProperties, radiologyCareSetting,
+		        radiologyTestOrderType, radiologyEncounterType, orderingProviderEncounterRole, radiologyConceptClassNames,
+		        radiologyConceptClassNamesError);
+	}
+	
+	/**
+	 * Clear the snapshot so all properties are read from the database again on next access
+	 * 
+	 * @should read changed global properties from the database after clearing the snapshot
+	 */
+	public void clearSnapshot() {
+		generation.incrementAndGet();
+		snapshot.set(null);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 * @should return true for radiology global properties only
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return propertyName != null && propertyName.startsWith(RADIOLOGY_GLOBAL_PROPERTY_PREFIX);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 * @should return changed global property value
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		clearSnapshotNowAndAfterTransaction();
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		clearSnapshotNowAndAfterTransaction();
+	}
+	
+	/**
+	 * Clear the snapshot and clear it again once the current transaction completes, since the
+	 * snapshot may be refilled with values which are not committed yet or are rolled back
+	 */
+	private void clearSnapshotNowAndAfterTransaction() {
+		clearSnapshot();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					clearSnapshot();
+				}
+			});
+		}
+	}
 }
@@ -0,0 +1,192 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openmrs.CareSetting;
+import org.openmrs.EncounterRole;
+import org.openmrs.EncounterType;
+import org.openmrs.OrderType;
+
+/**
+ * Immutable snapshot of the radiology global properties and the metadata resolved from them,
+ * built by {@link RadiologyProperties} and replaced as a whole once a radiology global property
+ * changes.
+ * <p>
+ * Metadata is null if it could not be found when the snapshot was built. The concept class names
+ * are null if they could not be resolved, the reason is kept as concept class names error.
+ * </p>
+ */
+final class RadiologyPropertiesSnapshot {
+	
+	private final int generation;
+	
+	private final Map<String, String> globalProperties;
+	
+	private final String applicationEntityTitle;
+	
+	private final String mppsDir;
+	
+	private final String mwlDir;
+	
+	private final String mwlMppsPort;
+	
+	private final String serversAddress;
+	
+	private final String serversPort;
+	
+	private final String serversHL7Port;
+	
+	private final String applicationUID;
+	
+	private final String studyUIDSlug;
+	
+	private final String studyPrefix;
+	
+	private final String specificCharacterSet;
+	
+	private final String dicomViewerUrlBase;
+	
+	private final String dicomViewerLocalServerName;
+	
+	private final CareSetting radiologyCareSetting;
+	
+	private final OrderType radiologyTestOrderType;
+	
+	private final EncounterType radiologyEncounterType;
+	
+	private final EncounterRole orderingProviderEncounterRole;
+	
+	private final String radiologyConceptClassNames;
+	
+	private final String radiologyConceptClassNamesError;
+	
+	RadiologyPropertiesSnapshot(int generation, Map<String, String> globalProperties, CareSetting radiologyCareSetting,
+	        OrderType radiologyTestOrderType, EncounterType radiologyEncounterType,
+	        EncounterRole orderingProviderEncounterRole, String radiologyConceptClassNames,
+	        String radiologyConceptClassNamesError) {
+		
+		this.generation = generation;
+		this.globalProperties = Collections.unmodifiableMap(new HashMap<String, String>(globalProperties));
+		this.applicationEntityTitle = globalProperties.get(RadiologyConstants.GP_APPLICATION_ENTITY_TITLE);
+		this.mppsDir = globalProperties.get(RadiologyConstants.GP_MPPS_DIR);
+		this.mwlDir = globalProperties.get(RadiologyConstants.GP_MWL_DIR);
+		this.mwlMppsPort = globalProperties.get(RadiologyConstants.GP_MWL_MPPS_PORT);
+		this.serversAddress = globalProperties.get(RadiologyConstants.GP_SERVERS_ADDRESS);
+		this.serversPort = globalProperties.get(RadiologyConstants.GP_SERVERS_PORT);
+		this.serversHL7Port = globalProperties.get(RadiologyConstants.GP_SERVERS_HL7_PORT);
+		this.applicationUID = globalProperties.get(RadiologyConstants.GP_APPLICATION_UID);
+		this.studyUIDSlug = globalProperties.get(RadiologyConstants.GP_STUDY_UID_SLUG);
+		this.studyPrefix = applicationUID + "." + studyUIDSlug + ".";
+		this.specificCharacterSet = globalProperties.get(RadiologyConstants.GP_SPECIFIC_CHARCATER_SET);
+		this.dicomViewerUrlBase = globalProperties.get(RadiologyConstants.GP_DICOM_VIEWER_URL_BASE);
+		this.dicomViewerLocalServerName = globalProperties.get(RadiologyConstants.GP_DICOM_VIEWER_LOCAL_SERVER_NAME);
+		this.radiologyCareSetting = radiologyCareSetting;
+		this.radiologyTestOrderType = radiologyTestOrderType;
+		this.radiologyEncounterType = radiologyEncounterType;
+		this.orderingProviderEncounterRole = orderingProviderEncounterRole;
+		this.radiologyConceptClassNames = radiologyConceptClassNames;
+		this.radiologyConceptClassNamesError = radiologyConceptClassNamesError;
+	}
+	
+	/**
+	 * @return number of snapshots cleared before this one was built
+	 */
+	int getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @param globalPropertyName name of a radiology global property
+	 * @return value of given global property or null if it is not defined
+	 */
+	String getGlobalProperty(String globalPropertyName) {
+		return globalProperties.get(globalPropertyName);
+	}
+	
+	String getApplicationEntityTitle() {
+		return applicationEntityTitle;
+	}
+	
+	String getMppsDir() {
+		return mppsDir;
+	}
+	
+	String getMwlDir() {
+		return mwlDir;
+	}
+	
+	String getMwlMppsPort() {
+		return mwlMppsPort;
+	}
+	
+	String getServersAddress() {
+		return serversAddress;
+	}
+	
+	String getServersPort() {
+		return serversPort;
+	}
+	
+	String getServersHL7Port() {
+		return serversHL7Port;
+	}
+	
+	String getApplicationUID() {
+		return applicationUID;
+	}
+	
+	String getStudyUIDSlug() {
+		return studyUIDSlug;
+	}
+	
+	String getStudyPrefix() {
+		return studyPrefix;
+	}
+	
+	String getSpecificCharacterSet() {
+		return specificCharacterSet;
+	}
+	
+	String getDicomViewerUrlBase() {
+		return dicomViewerUrlBase;
+	}
+	
+	String getDicomViewerLocalServerName() {
+		return dicomViewerLocalServerName;
+	}
+	
+	CareSetting getRadiologyCareSetting() {
+		return radiologyCareSetting;
+	}
+	
+	OrderType getRadiologyTestOrderType() {
+		return radiologyTestOrderType;
+	}
+	
+	EncounterType getRadiologyEncounterType() {
+		return radiologyEncounterType;
+	}
+	
+	EncounterRole getOrderingProviderEncounterRole() {
+		return orderingProviderEncounterRole;
+	}
+	
+	String getRadiologyConceptClassNames() {
+		return radiologyConceptClassNames;
+	}
+	
+	String getRadiologyConceptClassNamesError() {
+		return radiologyConceptClassNamesError;
+	}
+}
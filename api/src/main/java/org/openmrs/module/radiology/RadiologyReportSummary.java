@@ -0,0 +1,60 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+/**
+ * Summary of the report of a <code>RadiologyOrder</code> returned by
+ * {@link RadiologyService#getReportSummaries(java.util.Collection)}, telling the order lists
+ * whether an order has been reported without loading its obs.
+ */
+public class RadiologyReportSummary {
+	
+	private final Integer orderId;
+	
+	private final boolean reported;
+	
+	private final int revisionCount;
+	
+	private final Date dateLastEdited;
+	
+	public RadiologyReportSummary(Integer orderId, boolean reported, int revisionCount, Date dateLastEdited) {
+		this.orderId = orderId;
+		this.reported = reported;
+		this.revisionCount = revisionCount;
+		this.dateLastEdited = dateLastEdited;
+	}
+	
+	public Integer getOrderId() {
+		return orderId;
+	}
+	
+	/**
+	 * @return true if the radiology order has a current obs which is not voided
+	 */
+	public boolean isReported() {
+		return reported;
+	}
+	
+	/**
+	 * @return number of obs saved for the radiology order including the revised versions
+	 */
+	public int getRevisionCount() {
+		return revisionCount;
+	}
+	
+	/**
+	 * @return date the last obs version of the radiology order was created or null if it has none
+	 */
+	public Date getDateLastEdited() {
+		return dateLastEdited;
+	}
+}
@@ -9,8 +9,11 @@
  */
 package org.openmrs.module.radiology;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.openmrs.Obs;
 import org.openmrs.Order;
@@ -20,8 +23,10 @@ import org.openmrs.api.EncounterService;
 import org.openmrs.api.OpenmrsService;
 import org.openmrs.api.OrderService;
 import org.openmrs.module.radiology.DicomUtils.OrderRequest;
+import org.openmrs.module.radiology.db.HL7OutboxMessageDAO;
 import org.openmrs.module.radiology.db.RadiologyOrderDAO;
 import org.openmrs.module.radiology.db.StudyDAO;
+import org.openmrs.module.radiology.db.WorklistItemDAO;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional
@@ -31,6 +36,10 @@ public interface RadiologyService extends OpenmrsService {
 	
 	public void setStudyDAO(StudyDAO studyDAO);
 	
+	public void setWorklistItemDAO(WorklistItemDAO worklistItemDAO);
+	
+	public void setHL7OutboxMessageDAO(HL7OutboxMessageDAO hl7OutboxMessageDAO);
+	
 	public void setOrderService(OrderService orderService);
 	
 	public void setEncounterService(EncounterService encounterService);
@@ -47,6 +56,8 @@ public interface RadiologyService extends OpenmrsService {
 	 * @throws IllegalArgumentException if radiologyOrder orderId is not null
 	 * @throws IllegalArgumentException if radiologyOrder.study is null
 	 * @should create new radiology order and study from given radiology order object
+	 * @should create worklist item for given radiology order
+	 * @should queue hl7 outbox message for given radiology order
 	 * @should throw illegal argument exception given null
 	 * @should throw illegal argument exception given existing radiology order
 	 * @should throw illegal argument exception if given radiology order has no study
@@ -54,6 +65,33 @@ public interface RadiologyService extends OpenmrsService {
 	 */
 	public RadiologyOrder placeRadiologyOrder(RadiologyOrder radiologyOrder) throws IllegalArgumentException;
 	
+	/**
+	 * Save given <code>RadiologyOrder</code>s and their <code>RadiologyOrder.study</code> to the
+	 * database in bulk
+	 * <p>
+	 * All radiology orders are validated before any is saved, invalid ones are not placed. Each
+	 * radiology order is also validated like OrderService.saveOrder validates it before it is saved,
+	 * so a radiology order which would fail to be saved does not roll back the others. Radiology
+	 * orders of the same patient and orderer share one encounter. Every
+	 * {@link RadiologyProperties#getOrderPlacementChunkSize()} radiology orders the session is
+	 * flushed and the saved orders, studies, worklist items and hl7 outbox messages are evicted
+	 * from it, so the statements of a chunk can be batched if hibernate.jdbc.batch_size is set.
+	 * Placed radiology orders are detached once the method returns.
+	 * </p>
+	 * 
+	 * @param radiologyOrders radiology orders to be created
+	 * @return results of given radiology orders in given order
+	 * @throws IllegalArgumentException if radiologyOrders is null or contains null
+	 * @should create radiology orders and studies from given radiology orders
+	 * @should share one encounter between radiology orders of same patient and orderer
+	 * @should not place invalid radiology orders and report their errors
+	 * @should place other radiology orders given radiology order order service would fail to save
+	 * @should not place radiology order of same concept as other radiology order of patient
+	 * @should throw illegal argument exception given null
+	 */
+	public List<RadiologyOrderPlacementResult> placeRadiologyOrders(List<RadiologyOrder> radiologyOrders)
+	        throws IllegalArgumentException;
+	
 	/**
 	 * Discontinue given <code>RadiologyOrder</code>
 	 * 
@@ -64,6 +102,8 @@ public interface RadiologyService extends OpenmrsService {
 	 * @throws IllegalArgumentException if radiologyOrder is not active
 	 * @throws IllegalArgumentException if provider is null
 	 * @should create discontinuation order which discontinues given radiology order object
+	 * @should exclude worklist item of given radiology order from worklist
+	 * @should queue hl7 outbox message discontinuing given radiology order
 	 * @should throw illegal argument exception given empty radiology order
 	 * @should throw illegal argument exception given radiology order with orderId null
 	 * @should throw illegal argument exception if radiology order is not active
@@ -92,6 +132,7 @@ public interface RadiologyService extends OpenmrsService {
 	 * @throws IllegalArgumentException if patient is null
 	 * @should return all radiology orders associated with given patient
 	 * @should return empty list given patient without associated radiology orders
+	 * @should load radiology orders with study and orderer in a constant number of statements
 	 * @should throw illegal argument exception given null
 	 */
 	public List<RadiologyOrder> getRadiologyOrdersByPatient(Patient patient) throws IllegalArgumentException;
@@ -104,10 +145,77 @@ public interface RadiologyService extends OpenmrsService {
 	 * @throws IllegalArgumentException if patients is null
 	 * @should return all radiology orders associated with given patients
 	 * @should return all radiology orders given empty patient list
+	 * @should return all radiology orders of patients spread over several in list chunks
+	 * @should load radiology orders with study patient and orderer in a constant number of
+	 *         statements
 	 * @should throw illegal argument exception given null
 	 */
 	public List<RadiologyOrder> getRadiologyOrdersByPatients(List<Patient> patients) throws IllegalArgumentException;
 	
+	/**
+	 * Get the radiology order list rows of the RadiologyOrder's associated with given Patient
+	 * 
+	 * @param patient patient of wanted radiology orders
+	 * @return radiology order list rows of radiology orders associated with given patient sorted by
+	 *         ascending orderId
+	 * @throws IllegalArgumentException if patient is null
+	 * @should return radiology order list rows of radiology orders associated with given patient
+	 * @should throw illegal argument exception given null
+	 */
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatient(Patient patient)
+	        throws IllegalArgumentException;
+	
+	/**
+	 * Get the radiology order list rows of the RadiologyOrder's associated with given Patients
+	 * without loading the radiology orders into the session. A row shows the preferred identifier
+	 * and names of the patient and orderer, falling back to the first non-voided one if there is no
+	 * preferred one.
+	 * 
+	 * @param patients list of patients for which radiology orders are queried
+	 * @return radiology order list rows of radiology orders associated with given patients or of
+	 *         all radiology orders if patients is empty, sorted by ascending orderId
+	 * @throws IllegalArgumentException if patients is null
+	 * @should return radiology order list rows of radiology orders associated with given patients
+	 * @should return radiology order list rows of all radiology orders given empty patient list
+	 * @should return radiology order list rows sorted by order id across several in list chunks
+	 * @should project the values shown in the radiology order list
+	 * @should project one identifier and name per patient given several or no preferred ones
+	 * @should not load radiology orders into the session
+	 * @should throw illegal argument exception given null
+	 */
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatients(List<Patient> patients)
+	        throws IllegalArgumentException;
+	
+	/**
+	 * Search RadiologyOrder's matching given search criteria one page at a time
+	 * 
+	 * @param radiologyOrderSearchCriteria criteria the radiology orders have to match
+	 * @param radiologyOrderPageRequest page of matching radiology orders which should be returned
+	 * @return radiology orders of requested page in requested order and total number of matching
+	 *         radiology orders
+	 * @throws IllegalArgumentException if radiologyOrderSearchCriteria or radiologyOrderPageRequest
+	 *             is null, page size is not positive, first result is negative or afterOrderId is
+	 *             given for a page not sorted by ascending orderId
+	 * @should return all radiology orders given empty search criteria
+	 * @should return radiology orders of patients whose name parts start with words of patient query
+	 * @should return radiology orders of patients whose identifier equals patient query
+	 * @should return radiology orders of patients matching patient query and patient filter
+	 * @should return radiology orders with effective start date within given date range
+	 * @should return radiology orders whose study matches given modality and statuses
+	 * @should return radiology orders matching given urgency
+	 * @should return requested page and total count of matching radiology orders
+	 * @should return page following given after order id
+	 * @should return page starting at given first result sorted by given sort property
+	 * @should load page with study patient and orderer in a constant number of statements
+	 * @should throw illegal argument exception given null
+	 * @should throw illegal argument exception given non positive page size
+	 * @should throw illegal argument exception given after order id with sort other than ascending
+	 *         order id
+	 */
+	@Transactional(readOnly = true)
+	public RadiologyOrderSearchResult searchRadiologyOrders(RadiologyOrderSearchCriteria radiologyOrderSearchCriteria,
+	        RadiologyOrderPageRequest radiologyOrderPageRequest) throws IllegalArgumentException;
+	
 	/**
 	 * <p>
 	 * Update the performedStatus of the <code>Study</code> associated with studyInstanceUid in the
@@ -116,17 +224,108 @@ public interface RadiologyService extends OpenmrsService {
 	 * 
 	 * @param studyInstanceUid study instance uid of study whos performedStatus should be updated
 	 * @param performedStatus performed procedure step status to which study should be set to
-	 * @return study whos performedStatus was updated
+	 * @return study whos performedStatus was updated or null if no study has given study instance
+	 *         uid
 	 * @throws IllegalArgumentException if study instance uid is null
 	 * @should update performed status of study associated with given study instance uid
+	 * @should return null if no study has given study instance uid
+	 * @should update performed status of study again given its study instance uid was resolved
+	 *         before
 	 * @should throw illegal argument exception if study instance uid is null
 	 * @should throw illegal argument exception if performed status is null
 	 */
 	public Study updateStudyPerformedStatus(String studyInstanceUid, PerformedProcedureStepStatus performedStatus)
 	        throws IllegalArgumentException;
 	
+	/**
+	 * <p>
+	 * Update the performedStatus of the <code>Study</code>s associated with given Study Instance
+	 * UIDs in the database in bulk
+	 * </p>
+	 * Studies are updated by the database without being loaded. Studies loaded in the current
+	 * session are refreshed.
+	 * 
+	 * @param performedStatuses performed procedure step statuses by study instance uid of the
+	 *            studies to be updated
+	 * @return study instance uids of given performedStatuses which no study has
+	 * @throws IllegalArgumentException if performedStatuses is null or contains null
+	 * @should update performed status of studies associated with given study instance uids
+	 * @should return study instance uids which no study has
+	 * @should throw illegal argument exception if performed statuses is null
+	 * @should throw illegal argument exception if performed statuses contains null
+	 */
+	public Set<String> updateStudyPerformedStatuses(Map<String, PerformedProcedureStepStatus> performedStatuses)
+	        throws IllegalArgumentException;
+	
+	/**
+	 * Queue the HL7 order message for given order request of given RadiologyOrder in the outbox. The
+	 * message is sent to the PACS by the HL7 outbox dispatcher once the current transaction
+	 * committed, the mwl status of the study is updated when it was sent.
+	 * 
+	 * @param radiologyOrder radiology order the order request refers to
+	 * @param orderRequest order request to be sent
+	 * @should queue hl7 outbox message for given radiology order and order request
+	 */
 	public void sendModalityWorklist(RadiologyOrder radiologyOrder, OrderRequest orderRequest);
 	
+	/**
+	 * Get the HL7 outbox messages which have not been acknowledged yet, in the order they were
+	 * queued
+	 * 
+	 * @param maxResults maximum number of messages returned
+	 * @return unsent hl7 outbox messages
+	 * @should return unsent hl7 outbox messages in the order they were queued
+	 */
+	@Transactional(readOnly = true)
+	public List<HL7OutboxMessage> getUnsentHL7OutboxMessages(int maxResults);
+	
+	/**
+	 * Get the unsent HL7 outbox messages which are due for a delivery attempt, in the order they
+	 * were queued. A message which is not yet due for another attempt holds back all later messages
+	 * of the same radiology order.
+	 * 
+	 * @param maxResults maximum number of messages returned
+	 * @return unsent hl7 outbox messages which are due
+	 * @should return unsent hl7 outbox messages which are due in the order they were queued
+	 * @should not return hl7 outbox message not yet due for another attempt
+	 * @should not return later hl7 outbox messages of radiology order with earlier message not yet due
+	 */
+	@Transactional(readOnly = true)
+	public List<HL7OutboxMessage> getDueHL7OutboxMessages(int maxResults);
+	
+	/**
+	 * Record the outcome of a delivery attempt of given HL7 outbox message and update the
+	 * mwlStatus of the study of its radiology order accordingly. A message which was not
+	 * acknowledged is scheduled for another attempt with exponential backoff.
+	 * 
+	 * @param hl7OutboxMessage hl7 outbox message which delivery was attempted
+	 * @param acknowledged true if the receiver acknowledged the message
+	 * @param error reason why the delivery failed or null
+	 * @return updated hl7 outbox message
+	 * @throws IllegalArgumentException if hl7OutboxMessage is null
+	 * @should mark hl7 outbox message as sent and set ok mwl status given acknowledged
+	 * @should schedule next attempt with exponential backoff and set error mwl status given not
+	 *         acknowledged
+	 * @should throw illegal argument exception given null
+	 */
+	public HL7OutboxMessage saveHL7OutboxMessageDelivery(HL7OutboxMessage hl7OutboxMessage, boolean acknowledged,
+	        String error) throws IllegalArgumentException;
+	
+	/**
+	 * Record that the receiver rejected given HL7 outbox message (acknowledgment code AR). A
+	 * rejected message is not sent again, it is completed with given error and the mwlStatus of
+	 * the study of its radiology order is set to the error status of its order request.
+	 * 
+	 * @param hl7OutboxMessage hl7 outbox message which was rejected
+	 * @param error reason why the receiver rejected the message
+	 * @return updated hl7 outbox message
+	 * @throws IllegalArgumentException if hl7OutboxMessage is null
+	 * @should complete hl7 outbox message with error and set error mwl status
+	 * @should throw illegal argument exception given null
+	 */
+	public HL7OutboxMessage saveHL7OutboxMessageRejection(HL7OutboxMessage hl7OutboxMessage, String error)
+	        throws IllegalArgumentException;
+	
 	/**
 	 * Get Study by studyId
 	 * 
@@ -174,15 +373,95 @@ public interface RadiologyService extends OpenmrsService {
 	public List<Study> getStudiesByRadiologyOrders(List<RadiologyOrder> radiologyOrders) throws IllegalArgumentException;
 	
 	/**
-	 * Get all obs matching the orderId
+	 * Get all obs matching the orderId which have not been revised, that is the current report of
+	 * the order
 	 * 
 	 * @param orderId orderId of obs
 	 * @return list of obs
 	 * @throws IllegalArgumentException
 	 * @should fetch all obs for given orderId
 	 * @should return empty list given orderId without associated obs
+	 * @should not return obs which have been revised
 	 * @should throw IllegalArgumentException given null
 	 */
 	public List<Obs> getObsByOrderId(Integer orderId) throws IllegalArgumentException;
 	
+	/**
+	 * Get the obs which have not been revised of each of given orderIds at once
+	 * 
+	 * @param orderIds orderIds of obs
+	 * @return obs by orderId for every given orderId, empty for orders without obs
+	 * @throws IllegalArgumentException if orderIds is null
+	 * @should fetch obs of all given orderIds
+	 * @should return empty map given empty list
+	 * @should throw IllegalArgumentException given null
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, List<Obs>> getObsByOrderIds(List<Integer> orderIds) throws IllegalArgumentException;
+	
+	/**
+	 * Get the report summaries of the radiology orders with given orderIds in one query, telling
+	 * whether each order has a current report, how many obs versions it has and when it was last
+	 * edited
+	 * 
+	 * @param orderIds orderIds of the radiology orders
+	 * @return report summary by orderId for every given orderId in iteration order of orderIds
+	 * @throws IllegalArgumentException if orderIds is null or contains null
+	 * @should return report summaries of orders with and without report
+	 * @should count revised obs versions and return date of last edit
+	 * @should not report order whose current obs is voided
+	 * @should return empty map given empty collection
+	 * @should throw IllegalArgumentException given null
+	 */
+	@Transactional(readOnly = true)
+	public Map<Integer, RadiologyReportSummary> getReportSummaries(Collection<Integer> orderIds)
+	        throws IllegalArgumentException;
+	
+	/**
+	 * Record given saved obs as current obs of its radiology order replacing its previous version.
+	 * Called after an obs has been saved through {@link org.openmrs.api.ObsService#saveObs(Obs, String)}.
+	 * 
+	 * @param obs saved obs
+	 * @throws IllegalArgumentException if obs is null
+	 * @should record given obs as current obs of its radiology order
+	 * @should replace previous version of given obs
+	 * @should ignore obs of orders other than radiology orders
+	 * @should throw IllegalArgumentException given null
+	 */
+	public void updateCurrentObs(Obs obs) throws IllegalArgumentException;
+	
+	/**
+	 * Remove given obs from the current obs of its radiology order and record its previous version
+	 * as current obs instead. Called before an obs is purged through
+	 * {@link org.openmrs.api.ObsService#purgeObs(Obs)}, since the current obs reference the obs
+	 * table.
+	 * 
+	 * @param obs obs to be purged
+	 * @throws IllegalArgumentException if obs is null
+	 * @should remove given obs from current obs of its radiology order
+	 * @should restore previous version of given obs as current obs
+	 * @should ignore obs which is not current obs
+	 * @should throw IllegalArgumentException given null
+	 */
+	public void removeCurrentObs(Obs obs) throws IllegalArgumentException;
+	
+	/**
+	 * Get the worklist items of scheduled radiology orders matching given search criteria. Worklist
+	 * items of radiology orders which are voided or stopped are not returned.
+	 * 
+	 * @param worklistItemSearchCriteria criteria the worklist items have to match
+	 * @return worklist items matching given criteria ordered by scheduled procedure step start date
+	 * @throws IllegalArgumentException if worklistItemSearchCriteria is null
+	 * @should return worklist items matching given search criteria
+	 * @should return worklist items matching given search criteria with wildcards
+	 * @should return worklist items within given date range
+	 * @should return all worklist items given empty search criteria
+	 * @should not return worklist items of voided radiology orders
+	 * @should not return worklist items of stopped radiology orders
+	 * @should throw illegal argument exception given null
+	 */
+	@Transactional(readOnly = true)
+	public List<WorklistItem> getWorklistItems(WorklistItemSearchCriteria worklistItemSearchCriteria)
+	        throws IllegalArgumentException;
+	
 }
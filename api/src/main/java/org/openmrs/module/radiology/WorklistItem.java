@@ -0,0 +1,156 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * A Modality Worklist item of a scheduled <code>RadiologyOrder</code>. Worklist items denormalize
+ * the order, study and patient attributes needed to answer a DICOM Modality Worklist C-FIND into
+ * one indexed table. They are kept in sync with the radiology orders by the
+ * <code>RadiologyService</code>.
+ * </p>
+ */
+public class WorklistItem {
+	
+	private Integer worklistItemId;
+	
+	private RadiologyOrder radiologyOrder;
+	
+	private String studyInstanceUid;
+	
+	private String accessionNumber;
+	
+	private String requestedProcedureId;
+	
+	private String requestedProcedureDescription;
+	
+	private String patientId;
+	
+	private String patientName;
+	
+	private Date patientBirthDate;
+	
+	private String patientSex;
+	
+	private Modality modality;
+	
+	private String scheduledStationAETitle;
+	
+	private Date scheduledProcedureStepStartDate;
+	
+	public Integer getWorklistItemId() {
+		return worklistItemId;
+	}
+	
+	public void setWorklistItemId(Integer worklistItemId) {
+		this.worklistItemId = worklistItemId;
+	}
+	
+	public RadiologyOrder getRadiologyOrder() {
+		return radiologyOrder;
+	}
+	
+	public void setRadiologyOrder(RadiologyOrder radiologyOrder) {
+		this.radiologyOrder = radiologyOrder;
+	}
+	
+	public String getStudyInstanceUid() {
+		return studyInstanceUid;
+	}
+	
+	public void setStudyInstanceUid(String studyInstanceUid) {
+		this.studyInstanceUid = studyInstanceUid;
+	}
+	
+	public String getAccessionNumber() {
+		return accessionNumber;
+	}
+	
+	public void setAccessionNumber(String accessionNumber) {
+		this.accessionNumber = accessionNumber;
+	}
+	
+	public String getRequestedProcedureId() {
+		return requestedProcedureId;
+	}
+	
+	public void setRequestedProcedureId(String requestedProcedureId) {
+		this.requestedProcedureId = requestedProcedureId;
+	}
+	
+	public String getRequestedProcedureDescription() {
+		return requestedProcedureDescription;
+	}
+	
+	public void setRequestedProcedureDescription(String requestedProcedureDescription) {
+		this.requestedProcedureDescription = requestedProcedureDescription;
+	}
+	
+	public String getPatientId() {
+		return patientId;
+	}
+	
+	public void setPatientId(String patientId) {
+		this.patientId = patientId;
+	}
+	
+	/**
+	 * @return patient name in DICOM person name format (family^given^middle)
+	 */
+	public String getPatientName() {
+		return patientName;
+	}
+	
+	public void setPatientName(String patientName) {
+		this.patientName = patientName;
+	}
+	
+	public Date getPatientBirthDate() {
+		return patientBirthDate;
+	}
+	
+	public void setPatientBirthDate(Date patientBirthDate) {
+		this.patientBirthDate = patientBirthDate;
+	}
+	
+	public String getPatientSex() {
+		return patientSex;
+	}
+	
+	public void setPatientSex(String patientSex) {
+		this.patientSex = patientSex;
+	}
+	
+	public Modality getModality() {
+		return modality;
+	}
+	
+	public void setModality(Modality modality) {
+		this.modality = modality;
+	}
+	
+	public String getScheduledStationAETitle() {
+		return scheduledStationAETitle;
+	}
+	
+	public void setScheduledStationAETitle(String scheduledStationAETitle) {
+		this.scheduledStationAETitle = scheduledStationAETitle;
+	}
+	
+	public Date getScheduledProcedureStepStartDate() {
+		return scheduledProcedureStepStartDate;
+	}
+	
+	public void setScheduledProcedureStepStartDate(Date scheduledProcedureStepStartDate) {
+		this.scheduledProcedureStepStartDate = scheduledProcedureStepStartDate;
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * Restricts the <code>WorklistItem</code>'s returned by
+ * {@link RadiologyService#getWorklistItems(WorklistItemSearchCriteria)}. Attributes which are
+ * <code>null</code> do not restrict the result. String attributes may contain the DICOM wildcards
+ * <code>*</code> and <code>?</code>.
+ * </p>
+ */
+public class WorklistItemSearchCriteria {
+	
+	private String patientId;
+	
+	private String accessionNumber;
+	
+	private Modality modality;
+	
+	private String scheduledStationAETitle;
+	
+	private Date fromDate;
+	
+	private Date toDate;
+	
+	public String getPatientId() {
+		return patientId;
+	}
+	
+	public void setPatientId(String patientId) {
+		this.patientId = patientId;
+	}
+	
+	public String getAccessionNumber() {
+		return accessionNumber;
+	}
+	
+	public void setAccessionNumber(String accessionNumber) {
+		this.accessionNumber = accessionNumber;
+	}
+	
+	public Modality getModality() {
+		return modality;
+	}
+	
+	public void setModality(Modality modality) {
+		this.modality = modality;
+	}
+	
+	public String getScheduledStationAETitle() {
+		return scheduledStationAETitle;
+	}
+	
+	public void setScheduledStationAETitle(String scheduledStationAETitle) {
+		this.scheduledStationAETitle = scheduledStationAETitle;
+	}
+	
+	/**
+	 * @return earliest scheduled procedure step start date (inclusive)
+	 */
+	public Date getFromDate() {
+		return fromDate;
+	}
+	
+	public void setFromDate(Date fromDate) {
+		this.fromDate = fromDate;
+	}
+	
+	/**
+	 * @return latest scheduled procedure step start date (inclusive)
+	 */
+	public Date getToDate() {
+		return toDate;
+	}
+	
+	public void setToDate(Date toDate) {
+		this.toDate = toDate;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db;
+
+import java.util.Date;
+import java.util.List;
+
+import org.openmrs.module.radiology.HL7OutboxMessage;
+
+/**
+ * HL7OutboxMessage-related database functions
+ * 
+ * @see org.openmrs.module.radiology.RadiologyService
+ */
+public interface HL7OutboxMessageDAO {
+	
+	/**
+	 * Save or update given hl7 outbox message
+	 * 
+	 * @param hl7OutboxMessage hl7 outbox message to be saved
+	 * @return hl7 outbox message who was saved
+	 */
+	public HL7OutboxMessage saveHL7OutboxMessage(HL7OutboxMessage hl7OutboxMessage);
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getUnsentHL7OutboxMessages(int)
+	 */
+	public List<HL7OutboxMessage> getUnsentHL7OutboxMessages(int maxResults);
+	
+	/**
+	 * @param now date the returned hl7 outbox messages are due at
+	 * @see org.openmrs.module.radiology.RadiologyService#getDueHL7OutboxMessages(int)
+	 */
+	public List<HL7OutboxMessage> getDueHL7OutboxMessages(Date now, int maxResults);
+	
+}
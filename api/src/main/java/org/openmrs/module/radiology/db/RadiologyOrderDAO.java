@@ -13,6 +13,10 @@ import java.util.List;
 
 import org.openmrs.Patient;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyOrderSearchResult;
 
 /**
  * RadiologyOrder-related database functions
@@ -37,4 +41,16 @@ public interface RadiologyOrderDAO {
 	 */
 	public List<RadiologyOrder> getRadiologyOrdersByPatients(List<Patient> patients);
 	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 */
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatients(List<Patient> patients);
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,
+	 *      RadiologyOrderPageRequest)
+	 */
+	public RadiologyOrderSearchResult searchRadiologyOrders(RadiologyOrderSearchCriteria radiologyOrderSearchCriteria,
+	        RadiologyOrderPageRequest radiologyOrderPageRequest);
+	
 }
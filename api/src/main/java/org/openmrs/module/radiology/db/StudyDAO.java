@@ -9,10 +9,15 @@
  */
 package org.openmrs.module.radiology.db;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.openmrs.Obs;
+import org.openmrs.module.radiology.PerformedProcedureStepStatus;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyReportSummary;
 import org.openmrs.module.radiology.Study;
 
 /**
@@ -42,6 +47,21 @@ public interface StudyDAO {
 	 */
 	public Study getStudyByStudyInstanceUid(String studyInstanceUid);
 	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#updateStudyPerformedStatuses(Map)
+	 */
+	public Set<String> updateStudyPerformedStatuses(Map<String, PerformedProcedureStepStatus> performedStatuses);
+	
+	/**
+	 * Reserve a block of numbers for Study Instance UIDs in a transaction of its own, so that no
+	 * number is handed out twice even if the calling transaction rolls back or other nodes share
+	 * the database
+	 * 
+	 * @param blockSize number of numbers to reserve
+	 * @return first number of the reserved block
+	 */
+	public long allocateStudyInstanceUidBlock(int blockSize);
+	
 	/**
 	 * @see org.openmrs.module.radiology.RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
 	 */
@@ -52,4 +72,28 @@ public interface StudyDAO {
 	 */
 	public List<Obs> getObsByOrderId(Integer orderId);
 	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getObsByOrderIds(List<Integer>)
+	 */
+	public Map<Integer, List<Obs>> getObsByOrderIds(List<Integer> orderIds);
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getReportSummaries(Collection<Integer>)
+	 */
+	public Map<Integer, RadiologyReportSummary> getReportSummaries(Collection<Integer> orderIds);
+	
+	/**
+	 * Records given obs as current obs of its radiology order replacing its previous version
+	 * 
+	 * @param obs saved obs of a radiology order
+	 */
+	public void saveCurrentObs(Obs obs);
+	
+	/**
+	 * Removes given obs from the current obs of its radiology order restoring its previous version
+	 * 
+	 * @param obs obs of a radiology order which is to be purged
+	 */
+	public void deleteCurrentObs(Obs obs);
+	
 }
@@ -0,0 +1,46 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db;
+
+import java.util.List;
+
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.WorklistItem;
+import org.openmrs.module.radiology.WorklistItemSearchCriteria;
+
+/**
+ * WorklistItem-related database functions
+ * 
+ * @see org.openmrs.module.radiology.RadiologyService
+ */
+public interface WorklistItemDAO {
+	
+	/**
+	 * Save or update given worklist item
+	 * 
+	 * @param worklistItem worklist item to be saved
+	 * @return worklist item who was saved
+	 */
+	public WorklistItem saveWorklistItem(WorklistItem worklistItem);
+	
+	/**
+	 * Get worklist item of given radiology order
+	 * 
+	 * @param radiologyOrder radiology order of wanted worklist item
+	 * @return worklist item of given radiology order or null if there is none
+	 */
+	public WorklistItem getWorklistItemByRadiologyOrder(RadiologyOrder radiologyOrder);
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 */
+	public List<WorklistItem> getWorklistItems(WorklistItemSearchCriteria worklistItemSearchCriteria);
+	
+}
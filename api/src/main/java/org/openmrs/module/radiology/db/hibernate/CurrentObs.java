@@ -0,0 +1,36 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+/**
+ * Row of the radiology_current_obs table linking a radiology order to each of its obs which has not
+ * been revised, that is which is no other obs's previous version. It is maintained by
+ * {@link StudyDAOImpl#saveCurrentObs(org.openmrs.Obs)} whenever an obs of a radiology order is
+ * saved and by {@link StudyDAOImpl#deleteCurrentObs(org.openmrs.Obs)} before it is purged, so the
+ * current report of an order is found by its order_id index.
+ */
+class CurrentObs {
+	
+	private Integer obsId;
+	
+	private Integer orderId;
+	
+	CurrentObs() {
+	}
+	
+	CurrentObs(Integer obsId, Integer orderId) {
+		this.obsId = obsId;
+		this.orderId = orderId;
+	}
+	
+	Integer getOrderId() {
+		return orderId;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.criterion.Subqueries;
+import org.openmrs.module.radiology.HL7OutboxMessage;
+import org.openmrs.module.radiology.db.HL7OutboxMessageDAO;
+
+/**
+ * Hibernate specific HL7OutboxMessage related functions. This class should not be used directly.
+ * All calls should go through the {@link org.openmrs.module.radiology.RadiologyService} methods.
+ *
+ * @see org.openmrs.module.radiology.db.HL7OutboxMessageDAO
+ * @see org.openmrs.module.radiology.RadiologyService
+ */
+public class HL7OutboxMessageDAOImpl implements HL7OutboxMessageDAO {
+	
+	private SessionFactory sessionFactory;
+	
+	/**
+	 * Set session factory that allows us to connect to the database that Hibernate knows about.
+	 *
+	 * @param sessionFactory
+	 */
+	public void setSessionFactory(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.HL7OutboxMessageDAO#saveHL7OutboxMessage(HL7OutboxMessage)
+	 */
+	@Override
+	public HL7OutboxMessage saveHL7OutboxMessage(HL7OutboxMessage hl7OutboxMessage) {
+		sessionFactory.getCurrentSession().saveOrUpdate(hl7OutboxMessage);
+		return hl7OutboxMessage;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.HL7OutboxMessageDAO#getUnsentHL7OutboxMessages(int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<HL7OutboxMessage> getUnsentHL7OutboxMessages(int maxResults) {
+		return sessionFactory.getCurrentSession().createCriteria(HL7OutboxMessage.class).add(
+		    Restrictions.isNull("dateSent")).addOrder(Order.asc("hl7OutboxMessageId")).setMaxResults(maxResults).list();
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.HL7OutboxMessageDAO#getDueHL7OutboxMessages(Date, int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<HL7OutboxMessage> getDueHL7OutboxMessages(Date now, int maxResults) {
+		// an earlier unsent message of the same order which is not yet due holds back the message
+		DetachedCriteria earlierNotDue = DetachedCriteria.forClass(HL7OutboxMessage.class, "earlier");
+		earlierNotDue.add(Restrictions.eqProperty("earlier.radiologyOrder", "message.radiologyOrder"));
+		earlierNotDue.add(Restrictions.ltProperty("earlier.hl7OutboxMessageId", "message.hl7OutboxMessageId"));
+		earlierNotDue.add(Restrictions.isNull("earlier.dateSent"));
+		earlierNotDue.add(Restrictions.gt("earlier.nextAttemptDate", now));
+		earlierNotDue.setProjection(Projections.id());
+		
+		return sessionFactory.getCurrentSession().createCriteria(HL7OutboxMessage.class, "message").add(
+		    Restrictions.isNull("message.dateSent")).add(
+		    Restrictions.or(Restrictions.isNull("message.nextAttemptDate"), Restrictions.le("message.nextAttemptDate", now)))
+		        .add(Subqueries.notExists(earlierNotDue)).addOrder(Order.asc("message.hl7OutboxMessageId")).setMaxResults(
+		            maxResults).list();
+	}
+}
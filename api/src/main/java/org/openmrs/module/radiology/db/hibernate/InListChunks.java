@@ -0,0 +1,59 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Splits the values of an in list restriction into chunks of at most {@link #MAX_CHUNK_SIZE}
+ * values. Every chunk is padded up to the next power of two by repeating its last value, so the
+ * database only ever sees a few distinct statements whose plans it can cache and no statement
+ * exceeds the in list limits of the database.
+ */
+final class InListChunks {
+	
+	static final int MAX_CHUNK_SIZE = 512;
+	
+	private InListChunks() {
+	}
+	
+	/**
+	 * Split given values into padded chunks
+	 * 
+	 * @param values values to restrict on, duplicates are removed
+	 * @return padded chunks of the distinct values in iteration order of values, empty if values is
+	 *         empty
+	 * @should pad chunk to next power of two with its last value
+	 * @should split values exceeding max chunk size into several chunks
+	 * @should remove duplicate values
+	 * @should return no chunks given empty collection
+	 */
+	static <T> List<List<T>> of(Collection<T> values) {
+		List<T> distinctValues = new ArrayList<T>(new LinkedHashSet<T>(values));
+		List<List<T>> result = new ArrayList<List<T>>();
+		for (int fromIndex = 0; fromIndex < distinctValues.size(); fromIndex += MAX_CHUNK_SIZE) {
+			List<T> chunk = new ArrayList<T>(distinctValues.subList(fromIndex,
+			    Math.min(fromIndex + MAX_CHUNK_SIZE, distinctValues.size())));
+			int paddedSize = 1;
+			while (paddedSize < chunk.size()) {
+				paddedSize <<= 1;
+			}
+			T lastValue = chunk.get(chunk.size() - 1);
+			while (chunk.size() < paddedSize) {
+				chunk.add(lastValue);
+			}
+			result.add(chunk);
+		}
+		return result;
+	}
+}
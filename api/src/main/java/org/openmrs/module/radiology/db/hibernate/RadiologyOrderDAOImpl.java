@@ -10,13 +10,39 @@
 package org.openmrs.module.radiology.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.commons.lang.StringUtils;
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Query;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Conjunction;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.criterion.Subqueries;
+import org.openmrs.Order.Urgency;
 import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.Person;
+import org.openmrs.PersonName;
+import org.openmrs.Provider;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyOrderSearchResult;
+import org.openmrs.module.radiology.Study;
 import org.openmrs.module.radiology.db.RadiologyOrderDAO;
 
 /**
@@ -56,8 +82,10 @@ public class RadiologyOrderDAOImpl implements RadiologyOrderDAO {
 		
 		Criteria radiologyOrderCriteria = createRadiologyOrderCriteria();
 		addRestrictionOnPatient(radiologyOrderCriteria, patient);
+		addDashboardFetchPlan(radiologyOrderCriteria);
 		
 		result = (List<RadiologyOrder>) radiologyOrderCriteria.list();
+		initializeNamesOfOrderers(result);
 		return result;
 	}
 	
@@ -70,6 +98,89 @@ public class RadiologyOrderDAOImpl implements RadiologyOrderDAO {
 		return sessionFactory.getCurrentSession().createCriteria(RadiologyOrder.class);
 	}
 	
+	/**
+	 * Join fetches what the radiology dashboard of a patient shows per radiology order, that is the
+	 * study and the orderer, so rendering the orders does not issue a select per order
+	 *
+	 * @param criteria criteria for RadiologyOrder on which the fetch modes are set
+	 */
+	private void addDashboardFetchPlan(Criteria criteria) {
+		criteria.setFetchMode("study", FetchMode.JOIN);
+		criteria.setFetchMode("orderer", FetchMode.JOIN);
+		criteria.setFetchMode("orderer.person", FetchMode.JOIN);
+	}
+	
+	/**
+	 * Join fetches what the radiology order list shows per radiology order, that is the study, the
+	 * patient and the orderer, so rendering the orders does not issue a select per order
+	 *
+	 * @param criteria criteria for RadiologyOrder on which the fetch modes are set
+	 */
+	private void addOrderListFetchPlan(Criteria criteria) {
+		addDashboardFetchPlan(criteria);
+		criteria.setFetchMode("patient", FetchMode.JOIN);
+	}
+	
+	/**
+	 * Initializes the names of the orderers of given radiology orders in one select
+	 *
+	 * @param radiologyOrders radiology orders whose orderers names are initialized
+	 */
+	private void initializeNamesOfOrderers(List<RadiologyOrder> radiologyOrders) {
+		initializeNames(getPersonIdsOfOrderers(radiologyOrders));
+	}
+	
+	/**
+	 * Initializes the names and identifiers of the patients and the names of the orderers of given
+	 * radiology orders in one select each. Collections cannot be join fetched by the paged order
+	 * list query itself since that would multiply its rows.
+	 *
+	 * @param radiologyOrders radiology orders whose patients and orderers are initialized
+	 */
+	private void initializePatientsAndOrderers(List<RadiologyOrder> radiologyOrders) {
+		Set<Integer> patientIds = new LinkedHashSet<Integer>();
+		for (RadiologyOrder radiologyOrder : radiologyOrders) {
+			patientIds.add(radiologyOrder.getPatient().getPatientId());
+		}
+		Set<Integer> personIds = getPersonIdsOfOrderers(radiologyOrders);
+		personIds.addAll(patientIds);
+		initializeNames(personIds);
+		
+		for (List<Integer> chunk : InListChunks.of(patientIds)) {
+			sessionFactory.getCurrentSession().createCriteria(Patient.class).add(Restrictions.in("patientId", chunk))
+			        .setFetchMode("identifiers", FetchMode.JOIN).list();
+		}
+	}
+	
+	/**
+	 * Get the person ids of the orderers of given radiology orders
+	 *
+	 * @param radiologyOrders radiology orders whose orderers person ids are returned
+	 * @return person ids of the orderers which are persons
+	 */
+	private Set<Integer> getPersonIdsOfOrderers(List<RadiologyOrder> radiologyOrders) {
+		Set<Integer> result = new LinkedHashSet<Integer>();
+		for (RadiologyOrder radiologyOrder : radiologyOrders) {
+			Provider orderer = radiologyOrder.getOrderer();
+			if (orderer != null && orderer.getPerson() != null) {
+				result.add(orderer.getPerson().getPersonId());
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Initializes the names of the persons with given ids in one select per in list chunk
+	 *
+	 * @param personIds ids of the persons whose names are initialized
+	 */
+	private void initializeNames(Collection<Integer> personIds) {
+		for (List<Integer> chunk : InListChunks.of(personIds)) {
+			sessionFactory.getCurrentSession().createCriteria(Person.class).add(Restrictions.in("personId", chunk))
+			        .setFetchMode("names", FetchMode.JOIN).list();
+		}
+	}
+	
 	/**
 	 * Adds an equality restriction for given patient on given criteria if patient is not null
 	 *
@@ -88,21 +199,252 @@ public class RadiologyOrderDAOImpl implements RadiologyOrderDAO {
 	public List<RadiologyOrder> getRadiologyOrdersByPatients(List<Patient> patients) {
 		List<RadiologyOrder> result = new ArrayList<RadiologyOrder>();
 		
-		Criteria radiologyOrderCriteria = createRadiologyOrderCriteria();
-		addRestrictionOnPatients(radiologyOrderCriteria, patients);
+		if (patients.isEmpty()) {
+			Criteria radiologyOrderCriteria = createRadiologyOrderCriteria();
+			addOrderListFetchPlan(radiologyOrderCriteria);
+			result = (List<RadiologyOrder>) radiologyOrderCriteria.list();
+		} else {
+			// a broad patient query matches thousands of patients, query their orders chunk by chunk
+			for (List<Patient> chunk : InListChunks.of(patients)) {
+				Criteria radiologyOrderCriteria = createRadiologyOrderCriteria();
+				radiologyOrderCriteria.add(Restrictions.in("patient", chunk));
+				addOrderListFetchPlan(radiologyOrderCriteria);
+				result.addAll((List<RadiologyOrder>) radiologyOrderCriteria.list());
+			}
+		}
+		initializePatientsAndOrderers(result);
+		return result;
+	}
+	
+	/**
+	 * Adds subquery restrictions resolving the patients matching given patient query on given
+	 * criteria, so patients and their radiology orders are searched in one SQL query. A patient
+	 * matches if one of its identifiers equals the patient query or one of its names has a given,
+	 * middle or family name starting with each word of the patient query.
+	 *
+	 * @param criteria criteria on which the subquery restrictions are set
+	 * @param patientQuery identifier or name of the patients
+	 */
+	private void addRestrictionOnPatientQuery(Criteria criteria, String patientQuery) {
+		DetachedCriteria identifierCriteria = DetachedCriteria.forClass(PatientIdentifier.class);
+		identifierCriteria.add(Restrictions.eq("voided", false));
+		identifierCriteria.add(Restrictions.eq("identifier", patientQuery.trim()));
+		identifierCriteria.setProjection(Projections.property("patient"));
 		
-		result = (List<RadiologyOrder>) radiologyOrderCriteria.list();
+		DetachedCriteria nameCriteria = DetachedCriteria.forClass(PersonName.class);
+		nameCriteria.add(Restrictions.eq("voided", false));
+		for (String word : StringUtils.split(patientQuery)) {
+			Disjunction namePartStartsWithWord = Restrictions.disjunction();
+			namePartStartsWithWord.add(Restrictions.ilike("givenName", word, MatchMode.START));
+			namePartStartsWithWord.add(Restrictions.ilike("middleName", word, MatchMode.START));
+			namePartStartsWithWord.add(Restrictions.ilike("familyName", word, MatchMode.START));
+			namePartStartsWithWord.add(Restrictions.ilike("familyName2", word, MatchMode.START));
+			nameCriteria.add(namePartStartsWithWord);
+		}
+		nameCriteria.setProjection(Projections.property("person"));
+		
+		criteria.add(Restrictions.or(Subqueries.propertyIn("patient", identifierCriteria),
+		    Subqueries.propertyIn("patient", nameCriteria)));
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 */
+	@Override
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatients(List<Patient> patients) {
+		if (patients.isEmpty()) {
+			return getRadiologyOrderListRows(patients);
+		}
+		
+		List<RadiologyOrderListRow> result = new ArrayList<RadiologyOrderListRow>();
+		for (List<Patient> chunk : InListChunks.of(patients)) {
+			result.addAll(getRadiologyOrderListRows(chunk));
+		}
+		Collections.sort(result, new Comparator<RadiologyOrderListRow>() {
+			
+			@Override
+			public int compare(RadiologyOrderListRow row, RadiologyOrderListRow otherRow) {
+				return row.getOrderId().compareTo(otherRow.getOrderId());
+			}
+		});
 		return result;
 	}
 	
 	/**
-	 * Adds an in restriction for given patients on given criteria if patients is not empty
+	 * Get the radiology order list rows of the radiology orders of given patients ordered by orderId
+	 *
+	 * @param patients patients whose radiology orders are returned, all radiology orders if empty
+	 * @return radiology order list rows of the patients radiology orders
+	 */
+	private List<RadiologyOrderListRow> getRadiologyOrderListRows(List<Patient> patients) {
+		Query query;
+		if (patients.isEmpty()) {
+			query = sessionFactory.getCurrentSession().getNamedQuery("RadiologyOrder.getRadiologyOrderListRows");
+		} else {
+			query = sessionFactory.getCurrentSession().getNamedQuery("RadiologyOrder.getRadiologyOrderListRowsByPatients");
+			query.setParameterList("patients", patients);
+		}
+		query.setBoolean("preferred", true);
+		query.setBoolean("voided", false);
+		return (List<RadiologyOrderListRow>) query.list();
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,
+	 *      RadiologyOrderPageRequest)
+	 */
+	@Override
+	public RadiologyOrderSearchResult searchRadiologyOrders(RadiologyOrderSearchCriteria radiologyOrderSearchCriteria,
+	        RadiologyOrderPageRequest radiologyOrderPageRequest) {
+		
+		Criteria countCriteria = createRadiologyOrderCriteria();
+		addSearchRestrictions(countCriteria, radiologyOrderSearchCriteria);
+		countCriteria.setProjection(Projections.rowCount());
+		int totalCount = ((Number) countCriteria.uniqueResult()).intValue();
+		
+		Criteria radiologyOrderCriteria = createRadiologyOrderCriteria();
+		addSearchRestrictions(radiologyOrderCriteria, radiologyOrderSearchCriteria);
+		if (radiologyOrderPageRequest.getAfterOrderId() != null) {
+			radiologyOrderCriteria.add(Restrictions.gt("orderId", radiologyOrderPageRequest.getAfterOrderId()));
+		}
+		addOrder(radiologyOrderCriteria, radiologyOrderPageRequest);
+		addOrderListFetchPlan(radiologyOrderCriteria);
+		radiologyOrderCriteria.setFirstResult(radiologyOrderPageRequest.getFirstResult());
+		// fetch one more row than requested to find out if there is a next page
+		radiologyOrderCriteria.setMaxResults(radiologyOrderPageRequest.getPageSize() + 1);
+		
+		List<RadiologyOrder> radiologyOrders = (List<RadiologyOrder>) radiologyOrderCriteria.list();
+		Integer nextAfterOrderId = null;
+		if (radiologyOrders.size() > radiologyOrderPageRequest.getPageSize()) {
+			radiologyOrders = new ArrayList<RadiologyOrder>(radiologyOrders.subList(0,
+			    radiologyOrderPageRequest.getPageSize()));
+			nextAfterOrderId = radiologyOrders.get(radiologyOrders.size() - 1).getOrderId();
+		}
+		initializePatientsAndOrderers(radiologyOrders);
+		return new RadiologyOrderSearchResult(radiologyOrders, totalCount, nextAfterOrderId);
+	}
+	
+	/**
+	 * Adds the sort order of given page request on given criteria, ties are broken by ascending
+	 * orderId so pages are stable
 	 *
-	 * @param criteria criteria on which in restriction is set if patients is not empty
-	 * @param patients patient list for which in restriction will be set
+	 * @param criteria criteria on which the sort order is set
+	 * @param radiologyOrderPageRequest page request holding the sort property and direction
+	 */
+	private void addOrder(Criteria criteria, RadiologyOrderPageRequest radiologyOrderPageRequest) {
+		boolean ascending = radiologyOrderPageRequest.isAscending();
+		switch (radiologyOrderPageRequest.getSortProperty()) {
+			case URGENCY:
+				criteria.addOrder(ascending ? org.hibernate.criterion.Order.asc("urgency") : org.hibernate.criterion.Order
+				        .desc("urgency"));
+				break;
+			case EFFECTIVE_START_DATE:
+				criteria.addOrder(new EffectiveStartDateOrder(ascending));
+				break;
+			default:
+				if (!ascending) {
+					criteria.addOrder(org.hibernate.criterion.Order.desc("orderId"));
+					return;
+				}
+		}
+		criteria.addOrder(org.hibernate.criterion.Order.asc("orderId"));
+	}
+	
+	/**
+	 * Orders by the effective start date of a radiology order which is the scheduled date for
+	 * orders with urgency ON_SCHEDULED_DATE and the date activated otherwise.
 	 */
-	private void addRestrictionOnPatients(Criteria criteria, List<Patient> patients) {
-		if (patients.size() > 0)
-			criteria.add(Restrictions.in("patient", patients));
+	private static class EffectiveStartDateOrder extends org.hibernate.criterion.Order {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final boolean ascending;
+		
+		EffectiveStartDateOrder(boolean ascending) {
+			super("dateActivated", ascending);
+			this.ascending = ascending;
+		}
+		
+		@Override
+		public String toSqlString(Criteria criteria, CriteriaQuery criteriaQuery) throws HibernateException {
+			return "case when " + criteriaQuery.getColumn(criteria, "urgency") + " = '" + Urgency.ON_SCHEDULED_DATE
+			        + "' then " + criteriaQuery.getColumn(criteria, "scheduledDate") + " else "
+			        + criteriaQuery.getColumn(criteria, "dateActivated") + " end" + (ascending ? " asc" : " desc");
+		}
+	}
+	
+	/**
+	 * Adds the restrictions of given search criteria on given criteria
+	 *
+	 * @param criteria criteria on which the restrictions are set
+	 * @param radiologyOrderSearchCriteria search criteria whose non null attributes will be
+	 *            restricted on
+	 */
+	private void addSearchRestrictions(Criteria criteria, RadiologyOrderSearchCriteria radiologyOrderSearchCriteria) {
+		if (StringUtils.isNotBlank(radiologyOrderSearchCriteria.getPatientQuery())) {
+			addRestrictionOnPatientQuery(criteria, radiologyOrderSearchCriteria.getPatientQuery());
+		}
+		if (StringUtils.isNotBlank(radiologyOrderSearchCriteria.getPatientFilter())) {
+			addRestrictionOnPatientQuery(criteria, radiologyOrderSearchCriteria.getPatientFilter());
+		}
+		if (radiologyOrderSearchCriteria.getUrgency() != null) {
+			criteria.add(Restrictions.eq("urgency", radiologyOrderSearchCriteria.getUrgency()));
+		}
+		addRestrictionOnEffectiveStartDate(criteria, radiologyOrderSearchCriteria);
+		addRestrictionOnStudy(criteria, radiologyOrderSearchCriteria);
+	}
+	
+	/**
+	 * Adds a range restriction on the effective start date of a radiology order on given criteria
+	 * if from or to date of given search criteria are not null. The effective start date is the
+	 * scheduled date for orders with urgency ON_SCHEDULED_DATE and the date activated otherwise.
+	 *
+	 * @param criteria criteria on which range restriction is set
+	 * @param radiologyOrderSearchCriteria search criteria holding the date range
+	 */
+	private void addRestrictionOnEffectiveStartDate(Criteria criteria,
+	        RadiologyOrderSearchCriteria radiologyOrderSearchCriteria) {
+		if (radiologyOrderSearchCriteria.getFromDate() == null && radiologyOrderSearchCriteria.getToDate() == null)
+			return;
+		
+		Conjunction onScheduledDate = Restrictions.conjunction();
+		onScheduledDate.add(Restrictions.eq("urgency", Urgency.ON_SCHEDULED_DATE));
+		Conjunction onDateActivated = Restrictions.conjunction();
+		onDateActivated.add(Restrictions.ne("urgency", Urgency.ON_SCHEDULED_DATE));
+		if (radiologyOrderSearchCriteria.getFromDate() != null) {
+			onScheduledDate.add(Restrictions.ge("scheduledDate", radiologyOrderSearchCriteria.getFromDate()));
+			onDateActivated.add(Restrictions.ge("dateActivated", radiologyOrderSearchCriteria.getFromDate()));
+		}
+		if (radiologyOrderSearchCriteria.getToDate() != null) {
+			onScheduledDate.add(Restrictions.le("scheduledDate", radiologyOrderSearchCriteria.getToDate()));
+			onDateActivated.add(Restrictions.le("dateActivated", radiologyOrderSearchCriteria.getToDate()));
+		}
+		criteria.add(Restrictions.or(onScheduledDate, onDateActivated));
+	}
+	
+	/**
+	 * Adds a subquery restriction on the study of a radiology order on given criteria if modality,
+	 * scheduled or performed status of given search criteria are not null
+	 *
+	 * @param criteria criteria on which subquery restriction is set
+	 * @param radiologyOrderSearchCriteria search criteria holding the study attributes
+	 */
+	private void addRestrictionOnStudy(Criteria criteria, RadiologyOrderSearchCriteria radiologyOrderSearchCriteria) {
+		if (radiologyOrderSearchCriteria.getModality() == null && radiologyOrderSearchCriteria.getScheduledStatus() == null
+		        && radiologyOrderSearchCriteria.getPerformedStatus() == null)
+			return;
+		
+		DetachedCriteria studyCriteria = DetachedCriteria.forClass(Study.class);
+		if (radiologyOrderSearchCriteria.getModality() != null) {
+			studyCriteria.add(Restrictions.eq("modality", radiologyOrderSearchCriteria.getModality()));
+		}
+		if (radiologyOrderSearchCriteria.getScheduledStatus() != null) {
+			studyCriteria.add(Restrictions.eq("scheduledStatus", radiologyOrderSearchCriteria.getScheduledStatus()));
+		}
+		if (radiologyOrderSearchCriteria.getPerformedStatus() != null) {
+			studyCriteria.add(Restrictions.eq("performedStatus", radiologyOrderSearchCriteria.getPerformedStatus()));
+		}
+		studyCriteria.setProjection(Projections.property("radiologyOrder.orderId"));
+		criteria.add(Subqueries.propertyIn("orderId", studyCriteria));
 	}
 }
@@ -10,13 +10,27 @@
 package org.openmrs.module.radiology.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Criteria;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.type.Type;
 import org.openmrs.Obs;
+import org.openmrs.module.radiology.PerformedProcedureStepStatus;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyReportSummary;
 import org.openmrs.module.radiology.Study;
 import org.openmrs.module.radiology.db.StudyDAO;
 
@@ -62,8 +76,8 @@ public class StudyDAOImpl implements StudyDAO {
 	 */
 	@Override
 	public Study getStudyByOrderId(Integer orderId) {
-		String query = "from Study s where s.radiologyOrder.orderId = '" + orderId + "'";
-		return (Study) sessionFactory.getCurrentSession().createQuery(query).uniqueResult();
+		return (Study) sessionFactory.getCurrentSession().getNamedQuery("Study.getStudyByOrderId")
+		        .setInteger("orderId", orderId).uniqueResult();
 	}
 	
 	/**
@@ -75,6 +89,158 @@ public class StudyDAOImpl implements StudyDAO {
 		    Restrictions.eq("studyInstanceUid", studyInstanceUid)).uniqueResult();
 	}
 	
+	/**
+	 * Updates the performed status with one HQL bulk update per distinct status. Studies already
+	 * loaded in the current session are refreshed so they reflect the new status.
+	 * 
+	 * @see org.openmrs.module.radiology.RadiologyService#updateStudyPerformedStatuses(Map)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Set<String> updateStudyPerformedStatuses(Map<String, PerformedProcedureStepStatus> performedStatuses) {
+		
+		Set<String> notFound = new LinkedHashSet<String>(performedStatuses.keySet());
+		if (notFound.isEmpty()) {
+			return notFound;
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		List<String> found = session.getNamedQuery("Study.getStudyInstanceUids").setParameterList("studyInstanceUids",
+		    performedStatuses.keySet()).list();
+		notFound.removeAll(found);
+		
+		Map<PerformedProcedureStepStatus, List<String>> studyInstanceUidsByStatus = new LinkedHashMap<PerformedProcedureStepStatus, List<String>>();
+		for (String studyInstanceUid : found) {
+			PerformedProcedureStepStatus performedStatus = performedStatuses.get(studyInstanceUid);
+			List<String> studyInstanceUids = studyInstanceUidsByStatus.get(performedStatus);
+			if (studyInstanceUids == null) {
+				studyInstanceUids = new ArrayList<String>();
+				studyInstanceUidsByStatus.put(performedStatus, studyInstanceUids);
+			}
+			studyInstanceUids.add(studyInstanceUid);
+		}
+		
+		Type performedStatusType = sessionFactory.getClassMetadata(Study.class).getPropertyType("performedStatus");
+		for (Map.Entry<PerformedProcedureStepStatus, List<String>> entry : studyInstanceUidsByStatus.entrySet()) {
+			session.getNamedQuery("Study.updatePerformedStatus")
+			        .setParameter("performedStatus", entry.getKey(), performedStatusType).setParameterList(
+			            "studyInstanceUids", entry.getValue()).executeUpdate();
+		}
+		
+		refreshLoadedStudies(session, performedStatuses.keySet());
+		return notFound;
+	}
+	
+	/**
+	 * Refreshes the studies with given Study Instance UIDs which are loaded in given session, since
+	 * bulk updates bypass the session
+	 */
+	private void refreshLoadedStudies(Session session, Set<String> studyInstanceUids) {
+		
+		List<Study> loadedStudies = new ArrayList<Study>();
+		for (Object key : session.getStatistics().getEntityKeys()) {
+			EntityKey entityKey = (EntityKey) key;
+			if (Study.class.getName().equals(entityKey.getEntityName())) {
+				Study study = (Study) session.get(Study.class, entityKey.getIdentifier());
+				if (studyInstanceUids.contains(study.getStudyInstanceUid())) {
+					loadedStudies.add(study);
+				}
+			}
+		}
+		for (Study study : loadedStudies) {
+			session.refresh(study);
+		}
+	}
+	
+	/**
+	 * Reserves the block by incrementing the next value of the radiology_study_uid_block row in a
+	 * separate session. If the row does not yet exist, it is created starting after the highest
+	 * studyId since Study Instance UIDs used to be made of the studyId.
+	 * 
+	 * @see org.openmrs.module.radiology.db.StudyDAO#allocateStudyInstanceUidBlock(int)
+	 */
+	@Override
+	public long allocateStudyInstanceUidBlock(int blockSize) {
+		
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize must be positive");
+		}
+		
+		Long nextValue = reserveStudyInstanceUidBlock(blockSize);
+		if (nextValue != null) {
+			return nextValue - blockSize;
+		}
+		
+		Integer maxStudyId = (Integer) sessionFactory.getCurrentSession().getNamedQuery("Study.getMaxStudyId")
+		        .uniqueResult();
+		long first = maxStudyId == null ? 1 : maxStudyId + 1;
+		if (insertStudyInstanceUidBlock(first + blockSize)) {
+			return first;
+		}
+		
+		// another node created the row in the meantime
+		nextValue = reserveStudyInstanceUidBlock(blockSize);
+		if (nextValue == null) {
+			throw new IllegalStateException("Can not reserve a block of study instance uids");
+		}
+		return nextValue - blockSize;
+	}
+	
+	/**
+	 * Increment the next value of the radiology_study_uid_block row by given block size
+	 * 
+	 * @return incremented next value or null if the row does not exist
+	 */
+	private Long reserveStudyInstanceUidBlock(int blockSize) {
+		
+		Session session = sessionFactory.openSession();
+		Transaction transaction = session.beginTransaction();
+		try {
+			Long nextValue = null;
+			if (session.getNamedQuery("StudyInstanceUidBlock.reserveBlock").setLong("blockSize", blockSize)
+			        .setInteger("id", StudyInstanceUidBlock.ID).executeUpdate() > 0) {
+				nextValue = (Long) session.getNamedQuery("StudyInstanceUidBlock.getNextValue")
+				        .setInteger("id", StudyInstanceUidBlock.ID).uniqueResult();
+			}
+			transaction.commit();
+			return nextValue;
+		}
+		catch (RuntimeException e) {
+			transaction.rollback();
+			throw e;
+		}
+		finally {
+			session.close();
+		}
+	}
+	
+	/**
+	 * Create the radiology_study_uid_block row with given next value
+	 * 
+	 * @return true if the row was created, false if it already existed
+	 */
+	private boolean insertStudyInstanceUidBlock(long nextValue) {
+		
+		Session session = sessionFactory.openSession();
+		Transaction transaction = session.beginTransaction();
+		try {
+			session.save(new StudyInstanceUidBlock(nextValue));
+			transaction.commit();
+			return true;
+		}
+		catch (ConstraintViolationException e) {
+			transaction.rollback();
+			return false;
+		}
+		catch (RuntimeException e) {
+			transaction.rollback();
+			throw e;
+		}
+		finally {
+			session.close();
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.module.radiology.RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
 	 */
@@ -108,15 +274,89 @@ public class StudyDAOImpl implements StudyDAO {
 	 */
 	@Override
 	public List<Obs> getObsByOrderId(Integer orderId) {
-		String innerQuery = "(Select oo.previousVersion from Obs as oo where oo.order.orderId=" + orderId
-		        + " and oo.previousVersion IS NOT NULL)";
-		String query = "from Obs as o where o.order.orderId = " + orderId + " and o.obsId NOT IN " + innerQuery;
-		
-		List<Obs> observations;
+		return (List<Obs>) sessionFactory.getCurrentSession().getNamedQuery("CurrentObs.getObsByOrderId")
+		        .setInteger("orderId", orderId).list();
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getObsByOrderIds(List<Integer>)
+	 */
+	@Override
+	public Map<Integer, List<Obs>> getObsByOrderIds(List<Integer> orderIds) {
+		Map<Integer, List<Obs>> result = new LinkedHashMap<Integer, List<Obs>>();
+		for (Integer orderId : orderIds) {
+			result.put(orderId, new ArrayList<Obs>());
+		}
+		if (orderIds.isEmpty()) {
+			return result;
+		}
 		
-		observations = sessionFactory.getCurrentSession().createQuery(query).list();
+		List<Object[]> rows = (List<Object[]>) sessionFactory.getCurrentSession()
+		        .getNamedQuery("CurrentObs.getObsByOrderIds").setParameterList("orderIds", orderIds).list();
+		for (Object[] row : rows) {
+			result.get(row[0]).add((Obs) row[1]);
+		}
+		return result;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getReportSummaries(Collection<Integer>)
+	 */
+	@Override
+	public Map<Integer, RadiologyReportSummary> getReportSummaries(Collection<Integer> orderIds) {
+		Map<Integer, RadiologyReportSummary> result = new LinkedHashMap<Integer, RadiologyReportSummary>();
+		if (orderIds.isEmpty()) {
+			return result;
+		}
 		
-		return observations;
+		List<Object[]> rows = (List<Object[]>) sessionFactory.getCurrentSession()
+		        .getNamedQuery("CurrentObs.getReportSummaries").setBoolean("voided", false)
+		        .setParameterList("orderIds", orderIds).list();
+		Map<Integer, Object[]> rowsByOrderId = new HashMap<Integer, Object[]>();
+		for (Object[] row : rows) {
+			rowsByOrderId.put((Integer) row[0], row);
+		}
+		for (Integer orderId : orderIds) {
+			Object[] row = rowsByOrderId.get(orderId);
+			if (row == null) {
+				result.put(orderId, new RadiologyReportSummary(orderId, false, 0, null));
+			} else {
+				result.put(orderId, new RadiologyReportSummary(orderId, (Integer) row[1] > 0, (Integer) row[2],
+				        (Date) row[3]));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.StudyDAO#saveCurrentObs(Obs)
+	 */
+	@Override
+	public void saveCurrentObs(Obs obs) {
+		Session session = sessionFactory.getCurrentSession();
+		if (obs.getPreviousVersion() != null) {
+			session.getNamedQuery("CurrentObs.deleteByObsId")
+			        .setInteger("obsId", obs.getPreviousVersion().getObsId()).executeUpdate();
+		}
+		if (session.get(CurrentObs.class, obs.getObsId()) == null) {
+			session.save(new CurrentObs(obs.getObsId(), obs.getOrder().getOrderId()));
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.StudyDAO#deleteCurrentObs(Obs)
+	 */
+	@Override
+	public void deleteCurrentObs(Obs obs) {
+		Session session = sessionFactory.getCurrentSession();
+		CurrentObs currentObs = (CurrentObs) session.get(CurrentObs.class, obs.getObsId());
+		if (currentObs == null) {
+			return;
+		}
+		session.delete(currentObs);
+		if (obs.getPreviousVersion() != null) {
+			session.save(new CurrentObs(obs.getPreviousVersion().getObsId(), currentObs.getOrderId()));
+		}
 	}
 	
 }
@@ -0,0 +1,32 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+/**
+ * Row of the radiology_study_uid_block table holding the next number from which blocks of Study
+ * Instance UIDs are reserved. Only mapped so that the table is known to Hibernate, it is read and
+ * written through HQL by {@link StudyDAOImpl#allocateStudyInstanceUidBlock(int)}.
+ */
+class StudyInstanceUidBlock {
+	
+	static final int ID = 1;
+	
+	private Integer id;
+	
+	private Long nextValue;
+	
+	StudyInstanceUidBlock() {
+	}
+	
+	StudyInstanceUidBlock(long nextValue) {
+		this.id = ID;
+		this.nextValue = nextValue;
+	}
+}
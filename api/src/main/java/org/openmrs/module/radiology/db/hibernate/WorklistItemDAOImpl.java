@@ -0,0 +1,143 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.WorklistItem;
+import org.openmrs.module.radiology.WorklistItemSearchCriteria;
+import org.openmrs.module.radiology.db.WorklistItemDAO;
+
+/**
+ * Hibernate specific WorklistItem related functions. This class should not be used directly. All
+ * calls should go through the {@link org.openmrs.module.radiology.RadiologyService} methods.
+ *
+ * @see org.openmrs.module.radiology.db.WorklistItemDAO
+ * @see org.openmrs.module.radiology.RadiologyService
+ */
+public class WorklistItemDAOImpl implements WorklistItemDAO {
+	
+	private SessionFactory sessionFactory;
+	
+	/**
+	 * Set session factory that allows us to connect to the database that Hibernate knows about.
+	 *
+	 * @param sessionFactory
+	 */
+	public void setSessionFactory(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.WorklistItemDAO#saveWorklistItem(WorklistItem)
+	 */
+	@Override
+	public WorklistItem saveWorklistItem(WorklistItem worklistItem) {
+		sessionFactory.getCurrentSession().saveOrUpdate(worklistItem);
+		return worklistItem;
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.db.WorklistItemDAO#getWorklistItemByRadiologyOrder(RadiologyOrder)
+	 */
+	@Override
+	public WorklistItem getWorklistItemByRadiologyOrder(RadiologyOrder radiologyOrder) {
+		return (WorklistItem) sessionFactory.getCurrentSession().createCriteria(WorklistItem.class).add(
+		    Restrictions.eq("radiologyOrder", radiologyOrder)).uniqueResult();
+	}
+	
+	/**
+	 * @see org.openmrs.module.radiology.RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 */
+	@Override
+	public List<WorklistItem> getWorklistItems(WorklistItemSearchCriteria worklistItemSearchCriteria) {
+		Criteria worklistItemCriteria = sessionFactory.getCurrentSession().createCriteria(WorklistItem.class);
+		// orders voided or stopped through the OrderService keep their worklist item
+		worklistItemCriteria.createAlias("radiologyOrder", "radiologyOrder");
+		worklistItemCriteria.add(Restrictions.eq("radiologyOrder.voided", false));
+		worklistItemCriteria.add(Restrictions.or(Restrictions.isNull("radiologyOrder.dateStopped"), Restrictions.gt(
+		    "radiologyOrder.dateStopped", new Date())));
+		
+		addMatchingRestriction(worklistItemCriteria, "patientId", worklistItemSearchCriteria.getPatientId());
+		addMatchingRestriction(worklistItemCriteria, "accessionNumber", worklistItemSearchCriteria.getAccessionNumber());
+		if (worklistItemSearchCriteria.getModality() != null) {
+			worklistItemCriteria.add(Restrictions.eq("modality", worklistItemSearchCriteria.getModality()));
+		}
+		if (worklistItemSearchCriteria.getScheduledStationAETitle() != null) {
+			// items not yet assigned to a station are offered to every station
+			worklistItemCriteria.add(Restrictions.or(Restrictions.isNull("scheduledStationAETitle"), getMatchingCriterion(
+			    "scheduledStationAETitle", worklistItemSearchCriteria.getScheduledStationAETitle())));
+		}
+		if (worklistItemSearchCriteria.getFromDate() != null) {
+			worklistItemCriteria.add(Restrictions.ge("scheduledProcedureStepStartDate", worklistItemSearchCriteria
+			        .getFromDate()));
+		}
+		if (worklistItemSearchCriteria.getToDate() != null) {
+			worklistItemCriteria.add(Restrictions.le("scheduledProcedureStepStartDate", worklistItemSearchCriteria
+			        .getToDate()));
+		}
+		worklistItemCriteria.addOrder(Order.asc("scheduledProcedureStepStartDate"));
+		
+		return (List<WorklistItem>) worklistItemCriteria.list();
+	}
+	
+	/**
+	 * Adds a restriction matching given DICOM matching key value on given property if value is not
+	 * null
+	 *
+	 * @param criteria criteria on which the restriction is set
+	 * @param propertyName name of the property to match
+	 * @param value DICOM matching key value, may contain the wildcards * and ?
+	 */
+	private void addMatchingRestriction(Criteria criteria, String propertyName, String value) {
+		if (value != null) {
+			criteria.add(getMatchingCriterion(propertyName, value));
+		}
+	}
+	
+	/**
+	 * Get criterion for DICOM single value or wildcard matching of given value on given property
+	 *
+	 * @param propertyName name of the property to match
+	 * @param value DICOM matching key value, may contain the wildcards * and ?
+	 * @return like criterion if value contains wildcards, equals criterion otherwise
+	 */
+	private Criterion getMatchingCriterion(String propertyName, String value) {
+		if (value.indexOf('*') < 0 && value.indexOf('?') < 0) {
+			return Restrictions.eq(propertyName, value);
+		}
+		StringBuilder pattern = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '*':
+					pattern.append('%');
+					break;
+				case '?':
+					pattern.append('_');
+					break;
+				case '%':
+				case '_':
+				case '\\':
+					pattern.append('\\').append(c);
+					break;
+				default:
+					pattern.append(c);
+			}
+		}
+		return Restrictions.like(propertyName, pattern.toString());
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License, 
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can 
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under 
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS 
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.hl7;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.HL7OutboxMessage;
+import org.openmrs.module.radiology.RadiologyService;
+
+/**
+ * Delivers the HL7 order messages queued in the outbox to the RIS/PACS in the background.
+ * <p>
+ * The outbox is polled with a fixed delay. Messages of one radiology order are delivered in the
+ * order they were queued: a message which is not yet due for another attempt or whose delivery
+ * failed holds back all later messages of the same order until the next poll.
+ * <p>
+ * Only an acknowledgement with code AA (or CA) counts as delivered. An AE (application error) or
+ * any other answer is retried with backoff via
+ * {@link RadiologyService#saveHL7OutboxMessageDelivery(HL7OutboxMessage, boolean, String)}, an AR
+ * (application reject) is recorded as error via
+ * {@link RadiologyService#saveHL7OutboxMessageRejection(HL7OutboxMessage, String)} and not sent
+ * again.
+ */
+public class HL7OutboxDispatcher {
+	
+	private static final Log log = LogFactory.getLog(HL7OutboxDispatcher.class);
+	
+	private static final long POLL_INTERVAL = 2000L;
+	
+	private static final int BATCH_SIZE = 100;
+	
+	private ScheduledExecutorService scheduler;
+	
+	/**
+	 * Start polling the outbox
+	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "radiology-hl7-outbox");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			
+			@Override
+			public void run() {
+				try {
+					dispatch();
+				}
+				catch (Throwable t) {
+					log.error("Dispatching HL7 outbox messages failed", t);
+				}
+			}
+		}, POLL_INTERVAL, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+		log.info("Started HL7 outbox dispatcher");
+	}
+	
+	/**
+	 * Stop polling the outbox, waiting for a running delivery to finish
+	 */
+	public synchronized void stop() {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(30, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		scheduler = null;
+		log.info("Stopped HL7 outbox dispatcher");
+	}
+	
+	/**
+	 * Deliver the unsent outbox messages which are due
+	 * 
+	 * @return number of delivered messages
+	 */
+	int dispatch() {
+		
+		int delivered = 0;
+		Context.openSession();
+		try {
+			RadiologyService radiologyService = Context.getService(RadiologyService.class);
+			MLLPClient mllpClient = Context.getRegisteredComponent("mllpClient", MLLPClient.class);
+			List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getDueHL7OutboxMessages(BATCH_SIZE);
+			Set<Integer> heldBackOrderIds = new HashSet<Integer>();
+			for (HL7OutboxMessage hl7OutboxMessage : hl7OutboxMessages) {
+				Integer orderId = hl7OutboxMessage.getRadiologyOrder().getOrderId();
+				if (heldBackOrderIds.contains(orderId)) {
+					continue;
+				}
+				
+				String error = null;
+				String acknowledgmentCode = null;
+				try {
+					acknowledgmentCode = HL7Utils.getAcknowledgmentCode(mllpClient.send(hl7OutboxMessage.getMessage()
+					        .getBytes()));
+					if (!isAccepted(acknowledgmentCode)) {
+						error = "Negative acknowledgement " + acknowledgmentCode;
+					}
+				}
+				catch (IOException e) {
+					error = e.getMessage() == null ? e.toString() : e.getMessage();
+				}
+				if (error == null) {
+					radiologyService.saveHL7OutboxMessageDelivery(hl7OutboxMessage, true, null);
+					delivered++;
+				} else if (isRejected(acknowledgmentCode)) {
+					log.error("Receiver rejected " + hl7OutboxMessage + ": " + error);
+					radiologyService.saveHL7OutboxMessageRejection(hl7OutboxMessage, error);
+				} else {
+					log.warn("Delivery of " + hl7OutboxMessage + " failed: " + error);
+					radiologyService.saveHL7OutboxMessageDelivery(hl7OutboxMessage, false, error);
+					heldBackOrderIds.add(orderId);
+				}
+			}
+		}
+		finally {
+			Context.closeSession();
+		}
+		return delivered;
+	}
+	
+	/**
+	 * Return true if given acknowledgment code tells that the receiver accepted the message
+	 */
+	private static boolean isAccepted(String acknowledgmentCode) {
+		return "AA".equals(acknowledgmentCode) || "CA".equals(acknowledgmentCode);
+	}
+	
+	/**
+	 * Return true if given acknowledgment code tells that the receiver rejected the message for
+	 * good, so that sending it again is pointless
+	 */
+	private static boolean isRejected(String acknowledgmentCode) {
+		return "AR".equals(acknowledgmentCode) || "CR".equals(acknowledgmentCode);
+	}
+}
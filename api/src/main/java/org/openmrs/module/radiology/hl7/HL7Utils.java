@@ -9,6 +9,8 @@
  */
 package org.openmrs.module.radiology.hl7;
 
+import java.util.regex.Pattern;
+
 import org.openmrs.PersonName;
 
 import ca.uhn.hl7v2.model.DataTypeException;
@@ -41,4 +43,27 @@ public class HL7Utils {
 		}
 		return result;
 	}
+	
+	/**
+	 * Get the acknowledgment code (MSA-1) of given encoded HL7 acknowledgement message
+	 * 
+	 * @param acknowledgement encoded HL7 acknowledgement message
+	 * @return acknowledgment code like AA, AE or AR or null if given message has no MSA segment
+	 * @should return acknowledgment code of given acknowledgement message
+	 * @should return null given message without msa segment
+	 * @should return null given null
+	 */
+	public static String getAcknowledgmentCode(byte[] acknowledgement) {
+		
+		if (acknowledgement == null) {
+			return null;
+		}
+		for (String segment : new String(acknowledgement).split("[\\r\\n]+")) {
+			if (segment.startsWith("MSA") && segment.length() > 4) {
+				String[] fields = segment.split(Pattern.quote(segment.substring(3, 4)), -1);
+				return fields[1].trim();
+			}
+		}
+		return null;
+	}
 }
@@ -0,0 +1,76 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License, 
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can 
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under 
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS 
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.hl7;
+
+import java.io.IOException;
+
+import org.openmrs.module.radiology.RadiologyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Long-lived MLLP client sending HL7 messages to the HL7 receiver of the PACS (dcm4chee) over a
+ * {@link MLLPConnectionPool}. Receiver, pool size and timeouts are taken from
+ * {@link RadiologyProperties}; the pool is replaced once they change.
+ */
+@Component("mllpClient")
+public class MLLPClient {
+	
+	@Autowired
+	private RadiologyProperties radiologyProperties;
+	
+	private MLLPConnectionPool connectionPool;
+	
+	/**
+	 * Send given HL7 message to the HL7 receiver of the PACS
+	 * 
+	 * @param message encoded HL7 message
+	 * @return encoded HL7 acknowledgement message
+	 * @throws IOException if the message could not be sent or was not acknowledged
+	 */
+	public byte[] send(byte[] message) throws IOException {
+		return getConnectionPool().send(message);
+	}
+	
+	/**
+	 * Return connection pool matching the current configuration
+	 * 
+	 * @return connection pool
+	 */
+	synchronized MLLPConnectionPool getConnectionPool() {
+		
+		String hostname = radiologyProperties.getServersHostname();
+		int port = Integer.parseInt(radiologyProperties.getServersHL7Port().trim());
+		int poolSize = radiologyProperties.getHL7ConnectionPoolSize();
+		int connectTimeout = radiologyProperties.getHL7ConnectTimeout();
+		int responseTimeout = radiologyProperties.getHL7ResponseTimeout();
+		int idleTimeout = radiologyProperties.getHL7IdleTimeout();
+		
+		if (connectionPool == null
+		        || !connectionPool.hasConfiguration(hostname, port, poolSize, connectTimeout, responseTimeout, idleTimeout)) {
+			if (connectionPool != null) {
+				connectionPool.close();
+			}
+			connectionPool = new MLLPConnectionPool(hostname, port, poolSize, connectTimeout, responseTimeout,
+			        idleTimeout);
+		}
+		return connectionPool;
+	}
+	
+	/**
+	 * Close all pooled connections
+	 */
+	public synchronized void close() {
+		if (connectionPool != null) {
+			connectionPool.close();
+			connectionPool = null;
+		}
+	}
+}
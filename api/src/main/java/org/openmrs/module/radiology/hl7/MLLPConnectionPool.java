@@ -0,0 +1,307 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License, 
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can 
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under 
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS 
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.hl7;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dcm4che.hl7.MLLPConnection;
+
+/**
+ * Pool of persistent MLLP connections to one HL7 receiver.
+ * <p>
+ * At most {@code poolSize} messages are sent concurrently, each over a connection of its own.
+ * Connections are kept open after the acknowledgement was received and are reused by subsequent
+ * messages. A connection is checked before reuse and discarded if it was closed, has received
+ * unsolicited data or has been idle longer than {@code idleTimeout}. If writing the message to a
+ * reused connection fails or the receiver closes it before answering, the message is sent once
+ * more over a new connection, since the receiver closed the stale connection without processing
+ * the message. Any other failure, like a response timeout, is rethrown: the receiver may have
+ * processed the message already and sending it again would duplicate the order.
+ */
+public class MLLPConnectionPool {
+	
+	private static final Log log = LogFactory.getLog(MLLPConnectionPool.class);
+	
+	private final String hostname;
+	
+	private final int port;
+	
+	private final int poolSize;
+	
+	private final int connectTimeout;
+	
+	private final int responseTimeout;
+	
+	private final int idleTimeout;
+	
+	private final Semaphore permits;
+	
+	private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<PooledConnection>();
+	
+	private volatile boolean closed;
+	
+	/**
+	 * @param hostname hostname of the HL7 receiver
+	 * @param port port of the HL7 receiver
+	 * @param poolSize maximum number of connections
+	 * @param connectTimeout timeout in ms for establishing a connection, 0 for no timeout
+	 * @param responseTimeout timeout in ms for receiving the acknowledgement, 0 for no timeout
+	 * @param idleTimeout time in ms after which an unused connection is no longer reused
+	 */
+	public MLLPConnectionPool(String hostname, int port, int poolSize, int connectTimeout, int responseTimeout,
+	    int idleTimeout) {
+		
+		if (hostname == null) {
+			throw new IllegalArgumentException("hostname is required");
+		}
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("poolSize must be greater than 0");
+		}
+		this.hostname = hostname;
+		this.port = port;
+		this.poolSize = poolSize;
+		this.connectTimeout = connectTimeout;
+		this.responseTimeout = responseTimeout;
+		this.idleTimeout = idleTimeout;
+		this.permits = new Semaphore(poolSize, true);
+	}
+	
+	/**
+	 * Send given HL7 message and return the acknowledgement of the receiver
+	 * 
+	 * @param message encoded HL7 message
+	 * @return encoded HL7 acknowledgement message
+	 * @throws IOException if no connection became available within the connect timeout or if the
+	 *             message could not be sent or acknowledged
+	 * @should send message and return acknowledgement
+	 * @should reuse connection for subsequent messages
+	 * @should reconnect if receiver closed idle connection
+	 * @should not resend message if reused connection times out waiting for acknowledgement
+	 * @should throw io exception if receiver closes connection without acknowledgement
+	 */
+	public byte[] send(byte[] message) throws IOException {
+		
+		if (message == null) {
+			throw new IllegalArgumentException("message is required");
+		}
+		acquirePermit();
+		try {
+			PooledConnection connection = pollIdleConnection();
+			if (connection != null) {
+				try {
+					return sendAndRelease(connection, message);
+				}
+				catch (StaleConnectionException e) {
+					log.debug("Reused MLLP connection to " + this + " was closed, reconnecting", e);
+				}
+			}
+			return sendAndRelease(new PooledConnection(connect()), message);
+		}
+		finally {
+			permits.release();
+		}
+	}
+	
+	private void acquirePermit() throws IOException {
+		
+		if (closed) {
+			throw new IOException("MLLP connection pool to " + this + " is closed");
+		}
+		try {
+			if (!permits.tryAcquire(connectTimeout > 0 ? connectTimeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+				throw new IOException("No MLLP connection to " + this + " available within " + connectTimeout + "ms");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for MLLP connection to " + this);
+		}
+	}
+	
+	private PooledConnection pollIdleConnection() {
+		
+		PooledConnection connection;
+		while ((connection = idleConnections.pollFirst()) != null) {
+			if (connection.isReusable()) {
+				return connection;
+			}
+			connection.close();
+		}
+		return null;
+	}
+	
+	private byte[] sendAndRelease(PooledConnection connection, byte[] message) throws IOException {
+		
+		byte[] result;
+		try {
+			result = connection.send(message);
+		}
+		catch (IOException e) {
+			connection.close();
+			throw e;
+		}
+		if (closed) {
+			connection.close();
+		} else {
+			idleConnections.offerFirst(connection);
+		}
+		return result;
+	}
+	
+	private Socket connect() throws IOException {
+		
+		Socket socket = new Socket();
+		try {
+			socket.setTcpNoDelay(true);
+			socket.connect(new InetSocketAddress(hostname, port), connectTimeout);
+			socket.setSoTimeout(responseTimeout);
+		}
+		catch (IOException e) {
+			closeQuietly(socket);
+			throw e;
+		}
+		log.debug("Opened MLLP connection " + socket);
+		return socket;
+	}
+	
+	/**
+	 * Close all idle connections and refuse further messages. Connections in use are closed once
+	 * their message has been acknowledged.
+	 */
+	public void close() {
+		
+		closed = true;
+		PooledConnection connection;
+		while ((connection = idleConnections.pollFirst()) != null) {
+			connection.close();
+		}
+	}
+	
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Return number of connections available for reuse
+	 */
+	public int getIdleCount() {
+		return idleConnections.size();
+	}
+	
+	/**
+	 * Return number of messages being sent
+	 */
+	public int getActiveCount() {
+		return poolSize - permits.availablePermits();
+	}
+	
+	/**
+	 * Return true if this pool connects to given receiver with given configuration
+	 */
+	public boolean hasConfiguration(String hostname, int port, int poolSize, int connectTimeout, int responseTimeout,
+	        int idleTimeout) {
+		return this.hostname.equals(hostname) && this.port == port && this.poolSize == poolSize
+		        && this.connectTimeout == connectTimeout && this.responseTimeout == responseTimeout
+		        && this.idleTimeout == idleTimeout;
+	}
+	
+	@Override
+	public String toString() {
+		return hostname + ":" + port;
+	}
+	
+	private static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			// ignore
+		}
+	}
+	
+	private class PooledConnection {
+		
+		private final Socket socket;
+		
+		private final MLLPConnection mllp;
+		
+		private long lastUsed;
+		
+		PooledConnection(Socket socket) throws IOException {
+			this.socket = socket;
+			try {
+				this.mllp = new MLLPConnection(socket);
+			}
+			catch (IOException e) {
+				closeQuietly(socket);
+				throw e;
+			}
+		}
+		
+		byte[] send(byte[] message) throws IOException {
+			try {
+				mllp.writeMessage(message);
+			}
+			catch (IOException e) {
+				throw new StaleConnectionException("Writing message failed", e);
+			}
+			byte[] result = mllp.readMessage();
+			if (result == null) {
+				throw new StaleConnectionException("Connection closed by receiver", null);
+			}
+			lastUsed = System.currentTimeMillis();
+			return result;
+		}
+		
+		/**
+		 * Health check of an idle connection
+		 */
+		boolean isReusable() {
+			if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+				return false;
+			}
+			if (idleTimeout > 0 && System.currentTimeMillis() - lastUsed > idleTimeout) {
+				return false;
+			}
+			try {
+				// an idle connection must not have received anything
+				return socket.getInputStream().available() == 0;
+			}
+			catch (IOException e) {
+				return false;
+			}
+		}
+		
+		void close() {
+			log.debug("Close MLLP connection " + socket);
+			closeQuietly(socket);
+		}
+	}
+	
+	/**
+	 * Signals that the message was not received since the connection was closed before the
+	 * receiver answered
+	 */
+	private static class StaleConnectionException extends IOException {
+		
+		private static final long serialVersionUID = 1L;
+		
+		StaleConnectionException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+}
@@ -9,8 +9,17 @@
  */
 package org.openmrs.module.radiology.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -18,23 +27,43 @@ import org.openmrs.Encounter;
 import org.openmrs.Obs;
 import org.openmrs.Order;
 import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonName;
 import org.openmrs.Provider;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.OrderContext;
 import org.openmrs.api.OrderService;
+import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.module.radiology.DicomUtils;
 import org.openmrs.module.radiology.DicomUtils.OrderRequest;
+import org.openmrs.module.radiology.HL7OutboxMessage;
 import org.openmrs.module.radiology.MwlStatus;
 import org.openmrs.module.radiology.PerformedProcedureStepStatus;
+import org.openmrs.module.radiology.RadiologyConstants;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderPlacementResult;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyOrderSearchResult;
 import org.openmrs.module.radiology.RadiologyProperties;
+import org.openmrs.module.radiology.RadiologyReportSummary;
 import org.openmrs.module.radiology.RadiologyService;
 import org.openmrs.module.radiology.ScheduledProcedureStepStatus;
 import org.openmrs.module.radiology.Study;
+import org.openmrs.module.radiology.WorklistItem;
+import org.openmrs.module.radiology.WorklistItemSearchCriteria;
+import org.openmrs.module.radiology.db.HL7OutboxMessageDAO;
 import org.openmrs.module.radiology.db.RadiologyOrderDAO;
 import org.openmrs.module.radiology.db.StudyDAO;
+import org.openmrs.module.radiology.db.WorklistItemDAO;
+import org.openmrs.module.radiology.validator.RadiologyOrderValidator;
+import org.openmrs.validator.ValidateUtil;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindException;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ValidationUtils;
 
 class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyService {
 	
@@ -44,12 +73,23 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 	
 	private StudyDAO studyDAO;
 	
+	private WorklistItemDAO worklistItemDAO;
+	
+	private HL7OutboxMessageDAO hl7OutboxMessageDAO;
+	
 	private OrderService orderService;
 	
 	private EncounterService encounterService;
 	
 	private RadiologyProperties radiologyProperties;
 	
+	private final RadiologyOrderValidator radiologyOrderValidator = new RadiologyOrderValidator();
+	
+	private StudyInstanceUidAllocator studyInstanceUidAllocator;
+	
+	private final StudyInstanceUidCache studyInstanceUidCache = new StudyInstanceUidCache(
+	        StudyInstanceUidCache.DEFAULT_CAPACITY, StudyInstanceUidCache.DEFAULT_NEGATIVE_TTL);
+	
 	@Override
 	public void setRadiologyOrderDao(RadiologyOrderDAO radiologyOrderDAO) {
 		this.radiologyOrderDAO = radiologyOrderDAO;
@@ -58,6 +98,18 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 	@Override
 	public void setStudyDAO(StudyDAO studyDAO) {
 		this.studyDAO = studyDAO;
+		this.studyInstanceUidAllocator = new StudyInstanceUidAllocator(studyDAO,
+		        StudyInstanceUidAllocator.DEFAULT_BLOCK_SIZE);
+	}
+	
+	@Override
+	public void setWorklistItemDAO(WorklistItemDAO worklistItemDAO) {
+		this.worklistItemDAO = worklistItemDAO;
+	}
+	
+	@Override
+	public void setHL7OutboxMessageDAO(HL7OutboxMessageDAO hl7OutboxMessageDAO) {
+		this.hl7OutboxMessageDAO = hl7OutboxMessageDAO;
 	}
 	
 	@Override
@@ -107,9 +159,171 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		
 		RadiologyOrder result = (RadiologyOrder) orderService.saveOrder(radiologyOrder, orderContext);
 		saveStudy(result.getStudy());
+		saveWorklistItem(result);
+		queueHL7OutboxMessage(result, OrderRequest.Save_Order);
 		return result;
 	}
 	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 */
+	@Transactional
+	@Override
+	public List<RadiologyOrderPlacementResult> placeRadiologyOrders(List<RadiologyOrder> radiologyOrders) {
+		if (radiologyOrders == null) {
+			throw new IllegalArgumentException("radiologyOrders is required");
+		}
+		
+		List<RadiologyOrderPlacementResult> results = new ArrayList<RadiologyOrderPlacementResult>(radiologyOrders
+		        .size());
+		for (RadiologyOrder radiologyOrder : radiologyOrders) {
+			if (radiologyOrder == null) {
+				throw new IllegalArgumentException("radiologyOrders must not contain null");
+			}
+			results.add(new RadiologyOrderPlacementResult(radiologyOrder, validateRadiologyOrderToBePlaced(radiologyOrder)));
+		}
+		
+		OrderContext orderContext = new OrderContext();
+		orderContext.setCareSetting(radiologyProperties.getRadiologyCareSetting());
+		orderContext.setOrderType(radiologyProperties.getRadiologyTestOrderType());
+		int chunkSize = radiologyProperties.getOrderPlacementChunkSize();
+		Date encounterDateTime = new Date();
+		
+		Map<List<Object>, Encounter> encounters = new HashMap<List<Object>, Encounter>();
+		Map<List<Integer>, Set<Integer>> activeOrderConceptIds = new HashMap<List<Integer>, Set<Integer>>();
+		List<Object> placed = new ArrayList<Object>();
+		int placedInChunk = 0;
+		for (RadiologyOrderPlacementResult result : results) {
+			if (!result.isPlaced()) {
+				continue;
+			}
+			
+			RadiologyOrder radiologyOrder = result.getRadiologyOrder();
+			List<Object> encounterKey = Arrays.<Object> asList(radiologyOrder.getPatient(), radiologyOrder.getOrderer());
+			Encounter encounter = encounters.get(encounterKey);
+			if (encounter == null) {
+				encounter = newRadiologyOrderEncounter(radiologyOrder.getPatient(), radiologyOrder.getOrderer(),
+				    encounterDateTime);
+				encounters.put(encounterKey, encounter);
+			}
+			// encounter.addOrder would keep every order of the encounter reachable from the session
+			radiologyOrder.setEncounter(encounter);
+			
+			if (!validateRadiologyOrderToBeSaved(radiologyOrder, orderContext, activeOrderConceptIds, result
+			        .getErrors())) {
+				radiologyOrder.setEncounter(null);
+				continue;
+			}
+			if (encounter.getEncounterId() == null) {
+				encounterService.saveEncounter(encounter);
+				placed.add(encounter);
+			}
+			orderService.saveOrder(radiologyOrder, orderContext);
+			placed.add(radiologyOrder);
+			placed.add(saveStudy(radiologyOrder.getStudy()));
+			placed.add(saveWorklistItem(radiologyOrder));
+			placed.add(queueHL7OutboxMessage(radiologyOrder, OrderRequest.Save_Order));
+			
+			if (++placedInChunk == chunkSize) {
+				flushAndEvict(placed);
+				placedInChunk = 0;
+			}
+		}
+		flushAndEvict(placed);
+		return results;
+	}
+	
+	/**
+	 * Validate given radiology order which is to be placed
+	 * 
+	 * @param radiologyOrder radiology order to be placed
+	 * @return errors of given radiology order
+	 */
+	private Errors validateRadiologyOrderToBePlaced(RadiologyOrder radiologyOrder) {
+		
+		Errors errors = new BindException(radiologyOrder, "radiologyOrder");
+		if (radiologyOrder.getOrderId() != null) {
+			errors.reject("radiology.error.existingOrder", "Cannot edit an existing order!");
+		}
+		ValidationUtils.rejectIfEmpty(errors, "study", "error.null");
+		if (radiologyOrder.getStudy() != null) {
+			ValidationUtils.rejectIfEmpty(errors, "study.modality", "error.null");
+		}
+		radiologyOrderValidator.validate(radiologyOrder, errors);
+		return errors;
+	}
+	
+	/**
+	 * Validate given radiology order with the validators OrderService.saveOrder applies to it and
+	 * with the check of saveOrder for another active order of the same concept, patient and care
+	 * setting. The concept of a valid radiology order which does not expire right away counts as
+	 * active for the radiology orders validated after it, so a bulk placement cannot contain the
+	 * same test twice for a patient.
+	 * <p>
+	 * A saveOrder which fails marks the transaction of all radiology orders placed in bulk
+	 * rollback-only, so it is only called for radiology orders which pass this validation.
+	 * </p>
+	 * 
+	 * @param radiologyOrder radiology order to be saved with its encounter set
+	 * @param orderContext order context the radiology order is to be saved with
+	 * @param activeOrderConceptIds concept ids of the active orders by patient id and care setting
+	 *            id, loaded for a patient and care setting on first use
+	 * @param errors errors of given radiology order
+	 * @return true if given radiology order is valid
+	 */
+	private boolean validateRadiologyOrderToBeSaved(RadiologyOrder radiologyOrder, OrderContext orderContext,
+	        Map<List<Integer>, Set<Integer>> activeOrderConceptIds, Errors errors) {
+		
+		if (radiologyOrder.getOrderType() == null) {
+			radiologyOrder.setOrderType(orderContext.getOrderType());
+		}
+		if (radiologyOrder.getCareSetting() == null) {
+			radiologyOrder.setCareSetting(orderContext.getCareSetting());
+		}
+		ValidateUtil.validate(radiologyOrder, errors);
+		if (!errors.hasErrors()) {
+			List<Integer> activeOrdersKey = Arrays.asList(radiologyOrder.getPatient().getPatientId(), radiologyOrder
+			        .getCareSetting().getCareSettingId());
+			Set<Integer> conceptIds = activeOrderConceptIds.get(activeOrdersKey);
+			if (conceptIds == null) {
+				conceptIds = new HashSet<Integer>();
+				for (Order activeOrder : orderService.getActiveOrders(radiologyOrder.getPatient(), null, radiologyOrder
+				        .getCareSetting(), null)) {
+					conceptIds.add(activeOrder.getConcept().getConceptId());
+				}
+				activeOrderConceptIds.put(activeOrdersKey, conceptIds);
+			}
+			Integer conceptId = radiologyOrder.getConcept().getConceptId();
+			if (conceptIds.contains(conceptId)) {
+				errors.rejectValue("concept", "Order.cannot.have.more.than.one",
+				    "Cannot have more than one active order for the same orderable and care setting");
+			} else if (radiologyOrder.getAutoExpireDate() == null || radiologyOrder.getAutoExpireDate().after(new Date())) {
+				conceptIds.add(conceptId);
+			}
+		}
+		if (errors.hasErrors()) {
+			errors.reject("radiology.error.placeOrder", "Cannot place order!");
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Flush the session and evict given objects from it
+	 * 
+	 * @param placed objects saved while placing radiology orders, may contain null
+	 */
+	private void flushAndEvict(List<Object> placed) {
+		
+		Context.flushSession();
+		for (Object object : placed) {
+			if (object != null) {
+				Context.evictFromSession(object);
+			}
+		}
+		placed.clear();
+	}
+	
 	/**
 	 * Save radiology order encounter for given parameters
 	 * 
@@ -122,25 +336,40 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 	@Transactional
 	private Encounter saveRadiologyOrderEncounter(Patient patient, Provider provider, Date encounterDateTime) {
 		
+		return encounterService.saveEncounter(newRadiologyOrderEncounter(patient, provider, encounterDateTime));
+	}
+	
+	/**
+	 * Create radiology order encounter for given parameters without saving it
+	 * 
+	 * @param patient the encounter patient
+	 * @param provider the encounter provider
+	 * @param encounterDateTime the encounter date
+	 * @return unsaved radiology order encounter for given parameters
+	 */
+	private Encounter newRadiologyOrderEncounter(Patient patient, Provider provider, Date encounterDateTime) {
+		
 		Encounter encounter = new Encounter();
 		encounter.setPatient(patient);
 		encounter.setEncounterType(radiologyProperties.getRadiologyEncounterType());
 		encounter.setProvider(radiologyProperties.getOrderingProviderEncounterRole(), provider);
 		encounter.setEncounterDatetime(encounterDateTime);
-		
-		return encounterService.saveEncounter(encounter);
+		return encounter;
 	}
 	
 	/**
 	 * <p>
 	 * Save the given <code>Study</code> to the database
 	 * </p>
-	 * Additionally, study and study.order information are written into a DICOM xml file.
+	 * Additionally, study and study.order information are written into a DICOM xml file. A new
+	 * study is given a Study Instance UID before it is inserted.
 	 * 
 	 * @param study study to be created or updated
 	 * @return study who was created or updated
 	 * @should create new study from given study object
 	 * @should update existing study
+	 * @should give new studies distinct study instance uids
+	 * @should not change study instance uid of existing study
 	 */
 	@Transactional
 	private Study saveStudy(Study study) {
@@ -152,10 +381,11 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		}
 		
 		try {
+			if (study.getStudyInstanceUid() == null) {
+				study.setStudyInstanceUid(radiologyProperties.getStudyPrefix() + studyInstanceUidAllocator.nextValue());
+			}
 			Study savedStudy = studyDAO.saveStudy(study);
-			String studyInstanceUid = radiologyProperties.getStudyPrefix() + savedStudy.getStudyId();
-			savedStudy.setStudyInstanceUid(studyInstanceUid);
-			savedStudy = studyDAO.saveStudy(savedStudy);
+			studyInstanceUidCache.put(savedStudy.getStudyInstanceUid(), savedStudy.getStudyId());
 			return savedStudy;
 		}
 		catch (Exception e) {
@@ -165,6 +395,54 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		return null;
 	}
 	
+	/**
+	 * Save the worklist item of given radiology order, creating it if it does not yet exist
+	 * 
+	 * @param radiologyOrder radiology order whose worklist item is saved
+	 * @return worklist item of given radiology order
+	 * @should create worklist item for given radiology order
+	 * @should update existing worklist item of given radiology order
+	 */
+	@Transactional
+	private WorklistItem saveWorklistItem(RadiologyOrder radiologyOrder) {
+		
+		WorklistItem worklistItem = worklistItemDAO.getWorklistItemByRadiologyOrder(radiologyOrder);
+		if (worklistItem == null) {
+			worklistItem = new WorklistItem();
+			worklistItem.setRadiologyOrder(radiologyOrder);
+		}
+		
+		Study study = radiologyOrder.getStudy();
+		worklistItem.setStudyInstanceUid(study.getStudyInstanceUid());
+		worklistItem.setModality(study.getModality());
+		worklistItem.setAccessionNumber(radiologyOrder.getAccessionNumber());
+		worklistItem.setRequestedProcedureId(radiologyOrder.getOrderNumber());
+		worklistItem.setRequestedProcedureDescription(radiologyOrder.getInstructions());
+		Date scheduledProcedureStepStartDate = radiologyOrder.getEffectiveStartDate();
+		worklistItem.setScheduledProcedureStepStartDate(scheduledProcedureStepStartDate == null ? new Date()
+		        : scheduledProcedureStepStartDate);
+		
+		Patient patient = radiologyOrder.getPatient();
+		PatientIdentifier patientIdentifier = patient.getPatientIdentifier();
+		worklistItem.setPatientId(patientIdentifier == null ? null : patientIdentifier.getIdentifier());
+		PersonName personName = patient.getPersonName();
+		worklistItem.setPatientName(personName == null ? null : getDicomPersonName(personName));
+		worklistItem.setPatientBirthDate(patient.getBirthdate());
+		worklistItem.setPatientSex(patient.getGender());
+		
+		return worklistItemDAO.saveWorklistItem(worklistItem);
+	}
+	
+	/**
+	 * Get given person name in DICOM PN format family^given^middle
+	 */
+	private String getDicomPersonName(PersonName personName) {
+		String result = (personName.getFamilyName() == null ? "" : personName.getFamilyName()) + "^"
+		        + (personName.getGivenName() == null ? "" : personName.getGivenName()) + "^"
+		        + (personName.getMiddleName() == null ? "" : personName.getMiddleName());
+		return result.replaceAll("\\^+$", "");
+	}
+	
 	/**
 	 * @see RadiologyService#discontinueRadiologyOrder(RadiologyOrder, Provider, Date, String)
 	 */
@@ -191,8 +469,10 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		
 		Encounter encounter = saveRadiologyOrderEncounter(radiologyOrderToDiscontinue.getPatient(), orderer, discontinueDate);
 		
-		return orderService.discontinueOrder(radiologyOrderToDiscontinue, nonCodedDiscontinueReason, discontinueDate,
-		    orderer, encounter);
+		Order result = orderService.discontinueOrder(radiologyOrderToDiscontinue, nonCodedDiscontinueReason,
+		    discontinueDate, orderer, encounter);
+		queueHL7OutboxMessage(radiologyOrderToDiscontinue, OrderRequest.Discontinue_Order);
+		return result;
 	}
 	
 	/**
@@ -234,6 +514,63 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		return radiologyOrderDAO.getRadiologyOrdersByPatients(patients);
 	}
 	
+	/**
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatient(Patient)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatient(Patient patient) {
+		if (patient == null) {
+			throw new IllegalArgumentException("patient is required");
+		}
+		
+		return radiologyOrderDAO.getRadiologyOrderListRowsByPatients(Arrays.asList(patient));
+	}
+	
+	/**
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public List<RadiologyOrderListRow> getRadiologyOrderListRowsByPatients(List<Patient> patients) {
+		if (patients == null) {
+			throw new IllegalArgumentException("patients is required");
+		}
+		
+		return radiologyOrderDAO.getRadiologyOrderListRowsByPatients(patients);
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,
+	 *      RadiologyOrderPageRequest)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public RadiologyOrderSearchResult searchRadiologyOrders(RadiologyOrderSearchCriteria radiologyOrderSearchCriteria,
+	        RadiologyOrderPageRequest radiologyOrderPageRequest) {
+		if (radiologyOrderSearchCriteria == null) {
+			throw new IllegalArgumentException("radiologyOrderSearchCriteria is required");
+		}
+		
+		if (radiologyOrderPageRequest == null) {
+			throw new IllegalArgumentException("radiologyOrderPageRequest is required");
+		}
+		
+		if (radiologyOrderPageRequest.getPageSize() <= 0) {
+			throw new IllegalArgumentException("radiologyOrderPageRequest.pageSize must be positive");
+		}
+		
+		if (radiologyOrderPageRequest.getFirstResult() < 0) {
+			throw new IllegalArgumentException("radiologyOrderPageRequest.firstResult must not be negative");
+		}
+		
+		if (radiologyOrderPageRequest.getAfterOrderId() != null && !radiologyOrderPageRequest.isSortedByOrderId()) {
+			throw new IllegalArgumentException("radiologyOrderPageRequest.afterOrderId requires sorting by ascending orderId");
+		}
+		
+		return radiologyOrderDAO.searchRadiologyOrders(radiologyOrderSearchCriteria, radiologyOrderPageRequest);
+	}
+	
 	/**
 	 * @see RadiologyService#updateStudyPerformedStatus(String, PerformedProcedureStepStatus)
 	 */
@@ -250,18 +587,101 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 			throw new IllegalArgumentException("performedStatus is required");
 		}
 		
-		Study studyToBeUpdated = studyDAO.getStudyByStudyInstanceUid(studyInstanceUid);
+		Study studyToBeUpdated = getStudyByStudyInstanceUidCached(studyInstanceUid);
+		if (studyToBeUpdated == null) {
+			return null;
+		}
 		studyToBeUpdated.setPerformedStatus(performedStatus);
 		return studyDAO.saveStudy(studyToBeUpdated);
 	}
 	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatuses(Map)
+	 */
+	@Transactional
+	@Override
+	public Set<String> updateStudyPerformedStatuses(Map<String, PerformedProcedureStepStatus> performedStatuses)
+	        throws IllegalArgumentException {
+		
+		if (performedStatuses == null) {
+			throw new IllegalArgumentException("performedStatuses is required");
+		}
+		
+		Set<String> unknown = new LinkedHashSet<String>();
+		Map<String, PerformedProcedureStepStatus> toBeUpdated = new LinkedHashMap<String, PerformedProcedureStepStatus>();
+		for (Map.Entry<String, PerformedProcedureStepStatus> entry : performedStatuses.entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null) {
+				throw new IllegalArgumentException("performedStatuses must not contain null");
+			}
+			if (studyInstanceUidCache.isUnknown(entry.getKey())) {
+				unknown.add(entry.getKey());
+			} else {
+				toBeUpdated.put(entry.getKey(), entry.getValue());
+			}
+		}
+		
+		for (String studyInstanceUid : studyDAO.updateStudyPerformedStatuses(toBeUpdated)) {
+			log.warn("No study with study instance uid " + studyInstanceUid);
+			studyInstanceUidCache.putUnknown(studyInstanceUid);
+			unknown.add(studyInstanceUid);
+		}
+		return unknown;
+	}
+	
+	/**
+	 * Get the study with given Study Instance UID, resolving it through the study instance uid
+	 * cache. Study Instance UIDs no study has are cached as unknown and not looked up again until
+	 * the negative time to live expired.
+	 * 
+	 * @param studyInstanceUid study instance uid of the study
+	 * @return study with given study instance uid or null if there is none
+	 */
+	private Study getStudyByStudyInstanceUidCached(String studyInstanceUid) {
+		
+		Integer studyId = studyInstanceUidCache.getStudyId(studyInstanceUid);
+		if (studyId != null) {
+			Study study = studyDAO.getStudyByStudyId(studyId);
+			if (study != null && studyInstanceUid.equals(study.getStudyInstanceUid())) {
+				return study;
+			}
+			studyInstanceUidCache.remove(studyInstanceUid);
+		}
+		
+		if (studyInstanceUidCache.isUnknown(studyInstanceUid)) {
+			log.debug("Ignoring unknown study instance uid " + studyInstanceUid);
+			return null;
+		}
+		
+		Study study = studyDAO.getStudyByStudyInstanceUid(studyInstanceUid);
+		if (study == null) {
+			log.warn("No study with study instance uid " + studyInstanceUid);
+			studyInstanceUidCache.putUnknown(studyInstanceUid);
+			return null;
+		}
+		studyInstanceUidCache.put(studyInstanceUid, study.getStudyId());
+		return study;
+	}
+	
+	/**
+	 * @see RadiologyService#sendModalityWorklist(RadiologyOrder, OrderRequest)
+	 */
+	@Transactional
 	@Override
 	public void sendModalityWorklist(RadiologyOrder radiologyOrder, OrderRequest orderRequest) {
-		MwlStatus mwlStatus = radiologyOrder.getStudy().getMwlStatus();
-		String hl7blob = DicomUtils.createHL7Message(radiologyOrder, orderRequest);
-		int status = DicomUtils.sendHL7Worklist(hl7blob);
+		queueHL7OutboxMessage(radiologyOrder, orderRequest);
+	}
+	
+	/**
+	 * Get the mwl status of a study after an order request was sent to the pacs
+	 * 
+	 * @param mwlStatus mwl status of the study before the order request was sent
+	 * @param orderRequest order request which was sent
+	 * @param acknowledged true if the pacs acknowledged the order request
+	 * @return mwl status of the study
+	 */
+	private MwlStatus getMwlStatus(MwlStatus mwlStatus, OrderRequest orderRequest, boolean acknowledged) {
 		
-		if (status == 1) {
+		if (acknowledged) {
 			switch (orderRequest) {
 				case Save_Order:
 					if (mwlStatus == MwlStatus.DEFAULT || mwlStatus == MwlStatus.SAVE_ERR) {
@@ -287,7 +707,7 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 				
 			}
 			
-		} else if (status == 0) {
+		} else {
 			switch (orderRequest) {
 				case Save_Order:
 					if (mwlStatus == MwlStatus.DEFAULT || mwlStatus == MwlStatus.SAVE_ERR) {
@@ -312,8 +732,111 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 					break;
 			}
 		}
-		radiologyOrder.getStudy().setMwlStatus(mwlStatus);
-		saveStudy(radiologyOrder.getStudy());
+		return mwlStatus;
+	}
+	
+	/**
+	 * Queue the HL7 order message for given order request in the outbox. The message is delivered
+	 * by the <code>HL7OutboxDispatcher</code> once the current transaction committed.
+	 * 
+	 * @param radiologyOrder radiology order the order request refers to
+	 * @param orderRequest order request to be sent
+	 * @return queued hl7 outbox message or null if the message could not be created
+	 */
+	@Transactional
+	private HL7OutboxMessage queueHL7OutboxMessage(RadiologyOrder radiologyOrder, OrderRequest orderRequest) {
+		
+		String message = DicomUtils.createHL7Message(radiologyOrder, orderRequest);
+		if (message == null) {
+			Study study = radiologyOrder.getStudy();
+			study.setMwlStatus(getMwlStatus(study.getMwlStatus(), orderRequest, false));
+			studyDAO.saveStudy(study);
+			return null;
+		}
+		
+		HL7OutboxMessage hl7OutboxMessage = new HL7OutboxMessage();
+		hl7OutboxMessage.setRadiologyOrder(radiologyOrder);
+		hl7OutboxMessage.setOrderRequest(orderRequest);
+		hl7OutboxMessage.setMessage(message);
+		hl7OutboxMessage.setDateCreated(new Date());
+		return hl7OutboxMessageDAO.saveHL7OutboxMessage(hl7OutboxMessage);
+	}
+	
+	/**
+	 * @see RadiologyService#getUnsentHL7OutboxMessages(int)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public List<HL7OutboxMessage> getUnsentHL7OutboxMessages(int maxResults) {
+		return hl7OutboxMessageDAO.getUnsentHL7OutboxMessages(maxResults);
+	}
+	
+	/**
+	 * @see RadiologyService#getDueHL7OutboxMessages(int)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public List<HL7OutboxMessage> getDueHL7OutboxMessages(int maxResults) {
+		return hl7OutboxMessageDAO.getDueHL7OutboxMessages(new Date(), maxResults);
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageDelivery(HL7OutboxMessage, boolean, String)
+	 */
+	@Transactional
+	@Override
+	public HL7OutboxMessage saveHL7OutboxMessageDelivery(HL7OutboxMessage hl7OutboxMessage, boolean acknowledged,
+	        String error) {
+		if (hl7OutboxMessage == null) {
+			throw new IllegalArgumentException("hl7OutboxMessage is required");
+		}
+		
+		Date now = new Date();
+		hl7OutboxMessage.setAttempts(hl7OutboxMessage.getAttempts() + 1);
+		if (acknowledged) {
+			hl7OutboxMessage.setDateSent(now);
+			hl7OutboxMessage.setNextAttemptDate(null);
+			hl7OutboxMessage.setLastError(null);
+		} else {
+			long delay = RadiologyConstants.HL7_OUTBOX_INITIAL_RETRY_DELAY
+			        << Math.min(hl7OutboxMessage.getAttempts() - 1, 30);
+			hl7OutboxMessage.setNextAttemptDate(new Date(now.getTime()
+			        + Math.min(delay, RadiologyConstants.HL7_OUTBOX_MAX_RETRY_DELAY)));
+			hl7OutboxMessage.setLastError(truncateHL7OutboxMessageError(error));
+		}
+		
+		Study study = hl7OutboxMessage.getRadiologyOrder().getStudy();
+		study.setMwlStatus(getMwlStatus(study.getMwlStatus(), hl7OutboxMessage.getOrderRequest(), acknowledged));
+		studyDAO.saveStudy(study);
+		return hl7OutboxMessageDAO.saveHL7OutboxMessage(hl7OutboxMessage);
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageRejection(HL7OutboxMessage, String)
+	 */
+	@Transactional
+	@Override
+	public HL7OutboxMessage saveHL7OutboxMessageRejection(HL7OutboxMessage hl7OutboxMessage, String error) {
+		if (hl7OutboxMessage == null) {
+			throw new IllegalArgumentException("hl7OutboxMessage is required");
+		}
+		
+		hl7OutboxMessage.setAttempts(hl7OutboxMessage.getAttempts() + 1);
+		hl7OutboxMessage.setDateSent(new Date());
+		hl7OutboxMessage.setNextAttemptDate(null);
+		hl7OutboxMessage.setLastError(truncateHL7OutboxMessageError(error));
+		
+		Study study = hl7OutboxMessage.getRadiologyOrder().getStudy();
+		study.setMwlStatus(getMwlStatus(study.getMwlStatus(), hl7OutboxMessage.getOrderRequest(), false));
+		studyDAO.saveStudy(study);
+		return hl7OutboxMessageDAO.saveHL7OutboxMessage(hl7OutboxMessage);
+	}
+	
+	/**
+	 * Truncate given delivery error to the length of the last_error column
+	 */
+	private String truncateHL7OutboxMessageError(String error) {
+		return error != null && error.length() > 1024 ? error.substring(0, 1024) : error;
 	}
 	
 	/**
@@ -376,4 +899,81 @@ class RadiologyServiceImpl extends BaseOpenmrsService implements RadiologyServic
 		return studyDAO.getObsByOrderId(orderId);
 	}
 	
+	/**
+	 * @see RadiologyService#getObsByOrderIds(List<Integer>)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public Map<Integer, List<Obs>> getObsByOrderIds(List<Integer> orderIds) {
+		if (orderIds == null) {
+			throw new IllegalArgumentException("orderIds is required");
+		}
+		
+		return studyDAO.getObsByOrderIds(orderIds);
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public Map<Integer, RadiologyReportSummary> getReportSummaries(Collection<Integer> orderIds) {
+		if (orderIds == null) {
+			throw new IllegalArgumentException("orderIds is required");
+		}
+		
+		for (Integer orderId : orderIds) {
+			if (orderId == null) {
+				throw new IllegalArgumentException("orderIds must not contain null");
+			}
+		}
+		
+		return studyDAO.getReportSummaries(orderIds);
+	}
+	
+	/**
+	 * @see RadiologyService#updateCurrentObs(Obs)
+	 */
+	@Transactional
+	@Override
+	public void updateCurrentObs(Obs obs) {
+		if (obs == null) {
+			throw new IllegalArgumentException("obs is required");
+		}
+		
+		if (obs.getOrder() == null || radiologyOrderDAO.getRadiologyOrderByOrderId(obs.getOrder().getOrderId()) == null) {
+			return;
+		}
+		studyDAO.saveCurrentObs(obs);
+	}
+	
+	/**
+	 * @see RadiologyService#removeCurrentObs(Obs)
+	 */
+	@Transactional
+	@Override
+	public void removeCurrentObs(Obs obs) {
+		if (obs == null) {
+			throw new IllegalArgumentException("obs is required");
+		}
+		
+		if (obs.getObsId() == null) {
+			return;
+		}
+		studyDAO.deleteCurrentObs(obs);
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public List<WorklistItem> getWorklistItems(WorklistItemSearchCriteria worklistItemSearchCriteria) {
+		if (worklistItemSearchCriteria == null) {
+			throw new IllegalArgumentException("worklistItemSearchCriteria is required");
+		}
+		
+		return worklistItemDAO.getWorklistItems(worklistItemSearchCriteria);
+	}
+	
 }
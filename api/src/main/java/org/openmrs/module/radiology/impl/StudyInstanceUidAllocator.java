@@ -0,0 +1,67 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.impl;
+
+import org.openmrs.module.radiology.db.StudyDAO;
+
+/**
+ * Hands out the numbers making Study Instance UIDs unique from blocks reserved in the database, so
+ * that a new study gets its Study Instance UID before it is inserted and the database is only
+ * asked once per block. Blocks are reserved in a transaction of their own, numbers of a block which
+ * are not used before shutdown are skipped.
+ */
+class StudyInstanceUidAllocator {
+	
+	static final int DEFAULT_BLOCK_SIZE = 50;
+	
+	private final StudyDAO studyDAO;
+	
+	private final int blockSize;
+	
+	private long next;
+	
+	private long limit;
+	
+	/**
+	 * @param studyDAO study dao reserving the blocks
+	 * @param blockSize number of numbers reserved at once
+	 * @throws IllegalArgumentException if studyDAO is null or blockSize is not positive
+	 */
+	StudyInstanceUidAllocator(StudyDAO studyDAO, int blockSize) {
+		
+		if (studyDAO == null) {
+			throw new IllegalArgumentException("studyDAO is required");
+		}
+		
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize must be positive");
+		}
+		
+		this.studyDAO = studyDAO;
+		this.blockSize = blockSize;
+	}
+	
+	/**
+	 * Get the next number for a Study Instance UID, reserving a new block if the current one is
+	 * used up
+	 * 
+	 * @return number not handed out before
+	 * @should hand out distinct numbers across blocks and allocators
+	 * @should hand out consecutive numbers within a block
+	 */
+	synchronized long nextValue() {
+		
+		if (next >= limit) {
+			next = studyDAO.allocateStudyInstanceUidBlock(blockSize);
+			limit = next + blockSize;
+		}
+		return next++;
+	}
+}
@@ -0,0 +1,179 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache mapping Study Instance UIDs to the studyId of their study, which saves looking up
+ * the study by its Study Instance UID for every MPPS received from a modality.
+ * <p>
+ * Study Instance UIDs which no study has, e.g. of studies not ordered in OpenMRS, are remembered
+ * for the negative time to live so that status changes for them are rejected without querying the
+ * database. Beyond the capacity the least recently used entries are evicted. Cached studyIds may
+ * be stale, callers must check the study they load and {@link #remove(String)} it if it does not
+ * match.
+ */
+class StudyInstanceUidCache {
+	
+	static final int DEFAULT_CAPACITY = 10000;
+	
+	static final long DEFAULT_NEGATIVE_TTL = TimeUnit.MINUTES.toMillis(5);
+	
+	private final int capacity;
+	
+	private final long negativeTtlNanos;
+	
+	private final LinkedHashMap<String, Integer> studyIds;
+	
+	private final LinkedHashMap<String, Long> unknownUntil;
+	
+	private long hits;
+	
+	private long negativeHits;
+	
+	private long misses;
+	
+	/**
+	 * Create a cache holding at most given number of known and of unknown Study Instance UIDs
+	 * 
+	 * @param capacity maximum number of known and of unknown study instance uids
+	 * @param negativeTtl milliseconds an unknown study instance uid is remembered
+	 * @throws IllegalArgumentException if capacity or negativeTtl is negative
+	 */
+	StudyInstanceUidCache(int capacity, long negativeTtl) {
+		
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+		
+		if (negativeTtl < 0) {
+			throw new IllegalArgumentException("negativeTtl must not be negative");
+		}
+		
+		this.capacity = capacity;
+		this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+		this.studyIds = newLruMap();
+		this.unknownUntil = newLruMap();
+	}
+	
+	private <V> LinkedHashMap<String, V> newLruMap() {
+		return new LinkedHashMap<String, V>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Get the studyId of the study with given Study Instance UID
+	 * 
+	 * @param studyInstanceUid study instance uid to look up
+	 * @return studyId or null if given study instance uid is not cached as known
+	 * @should return study id of known study instance uid
+	 * @should return null given study instance uid which is not cached
+	 */
+	synchronized Integer getStudyId(String studyInstanceUid) {
+		
+		Integer studyId = studyIds.get(studyInstanceUid);
+		if (studyId != null) {
+			hits++;
+		}
+		return studyId;
+	}
+	
+	/**
+	 * Check if no study had given Study Instance UID within the negative time to live
+	 * 
+	 * @param studyInstanceUid study instance uid to check
+	 * @return true if given study instance uid is cached as unknown
+	 * @should return true for unknown study instance uid within negative ttl
+	 * @should return false for unknown study instance uid once negative ttl expired
+	 */
+	synchronized boolean isUnknown(String studyInstanceUid) {
+		
+		Long until = unknownUntil.get(studyInstanceUid);
+		if (until == null) {
+			misses++;
+			return false;
+		}
+		if (System.nanoTime() - until >= 0) {
+			unknownUntil.remove(studyInstanceUid);
+			misses++;
+			return false;
+		}
+		negativeHits++;
+		return true;
+	}
+	
+	/**
+	 * Cache given studyId for given Study Instance UID
+	 * 
+	 * @param studyInstanceUid study instance uid of the study
+	 * @param studyId studyId of the study
+	 * @should no longer cache study instance uid as unknown
+	 * @should evict least recently used study instance uid beyond capacity
+	 */
+	synchronized void put(String studyInstanceUid, Integer studyId) {
+		
+		unknownUntil.remove(studyInstanceUid);
+		if (capacity > 0) {
+			studyIds.put(studyInstanceUid, studyId);
+		}
+	}
+	
+	/**
+	 * Cache given Study Instance UID as unknown for the negative time to live
+	 * 
+	 * @param studyInstanceUid study instance uid no study has
+	 */
+	synchronized void putUnknown(String studyInstanceUid) {
+		
+		studyIds.remove(studyInstanceUid);
+		if (capacity > 0 && negativeTtlNanos > 0) {
+			unknownUntil.put(studyInstanceUid, System.nanoTime() + negativeTtlNanos);
+		}
+	}
+	
+	/**
+	 * Remove given Study Instance UID from the cache
+	 * 
+	 * @param studyInstanceUid study instance uid to remove
+	 */
+	synchronized void remove(String studyInstanceUid) {
+		
+		studyIds.remove(studyInstanceUid);
+		unknownUntil.remove(studyInstanceUid);
+	}
+	
+	synchronized long getHits() {
+		return hits;
+	}
+	
+	synchronized long getNegativeHits() {
+		return negativeHits;
+	}
+	
+	synchronized long getMisses() {
+		return misses;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "StudyInstanceUidCache[known=" + studyIds.size() + ", unknown=" + unknownUntil.size() + "/" + capacity
+		        + ", hits=" + hits + ", negativeHits=" + negativeHits + ", misses=" + misses + "]";
+	}
+}
@@ -0,0 +1,263 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.net.DicomServiceException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link BoundedExecutor}
+ */
+public class BoundedExecutorTest {
+
+	private BoundedExecutor boundedExecutor;
+
+	private CountDownLatch release;
+
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		boundedExecutor = new BoundedExecutor("TEST", 1, 1, 1);
+		release = new CountDownLatch(1);
+	}
+
+	@After
+	public void runAfterEachTest() throws Exception {
+		release.countDown();
+		boundedExecutor.shutdown();
+	}
+
+	/**
+	 * @see BoundedExecutor#execute(Runnable)
+	 * @verifies run task on pool thread if pool is not exhausted
+	 */
+	@Test
+	public void execute_shouldRunTaskOnPoolThreadIfPoolIsNotExhausted() throws Exception {
+
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicReference<String> threadName = new AtomicReference<String>();
+		final AtomicBoolean rejected = new AtomicBoolean(true);
+
+		boundedExecutor.execute(new Runnable() {
+
+			public void run() {
+				threadName.set(Thread.currentThread().getName());
+				rejected.set(boundedExecutor.isRejected());
+				done.countDown();
+			}
+		});
+
+		assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(threadName.get(), is("TEST-1"));
+		assertThat(rejected.get(), is(false));
+		assertThat(boundedExecutor.getRejectedCount(), is(0L));
+	}
+
+	/**
+	 * @see BoundedExecutor#execute(Runnable)
+	 * @verifies start new thread instead of queueing task if pool is not at maximum size
+	 */
+	@Test
+	public void execute_shouldStartNewThreadInsteadOfQueueingTaskIfPoolIsNotAtMaximumSize() throws Exception {
+
+		boundedExecutor.shutdown();
+		boundedExecutor = new BoundedExecutor("TEST", 1, 3, 1);
+		boundedExecutor.prestartCoreThreads();
+		assertThat(boundedExecutor.getPoolSize(), is(1));
+
+		final CountDownLatch started = new CountDownLatch(3);
+		for (int i = 0; i < 3; i++) {
+			boundedExecutor.execute(new BlockingTask(started));
+		}
+
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(boundedExecutor.getActiveCount(), is(3));
+		assertThat(boundedExecutor.getQueuedCount(), is(0));
+		assertThat(boundedExecutor.getRejectedCount(), is(0L));
+	}
+
+	/**
+	 * @see BoundedExecutor#execute(Runnable)
+	 * @verifies run task in submitting thread marked as rejected if pool and queue are exhausted
+	 */
+	@Test
+	public void execute_shouldRunTaskInSubmittingThreadMarkedAsRejectedIfPoolAndQueueAreExhausted() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		boundedExecutor.execute(new BlockingTask(started));
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+		boundedExecutor.execute(new BlockingTask(null));
+
+		final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+		final AtomicBoolean rejected = new AtomicBoolean();
+		boundedExecutor.execute(new Runnable() {
+
+			public void run() {
+				thread.set(Thread.currentThread());
+				rejected.set(boundedExecutor.isRejected());
+			}
+		});
+
+		assertThat(thread.get(), is(Thread.currentThread()));
+		assertThat(rejected.get(), is(true));
+		assertThat(boundedExecutor.isRejected(), is(false));
+		assertThat(boundedExecutor.getActiveCount(), is(1));
+		assertThat(boundedExecutor.getQueuedCount(), is(1));
+		assertThat(boundedExecutor.getRejectedCount(), is(1L));
+	}
+
+	/**
+	 * @see BoundedExecutor#execute(Runnable)
+	 * @verifies run task on busy pool thread marked as rejected if pool and queue are exhausted
+	 */
+	@Test
+	public void execute_shouldRunTaskOnBusyPoolThreadMarkedAsRejectedIfPoolAndQueueAreExhausted() throws Exception {
+
+		boundedExecutor.shutdown();
+		boundedExecutor = new BoundedExecutor("TEST", 1, 1, 0, 1);
+		final CountDownLatch started = new CountDownLatch(1);
+		boundedExecutor.execute(new BlockingTask(started));
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicReference<String> threadName = new AtomicReference<String>();
+		final AtomicBoolean rejected = new AtomicBoolean();
+		boundedExecutor.execute(new Runnable() {
+
+			public void run() {
+				threadName.set(Thread.currentThread().getName());
+				rejected.set(boundedExecutor.isRejected());
+				done.countDown();
+			}
+		});
+
+		assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(threadName.get(), is("TEST-BUSY-1"));
+		assertThat(rejected.get(), is(true));
+		assertThat(boundedExecutor.getRejectedCount(), is(1L));
+	}
+
+	/**
+	 * @see BoundedExecutor#execute(Runnable)
+	 * @verifies throw rejected execution exception if busy pool is exhausted
+	 */
+	@Test(expected = RejectedExecutionException.class)
+	public void execute_shouldThrowRejectedExecutionExceptionIfBusyPoolIsExhausted() throws Exception {
+
+		boundedExecutor.shutdown();
+		boundedExecutor = new BoundedExecutor("TEST", 1, 1, 0, 1);
+		final CountDownLatch started = new CountDownLatch(2);
+		boundedExecutor.execute(new BlockingTask(started));
+		boundedExecutor.execute(new BlockingTask(started));
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+		boundedExecutor.execute(new BlockingTask(null));
+	}
+
+	/**
+	 * @see DcmOF#checkBusy(DicomObject,int)
+	 * @verifies refuse request of rejected association with given status
+	 */
+	@Test
+	public void checkBusy_shouldRefuseRequestOfRejectedAssociationWithGivenStatus() throws Exception {
+
+		final DcmOF dcmOF = new DcmOF("TEST", 1, 1, 0);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final AtomicReference<DicomServiceException> exception = new AtomicReference<DicomServiceException>();
+		try {
+			dcmOF.getExecutor().execute(new BlockingTask(started));
+			assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+			dcmOF.checkBusy(new BasicDicomObject(), DcmOF.OUT_OF_RESOURCES);
+
+			dcmOF.getExecutor().execute(new Runnable() {
+
+				public void run() {
+					try {
+						dcmOF.checkBusy(new BasicDicomObject(), DcmOF.OUT_OF_RESOURCES);
+					}
+					catch (DicomServiceException e) {
+						exception.set(e);
+					}
+					done.countDown();
+				}
+			});
+			// the rejected task runs on a busy thread of the pool
+			assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+		}
+		finally {
+			release.countDown();
+			dcmOF.getExecutor().shutdown();
+		}
+
+		assertThat(exception.get().getStatus(), is(DcmOF.OUT_OF_RESOURCES));
+	}
+
+	private class BlockingTask implements Runnable {
+
+		private final CountDownLatch started;
+
+		BlockingTask(CountDownLatch started) {
+			this.started = started;
+		}
+
+		public void run() {
+			if (started != null) {
+				started.countDown();
+			}
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
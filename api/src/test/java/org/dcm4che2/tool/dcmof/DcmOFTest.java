@@ -0,0 +1,199 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.UID;
+import org.dcm4che2.data.VR;
+import org.dcm4che2.net.Association;
+import org.dcm4che2.net.CommandUtils;
+import org.dcm4che2.net.Device;
+import org.dcm4che2.net.DimseRSP;
+import org.dcm4che2.net.NetworkApplicationEntity;
+import org.dcm4che2.net.NetworkConnection;
+import org.dcm4che2.net.NewThreadExecutor;
+import org.dcm4che2.net.TransferCapability;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link DcmOF}
+ */
+public class DcmOFTest {
+
+	private static final String AE_TITLE = "DCMOF";
+
+	/** More associations than threads of the core pool. */
+	private static final int ASSOCIATIONS = BoundedExecutor.DEF_CORE_POOL_SIZE + 1;
+
+	private static final long TIMEOUT_SECONDS = 10;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private DcmOF dcmOF;
+
+	private int port;
+
+	private ExecutorService clients;
+
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		File source = temporaryFolder.newFolder("mwl");
+		DicomObject mwl = new BasicDicomObject();
+		mwl.putString(Tag.PatientID, VR.LO, "PAT1");
+		mwl.putString(Tag.AccessionNumber, VR.SH, "ACC1");
+		DicomObject sps = new BasicDicomObject();
+		sps.putString(Tag.Modality, VR.CS, "CT");
+		mwl.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, sps);
+		new DcmOF(AE_TITLE).storeAsXML(new File(source, "1.xml"), mwl);
+
+		ServerSocket serverSocket = new ServerSocket(0);
+		port = serverSocket.getLocalPort();
+		serverSocket.close();
+		dcmOF = DcmOF.main(new String[] { AE_TITLE + ":" + port, "-mwl", source.getPath() });
+		clients = Executors.newFixedThreadPool(ASSOCIATIONS);
+	}
+
+	@After
+	public void runAfterEachTest() throws Exception {
+		clients.shutdownNow();
+		dcmOF.stop();
+	}
+
+	/**
+	 * @see DcmOF#start()
+	 * @verifies serve more concurrent associations than core pool threads
+	 */
+	@Test
+	public void start_shouldServeMoreConcurrentAssociationsThanCorePoolThreads() throws Exception {
+
+		final CountDownLatch answered = new CountDownLatch(ASSOCIATIONS);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < ASSOCIATIONS; i++) {
+			final String callingAET = "SCU" + i;
+			futures.add(clients.submit(new Callable<Integer>() {
+
+				public Integer call() throws Exception {
+					Association as = connect(callingAET);
+					try {
+						int pending = cfind(as);
+						answered.countDown();
+						// keep the association open until all associations got their responses
+						answered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+						return pending;
+					}
+					finally {
+						as.release(true);
+					}
+				}
+			}));
+		}
+
+		assertTrue("concurrent C-FINDs not answered - " + dcmOF.getExecutor(),
+		    answered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		for (Future<Integer> future : futures) {
+			assertThat(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(1));
+		}
+		assertThat(dcmOF.getExecutor().getRejectedCount(), is(0L));
+	}
+
+	private Association connect(String callingAET) throws Exception {
+
+		NetworkConnection conn = new NetworkConnection();
+		conn.setAcceptTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		NetworkApplicationEntity ae = new NetworkApplicationEntity();
+		ae.setAETitle(callingAET);
+		ae.setNetworkConnection(conn);
+		ae.setAssociationInitiator(true);
+		ae.setTransferCapability(new TransferCapability[] { new TransferCapability(
+		        UID.ModalityWorklistInformationModelFIND, new String[] { UID.ImplicitVRLittleEndian },
+		        TransferCapability.SCU) });
+		Device device = new Device(callingAET);
+		device.setNetworkApplicationEntity(ae);
+		device.setNetworkConnection(conn);
+
+		NetworkConnection remoteConn = new NetworkConnection();
+		remoteConn.setHostname("localhost");
+		remoteConn.setPort(port);
+		NetworkApplicationEntity remoteAE = new NetworkApplicationEntity();
+		remoteAE.setAETitle(AE_TITLE);
+		remoteAE.setInstalled(true);
+		remoteAE.setAssociationAcceptor(true);
+		remoteAE.setNetworkConnection(remoteConn);
+
+		return ae.connect(remoteAE, new NewThreadExecutor(callingAET));
+	}
+
+	private int cfind(Association as) throws Exception {
+
+		DicomObject keys = new BasicDicomObject();
+		keys.putNull(Tag.PatientID, VR.LO);
+		keys.putNull(Tag.AccessionNumber, VR.SH);
+		DimseRSP rsp = as.cfind(UID.ModalityWorklistInformationModelFIND, 0, keys, UID.ImplicitVRLittleEndian,
+		    Integer.MAX_VALUE);
+		int pending = 0;
+		while (rsp.next()) {
+			if (CommandUtils.isPending(rsp.getCommand())) {
+				pending++;
+			}
+		}
+		return pending;
+	}
+}
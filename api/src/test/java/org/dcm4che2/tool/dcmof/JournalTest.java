@@ -0,0 +1,228 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.UID;
+import org.dcm4che2.data.VR;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link Journal}
+ */
+public class JournalTest {
+
+	private static final String IUID = "1.2.826.0.1.3680043.2.1545.1.2.1.7.20150313.130225.305.1";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Journal journal;
+
+	@After
+	public void runAfterEachTest() throws Exception {
+		if (journal != null) {
+			journal.close();
+		}
+	}
+
+	/**
+	 * @see Journal#put(String,DicomObject)
+	 * @verifies return latest version of stored object
+	 */
+	@Test
+	public void put_shouldReturnLatestVersionOfStoredObject() throws Exception {
+
+		journal = new Journal(temporaryFolder.getRoot(), Journal.DEF_MAX_SEGMENT_SIZE, 0, 0);
+
+		journal.put(IUID, getMpps(IUID, "IN PROGRESS"));
+		journal.put(IUID, getMpps(IUID, "COMPLETED"));
+
+		assertThat(journal.contains(IUID), is(true));
+		assertThat(journal.size(), is(1));
+		assertThat(journal.get(IUID).getString(Tag.PerformedProcedureStepStatus), is("COMPLETED"));
+		assertThat(journal.get("1.2.3"), is(nullValue()));
+	}
+
+	/**
+	 * @see Journal#Journal(File,long,int,long)
+	 * @verifies recover latest versions from segments
+	 */
+	@Test
+	public void Journal_shouldRecoverLatestVersionsFromSegments() throws Exception {
+
+		File dir = temporaryFolder.getRoot();
+		journal = new Journal(dir, 1024, -1, 0);
+		for (int i = 0; i < 10; i++) {
+			journal.put(IUID + i, getMpps(IUID + i, "IN PROGRESS"));
+		}
+		journal.put(IUID + 3, getMpps(IUID + 3, "DISCONTINUED"));
+		int segmentCount = journal.getSegmentCount();
+		journal.close();
+
+		journal = new Journal(dir, 1024, -1, 0);
+
+		assertThat(segmentCount > 1, is(true));
+		assertThat(journal.getSegmentCount(), is(segmentCount));
+		assertThat(journal.size(), is(10));
+		assertThat(journal.get(IUID + 3).getString(Tag.PerformedProcedureStepStatus), is("DISCONTINUED"));
+		assertThat(journal.get(IUID + 9).getString(Tag.PerformedProcedureStepStatus), is("IN PROGRESS"));
+	}
+
+	/**
+	 * @see Journal#Journal(File,long,int,long)
+	 * @verifies truncate torn record at end of last segment
+	 */
+	@Test
+	public void Journal_shouldTruncateTornRecordAtEndOfLastSegment() throws Exception {
+
+		File dir = temporaryFolder.getRoot();
+		journal = new Journal(dir, Journal.DEF_MAX_SEGMENT_SIZE, 0, 0);
+		journal.put(IUID + 1, getMpps(IUID + 1, "IN PROGRESS"));
+		journal.put(IUID + 2, getMpps(IUID + 2, "IN PROGRESS"));
+		journal.close();
+
+		File segment = new File(dir, "00000001" + Journal.SEGMENT_SUFFIX);
+		RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+		try {
+			raf.setLength(raf.length() - 10);
+		}
+		finally {
+			raf.close();
+		}
+
+		journal = new Journal(dir, Journal.DEF_MAX_SEGMENT_SIZE, 0, 0);
+
+		assertThat(journal.contains(IUID + 1), is(true));
+		assertThat(journal.contains(IUID + 2), is(false));
+		journal.put(IUID + 2, getMpps(IUID + 2, "COMPLETED"));
+		assertThat(journal.get(IUID + 2).getString(Tag.PerformedProcedureStepStatus), is("COMPLETED"));
+	}
+
+	/**
+	 * @see Journal#compact()
+	 * @verifies move live objects of mostly superseded segments and delete them
+	 */
+	@Test
+	public void compact_shouldMoveLiveObjectsOfMostlySupersededSegmentsAndDeleteThem() throws Exception {
+
+		File dir = temporaryFolder.getRoot();
+		journal = new Journal(dir, 4096, 0, 0);
+		for (int version = 0; version < 20; version++) {
+			journal.put(IUID + 1, getMpps(IUID + 1, "IN PROGRESS"));
+		}
+		journal.put(IUID + 2, getMpps(IUID + 2, "COMPLETED"));
+		journal.put(IUID + 1, getMpps(IUID + 1, "DISCONTINUED"));
+		int segmentCount = journal.getSegmentCount();
+
+		int compacted = journal.compact();
+
+		assertThat(compacted > 0, is(true));
+		assertThat(journal.getSegmentCount() < segmentCount, is(true));
+		assertThat(dir.list().length, is(journal.getSegmentCount()));
+		assertThat(journal.get(IUID + 1).getString(Tag.PerformedProcedureStepStatus), is("DISCONTINUED"));
+		assertThat(journal.get(IUID + 2).getString(Tag.PerformedProcedureStepStatus), is("COMPLETED"));
+
+		journal.close();
+		journal = new Journal(dir, 4096, 0, 0);
+		assertThat(journal.size(), is(2));
+		assertThat(journal.get(IUID + 1).getString(Tag.PerformedProcedureStepStatus), is("DISCONTINUED"));
+		assertThat(journal.get(IUID + 2).getString(Tag.PerformedProcedureStepStatus), is("COMPLETED"));
+	}
+
+	/**
+	 * @see Journal#put(String,DicomObject)
+	 * @verifies force objects stored concurrently with one sync
+	 */
+	@Test
+	public void put_shouldForceObjectsStoredConcurrentlyWithOneSync() throws Exception {
+
+		journal = new Journal(temporaryFolder.getRoot(), Journal.DEF_MAX_SEGMENT_SIZE, 50, 0);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < 8; i++) {
+				final String iuid = IUID + i;
+				futures.add(executor.submit(new Callable<Void>() {
+
+					public Void call() throws Exception {
+						journal.put(iuid, getMpps(iuid, "IN PROGRESS"));
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertThat(journal.size(), is(8));
+		assertThat(journal.getSyncCount() < 8, is(true));
+	}
+
+	private static DicomObject getMpps(String iuid, String performedProcedureStepStatus) {
+
+		DicomObject mpps = new BasicDicomObject();
+		mpps.putString(Tag.PerformedProcedureStepStatus, VR.CS, performedProcedureStepStatus);
+		mpps.putString(Tag.PerformedProcedureStepDescription, VR.LO, "Thorax scan");
+		mpps.initFileMetaInformation(UID.ModalityPerformedProcedureStepSOPClass, iuid, UID.ExplicitVRLittleEndian);
+		return mpps;
+	}
+}
@@ -0,0 +1,321 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.dcm4che2.net.DicomServiceException;
+import org.dcm4che2.net.Status;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link MPPSSCP}
+ */
+public class MPPSSCPTest {
+
+	private static final String IUID = "1.2.826.0.1.3680043.2.1545.1.2.1.7.20150313.130225.305.1";
+
+	private static final int THREADS = 16;
+
+	private static final int NSETS_PER_THREAD = 16;
+
+	/** First element of a private block for the attributes set by the N-SETs under test. */
+	private static final int PRIVATE_TAG = 0x00091000;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private DcmOF dcmOF;
+
+	private MPPSSCP mppsscp;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private volatile boolean studyUpdateQueueFull;
+
+	private ExecutorService executor;
+
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		dcmOF = new DcmOF("TEST");
+		mppsscp = newMPPSSCP();
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void runAfterEachTest() throws Exception {
+		executor.shutdownNow();
+		dcmOF.getExecutor().shutdown();
+	}
+
+	/**
+	 * @see MPPSSCP#doNSet(DicomObject,DicomObject)
+	 * @verifies not lose attributes of concurrent n-sets of same mpps
+	 */
+	@Test
+	public void doNSet_shouldNotLoseAttributesOfConcurrentNSetsOfSameMpps() throws Exception {
+
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			futures.add(executor.submit(new Callable<Void>() {
+
+				public Void call() throws Exception {
+					start.await();
+					for (int i = 0; i < NSETS_PER_THREAD; i++) {
+						int element = thread * NSETS_PER_THREAD + i;
+						DicomObject data = new BasicDicomObject();
+						data.putString(PRIVATE_TAG + element, VR.LO, String.valueOf(element));
+						mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), data);
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+
+		DicomObject mpps = mppsscp.load(IUID);
+		for (int element = 0; element < THREADS * NSETS_PER_THREAD; element++) {
+			assertThat(mpps.getString(PRIVATE_TAG + element), is(String.valueOf(element)));
+		}
+		assertThat(mpps.getString(Tag.PerformedProcedureStepStatus), is("IN PROGRESS"));
+	}
+
+	/**
+	 * @see MPPSSCP#doNCreate(DicomObject,DicomObject,DicomObject)
+	 * @verifies create mpps only once given concurrent n-creates of same mpps
+	 */
+	@Test
+	public void doNCreate_shouldCreateMppsOnlyOnceGivenConcurrentNCreatesOfSameMpps() throws Exception {
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger created = new AtomicInteger();
+		final AtomicInteger duplicates = new AtomicInteger();
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(new Callable<Void>() {
+
+				public Void call() throws Exception {
+					start.await();
+					try {
+						mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"),
+							new BasicDicomObject());
+						created.incrementAndGet();
+					}
+					catch (DicomServiceException e) {
+						if (e.getStatus() == Status.DuplicateSOPinstance) {
+							duplicates.incrementAndGet();
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+
+		assertThat(created.get(), is(1));
+		assertThat(duplicates.get(), is(THREADS - 1));
+	}
+
+	/**
+	 * @see MPPSSCP#doNSet(DicomObject,DicomObject)
+	 * @verifies merge n-set into cached mpps in progress without loading it
+	 */
+	@Test
+	public void doNSet_shouldMergeNSetIntoCachedMppsInProgressWithoutLoadingIt() throws Exception {
+
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+		DicomObject data = new BasicDicomObject();
+		data.putString(PRIVATE_TAG, VR.LO, "dose");
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), data);
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("IN PROGRESS"));
+
+		assertThat(loads.get(), is(0));
+		assertThat(mppsscp.getCache().getHits(), is(2L));
+		assertThat(mppsscp.load(IUID).getString(PRIVATE_TAG), is("dose"));
+	}
+
+	/**
+	 * @see MPPSSCP#doNSet(DicomObject,DicomObject)
+	 * @verifies evict completed mpps from cache and refuse further n-set
+	 */
+	@Test
+	public void doNSet_shouldEvictCompletedMppsFromCacheAndRefuseFurtherNSet() throws Exception {
+
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("COMPLETED"));
+
+		assertThat(mppsscp.getCache().size(), is(0));
+		try {
+			mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("IN PROGRESS"));
+			fail("expected DicomServiceException");
+		}
+		catch (DicomServiceException e) {
+			assertThat(e.getStatus(), is(Status.ProcessingFailure));
+		}
+		assertThat(loads.get(), is(1));
+	}
+
+	/**
+	 * @see MPPSSCP#doNSet(DicomObject,DicomObject)
+	 * @verifies load mpps in progress which is not cached and cache it
+	 */
+	@Test
+	public void doNSet_shouldLoadMppsInProgressWhichIsNotCachedAndCacheIt() throws Exception {
+
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+		// restart
+		mppsscp = newMPPSSCP();
+
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("IN PROGRESS"));
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("IN PROGRESS"));
+
+		assertThat(loads.get(), is(1));
+		assertThat(mppsscp.getCache().size(), is(1));
+	}
+
+	/**
+	 * @see MPPSSCP#doNCreate(DicomObject,DicomObject,DicomObject)
+	 * @verifies refuse mpps with resource limitation without storing it if study update queue is full
+	 */
+	@Test
+	public void doNCreate_shouldRefuseMppsWithResourceLimitationWithoutStoringItIfStudyUpdateQueueIsFull()
+	        throws Exception {
+
+		studyUpdateQueueFull = true;
+		try {
+			mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+			fail("expected DicomServiceException");
+		}
+		catch (DicomServiceException e) {
+			assertThat(e.getStatus(), is(DcmOF.RESOURCE_LIMITATION));
+		}
+		assertThat(mppsscp.exists(IUID), is(false));
+		assertThat(mppsscp.getCache().size(), is(0));
+
+		studyUpdateQueueFull = false;
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+		assertThat(mppsscp.exists(IUID), is(true));
+	}
+
+	/**
+	 * @see MPPSSCP#doNSet(DicomObject,DicomObject)
+	 * @verifies refuse n-set with resource limitation without storing it if study update queue is full
+	 */
+	@Test
+	public void doNSet_shouldRefuseNSetWithResourceLimitationWithoutStoringItIfStudyUpdateQueueIsFull()
+	        throws Exception {
+
+		mppsscp.doNCreate(getRequest(Tag.AffectedSOPInstanceUID), getMpps("IN PROGRESS"), new BasicDicomObject());
+
+		studyUpdateQueueFull = true;
+		try {
+			mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("COMPLETED"));
+			fail("expected DicomServiceException");
+		}
+		catch (DicomServiceException e) {
+			assertThat(e.getStatus(), is(DcmOF.RESOURCE_LIMITATION));
+		}
+		assertThat(mppsscp.load(IUID).getString(Tag.PerformedProcedureStepStatus), is("IN PROGRESS"));
+
+		studyUpdateQueueFull = false;
+		mppsscp.doNSet(getRequest(Tag.RequestedSOPInstanceUID), getMpps("COMPLETED"));
+		assertThat(mppsscp.load(IUID).getString(Tag.PerformedProcedureStepStatus), is("COMPLETED"));
+	}
+
+	private MPPSSCP newMPPSSCP() {
+		MPPSSCP mppsscp = new MPPSSCP(dcmOF) {
+
+			@Override
+			protected DicomObject load(String iuid) throws Exception {
+				loads.incrementAndGet();
+				return super.load(iuid);
+			}
+
+			@Override
+			protected boolean updateStudy(DicomObject mpps) {
+				// no openmrs context
+				return !studyUpdateQueueFull;
+			}
+		};
+		mppsscp.setDestination(temporaryFolder.getRoot());
+		return mppsscp;
+	}
+
+	private static DicomObject getRequest(int uidTag) {
+		DicomObject rq = new BasicDicomObject();
+		rq.putString(uidTag, VR.UI, IUID);
+		return rq;
+	}
+
+	private static DicomObject getMpps(String performedProcedureStepStatus) {
+		DicomObject mpps = new BasicDicomObject();
+		mpps.putString(Tag.PerformedProcedureStepStatus, VR.CS, performedProcedureStepStatus);
+		return mpps;
+	}
+}
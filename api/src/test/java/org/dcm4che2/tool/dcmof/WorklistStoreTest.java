@@ -0,0 +1,174 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link WorklistStore}
+ */
+public class WorklistStoreTest {
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	private DcmOF dcmOF;
+	
+	private File source;
+	
+	private WorklistStore worklistStore;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		dcmOF = new DcmOF("DCMOF");
+		source = temporaryFolder.newFolder("mwl");
+		store("1.xml", "PAT1", "ACC1", "CT", "CT_STATION", "20150101");
+		store("2.xml", "PAT2", "ACC2", "MR", "MR_STATION", "20150115");
+		store("3.xml", "PAT3", "ACC3", "CT", "CT_STATION", "20150201");
+		worklistStore = new WorklistStore(dcmOF, source);
+		worklistStore.refresh();
+	}
+	
+	/**
+	 * @see WorklistStore#query(DicomObject)
+	 * @verifies return all items given keys without indexed attributes
+	 */
+	@Test
+	public void query_shouldReturnAllItemsGivenKeysWithoutIndexedAttributes() throws Exception {
+		
+		DicomObject keys = new BasicDicomObject();
+		keys.putNull(Tag.PatientName, VR.PN);
+		
+		assertThat(worklistStore.query(keys).size(), is(3));
+	}
+	
+	/**
+	 * @see WorklistStore#query(DicomObject)
+	 * @verifies return only items with matching value given key with indexed attribute
+	 */
+	@Test
+	public void query_shouldReturnOnlyItemsWithMatchingValueGivenKeyWithIndexedAttribute() throws Exception {
+		
+		DicomObject keys = new BasicDicomObject();
+		DicomObject sps = new BasicDicomObject();
+		sps.putString(Tag.Modality, VR.CS, "CT");
+		keys.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, sps);
+		keys.putString(Tag.AccessionNumber, VR.SH, "ACC3");
+		
+		List<DicomObject> candidates = worklistStore.query(keys);
+		
+		assertThat(candidates.size(), is(1));
+		assertThat(candidates.get(0).getString(Tag.PatientID), is("PAT3"));
+	}
+	
+	/**
+	 * @see WorklistStore#query(DicomObject)
+	 * @verifies return items within date range given scheduled procedure step start date range
+	 */
+	@Test
+	public void query_shouldReturnItemsWithinDateRangeGivenScheduledProcedureStepStartDateRange() throws Exception {
+		
+		DicomObject keys = new BasicDicomObject();
+		DicomObject sps = new BasicDicomObject();
+		sps.putString(Tag.ScheduledProcedureStepStartDate, VR.DA, "20150101-20150131");
+		keys.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, sps);
+		
+		assertThat(worklistStore.query(keys).size(), is(2));
+	}
+	
+	/**
+	 * @see WorklistStore#query(DicomObject)
+	 * @verifies ignore index given key with wildcard
+	 */
+	@Test
+	public void query_shouldIgnoreIndexGivenKeyWithWildcard() throws Exception {
+		
+		DicomObject keys = new BasicDicomObject();
+		keys.putString(Tag.PatientID, VR.LO, "PAT*");
+		
+		assertThat(worklistStore.query(keys).size(), is(3));
+	}
+	
+	/**
+	 * @see WorklistStore#refresh()
+	 * @verifies add new and remove deleted worklist items
+	 */
+	@Test
+	public void refresh_shouldAddNewAndRemoveDeletedWorklistItems() throws Exception {
+		
+		store("4.xml", "PAT4", "ACC4", "US", "US_STATION", "20150301");
+		new File(source, "1.xml").delete();
+		
+		worklistStore.refresh();
+		
+		assertThat(worklistStore.size(), is(3));
+		DicomObject keys = new BasicDicomObject();
+		keys.putString(Tag.PatientID, VR.LO, "PAT1");
+		assertThat(worklistStore.query(keys).size(), is(0));
+		keys.putString(Tag.PatientID, VR.LO, "PAT4");
+		assertThat(worklistStore.query(keys).size(), is(1));
+	}
+	
+	private void store(String fileName, String patientId, String accessionNumber, String modality,
+	        String scheduledStationAETitle, String startDate) throws Exception {
+		
+		DicomObject mwl = new BasicDicomObject();
+		mwl.putString(Tag.PatientID, VR.LO, patientId);
+		mwl.putString(Tag.AccessionNumber, VR.SH, accessionNumber);
+		DicomObject sps = new BasicDicomObject();
+		sps.putString(Tag.Modality, VR.CS, modality);
+		sps.putString(Tag.ScheduledStationAETitle, VR.AE, scheduledStationAETitle);
+		sps.putString(Tag.ScheduledProcedureStepStartDate, VR.DA, startDate);
+		mwl.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, sps);
+		dcmOF.storeAsXML(new File(source, fileName), mwl);
+	}
+}
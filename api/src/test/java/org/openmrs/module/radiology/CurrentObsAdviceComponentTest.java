@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Obs;
+import org.openmrs.api.ObsService;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests {@link CurrentObsAdvice}
+ */
+public class CurrentObsAdviceComponentTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String STUDIES_TEST_DATASET = "org/openmrs/module/radiology/include/RadiologyServiceComponentTestDataset.xml";
+	
+	private static final int RADIOLOGY_ORDER_ID_WITHOUT_OBS = 2001;
+	
+	private static final int CONCEPT_ID_FOR_FRACTURE = 178;
+	
+	@Autowired
+	private ObsService obsService;
+	
+	@Autowired
+	private RadiologyService radiologyService;
+	
+	private CurrentObsAdvice currentObsAdvice = new CurrentObsAdvice();
+	
+	private Obs obs;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		
+		executeDataSet(STUDIES_TEST_DATASET);
+		
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+		obs = new Obs(radiologyOrder.getPatient(), Context.getConceptService().getConcept(CONCEPT_ID_FOR_FRACTURE),
+		        new Date(), Context.getLocationService().getLocation(1));
+		obs.setOrder(radiologyOrder);
+		obs.setValueText("Fracture of the left knee");
+		obs = obsService.saveObs(obs, null);
+	}
+	
+	/**
+	 * @see CurrentObsAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies record saved obs of radiology order as current obs
+	 */
+	@Test
+	public void afterReturning_shouldRecordSavedObsOfRadiologyOrderAsCurrentObs() throws Exception {
+		
+		currentObsAdvice.afterReturning(obs, ObsService.class.getMethod("saveObs", Obs.class, String.class),
+		    new Object[] { obs, null }, obsService);
+		
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS).size(), is(1));
+	}
+	
+	/**
+	 * @see CurrentObsAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies ignore methods other than save obs
+	 */
+	@Test
+	public void afterReturning_shouldIgnoreMethodsOtherThanSaveObs() throws Exception {
+		
+		currentObsAdvice.afterReturning(obs, ObsService.class.getMethod("getObs", Integer.class),
+		    new Object[] { obs.getObsId() }, obsService);
+		
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS).size(), is(0));
+	}
+	
+	/**
+	 * @see CurrentObsAdvice#before(Method,Object[],Object)
+	 * @verifies remove purged obs from current obs and restore its previous version
+	 */
+	@Test
+	public void before_shouldRemovePurgedObsFromCurrentObsAndRestoreItsPreviousVersion() throws Exception {
+		
+		currentObsAdvice.afterReturning(obs, ObsService.class.getMethod("saveObs", Obs.class, String.class),
+		    new Object[] { obs, null }, obsService);
+		Obs revisedObs = new Obs(obs.getPerson(), obs.getConcept(), new Date(), obs.getLocation());
+		revisedObs.setOrder(obs.getOrder());
+		revisedObs.setValueText("Fracture of the right knee");
+		revisedObs.setPreviousVersion(obs);
+		revisedObs = obsService.saveObs(revisedObs, null);
+		currentObsAdvice.afterReturning(revisedObs, ObsService.class.getMethod("saveObs", Obs.class, String.class),
+		    new Object[] { revisedObs, null }, obsService);
+		
+		currentObsAdvice.before(ObsService.class.getMethod("purgeObs", Obs.class), new Object[] { revisedObs },
+		    obsService);
+		obsService.purgeObs(revisedObs);
+		Context.flushSession();
+		
+		List<Obs> currentObs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+		assertThat(currentObs.size(), is(1));
+		assertThat(currentObs.get(0).getObsId(), is(obs.getObsId()));
+	}
+	
+	/**
+	 * @see CurrentObsAdvice#before(Method,Object[],Object)
+	 * @verifies ignore methods other than purge obs
+	 */
+	@Test
+	public void before_shouldIgnoreMethodsOtherThanPurgeObs() throws Exception {
+		
+		currentObsAdvice.afterReturning(obs, ObsService.class.getMethod("saveObs", Obs.class, String.class),
+		    new Object[] { obs, null }, obsService);
+		
+		currentObsAdvice.before(ObsService.class.getMethod("voidObs", Obs.class, String.class), new Object[] { obs,
+		        "wrong patient" }, obsService);
+		
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS).size(), is(1));
+	}
+}
@@ -99,6 +99,7 @@ public class DicomUtilsComponentTest extends BaseModuleContextSensitiveTest {
 		        DICOM_SPECIFIC_CHARACTER_SET));
 		
 		executeDataSet(STUDIES_TEST_DATASET);
+		radiologyProperties.clearSnapshot();
 	}
 	
 	/**
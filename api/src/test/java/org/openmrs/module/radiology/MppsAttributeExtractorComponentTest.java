@@ -0,0 +1,119 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.SpecificCharacterSet;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Tests {@link MppsAttributeExtractor}
+ */
+public class MppsAttributeExtractorComponentTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String STUDY_INSTANCE_UID = "1.2.826.0.1.3680043.8.2186.1.1";
+	
+	@Autowired
+	@Qualifier("adminService")
+	private AdministrationService administrationService;
+	
+	@Autowired
+	private RadiologyProperties radiologyProperties;
+	
+	private MppsAttributeExtractor mppsAttributeExtractor;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_SPECIFIC_CHARCATER_SET,
+		        "ISO-8859-1"));
+		radiologyProperties.clearSnapshot();
+		mppsAttributeExtractor = new MppsAttributeExtractor(radiologyProperties);
+	}
+	
+	/**
+	 * @see MppsAttributeExtractor#extract(DicomObject)
+	 * @verifies return study instance uid and performed procedure step status given dicom mpps object
+	 */
+	@Test
+	public void extract_shouldReturnStudyInstanceUidAndPerformedProcedureStepStatusGivenDicomMppsObject() throws Exception {
+		
+		DicomObject scheduledStepAttributesSequence = new BasicDicomObject();
+		scheduledStepAttributesSequence.putString(Tag.StudyInstanceUID, VR.UI, STUDY_INSTANCE_UID);
+		DicomObject dicomMpps = new BasicDicomObject();
+		dicomMpps.putString(Tag.PerformedProcedureStepStatus, VR.CS, "IN PROGRESS");
+		dicomMpps.putNestedDicomObject(Tag.ScheduledStepAttributesSequence, scheduledStepAttributesSequence);
+		
+		MppsAttributeExtractor.MppsAttributes mppsAttributes = mppsAttributeExtractor.extract(dicomMpps);
+		
+		assertThat(mppsAttributes.getStudyInstanceUid(), is(STUDY_INSTANCE_UID));
+		assertThat(mppsAttributes.getPerformedProcedureStepStatus(), is("IN PROGRESS"));
+	}
+	
+	/**
+	 * @see MppsAttributeExtractor#extract(DicomObject)
+	 * @verifies return null attributes given dicom mpps object without them
+	 */
+	@Test
+	public void extract_shouldReturnNullAttributesGivenDicomMppsObjectWithoutThem() throws Exception {
+		
+		DicomObject dicomMpps = new BasicDicomObject();
+		dicomMpps.putSequence(Tag.ScheduledStepAttributesSequence);
+		
+		MppsAttributeExtractor.MppsAttributes mppsAttributes = mppsAttributeExtractor.extract(dicomMpps);
+		
+		assertThat(mppsAttributes.getStudyInstanceUid(), is(nullValue()));
+		assertThat(mppsAttributes.getPerformedProcedureStepStatus(), is(nullValue()));
+	}
+	
+	/**
+	 * @see MppsAttributeExtractor#getSpecificCharacterSet()
+	 * @verifies return same specific character set while global property is unchanged
+	 */
+	@Test
+	public void getSpecificCharacterSet_shouldReturnSameSpecificCharacterSetWhileGlobalPropertyIsUnchanged()
+	        throws Exception {
+		
+		SpecificCharacterSet specificCharacterSet = mppsAttributeExtractor.getSpecificCharacterSet();
+		
+		assertThat(mppsAttributeExtractor.getSpecificCharacterSet(), is(sameInstance(specificCharacterSet)));
+	}
+	
+	/**
+	 * @see MppsAttributeExtractor#getSpecificCharacterSet()
+	 * @verifies return new specific character set once global property changed
+	 */
+	@Test
+	public void getSpecificCharacterSet_shouldReturnNewSpecificCharacterSetOnceGlobalPropertyChanged() throws Exception {
+		
+		SpecificCharacterSet specificCharacterSet = mppsAttributeExtractor.getSpecificCharacterSet();
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_SPECIFIC_CHARCATER_SET,
+		        "ISO_IR 192"));
+		radiologyProperties.clearSnapshot();
+		
+		assertThat(mppsAttributeExtractor.getSpecificCharacterSet(), is(not(sameInstance(specificCharacterSet))));
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/**
+ * Tests {@link MppsStatusUpdateQueue}
+ */
+public class MppsStatusUpdateQueueComponentTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String STUDIES_TEST_DATASET = "org/openmrs/module/radiology/include/RadiologyServiceComponentTestDataset.xml";
+	
+	private static final String EXISTING_STUDY_INSTANCE_UID = "1.2.826.0.1.3680043.8.2186.1.1";
+	
+	private static final String OTHER_EXISTING_STUDY_INSTANCE_UID = "1.2.826.0.1.3680043.8.2186.1.2";
+	
+	private static final String NON_EXISTING_STUDY_INSTANCE_UID = "1.2.826.0.1.3680043.8.2186.1.999";
+	
+	@Autowired
+	@Qualifier("adminService")
+	private AdministrationService administrationService;
+	
+	@Autowired
+	private RadiologyService radiologyService;
+	
+	@Autowired
+	private RadiologyProperties radiologyProperties;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_SPECIFIC_CHARCATER_SET,
+		        "ISO-8859-1"));
+		
+		executeDataSet(STUDIES_TEST_DATASET);
+		radiologyProperties.clearSnapshot();
+	}
+	
+	/**
+	 * @see MppsStatusUpdateQueue#offer(DicomObject,long)
+	 * @verifies replace queued status of same study instance uid
+	 */
+	@Test
+	public void offer_shouldReplaceQueuedStatusOfSameStudyInstanceUid() throws Exception {
+		
+		MppsStatusUpdateQueue mppsStatusUpdateQueue = new MppsStatusUpdateQueue(10, 10);
+		
+		mppsStatusUpdateQueue.offer(getMpps(EXISTING_STUDY_INSTANCE_UID, "IN PROGRESS"));
+		mppsStatusUpdateQueue.offer(getMpps(EXISTING_STUDY_INSTANCE_UID, "COMPLETED"));
+		
+		assertThat(mppsStatusUpdateQueue.getQueueDepth(), is(1));
+		assertThat(mppsStatusUpdateQueue.getCoalescedCount(), is(1L));
+		
+		assertThat(mppsStatusUpdateQueue.drain(), is(1));
+		assertThat(mppsStatusUpdateQueue.getQueueDepth(), is(0));
+		assertThat(radiologyService.getStudyByStudyInstanceUid(EXISTING_STUDY_INSTANCE_UID)
+		        .getPerformedStatus(), is(PerformedProcedureStepStatus.COMPLETED));
+	}
+	
+	/**
+	 * @see MppsStatusUpdateQueue#offer(DicomObject,long)
+	 * @verifies ignore dicom mpps object without study instance uid or with unknown status
+	 */
+	@Test
+	public void offer_shouldIgnoreDicomMppsObjectWithoutStudyInstanceUidOrWithUnknownStatus() throws Exception {
+		
+		MppsStatusUpdateQueue mppsStatusUpdateQueue = new MppsStatusUpdateQueue(10, 10);
+		DicomObject mppsWithoutScheduledStepAttributes = new BasicDicomObject();
+		mppsWithoutScheduledStepAttributes.putString(Tag.PerformedProcedureStepStatus, VR.CS, "COMPLETED");
+		
+		mppsStatusUpdateQueue.offer(mppsWithoutScheduledStepAttributes);
+		mppsStatusUpdateQueue.offer(getMpps(EXISTING_STUDY_INSTANCE_UID, "UNKNOWN"));
+		
+		assertThat(mppsStatusUpdateQueue.getQueueDepth(), is(0));
+		assertThat(mppsStatusUpdateQueue.getQueuedCount(), is(0L));
+	}
+	
+	/**
+	 * @see MppsStatusUpdateQueue#offer(DicomObject,long)
+	 * @verifies update study in calling thread if queue is full and worker is not running
+	 */
+	@Test
+	public void offer_shouldUpdateStudyInCallingThreadIfQueueIsFullAndWorkerIsNotRunning() throws Exception {
+		
+		MppsStatusUpdateQueue mppsStatusUpdateQueue = new MppsStatusUpdateQueue(1, 10);
+		
+		mppsStatusUpdateQueue.offer(getMpps(EXISTING_STUDY_INSTANCE_UID, "COMPLETED"));
+		mppsStatusUpdateQueue.offer(getMpps(OTHER_EXISTING_STUDY_INSTANCE_UID, "DISCONTINUED"));
+		
+		assertThat(mppsStatusUpdateQueue.getQueueDepth(), is(1));
+		assertThat(mppsStatusUpdateQueue.getOverflowCount(), is(1L));
+		assertThat(mppsStatusUpdateQueue.getAppliedCount(), is(1L));
+		assertThat(radiologyService.getStudyByStudyInstanceUid(OTHER_EXISTING_STUDY_INSTANCE_UID).getPerformedStatus(),
+		    is(PerformedProcedureStepStatus.DISCONTINUED));
+		assertThat(radiologyService.getStudyByStudyInstanceUid(EXISTING_STUDY_INSTANCE_UID).getPerformedStatus(),
+		    is(PerformedProcedureStepStatus.IN_PROGRESS));
+	}
+	
+	/**
+	 * @see MppsStatusUpdateQueue#drain()
+	 * @verifies apply status of other studies in batch if one cannot be applied
+	 */
+	@Test
+	public void drain_shouldApplyStatusOfOtherStudiesInBatchIfOneCannotBeApplied() throws Exception {
+		
+		MppsStatusUpdateQueue mppsStatusUpdateQueue = new MppsStatusUpdateQueue(10, 10);
+		mppsStatusUpdateQueue.offer(getMpps(NON_EXISTING_STUDY_INSTANCE_UID, "COMPLETED"));
+		mppsStatusUpdateQueue.offer(getMpps(EXISTING_STUDY_INSTANCE_UID, "COMPLETED"));
+		
+		assertThat(mppsStatusUpdateQueue.drain(), is(1));
+		assertThat(mppsStatusUpdateQueue.getFailedCount(), is(1L));
+		assertThat(radiologyService.getStudyByStudyInstanceUid(EXISTING_STUDY_INSTANCE_UID).getPerformedStatus(),
+		    is(PerformedProcedureStepStatus.COMPLETED));
+	}
+	
+	/**
+	 * Convenience method to create a DICOM MPPS object for given study instance uid and performed
+	 * procedure step status
+	 */
+	private DicomObject getMpps(String studyInstanceUid, String performedProcedureStepStatus) {
+		
+		DicomObject scheduledStepAttributesSequence = new BasicDicomObject();
+		scheduledStepAttributesSequence.putString(Tag.StudyInstanceUID, VR.UI, studyInstanceUid);
+		
+		DicomObject mpps = new BasicDicomObject();
+		mpps.putNestedDicomObject(Tag.ScheduledStepAttributesSequence, scheduledStepAttributesSequence);
+		mpps.putString(Tag.PerformedProcedureStepStatus, VR.CS, performedProcedureStepStatus);
+		return mpps;
+	}
+}
@@ -21,6 +21,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.context.Context;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -44,6 +46,7 @@ public class RadiologyActivatorComponentTest extends BaseModuleContextSensitiveT
 		
 		radiologyActivator = new RadiologyActivator();
 		executeDataSet(ACTIVATOR_TEST_DATASET);
+		radiologyProperties.clearSnapshot();
 	}
 	
 	/**
@@ -114,4 +117,71 @@ public class RadiologyActivatorComponentTest extends BaseModuleContextSensitiveT
 		assertThat(dicomOrderFillerArguments[4], is("RADIOLOGY_MODULE:11114"));
 	}
 	
+	/**
+	 * @see RadiologyActivator#getDicomOrderFillerArguments()
+	 * @verifies return dicom order filler arguments for database mwl backend
+	 */
+	@Test
+	public void getDicomOrderFillerArguments_shouldReturnDicomOrderFillerArgumentsForDatabaseMwlBackend() throws Exception {
+		
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_MWL_BACKEND, RadiologyConstants.MWL_BACKEND_DATABASE));
+		
+		String[] dicomOrderFillerArguments = radiologyActivator.getDicomOrderFillerArguments();
+		
+		assertThat(dicomOrderFillerArguments[0], is("-mwldb"));
+		assertThat(dicomOrderFillerArguments[1], is("-mpps"));
+		assertThat(dicomOrderFillerArguments[2], is("mpps"));
+		assertThat(dicomOrderFillerArguments[3], is("RADIOLOGY_MODULE:11114"));
+	}
+	
+	/**
+	 * @see RadiologyActivator#getDicomOrderFillerArguments()
+	 * @verifies return dicom order filler arguments with thread pool configuration
+	 */
+	@Test
+	public void getDicomOrderFillerArguments_shouldReturnDicomOrderFillerArgumentsWithThreadPoolConfiguration()
+	        throws Exception {
+		
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE, "2"));
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_MAX_POOL_SIZE, "8"));
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_QUEUE_CAPACITY, "16"));
+		
+		String[] dicomOrderFillerArguments = radiologyActivator.getDicomOrderFillerArguments();
+		
+		assertThat(dicomOrderFillerArguments[4], is("-poolcore"));
+		assertThat(dicomOrderFillerArguments[5], is("2"));
+		assertThat(dicomOrderFillerArguments[6], is("-poolmax"));
+		assertThat(dicomOrderFillerArguments[7], is("8"));
+		assertThat(dicomOrderFillerArguments[8], is("-poolqueue"));
+		assertThat(dicomOrderFillerArguments[9], is("16"));
+		assertThat(dicomOrderFillerArguments[10], is("RADIOLOGY_MODULE:11114"));
+	}
+	
+	/**
+	 * @see RadiologyActivator#getDicomOrderFillerArguments()
+	 * @verifies return dicom order filler arguments for journal mpps storage
+	 */
+	@Test
+	public void getDicomOrderFillerArguments_shouldReturnDicomOrderFillerArgumentsForJournalMppsStorage() throws Exception {
+		
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_MPPS_STORAGE, RadiologyConstants.MPPS_STORAGE_JOURNAL));
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(RadiologyConstants.GP_DICOM_ORDER_FILLER_JOURNAL_SYNC_DELAY, "5"));
+		
+		String[] dicomOrderFillerArguments = radiologyActivator.getDicomOrderFillerArguments();
+		
+		assertThat(dicomOrderFillerArguments[0], is("-mwl"));
+		assertThat(dicomOrderFillerArguments[1], is("mwl"));
+		assertThat(dicomOrderFillerArguments[2], is("-mppsjournal"));
+		assertThat(dicomOrderFillerArguments[3], is("-journalsync"));
+		assertThat(dicomOrderFillerArguments[4], is("5"));
+		assertThat(dicomOrderFillerArguments[5], is("mpps"));
+		assertThat(dicomOrderFillerArguments[6], is("RADIOLOGY_MODULE:11114"));
+	}
+	
 }
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertThat;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -56,6 +57,11 @@ public class RadiologyPropertiesComponentTest extends BaseModuleContextSensitive
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
 	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		radiologyProperties.clearSnapshot();
+	}
+	
 	/**
 	 * @see RadiologyProperties#getStudyPrefix()
 	 * @verifies return study prefix consisting of application uid and study uid slug
@@ -70,6 +76,136 @@ public class RadiologyPropertiesComponentTest extends BaseModuleContextSensitive
 		assertThat(radiologyProperties.getStudyPrefix(), is("1.2.826.0.1.3680043.8.2186.1."));
 	}
 	
+	/**
+	 * @see RadiologyProperties#getMwlBackend()
+	 * @verifies return mwl backend if defined in global properties
+	 */
+	@Test
+	public void getMwlBackend_shouldReturnMwlBackendIfDefinedInGlobalProperties() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_MWL_BACKEND,
+		        RadiologyConstants.MWL_BACKEND_DATABASE));
+		
+		assertThat(radiologyProperties.getMwlBackend(), is(RadiologyConstants.MWL_BACKEND_DATABASE));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getMwlBackend()
+	 * @verifies return directory if mwl backend is not defined in global properties
+	 */
+	@Test
+	public void getMwlBackend_shouldReturnDirectoryIfMwlBackendIsNotDefinedInGlobalProperties() {
+		
+		assertThat(radiologyProperties.getMwlBackend(), is(RadiologyConstants.MWL_BACKEND_DIRECTORY));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getMppsStorage()
+	 * @verifies return mpps storage if defined in global properties
+	 */
+	@Test
+	public void getMppsStorage_shouldReturnMppsStorageIfDefinedInGlobalProperties() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_MPPS_STORAGE,
+		        RadiologyConstants.MPPS_STORAGE_JOURNAL));
+		
+		assertThat(radiologyProperties.getMppsStorage(), is(RadiologyConstants.MPPS_STORAGE_JOURNAL));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getMppsStorage()
+	 * @verifies return file if mpps storage is not defined in global properties
+	 */
+	@Test
+	public void getMppsStorage_shouldReturnFileIfMppsStorageIsNotDefinedInGlobalProperties() {
+		
+		assertThat(radiologyProperties.getMppsStorage(), is(RadiologyConstants.MPPS_STORAGE_FILE));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getDicomOrderFillerCorePoolSize()
+	 * @verifies return core pool size if defined in global properties
+	 */
+	@Test
+	public void getDicomOrderFillerCorePoolSize_shouldReturnCorePoolSizeIfDefinedInGlobalProperties() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(
+		        RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE, " 8 "));
+		
+		assertThat(radiologyProperties.getDicomOrderFillerCorePoolSize(), is(8));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getDicomOrderFillerCorePoolSize()
+	 * @verifies return null if core pool size is not defined in global properties
+	 */
+	@Test
+	public void getDicomOrderFillerCorePoolSize_shouldReturnNullIfCorePoolSizeIsNotDefinedInGlobalProperties() {
+		
+		assertThat(radiologyProperties.getDicomOrderFillerCorePoolSize(), is(nullValue()));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getDicomOrderFillerCorePoolSize()
+	 * @verifies throw illegal state exception if core pool size is not a non negative integer
+	 */
+	@Test
+	public void getDicomOrderFillerCorePoolSize_shouldThrowIllegalStateExceptionIfCorePoolSizeIsNotANonNegativeInteger() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(
+		        RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE, "-1"));
+		
+		expectedException.expect(IllegalStateException.class);
+		expectedException.expectMessage(RadiologyConstants.GP_DICOM_ORDER_FILLER_CORE_POOL_SIZE);
+		radiologyProperties.getDicomOrderFillerCorePoolSize();
+	}
+	
+	/**
+	 * @see RadiologyProperties#getHL7ConnectionPoolSize()
+	 * @verifies return hl7 connection pool size if defined in global properties
+	 */
+	@Test
+	public void getHL7ConnectionPoolSize_shouldReturnHl7ConnectionPoolSizeIfDefinedInGlobalProperties() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_HL7_CONNECTION_POOL_SIZE, "5"));
+		
+		assertThat(radiologyProperties.getHL7ConnectionPoolSize(), is(5));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getHL7ConnectionPoolSize()
+	 * @verifies return default hl7 connection pool size if not defined in global properties
+	 */
+	@Test
+	public void getHL7ConnectionPoolSize_shouldReturnDefaultHl7ConnectionPoolSizeIfNotDefinedInGlobalProperties() {
+		
+		assertThat(radiologyProperties.getHL7ConnectionPoolSize(),
+		    is(RadiologyConstants.DEFAULT_HL7_CONNECTION_POOL_SIZE));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getOrderPlacementChunkSize()
+	 * @verifies return order placement chunk size if defined in global properties
+	 */
+	@Test
+	public void getOrderPlacementChunkSize_shouldReturnOrderPlacementChunkSizeIfDefinedInGlobalProperties() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_ORDER_PLACEMENT_CHUNK_SIZE, "200"));
+		
+		assertThat(radiologyProperties.getOrderPlacementChunkSize(), is(200));
+	}
+	
+	/**
+	 * @see RadiologyProperties#getOrderPlacementChunkSize()
+	 * @verifies return default order placement chunk size if not defined in global properties
+	 */
+	@Test
+	public void getOrderPlacementChunkSize_shouldReturnDefaultOrderPlacementChunkSizeIfNotDefinedInGlobalProperties() {
+		
+		assertThat(radiologyProperties.getOrderPlacementChunkSize(),
+		    is(RadiologyConstants.DEFAULT_ORDER_PLACEMENT_CHUNK_SIZE));
+	}
+	
 	/**
 	 * @see RadiologyProperties#getDicomViewerLocalServerName()
 	 * @verifies return dicom viewer local server name if defined in global properties
@@ -343,4 +479,52 @@ public class RadiologyPropertiesComponentTest extends BaseModuleContextSensitive
 		
 		radiologyProperties.getRadiologyConceptClassNames();
 	}
+	
+	/**
+	 * @see RadiologyProperties#clearSnapshot()
+	 * @verifies read changed global properties from the database after clearing the snapshot
+	 */
+	@Test
+	public void clearSnapshot_shouldReadChangedGlobalPropertiesFromTheDatabaseAfterClearingTheSnapshot() {
+		
+		assertThat(radiologyProperties.getApplicationUID(), is(nullValue()));
+		
+		// bypasses the global property listener like a change made on another server would
+		administrationService.executeSQL("insert into global_property (property, property_value, uuid) values ('"
+		        + RadiologyConstants.GP_APPLICATION_UID + "', '1.2.826.0.1.3680043.8.2186', 'radiology-snapshot-test-uuid')",
+		    false);
+		
+		assertThat(radiologyProperties.getApplicationUID(), is(nullValue()));
+		
+		radiologyProperties.clearSnapshot();
+		
+		assertThat(radiologyProperties.getApplicationUID(), is("1.2.826.0.1.3680043.8.2186"));
+	}
+	
+	/**
+	 * @see RadiologyProperties#supportsPropertyName(String)
+	 * @verifies return true for radiology global properties only
+	 */
+	@Test
+	public void supportsPropertyName_shouldReturnTrueForRadiologyGlobalPropertiesOnly() {
+		
+		assertThat(radiologyProperties.supportsPropertyName(RadiologyConstants.GP_APPLICATION_UID), is(true));
+		assertThat(radiologyProperties.supportsPropertyName("order.nextOrderNumberSeed"), is(false));
+		assertThat(radiologyProperties.supportsPropertyName(null), is(false));
+	}
+	
+	/**
+	 * @see RadiologyProperties#globalPropertyChanged(GlobalProperty)
+	 * @verifies return changed global property value
+	 */
+	@Test
+	public void globalPropertyChanged_shouldReturnChangedGlobalPropertyValue() {
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_MWL_DIR, "/tmp/mwl"));
+		assertThat(radiologyProperties.getMwlDir(), is("/tmp/mwl"));
+		
+		administrationService.saveGlobalProperty(new GlobalProperty(RadiologyConstants.GP_MWL_DIR, "/var/mwl"));
+		
+		assertThat(radiologyProperties.getMwlDir(), is("/var/mwl"));
+	}
 }
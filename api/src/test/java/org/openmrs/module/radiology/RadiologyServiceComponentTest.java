@@ -18,23 +18,32 @@ import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
+import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Environment;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.openmrs.Obs;
 import org.openmrs.Order;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonName;
 import org.openmrs.Provider;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.ConceptService;
@@ -43,7 +52,11 @@ import org.openmrs.api.OrderService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.ProviderService;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.DicomUtils.OrderRequest;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 /**
  * Tests {@link RadiologyService}
@@ -66,6 +79,10 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 	
 	private static final int RADIOLOGY_ORDER_ID_WITHOUT_STUDY = 2004;
 	
+	private static final int OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS = 20021;
+	
+	private static final int NON_RADIOLOGY_ORDER_ID = 1;
+	
 	private static final int EXISTING_RADIOLOGY_ORDER_ID = 2001;
 	
 	private static final int NON_EXISTING_RADIOLOGY_ORDER_ID = 99999;
@@ -80,8 +97,14 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 	
 	private static final int CONCEPT_ID_FOR_FRACTURE = 178;
 	
+	private static final int OTHER_CONCEPT_ID = 179;
+	
 	private static final int TOTAL_NUMBER_OF_RADIOLOGY_ORDERS = 3;
 	
+	private static final int MORE_PATIENTS_THAN_FIT_INTO_ONE_IN_LIST_CHUNK = 600;
+	
+	private static final int UNKNOWN_PATIENT_ID = 100000;
+	
 	private PatientService patientService = null;
 	
 	private ConceptService conceptService = null;
@@ -149,6 +172,7 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		}
 		
 		executeDataSet(STUDIES_TEST_DATASET);
+		Context.getRegisteredComponent("radiologyProperties", RadiologyProperties.class).clearSnapshot();
 	}
 	
 	/**
@@ -168,6 +192,45 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		assertNotNull(radiologyOrder.getStudy().getStudyId());
 	}
 	
+	/**
+	 * @see RadiologyService#placeRadiologyOrder(RadiologyOrder)
+	 * @verifies create worklist item for given radiology order
+	 */
+	@Test
+	public void placeRadiologyOrder_shouldCreateWorklistItemForGivenRadiologyOrder() throws Exception {
+		
+		RadiologyOrder radiologyOrder = radiologyService.placeRadiologyOrder(getUnsavedRadiologyOrder());
+		
+		WorklistItemSearchCriteria worklistItemSearchCriteria = new WorklistItemSearchCriteria();
+		worklistItemSearchCriteria.setFromDate(new GregorianCalendar(2015, Calendar.FEBRUARY, 3).getTime());
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(worklistItemSearchCriteria);
+		
+		assertThat(worklistItems.size(), is(1));
+		assertThat(worklistItems.get(0).getRadiologyOrder(), is(radiologyOrder));
+		assertThat(worklistItems.get(0).getStudyInstanceUid(), is(radiologyOrder.getStudy().getStudyInstanceUid()));
+		assertThat(worklistItems.get(0).getModality(), is(Modality.CT));
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrder(RadiologyOrder)
+	 * @verifies queue hl7 outbox message for given radiology order
+	 */
+	@Test
+	public void placeRadiologyOrder_shouldQueueHl7OutboxMessageForGivenRadiologyOrder() throws Exception {
+		
+		RadiologyOrder radiologyOrder = radiologyService.placeRadiologyOrder(getUnsavedRadiologyOrder());
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getUnsentHL7OutboxMessages(10);
+		HL7OutboxMessage hl7OutboxMessage = hl7OutboxMessages.get(hl7OutboxMessages.size() - 1);
+		
+		assertThat(hl7OutboxMessages.size(), is(3));
+		assertThat(hl7OutboxMessage.getRadiologyOrder(), is(radiologyOrder));
+		assertThat(hl7OutboxMessage.getOrderRequest(), is(OrderRequest.Save_Order));
+		assertThat(hl7OutboxMessage.getMessage().contains("ORM^O01"), is(true));
+		assertThat(hl7OutboxMessage.getAttempts(), is(0));
+		assertThat(radiologyOrder.getStudy().getMwlStatus(), is(MwlStatus.DEFAULT));
+	}
+	
 	/**
 	 * Convenience method to get a RadiologyOrder object with all required values filled in but
 	 * which is not yet saved in the database
@@ -175,12 +238,23 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 	 * @return RadiologyOrder object that can be saved to the database
 	 */
 	public RadiologyOrder getUnsavedRadiologyOrder() {
+		return getUnsavedRadiologyOrder(CONCEPT_ID_FOR_FRACTURE);
+	}
+	
+	/**
+	 * Convenience method to get a RadiologyOrder object for given concept with all required values
+	 * filled in but which is not yet saved in the database
+	 * 
+	 * @param conceptId concept id of the radiology order
+	 * @return RadiologyOrder object that can be saved to the database
+	 */
+	public RadiologyOrder getUnsavedRadiologyOrder(int conceptId) {
 		
 		RadiologyOrder radiologyOrder = new RadiologyOrder();
 		
 		radiologyOrder.setPatient(patientService.getPatient(PATIENT_ID_WITH_ONLY_ONE_NON_RADIOLOGY_ORDER));
 		radiologyOrder.setOrderer(providerService.getProviderByIdentifier("1"));
-		radiologyOrder.setConcept(conceptService.getConcept(CONCEPT_ID_FOR_FRACTURE));
+		radiologyOrder.setConcept(conceptService.getConcept(conceptId));
 		radiologyOrder.setInstructions("CT ABDOMEN PANCREAS WITH IV CONTRAST");
 		
 		Calendar calendar = Calendar.getInstance();
@@ -197,6 +271,136 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		return radiologyOrder;
 	}
 	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies create radiology orders and studies from given radiology orders
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldCreateRadiologyOrdersAndStudiesFromGivenRadiologyOrders() throws Exception {
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(Arrays.asList(
+		    getUnsavedRadiologyOrder(), getUnsavedRadiologyOrder(OTHER_CONCEPT_ID)));
+		
+		assertThat(results.size(), is(2));
+		for (RadiologyOrderPlacementResult result : results) {
+			assertTrue(result.isPlaced());
+			assertNotNull(result.getRadiologyOrder().getOrderId());
+			assertNotNull(result.getRadiologyOrder().getStudy().getStudyId());
+			assertNotNull(result.getRadiologyOrder().getStudy().getStudyInstanceUid());
+			assertNotNull(radiologyService.getRadiologyOrderByOrderId(result.getRadiologyOrder().getOrderId()));
+		}
+		assertThat(results.get(0).getRadiologyOrder().getStudy().getStudyInstanceUid(), is(not(results.get(1)
+		        .getRadiologyOrder().getStudy().getStudyInstanceUid())));
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies share one encounter between radiology orders of same patient and orderer
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldShareOneEncounterBetweenRadiologyOrdersOfSamePatientAndOrderer()
+	        throws Exception {
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(Arrays.asList(
+		    getUnsavedRadiologyOrder(), getUnsavedRadiologyOrder(OTHER_CONCEPT_ID)));
+		
+		Integer encounterId = results.get(0).getRadiologyOrder().getEncounter().getEncounterId();
+		assertNotNull(encounterId);
+		assertThat(results.get(1).getRadiologyOrder().getEncounter().getEncounterId(), is(encounterId));
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies not place invalid radiology orders and report their errors
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldNotPlaceInvalidRadiologyOrdersAndReportTheirErrors() throws Exception {
+		
+		RadiologyOrder invalidRadiologyOrder = getUnsavedRadiologyOrder();
+		invalidRadiologyOrder.setStudy(null);
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(Arrays.asList(
+		    invalidRadiologyOrder, getUnsavedRadiologyOrder()));
+		
+		assertThat(results.get(0).isPlaced(), is(false));
+		assertTrue(results.get(0).getErrors().hasFieldErrors("study"));
+		assertNull(invalidRadiologyOrder.getOrderId());
+		assertTrue(results.get(1).isPlaced());
+		assertNotNull(results.get(1).getRadiologyOrder().getOrderId());
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies place other radiology orders given radiology order order service would fail to save
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldPlaceOtherRadiologyOrdersGivenRadiologyOrderOrderServiceWouldFailToSave()
+	        throws Exception {
+		
+		RadiologyOrder radiologyOrderWithDrugOrderType = getUnsavedRadiologyOrder();
+		radiologyOrderWithDrugOrderType.setOrderType(orderService.saveOrderType(new OrderType("Other drug order",
+		        "Drug order", "org.openmrs.DrugOrder")));
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(Arrays.asList(
+		    getUnsavedRadiologyOrder(), radiologyOrderWithDrugOrderType, getUnsavedRadiologyOrder(OTHER_CONCEPT_ID)));
+		
+		assertTrue(results.get(0).isPlaced());
+		assertThat(results.get(1).isPlaced(), is(false));
+		assertTrue(results.get(1).getErrors().hasFieldErrors("orderType"));
+		assertThat(results.get(1).getErrors().getGlobalError().getCode(), is("radiology.error.placeOrder"));
+		assertNull(radiologyOrderWithDrugOrderType.getOrderId());
+		assertTrue(results.get(2).isPlaced());
+		
+		PlatformTransactionManager transactionManager = applicationContext.getBean("transactionManager",
+		    PlatformTransactionManager.class);
+		TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		assertThat(transaction.isRollbackOnly(), is(false));
+		transactionManager.commit(transaction);
+		assertNotNull(radiologyService.getRadiologyOrderByOrderId(results.get(0).getRadiologyOrder().getOrderId()));
+		assertNotNull(radiologyService.getRadiologyOrderByOrderId(results.get(2).getRadiologyOrder().getOrderId()));
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies not place radiology order of same concept as other radiology order of patient
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldNotPlaceRadiologyOrderOfSameConceptAsOtherRadiologyOrderOfPatient()
+	        throws Exception {
+		
+		RadiologyOrder radiologyOrderOfActiveOrderConcept = getUnsavedRadiologyOrder();
+		radiologyOrderOfActiveOrderConcept.setPatient(patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS));
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(Arrays.asList(
+		    getUnsavedRadiologyOrder(), getUnsavedRadiologyOrder(), radiologyOrderOfActiveOrderConcept));
+		
+		assertTrue(results.get(0).isPlaced());
+		assertThat(results.get(1).isPlaced(), is(false));
+		assertTrue(results.get(1).getErrors().hasFieldErrors("concept"));
+		assertThat(results.get(1).getErrors().getFieldError("concept").getCode(), is("Order.cannot.have.more.than.one"));
+		assertNull(results.get(1).getRadiologyOrder().getOrderId());
+		assertThat(results.get(2).isPlaced(), is(false));
+		assertTrue(results.get(2).getErrors().hasFieldErrors("concept"));
+		
+		PlatformTransactionManager transactionManager = applicationContext.getBean("transactionManager",
+		    PlatformTransactionManager.class);
+		TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		assertThat(transaction.isRollbackOnly(), is(false));
+		transactionManager.commit(transaction);
+	}
+	
+	/**
+	 * @see RadiologyService#placeRadiologyOrders(List)
+	 * @verifies throw illegal argument exception given null
+	 */
+	@Test
+	public void placeRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("radiologyOrders is required");
+		radiologyService.placeRadiologyOrders(null);
+	}
+	
 	/**
 	 * @see RadiologyService#placeRadiologyOrder(RadiologyOrder)
 	 * @verifies throw illegal argument exception given null
@@ -280,6 +484,45 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		assertThat(radiologyOrder.isActive(), is(false));
 	}
 	
+	/**
+	 * @see RadiologyService#discontinueRadiologyOrder(RadiologyOrder, Provider, Date, String)
+	 * @verifies exclude worklist item of given radiology order from worklist
+	 */
+	@Test
+	public void discontinueRadiologyOrder_shouldExcludeWorklistItemOfGivenRadiologyOrderFromWorklist() throws Exception {
+		
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		Date discontinueDate = new GregorianCalendar(2015, Calendar.JANUARY, 01).getTime();
+		
+		radiologyService.discontinueRadiologyOrder(radiologyOrder, radiologyOrder.getOrderer(), discontinueDate,
+		    "Wrong Procedure");
+		
+		WorklistItemSearchCriteria worklistItemSearchCriteria = new WorklistItemSearchCriteria();
+		worklistItemSearchCriteria.setModality(Modality.CT);
+		assertThat(radiologyService.getWorklistItems(worklistItemSearchCriteria).size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#discontinueRadiologyOrder(RadiologyOrder, Provider, Date, String)
+	 * @verifies queue hl7 outbox message discontinuing given radiology order
+	 */
+	@Test
+	public void discontinueRadiologyOrder_shouldQueueHl7OutboxMessageDiscontinuingGivenRadiologyOrder() throws Exception {
+		
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		Date discontinueDate = new GregorianCalendar(2015, Calendar.JANUARY, 01).getTime();
+		
+		radiologyService.discontinueRadiologyOrder(radiologyOrder, radiologyOrder.getOrderer(), discontinueDate,
+		    "Wrong Procedure");
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getUnsentHL7OutboxMessages(10);
+		HL7OutboxMessage hl7OutboxMessage = hl7OutboxMessages.get(hl7OutboxMessages.size() - 1);
+		
+		assertThat(hl7OutboxMessages.size(), is(3));
+		assertThat(hl7OutboxMessage.getRadiologyOrder(), is(radiologyOrder));
+		assertThat(hl7OutboxMessage.getOrderRequest(), is(OrderRequest.Discontinue_Order));
+	}
+	
 	/**
 	 * @see RadiologyService#discontinueRadiologyOrder(RadiologyOrder, Provider, Date, String)
 	 * @verifies should throw illegal argument exception given empty radiology order
@@ -414,6 +657,33 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		assertThat(radiologyOrders.size(), is(0));
 	}
 	
+	/**
+	 * @see RadiologyService#getRadiologyOrdersByPatient(Patient)
+	 * @verifies load radiology orders with study and orderer in a constant number of statements
+	 */
+	@Test
+	public void getRadiologyOrdersByPatient_shouldLoadRadiologyOrdersWithStudyAndOrdererInAConstantNumberOfStatements()
+	        throws Exception {
+		
+		Context.clearSession();
+		Patient patientWithOneRadiologyOrder = patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER);
+		Statistics statistics = getClearedStatistics();
+		List<RadiologyOrder> oneRadiologyOrder = radiologyService.getRadiologyOrdersByPatient(patientWithOneRadiologyOrder);
+		render(oneRadiologyOrder);
+		long statementsForOneRadiologyOrder = statistics.getPrepareStatementCount();
+		
+		Context.clearSession();
+		Patient patientWithTwoRadiologyOrders = patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS);
+		statistics = getClearedStatistics();
+		List<RadiologyOrder> twoRadiologyOrders = radiologyService.getRadiologyOrdersByPatient(patientWithTwoRadiologyOrders);
+		render(twoRadiologyOrders);
+		long statementsForTwoRadiologyOrders = statistics.getPrepareStatementCount();
+		
+		assertThat(oneRadiologyOrder.size(), is(1));
+		assertThat(twoRadiologyOrders.size(), is(2));
+		assertThat(statementsForTwoRadiologyOrders, is(statementsForOneRadiologyOrder));
+	}
+	
 	/**
 	 * @see RadiologyService#getRadiologyOrdersByPatient(Patient)
 	 * @verifies should throw illegal argument exception given null
@@ -459,6 +729,52 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		assertThat(radiologyOrders.size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
 	}
 	
+	/**
+	 * @see RadiologyService#getRadiologyOrdersByPatients(List<Patient>)
+	 * @verifies return all radiology orders of patients spread over several in list chunks
+	 */
+	@Test
+	public void getRadiologyOrdersByPatients_shouldReturnAllRadiologyOrdersOfPatientsSpreadOverSeveralInListChunks()
+	        throws Exception {
+		
+		List<RadiologyOrder> radiologyOrders = radiologyService
+		        .getRadiologyOrdersByPatients(getPatientsSpreadOverSeveralInListChunks());
+		
+		assertThat(radiologyOrders.size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+	}
+	
+	/**
+	 * @see RadiologyService#getRadiologyOrdersByPatients(List<Patient>)
+	 * @verifies load radiology orders with study patient and orderer in a constant number of
+	 *           statements
+	 */
+	@Test
+	public void getRadiologyOrdersByPatients_shouldLoadRadiologyOrdersWithStudyPatientAndOrdererInAConstantNumberOfStatements()
+	        throws Exception {
+		
+		Context.clearSession();
+		List<Patient> patientsWithOneRadiologyOrder = Arrays.asList(patientService
+		        .getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER));
+		Statistics statistics = getClearedStatistics();
+		List<RadiologyOrder> oneRadiologyOrder = radiologyService.getRadiologyOrdersByPatients(patientsWithOneRadiologyOrder);
+		render(oneRadiologyOrder);
+		long statementsForOneRadiologyOrder = statistics.getPrepareStatementCount();
+		
+		Context.clearSession();
+		List<Patient> patientsWithThreeRadiologyOrders = Arrays.asList(
+		    patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS),
+		    patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER));
+		statistics = getClearedStatistics();
+		List<RadiologyOrder> threeRadiologyOrders = radiologyService
+		        .getRadiologyOrdersByPatients(patientsWithThreeRadiologyOrders);
+		render(threeRadiologyOrders);
+		long statementsForThreeRadiologyOrders = statistics.getPrepareStatementCount();
+		
+		assertThat(oneRadiologyOrder.size(), is(1));
+		assertThat(threeRadiologyOrders.size(), is(3));
+		assertThat(statementsForThreeRadiologyOrders, is(statementsForOneRadiologyOrder));
+	}
+	
 	/**
 	 * @see RadiologyService#getRadiologyOrdersByPatients(List<Patient>)
 	 * @verifies should throw illegal argument exception given null
@@ -472,195 +788,901 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByStudyId(Integer)
-	 * @verifies should return study for given study id
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatient(Patient)
+	 * @verifies return radiology order list rows of radiology orders associated with given patient
 	 */
 	@Test
-	public void getStudyByStudyId_shouldReturnStudyForGivenStudyId() throws Exception {
+	public void getRadiologyOrderListRowsByPatient_shouldReturnRadiologyOrderListRowsOfRadiologyOrdersAssociatedWithGivenPatient()
+	        throws Exception {
 		
-		Study study = radiologyService.getStudyByStudyId(EXISTING_STUDY_ID);
+		Patient patientWithTwoRadiologyOrders = patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS);
 		
-		assertNotNull(study);
-		assertThat(study.getRadiologyOrder().getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatient(patientWithTwoRadiologyOrders);
+		
+		assertThat(radiologyOrderListRows.size(), is(2));
+		assertThat(radiologyOrderListRows.get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_OBS));
+		assertThat(radiologyOrderListRows.get(1).getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByStudyId(Integer)
-	 * @verifies should return null if no match was found
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatient(Patient)
+	 * @verifies throw illegal argument exception given null
 	 */
 	@Test
-	public void getStudyByStudyId_shouldReturnNullIfNoMatchIsFound() throws Exception {
+	public void getRadiologyOrderListRowsByPatient_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
 		
-		Study study = radiologyService.getStudyByStudyId(NON_EXISTING_STUDY_ID);
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("patient is required");
+		radiologyService.getRadiologyOrderListRowsByPatient(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies return radiology order list rows of radiology orders associated with given patients
+	 */
+	@Test
+	public void getRadiologyOrderListRowsByPatients_shouldReturnRadiologyOrderListRowsOfRadiologyOrdersAssociatedWithGivenPatients()
+	        throws Exception {
 		
-		assertNull(study);
+		List<Patient> patientsWithThreeRadiologyOrders = Arrays.asList(
+		    patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS),
+		    patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER));
+		
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatients(patientsWithThreeRadiologyOrders);
+		
+		assertThat(radiologyOrderListRows.size(), is(3));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByOrderId(Integer)
-	 * @verifies should return study associated with radiology order for which order id is given
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies return radiology order list rows of all radiology orders given empty patient list
 	 */
 	@Test
-	public void getStudyByOrderId_shouldReturnStudyMatching() throws Exception {
+	public void getRadiologyOrderListRowsByPatients_shouldReturnRadiologyOrderListRowsOfAllRadiologyOrdersGivenEmptyPatientList()
+	        throws Exception {
 		
-		Study study = radiologyService.getStudyByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatients(new ArrayList<Patient>());
 		
-		assertNotNull(study);
-		assertThat(study.getRadiologyOrder().getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		assertThat(radiologyOrderListRows.size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByOrderId(Integer)
-	 * @verifies should return null if no match was found
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies return radiology order list rows sorted by order id across several in list chunks
 	 */
 	@Test
-	public void getStudyByOrderId_shouldReturnNullIfNoMatchIsFound() {
+	public void getRadiologyOrderListRowsByPatients_shouldReturnRadiologyOrderListRowsSortedByOrderIdAcrossSeveralInListChunks()
+	        throws Exception {
 		
-		Study study = radiologyService.getStudyByOrderId(NON_EXISTING_RADIOLOGY_ORDER_ID);
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatients(getPatientsSpreadOverSeveralInListChunks());
 		
-		assertNull(study);
+		assertThat(radiologyOrderListRows.size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(radiologyOrderListRows.get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_OBS));
+		assertThat(radiologyOrderListRows.get(1).getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		assertThat(radiologyOrderListRows.get(2).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByOrderId(Integer)
-	 * @verifies should throw illegal argument exception given null
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies project the values shown in the radiology order list
 	 */
 	@Test
-	public void getStudyByOrderId_shouldThrowIllegalArgumentExceptionGivenNull() {
+	public void getRadiologyOrderListRowsByPatients_shouldProjectTheValuesShownInTheRadiologyOrderList()
+	        throws Exception {
 		
-		expectedException.expect(IllegalArgumentException.class);
-		expectedException.expectMessage("orderId is required");
-		radiologyService.getStudyByOrderId(null);
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatients(new ArrayList<Patient>());
+		
+		RadiologyOrderListRow rowWithStudy = radiologyOrderListRows.get(0);
+		assertThat(rowWithStudy.getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		assertThat(rowWithStudy.getPatientIdentifier(), is("4321"));
+		assertThat(rowWithStudy.getPatientName(), is("John Francis Doe"));
+		assertThat(rowWithStudy.getUrgency(), is(Order.Urgency.ROUTINE));
+		assertThat(rowWithStudy.getOrdererName(), is("Radiology Technician"));
+		assertThat(rowWithStudy.getEffectiveStartDate().getTime(), is(new GregorianCalendar(2015, Calendar.FEBRUARY, 2,
+		    12, 24, 10).getTimeInMillis()));
+		assertThat(rowWithStudy.getModality(), is(Modality.CT));
+		assertThat(rowWithStudy.getScheduledStatus(), is(ScheduledProcedureStepStatus.SCHEDULED));
+		assertThat(rowWithStudy.getPerformedStatus(), is(PerformedProcedureStepStatus.IN_PROGRESS));
+		assertThat(rowWithStudy.getMwlStatus(), is(MwlStatus.DEFAULT));
+		assertThat(rowWithStudy.getInstructions(), is("CT ABDOMEN PANCREAS WITH IV CONTRAST"));
+		
+		RadiologyOrderListRow rowWithoutStudy = radiologyOrderListRows.get(2);
+		assertThat(rowWithoutStudy.getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
+		assertNull(rowWithoutStudy.getModality());
+		assertNull(rowWithoutStudy.getMwlStatus());
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
-	 * @verifies should return study matching study instance uid
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies project one identifier and name per patient given several or no preferred ones
 	 */
 	@Test
-	public void getStudyByStudyInstanceUid_shouldReturnStudyMatchingUid() throws Exception {
-		Study study = radiologyService.getStudyByStudyInstanceUid(EXISTING_STUDY_INSTANCE_UID);
+	public void getRadiologyOrderListRowsByPatients_shouldProjectOneIdentifierAndNamePerPatientGivenSeveralOrNoPreferredOnes()
+	        throws Exception {
 		
-		assertNotNull(study);
-		assertThat(study.getStudyInstanceUid(), is(EXISTING_STUDY_INSTANCE_UID));
+		Patient patientWithSeveralPreferred = patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER);
+		PatientIdentifier otherPreferredIdentifier = new PatientIdentifier("1237", patientWithSeveralPreferred
+		        .getPatientIdentifier().getIdentifierType(), Context.getLocationService().getLocation(1));
+		otherPreferredIdentifier.setPreferred(true);
+		patientWithSeveralPreferred.addIdentifier(otherPreferredIdentifier);
+		PersonName otherPreferredName = new PersonName("Johnny", null, "Doe");
+		otherPreferredName.setPreferred(true);
+		patientWithSeveralPreferred.addName(otherPreferredName);
+		
+		Patient patientWithoutPreferred = patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS);
+		patientWithoutPreferred.getPatientIdentifier().setPreferred(false);
+		patientWithoutPreferred.getPersonName().setPreferred(false);
+		Context.flushSession();
+		
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService.getRadiologyOrderListRowsByPatients(Arrays
+		        .asList(patientWithSeveralPreferred, patientWithoutPreferred));
+		
+		assertThat(radiologyOrderListRows.size(), is(3));
+		assertThat(radiologyOrderListRows.get(0).getPatientIdentifier(), is("4321"));
+		assertThat(radiologyOrderListRows.get(0).getPatientName(), is("John Francis Doe"));
+		assertThat(radiologyOrderListRows.get(1).getPatientIdentifier(), is("4321"));
+		assertThat(radiologyOrderListRows.get(2).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
+		assertThat(radiologyOrderListRows.get(2).getPatientIdentifier(), is("1236"));
+		assertThat(radiologyOrderListRows.get(2).getPatientName(), is("John Doe"));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
-	 * @verifies should return null if no match was found
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies not load radiology orders into the session
 	 */
 	@Test
-	public void getStudyByStudyInstanceUid_shouldReturnNullIfNoMatchIsFound() throws Exception {
-		Study study = radiologyService.getStudyByStudyInstanceUid(NON_EXISTING_STUDY_INSTANCE_UID);
+	public void getRadiologyOrderListRowsByPatients_shouldNotLoadRadiologyOrdersIntoTheSession() throws Exception {
 		
-		assertNull(study);
+		Context.clearSession();
+		Statistics statistics = getClearedStatistics();
+		
+		List<RadiologyOrderListRow> radiologyOrderListRows = radiologyService
+		        .getRadiologyOrderListRowsByPatients(new ArrayList<Patient>());
+		
+		assertThat(radiologyOrderListRows.size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(statistics.getEntityLoadCount(), is(0L));
+		assertThat(statistics.getPrepareStatementCount(), is(1L));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
-	 * @verifies should throw IllegalArgumentException if study instance uid is null
+	 * @see RadiologyService#getRadiologyOrderListRowsByPatients(List<Patient>)
+	 * @verifies throw illegal argument exception given null
 	 */
 	@Test
-	public void getStudyByStudyInstanceUid_shouldThrowIllegalArgumentExceptionIfUidIsNull() throws Exception {
+	public void getRadiologyOrderListRowsByPatients_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
 		expectedException.expect(IllegalArgumentException.class);
-		expectedException.expectMessage("studyInstanceUid is required");
-		radiologyService.getStudyByStudyInstanceUid(null);
+		expectedException.expectMessage("patients is required");
+		radiologyService.getRadiologyOrderListRowsByPatients(null);
 	}
 	
 	/**
-	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
-	 * @verifies should fetch all studies for given radiology orders
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return all radiology orders given empty search criteria
 	 */
 	@Test
-	public void getStudiesByRadiologyOrders_shouldFetchAllStudiesForGivenRadiologyOrders() throws Exception {
+	public void searchRadiologyOrders_shouldReturnAllRadiologyOrdersGivenEmptySearchCriteria() throws Exception {
 		
-		Patient patient = patientService.getPatient(PATIENT_ID_WITH_TWO_STUDIES_AND_NO_NON_RADIOLOGY_ORDER);
-		List<RadiologyOrder> radiologyOrders = radiologyService.getRadiologyOrdersByPatient(patient);
-		
-		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(radiologyOrders);
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(),
+		    new RadiologyOrderPageRequest());
 		
-		assertThat(studies.size(), is(radiologyOrders.size()));
-		assertThat(studies.get(0).getRadiologyOrder(), is(radiologyOrders.get(0)));
-		assertThat(studies.get(1).getRadiologyOrder(), is(radiologyOrders.get(1)));
+		assertThat(result.getRadiologyOrders().size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(result.getTotalCount(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(result.hasNextPage(), is(false));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
-	 * @verifies should return empty list given radiology orders without associated studies
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders of patients whose name parts start with words of patient query
 	 */
 	@Test
-	public void getStudiesByRadiologyOrders_shouldReturnEmptyListGivenRadiologyOrdersWithoutAssociatedStudies()
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersOfPatientsWhoseNamePartsStartWithWordsOfPatientQuery()
 	        throws Exception {
 		
-		RadiologyOrder radiologyOrderWithoutStudy = radiologyService
-		        .getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_STUDY);
-		List<RadiologyOrder> radiologyOrders = Arrays.asList(radiologyOrderWithoutStudy);
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setPatientQuery("doe fran");
 		
-		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(radiologyOrders);
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria,
+		    new RadiologyOrderPageRequest());
 		
-		assertThat(radiologyOrders.size(), is(1));
-		assertThat(studies.size(), is(0));
+		assertThat(result.getTotalCount(), is(2));
+		for (RadiologyOrder radiologyOrder : result.getRadiologyOrders()) {
+			assertThat(radiologyOrder.getPatient().getPatientId(), is(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS));
+		}
 	}
 	
 	/**
-	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
-	 * @verifies should return empty list given empty radiology order list
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders of patients whose identifier equals patient query
 	 */
 	@Test
-	public void getStudiesByRadiologyOrders_shouldReturnEmptyListGivenEmptyRadiologyOrderList() throws Exception {
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersOfPatientsWhoseIdentifierEqualsPatientQuery()
+	        throws Exception {
 		
-		List<RadiologyOrder> orders = new ArrayList<RadiologyOrder>();
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setPatientQuery(
+		    patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER).getPatientIdentifier().getIdentifier());
 		
-		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(orders);
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria,
+		    new RadiologyOrderPageRequest());
 		
-		assertThat(orders.size(), is(0));
-		assertThat(studies.size(), is(0));
+		assertThat(result.getTotalCount(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
 	}
 	
 	/**
-	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
-	 * @verifies should throw IllegalArgumentException given null
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders of patients matching patient query and patient filter
 	 */
 	@Test
-	public void getStudiesByRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersOfPatientsMatchingPatientQueryAndPatientFilter()
+	        throws Exception {
 		
-		expectedException.expect(IllegalArgumentException.class);
-		expectedException.expectMessage("radiologyOrders are required");
-		radiologyService.getStudiesByRadiologyOrders(null);
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setPatientQuery("doe");
+		radiologyOrderSearchCriteria.setPatientFilter("fran");
+		
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria,
+		    new RadiologyOrderPageRequest());
+		
+		assertThat(result.getTotalCount(), is(2));
+		for (RadiologyOrder radiologyOrder : result.getRadiologyOrders()) {
+			assertThat(radiologyOrder.getPatient().getPatientId(), is(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS));
+		}
 	}
 	
 	/**
-	 * @see RadiologyService#getObsByOrderId(Integer)
-	 * @verifies should fetch all obs for given orderId
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders with effective start date within given date range
 	 */
 	@Test
-	public void getObsByOrderId_shouldFetchAllObsForGivenOrderId() throws Exception {
-		List<Obs> obs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersWithEffectiveStartDateWithinGivenDateRange()
+	        throws Exception {
 		
-		assertThat(obs.size(), is(1));
-		assertThat(obs.get(0).getOrder().getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setFromDate(new GregorianCalendar(2015, Calendar.FEBRUARY, 2, 12, 25).getTime());
+		radiologyOrderSearchCriteria.setToDate(new GregorianCalendar(2015, Calendar.FEBRUARY, 3).getTime());
+		
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria,
+		    new RadiologyOrderPageRequest());
+		
+		assertThat(result.getTotalCount(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		
+		radiologyOrderSearchCriteria.setToDate(null);
+		
+		assertThat(radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest())
+		        .getTotalCount(), is(2));
 	}
 	
 	/**
-	 * @see RadiologyService#getObsByOrderId(Integer)
-	 * @verifies should return empty list given orderId without associated obs
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders whose study matches given modality and statuses
 	 */
 	@Test
-	public void getObsByOrderId_shouldReturnEmptyListGivenOrderIdWithoutAssociatedObs() throws Exception {
-		List<Obs> obs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersWhoseStudyMatchesGivenModalityAndStatuses()
+	        throws Exception {
 		
-		assertThat(obs.size(), is(0));
-	}
-	
-	/**
-	 * @see RadiologyService#getObsByOrderId(Integer)
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setScheduledStatus(ScheduledProcedureStepStatus.SCHEDULED);
+		radiologyOrderSearchCriteria.setPerformedStatus(PerformedProcedureStepStatus.IN_PROGRESS);
+		
+		assertThat(radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest())
+		        .getTotalCount(), is(2));
+		
+		radiologyOrderSearchCriteria.setModality(Modality.CT);
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria,
+		    new RadiologyOrderPageRequest());
+		
+		assertThat(result.getTotalCount(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		
+		radiologyOrderSearchCriteria.setPerformedStatus(PerformedProcedureStepStatus.COMPLETED);
+		
+		assertThat(radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest())
+		        .getTotalCount(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return radiology orders matching given urgency
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldReturnRadiologyOrdersMatchingGivenUrgency() throws Exception {
+		
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setUrgency(Order.Urgency.ROUTINE);
+		
+		assertThat(radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest())
+		        .getTotalCount(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		
+		radiologyOrderSearchCriteria.setUrgency(Order.Urgency.STAT);
+		
+		assertThat(radiologyService.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest())
+		        .getTotalCount(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return requested page and total count of matching radiology orders
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldReturnRequestedPageAndTotalCountOfMatchingRadiologyOrders() throws Exception {
+		
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(),
+		    new RadiologyOrderPageRequest(2, null));
+		
+		assertThat(result.getRadiologyOrders().size(), is(2));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		assertThat(result.getRadiologyOrders().get(1).getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		assertThat(result.getTotalCount(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(result.hasNextPage(), is(true));
+		assertThat(result.getNextAfterOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies load page with study patient and orderer in a constant number of statements
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldLoadPageWithStudyPatientAndOrdererInAConstantNumberOfStatements()
+	        throws Exception {
+		
+		Context.clearSession();
+		Statistics statistics = getClearedStatistics();
+		RadiologyOrderSearchResult pageOfOne = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(),
+		    new RadiologyOrderPageRequest(1, null));
+		render(pageOfOne.getRadiologyOrders());
+		long statementsForPageOfOne = statistics.getPrepareStatementCount();
+		
+		Context.clearSession();
+		statistics = getClearedStatistics();
+		RadiologyOrderSearchResult pageOfThree = radiologyService.searchRadiologyOrders(
+		    new RadiologyOrderSearchCriteria(), new RadiologyOrderPageRequest(3, null));
+		render(pageOfThree.getRadiologyOrders());
+		long statementsForPageOfThree = statistics.getPrepareStatementCount();
+		
+		assertThat(pageOfOne.getRadiologyOrders().size(), is(1));
+		assertThat(pageOfThree.getRadiologyOrders().size(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(statementsForPageOfThree, is(statementsForPageOfOne));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return page following given after order id
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldReturnPageFollowingGivenAfterOrderId() throws Exception {
+		
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(),
+		    new RadiologyOrderPageRequest(2, RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		
+		assertThat(result.getRadiologyOrders().size(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
+		assertThat(result.getTotalCount(), is(TOTAL_NUMBER_OF_RADIOLOGY_ORDERS));
+		assertThat(result.hasNextPage(), is(false));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies return page starting at given first result sorted by given sort property
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldReturnPageStartingAtGivenFirstResultSortedByGivenSortProperty()
+	        throws Exception {
+		
+		RadiologyOrderPageRequest radiologyOrderPageRequest = new RadiologyOrderPageRequest(1, null);
+		radiologyOrderPageRequest.setSortProperty(RadiologyOrderPageRequest.SortProperty.EFFECTIVE_START_DATE);
+		radiologyOrderPageRequest.setAscending(false);
+		
+		RadiologyOrderSearchResult result = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(),
+		    radiologyOrderPageRequest);
+		
+		assertThat(result.getRadiologyOrders().size(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(RADIOLOGY_ORDER_ID_WITHOUT_STUDY));
+		
+		radiologyOrderPageRequest.setFirstResult(2);
+		result = radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(), radiologyOrderPageRequest);
+		
+		assertThat(result.getRadiologyOrders().size(), is(1));
+		assertThat(result.getRadiologyOrders().get(0).getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+		assertThat(result.hasNextPage(), is(false));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies throw illegal argument exception given null
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("radiologyOrderSearchCriteria is required");
+		radiologyService.searchRadiologyOrders(null, new RadiologyOrderPageRequest());
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies throw illegal argument exception given non positive page size
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenNonPositivePageSize() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("radiologyOrderPageRequest.pageSize must be positive");
+		radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(), new RadiologyOrderPageRequest(0, null));
+	}
+	
+	/**
+	 * @see RadiologyService#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies throw illegal argument exception given after order id with sort other than ascending
+	 *           order id
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenAfterOrderIdWithSortOtherThanAscendingOrderId()
+	        throws Exception {
+		
+		RadiologyOrderPageRequest radiologyOrderPageRequest = new RadiologyOrderPageRequest(2, EXISTING_RADIOLOGY_ORDER_ID);
+		radiologyOrderPageRequest.setSortProperty(RadiologyOrderPageRequest.SortProperty.URGENCY);
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("radiologyOrderPageRequest.afterOrderId requires sorting by ascending orderId");
+		radiologyService.searchRadiologyOrders(new RadiologyOrderSearchCriteria(), radiologyOrderPageRequest);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByStudyId(Integer)
+	 * @verifies should return study for given study id
+	 */
+	@Test
+	public void getStudyByStudyId_shouldReturnStudyForGivenStudyId() throws Exception {
+		
+		Study study = radiologyService.getStudyByStudyId(EXISTING_STUDY_ID);
+		
+		assertNotNull(study);
+		assertThat(study.getRadiologyOrder().getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByStudyId(Integer)
+	 * @verifies should return null if no match was found
+	 */
+	@Test
+	public void getStudyByStudyId_shouldReturnNullIfNoMatchIsFound() throws Exception {
+		
+		Study study = radiologyService.getStudyByStudyId(NON_EXISTING_STUDY_ID);
+		
+		assertNull(study);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByOrderId(Integer)
+	 * @verifies should return study associated with radiology order for which order id is given
+	 */
+	@Test
+	public void getStudyByOrderId_shouldReturnStudyMatching() throws Exception {
+		
+		Study study = radiologyService.getStudyByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		
+		assertNotNull(study);
+		assertThat(study.getRadiologyOrder().getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByOrderId(Integer)
+	 * @verifies should return null if no match was found
+	 */
+	@Test
+	public void getStudyByOrderId_shouldReturnNullIfNoMatchIsFound() {
+		
+		Study study = radiologyService.getStudyByOrderId(NON_EXISTING_RADIOLOGY_ORDER_ID);
+		
+		assertNull(study);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByOrderId(Integer)
+	 * @verifies should throw illegal argument exception given null
+	 */
+	@Test
+	public void getStudyByOrderId_shouldThrowIllegalArgumentExceptionGivenNull() {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("orderId is required");
+		radiologyService.getStudyByOrderId(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
+	 * @verifies should return study matching study instance uid
+	 */
+	@Test
+	public void getStudyByStudyInstanceUid_shouldReturnStudyMatchingUid() throws Exception {
+		Study study = radiologyService.getStudyByStudyInstanceUid(EXISTING_STUDY_INSTANCE_UID);
+		
+		assertNotNull(study);
+		assertThat(study.getStudyInstanceUid(), is(EXISTING_STUDY_INSTANCE_UID));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
+	 * @verifies should return null if no match was found
+	 */
+	@Test
+	public void getStudyByStudyInstanceUid_shouldReturnNullIfNoMatchIsFound() throws Exception {
+		Study study = radiologyService.getStudyByStudyInstanceUid(NON_EXISTING_STUDY_INSTANCE_UID);
+		
+		assertNull(study);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudyByStudyInstanceUid(String)
+	 * @verifies should throw IllegalArgumentException if study instance uid is null
+	 */
+	@Test
+	public void getStudyByStudyInstanceUid_shouldThrowIllegalArgumentExceptionIfUidIsNull() throws Exception {
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("studyInstanceUid is required");
+		radiologyService.getStudyByStudyInstanceUid(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
+	 * @verifies should fetch all studies for given radiology orders
+	 */
+	@Test
+	public void getStudiesByRadiologyOrders_shouldFetchAllStudiesForGivenRadiologyOrders() throws Exception {
+		
+		Patient patient = patientService.getPatient(PATIENT_ID_WITH_TWO_STUDIES_AND_NO_NON_RADIOLOGY_ORDER);
+		List<RadiologyOrder> radiologyOrders = radiologyService.getRadiologyOrdersByPatient(patient);
+		
+		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(radiologyOrders);
+		
+		assertThat(studies.size(), is(radiologyOrders.size()));
+		assertThat(studies.get(0).getRadiologyOrder(), is(radiologyOrders.get(0)));
+		assertThat(studies.get(1).getRadiologyOrder(), is(radiologyOrders.get(1)));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
+	 * @verifies should return empty list given radiology orders without associated studies
+	 */
+	@Test
+	public void getStudiesByRadiologyOrders_shouldReturnEmptyListGivenRadiologyOrdersWithoutAssociatedStudies()
+	        throws Exception {
+		
+		RadiologyOrder radiologyOrderWithoutStudy = radiologyService
+		        .getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_STUDY);
+		List<RadiologyOrder> radiologyOrders = Arrays.asList(radiologyOrderWithoutStudy);
+		
+		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(radiologyOrders);
+		
+		assertThat(radiologyOrders.size(), is(1));
+		assertThat(studies.size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
+	 * @verifies should return empty list given empty radiology order list
+	 */
+	@Test
+	public void getStudiesByRadiologyOrders_shouldReturnEmptyListGivenEmptyRadiologyOrderList() throws Exception {
+		
+		List<RadiologyOrder> orders = new ArrayList<RadiologyOrder>();
+		
+		List<Study> studies = radiologyService.getStudiesByRadiologyOrders(orders);
+		
+		assertThat(orders.size(), is(0));
+		assertThat(studies.size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#getStudiesByRadiologyOrders(List<RadiologyOrder>)
+	 * @verifies should throw IllegalArgumentException given null
+	 */
+	@Test
+	public void getStudiesByRadiologyOrders_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("radiologyOrders are required");
+		radiologyService.getStudiesByRadiologyOrders(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderId(Integer)
+	 * @verifies should fetch all obs for given orderId
+	 */
+	@Test
+	public void getObsByOrderId_shouldFetchAllObsForGivenOrderId() throws Exception {
+		List<Obs> obs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		
+		assertThat(obs.size(), is(1));
+		assertThat(obs.get(0).getOrder().getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderId(Integer)
+	 * @verifies should return empty list given orderId without associated obs
+	 */
+	@Test
+	public void getObsByOrderId_shouldReturnEmptyListGivenOrderIdWithoutAssociatedObs() throws Exception {
+		List<Obs> obs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+		
+		assertThat(obs.size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderId(Integer)
+	 * @verifies not return obs which have been revised
+	 */
+	@Test
+	public void getObsByOrderId_shouldNotReturnObsWhichHaveBeenRevised() throws Exception {
+		
+		Obs previousVersion = Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS);
+		Obs revisedObs = saveObs(previousVersion.getOrder(), previousVersion);
+		radiologyService.updateCurrentObs(revisedObs);
+		
+		List<Obs> obs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		
+		assertThat(obs.size(), is(1));
+		assertThat(obs.get(0).getObsId(), is(revisedObs.getObsId()));
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderId(Integer)
 	 * @verifies should throw IllegalArgumentException given null
 	 */
 	@Test
-	public void getObsByOrderId_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+	public void getObsByOrderId_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("orderId is required");
+		radiologyService.getObsByOrderId(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderIds(List<Integer>)
+	 * @verifies fetch obs of all given orderIds
+	 */
+	@Test
+	public void getObsByOrderIds_shouldFetchObsOfAllGivenOrderIds() throws Exception {
+		
+		Map<Integer, List<Obs>> obs = radiologyService.getObsByOrderIds(Arrays.asList(RADIOLOGY_ORDER_ID_WITH_ONE_OBS,
+		    RADIOLOGY_ORDER_ID_WITHOUT_OBS));
+		
+		assertThat(obs.size(), is(2));
+		assertThat(obs.get(RADIOLOGY_ORDER_ID_WITH_ONE_OBS).size(), is(1));
+		assertThat(obs.get(RADIOLOGY_ORDER_ID_WITH_ONE_OBS).get(0).getObsId(), is(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS));
+		assertThat(obs.get(RADIOLOGY_ORDER_ID_WITHOUT_OBS).size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderIds(List<Integer>)
+	 * @verifies return empty map given empty list
+	 */
+	@Test
+	public void getObsByOrderIds_shouldReturnEmptyMapGivenEmptyList() throws Exception {
+		
+		Map<Integer, List<Obs>> obs = radiologyService.getObsByOrderIds(new ArrayList<Integer>());
+		
+		assertTrue(obs.isEmpty());
+	}
+	
+	/**
+	 * @see RadiologyService#getObsByOrderIds(List<Integer>)
+	 * @verifies throw IllegalArgumentException given null
+	 */
+	@Test
+	public void getObsByOrderIds_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("orderIds is required");
+		radiologyService.getObsByOrderIds(null);
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 * @verifies return report summaries of orders with and without report
+	 */
+	@Test
+	public void getReportSummaries_shouldReturnReportSummariesOfOrdersWithAndWithoutReport() throws Exception {
+		
+		Map<Integer, RadiologyReportSummary> reportSummaries = radiologyService.getReportSummaries(Arrays.asList(
+		    RADIOLOGY_ORDER_ID_WITHOUT_OBS, RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		
+		assertThat(reportSummaries.size(), is(2));
+		RadiologyReportSummary withoutReport = reportSummaries.get(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+		assertThat(withoutReport.isReported(), is(false));
+		assertThat(withoutReport.getRevisionCount(), is(0));
+		assertNull(withoutReport.getDateLastEdited());
+		RadiologyReportSummary withReport = reportSummaries.get(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		assertThat(withReport.isReported(), is(true));
+		assertThat(withReport.getRevisionCount(), is(1));
+		assertThat(withReport.getDateLastEdited().getTime(), is(new GregorianCalendar(2015, Calendar.FEBRUARY, 6, 17, 14,
+		        35).getTimeInMillis()));
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 * @verifies count revised obs versions and return date of last edit
+	 */
+	@Test
+	public void getReportSummaries_shouldCountRevisedObsVersionsAndReturnDateOfLastEdit() throws Exception {
+		
+		Obs previousVersion = Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS);
+		Obs revisedObs = saveObs(previousVersion.getOrder(), previousVersion);
+		radiologyService.updateCurrentObs(revisedObs);
+		Context.flushSession();
+		
+		RadiologyReportSummary reportSummary = radiologyService.getReportSummaries(
+		    Arrays.asList(RADIOLOGY_ORDER_ID_WITH_ONE_OBS)).get(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		
+		assertThat(reportSummary.isReported(), is(true));
+		assertThat(reportSummary.getRevisionCount(), is(2));
+		assertThat(reportSummary.getDateLastEdited().getTime(), is(revisedObs.getDateCreated().getTime()));
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 * @verifies not report order whose current obs is voided
+	 */
+	@Test
+	public void getReportSummaries_shouldNotReportOrderWhoseCurrentObsIsVoided() throws Exception {
+		
+		Context.getObsService().voidObs(Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS),
+		    "wrong patient");
+		Context.flushSession();
+		
+		RadiologyReportSummary reportSummary = radiologyService.getReportSummaries(
+		    Arrays.asList(RADIOLOGY_ORDER_ID_WITH_ONE_OBS)).get(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		
+		assertThat(reportSummary.isReported(), is(false));
+		assertThat(reportSummary.getRevisionCount(), is(1));
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 * @verifies return empty map given empty collection
+	 */
+	@Test
+	public void getReportSummaries_shouldReturnEmptyMapGivenEmptyCollection() throws Exception {
+		
+		assertTrue(radiologyService.getReportSummaries(new ArrayList<Integer>()).isEmpty());
+	}
+	
+	/**
+	 * @see RadiologyService#getReportSummaries(Collection<Integer>)
+	 * @verifies throw IllegalArgumentException given null
+	 */
+	@Test
+	public void getReportSummaries_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("orderIds is required");
+		radiologyService.getReportSummaries(null);
+	}
+	
+	/**
+	 * @see RadiologyService#updateCurrentObs(Obs)
+	 * @verifies record given obs as current obs of its radiology order
+	 */
+	@Test
+	public void updateCurrentObs_shouldRecordGivenObsAsCurrentObsOfItsRadiologyOrder() throws Exception {
+		
+		Obs obs = saveObs(radiologyService.getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS), null);
+		
+		radiologyService.updateCurrentObs(obs);
+		
+		List<Obs> currentObs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS);
+		assertThat(currentObs.size(), is(1));
+		assertThat(currentObs.get(0).getObsId(), is(obs.getObsId()));
+	}
+	
+	/**
+	 * @see RadiologyService#updateCurrentObs(Obs)
+	 * @verifies replace previous version of given obs
+	 */
+	@Test
+	public void updateCurrentObs_shouldReplacePreviousVersionOfGivenObs() throws Exception {
+		
+		Obs previousVersion = Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS);
+		Obs obs = saveObs(previousVersion.getOrder(), previousVersion);
+		
+		radiologyService.updateCurrentObs(obs);
+		radiologyService.updateCurrentObs(obs);
+		
+		List<Obs> currentObs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		assertThat(currentObs.size(), is(1));
+		assertThat(currentObs.get(0).getObsId(), is(obs.getObsId()));
+	}
+	
+	/**
+	 * @see RadiologyService#updateCurrentObs(Obs)
+	 * @verifies ignore obs of orders other than radiology orders
+	 */
+	@Test
+	public void updateCurrentObs_shouldIgnoreObsOfOrdersOtherThanRadiologyOrders() throws Exception {
+		
+		Order nonRadiologyOrder = orderService.getOrder(NON_RADIOLOGY_ORDER_ID);
+		Obs obs = saveObs(nonRadiologyOrder, null);
+		
+		radiologyService.updateCurrentObs(obs);
+		
+		assertThat(radiologyService.getObsByOrderId(NON_RADIOLOGY_ORDER_ID).size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#updateCurrentObs(Obs)
+	 * @verifies throw IllegalArgumentException given null
+	 */
+	@Test
+	public void updateCurrentObs_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("obs is required");
+		radiologyService.updateCurrentObs(null);
+	}
+	
+	/**
+	 * @see RadiologyService#removeCurrentObs(Obs)
+	 * @verifies remove given obs from current obs of its radiology order
+	 */
+	@Test
+	public void removeCurrentObs_shouldRemoveGivenObsFromCurrentObsOfItsRadiologyOrder() throws Exception {
+		
+		radiologyService.removeCurrentObs(Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS));
+		
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS).size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#removeCurrentObs(Obs)
+	 * @verifies restore previous version of given obs as current obs
+	 */
+	@Test
+	public void removeCurrentObs_shouldRestorePreviousVersionOfGivenObsAsCurrentObs() throws Exception {
+		
+		Obs previousVersion = Context.getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS);
+		Obs obs = saveObs(previousVersion.getOrder(), previousVersion);
+		radiologyService.updateCurrentObs(obs);
+		
+		radiologyService.removeCurrentObs(obs);
+		
+		List<Obs> currentObs = radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS);
+		assertThat(currentObs.size(), is(1));
+		assertThat(currentObs.get(0).getObsId(), is(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS));
+	}
+	
+	/**
+	 * @see RadiologyService#removeCurrentObs(Obs)
+	 * @verifies ignore obs which is not current obs
+	 */
+	@Test
+	public void removeCurrentObs_shouldIgnoreObsWhichIsNotCurrentObs() throws Exception {
+		
+		Obs obs = saveObs(radiologyService.getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS), Context
+		        .getObsService().getObs(OBS_ID_OF_RADIOLOGY_ORDER_WITH_ONE_OBS));
+		
+		radiologyService.removeCurrentObs(obs);
+		
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_OBS).size(), is(0));
+		assertThat(radiologyService.getObsByOrderId(RADIOLOGY_ORDER_ID_WITH_ONE_OBS).size(), is(1));
+	}
+	
+	/**
+	 * @see RadiologyService#removeCurrentObs(Obs)
+	 * @verifies throw IllegalArgumentException given null
+	 */
+	@Test
+	public void removeCurrentObs_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
 		expectedException.expect(IllegalArgumentException.class);
-		expectedException.expectMessage("orderId is required");
-		radiologyService.getObsByOrderId(null);
+		expectedException.expectMessage("obs is required");
+		radiologyService.removeCurrentObs(null);
 	}
 	
 	/**
@@ -684,6 +1706,108 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		assertThat(updatedStudy.getPerformedStatus(), is(performedStatusPostUpdate));
 	}
 	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatus(String,PerformedProcedureStepStatus)
+	 * @verifies return null if no study has given study instance uid
+	 */
+	@Test
+	public void updateStudyPerformedStatus_shouldReturnNullIfNoStudyHasGivenStudyInstanceUid() throws Exception {
+		
+		String foreignStudyInstanceUid = "1.2.840.113619.2.55.3.604688119.969.1268071029.320";
+		
+		assertNull(radiologyService.updateStudyPerformedStatus(foreignStudyInstanceUid,
+		    PerformedProcedureStepStatus.IN_PROGRESS));
+		assertNull(radiologyService.updateStudyPerformedStatus(foreignStudyInstanceUid,
+		    PerformedProcedureStepStatus.COMPLETED));
+	}
+	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatus(String,PerformedProcedureStepStatus)
+	 * @verifies update performed status of study again given its study instance uid was resolved
+	 *           before
+	 */
+	@Test
+	public void updateStudyPerformedStatus_shouldUpdatePerformedStatusOfStudyAgainGivenItsStudyInstanceUidWasResolvedBefore()
+	        throws Exception {
+		
+		radiologyService.updateStudyPerformedStatus(EXISTING_STUDY_INSTANCE_UID, PerformedProcedureStepStatus.IN_PROGRESS);
+		
+		Study updatedStudy = radiologyService.updateStudyPerformedStatus(EXISTING_STUDY_INSTANCE_UID,
+		    PerformedProcedureStepStatus.COMPLETED);
+		
+		assertThat(updatedStudy.getStudyId(), is(EXISTING_STUDY_ID));
+		assertThat(radiologyService.getStudyByStudyId(EXISTING_STUDY_ID).getPerformedStatus(),
+		    is(PerformedProcedureStepStatus.COMPLETED));
+	}
+	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatuses(Map)
+	 * @verifies update performed status of studies associated with given study instance uids
+	 */
+	@Test
+	public void updateStudyPerformedStatuses_shouldUpdatePerformedStatusOfStudiesAssociatedWithGivenStudyInstanceUids()
+	        throws Exception {
+		
+		Study existingStudy = radiologyService.getStudyByStudyId(EXISTING_STUDY_ID);
+		Map<String, PerformedProcedureStepStatus> performedStatuses = new LinkedHashMap<String, PerformedProcedureStepStatus>();
+		performedStatuses.put(EXISTING_STUDY_INSTANCE_UID, PerformedProcedureStepStatus.COMPLETED);
+		performedStatuses.put("1.2.826.0.1.3680043.8.2186.1.2", PerformedProcedureStepStatus.DISCONTINUED);
+		
+		Set<String> unknown = radiologyService.updateStudyPerformedStatuses(performedStatuses);
+		
+		assertTrue(unknown.isEmpty());
+		assertThat(existingStudy.getPerformedStatus(), is(PerformedProcedureStepStatus.COMPLETED));
+		assertThat(radiologyService.getStudyByStudyId(2).getPerformedStatus(), is(PerformedProcedureStepStatus.DISCONTINUED));
+	}
+	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatuses(Map)
+	 * @verifies return study instance uids which no study has
+	 */
+	@Test
+	public void updateStudyPerformedStatuses_shouldReturnStudyInstanceUidsWhichNoStudyHas() throws Exception {
+		
+		Map<String, PerformedProcedureStepStatus> performedStatuses = new LinkedHashMap<String, PerformedProcedureStepStatus>();
+		performedStatuses.put(NON_EXISTING_STUDY_INSTANCE_UID, PerformedProcedureStepStatus.COMPLETED);
+		performedStatuses.put(EXISTING_STUDY_INSTANCE_UID, PerformedProcedureStepStatus.COMPLETED);
+		
+		Set<String> unknown = radiologyService.updateStudyPerformedStatuses(performedStatuses);
+		
+		assertThat(unknown.size(), is(1));
+		assertTrue(unknown.contains(NON_EXISTING_STUDY_INSTANCE_UID));
+		assertThat(radiologyService.getStudyByStudyId(EXISTING_STUDY_ID).getPerformedStatus(),
+		    is(PerformedProcedureStepStatus.COMPLETED));
+	}
+	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatuses(Map)
+	 * @verifies throw illegal argument exception if performed statuses is null
+	 */
+	@Test
+	public void updateStudyPerformedStatuses_shouldThrowIllegalArgumentExceptionIfPerformedStatusesIsNull()
+	        throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("performedStatuses is required");
+		radiologyService.updateStudyPerformedStatuses(null);
+	}
+	
+	/**
+	 * @see RadiologyService#updateStudyPerformedStatuses(Map)
+	 * @verifies throw illegal argument exception if performed statuses contains null
+	 */
+	@Test
+	public void updateStudyPerformedStatuses_shouldThrowIllegalArgumentExceptionIfPerformedStatusesContainsNull()
+	        throws Exception {
+		
+		Map<String, PerformedProcedureStepStatus> performedStatuses = new LinkedHashMap<String, PerformedProcedureStepStatus>();
+		performedStatuses.put(EXISTING_STUDY_INSTANCE_UID, null);
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("performedStatuses must not contain null");
+		radiologyService.updateStudyPerformedStatuses(performedStatuses);
+	}
+	
 	/**
 	 * @see RadiologyService#updateStudyPerformedStatus(String,PerformedProcedureStepStatus)
 	 * @verifies throw illegal argument exception if study instance uid is null
@@ -707,4 +1831,359 @@ public class RadiologyServiceComponentTest extends BaseModuleContextSensitiveTes
 		expectedException.expectMessage("performedStatus is required");
 		radiologyService.updateStudyPerformedStatus(EXISTING_STUDY_INSTANCE_UID, null);
 	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies return worklist items matching given search criteria
+	 */
+	@Test
+	public void getWorklistItems_shouldReturnWorklistItemsMatchingGivenSearchCriteria() throws Exception {
+		
+		WorklistItemSearchCriteria worklistItemSearchCriteria = new WorklistItemSearchCriteria();
+		worklistItemSearchCriteria.setPatientId("4321");
+		worklistItemSearchCriteria.setModality(Modality.CT);
+		worklistItemSearchCriteria.setScheduledStationAETitle("CT_STATION");
+		
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(worklistItemSearchCriteria);
+		
+		assertThat(worklistItems.size(), is(1));
+		assertThat(worklistItems.get(0).getRadiologyOrder().getOrderId(), is(EXISTING_RADIOLOGY_ORDER_ID));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies return worklist items matching given search criteria with wildcards
+	 */
+	@Test
+	public void getWorklistItems_shouldReturnWorklistItemsMatchingGivenSearchCriteriaWithWildcards() throws Exception {
+		
+		WorklistItemSearchCriteria worklistItemSearchCriteria = new WorklistItemSearchCriteria();
+		worklistItemSearchCriteria.setPatientId("43?*");
+		
+		assertThat(radiologyService.getWorklistItems(worklistItemSearchCriteria).size(), is(2));
+		
+		worklistItemSearchCriteria.setPatientId("12*");
+		
+		assertThat(radiologyService.getWorklistItems(worklistItemSearchCriteria).size(), is(0));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies return worklist items within given date range
+	 */
+	@Test
+	public void getWorklistItems_shouldReturnWorklistItemsWithinGivenDateRange() throws Exception {
+		
+		WorklistItemSearchCriteria worklistItemSearchCriteria = new WorklistItemSearchCriteria();
+		worklistItemSearchCriteria.setFromDate(new GregorianCalendar(2015, Calendar.FEBRUARY, 2, 12, 25).getTime());
+		worklistItemSearchCriteria.setToDate(new GregorianCalendar(2015, Calendar.FEBRUARY, 3).getTime());
+		
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(worklistItemSearchCriteria);
+		
+		assertThat(worklistItems.size(), is(1));
+		assertThat(worklistItems.get(0).getModality(), is(Modality.MR));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies return all worklist items given empty search criteria
+	 */
+	@Test
+	public void getWorklistItems_shouldReturnAllWorklistItemsGivenEmptySearchCriteria() throws Exception {
+		
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(new WorklistItemSearchCriteria());
+		
+		assertThat(worklistItems.size(), is(2));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies not return worklist items of voided radiology orders
+	 */
+	@Test
+	public void getWorklistItems_shouldNotReturnWorklistItemsOfVoidedRadiologyOrders() throws Exception {
+		
+		Order order = orderService.voidOrder(orderService.getOrder(EXISTING_RADIOLOGY_ORDER_ID), "Wrong patient");
+		
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(new WorklistItemSearchCriteria());
+		
+		assertThat(worklistItems.size(), is(1));
+		assertThat(worklistItems.get(0).getRadiologyOrder().getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+		
+		orderService.unvoidOrder(order);
+		
+		assertThat(radiologyService.getWorklistItems(new WorklistItemSearchCriteria()).size(), is(2));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies not return worklist items of stopped radiology orders
+	 */
+	@Test
+	public void getWorklistItems_shouldNotReturnWorklistItemsOfStoppedRadiologyOrders() throws Exception {
+		
+		Order order = orderService.getOrder(EXISTING_RADIOLOGY_ORDER_ID);
+		orderService.discontinueOrder(order, "Wrong Procedure", null, order.getOrderer(), order.getEncounter());
+		
+		List<WorklistItem> worklistItems = radiologyService.getWorklistItems(new WorklistItemSearchCriteria());
+		
+		assertThat(worklistItems.size(), is(1));
+		assertThat(worklistItems.get(0).getRadiologyOrder().getOrderId(), is(RADIOLOGY_ORDER_ID_WITH_ONE_OBS));
+	}
+	
+	/**
+	 * @see RadiologyService#getWorklistItems(WorklistItemSearchCriteria)
+	 * @verifies throw illegal argument exception given null
+	 */
+	@Test
+	public void getWorklistItems_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("worklistItemSearchCriteria is required");
+		radiologyService.getWorklistItems(null);
+	}
+	
+	/**
+	 * @see RadiologyService#sendModalityWorklist(RadiologyOrder,OrderRequest)
+	 * @verifies queue hl7 outbox message for given radiology order and order request
+	 */
+	@Test
+	public void sendModalityWorklist_shouldQueueHl7OutboxMessageForGivenRadiologyOrderAndOrderRequest()
+	        throws Exception {
+		
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		
+		radiologyService.sendModalityWorklist(radiologyOrder, OrderRequest.Save_Order);
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getUnsentHL7OutboxMessages(10);
+		HL7OutboxMessage hl7OutboxMessage = hl7OutboxMessages.get(hl7OutboxMessages.size() - 1);
+		
+		assertThat(hl7OutboxMessages.size(), is(3));
+		assertThat(hl7OutboxMessage.getRadiologyOrder(), is(radiologyOrder));
+		assertThat(hl7OutboxMessage.getOrderRequest(), is(OrderRequest.Save_Order));
+		assertThat(hl7OutboxMessage.getAttempts(), is(0));
+		assertThat(radiologyOrder.getStudy().getMwlStatus(), is(MwlStatus.DEFAULT));
+	}
+	
+	/**
+	 * @see RadiologyService#getUnsentHL7OutboxMessages(int)
+	 * @verifies return unsent hl7 outbox messages in the order they were queued
+	 */
+	@Test
+	public void getUnsentHL7OutboxMessages_shouldReturnUnsentHl7OutboxMessagesInTheOrderTheyWereQueued() throws Exception {
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getUnsentHL7OutboxMessages(10);
+		
+		assertThat(hl7OutboxMessages.size(), is(2));
+		assertThat(hl7OutboxMessages.get(0).getHl7OutboxMessageId(), is(2));
+		assertThat(hl7OutboxMessages.get(1).getHl7OutboxMessageId(), is(3));
+		
+		assertThat(radiologyService.getUnsentHL7OutboxMessages(1).size(), is(1));
+	}
+	
+	/**
+	 * @see RadiologyService#getDueHL7OutboxMessages(int)
+	 * @verifies return unsent hl7 outbox messages which are due in the order they were queued
+	 */
+	@Test
+	public void getDueHL7OutboxMessages_shouldReturnUnsentHl7OutboxMessagesWhichAreDueInTheOrderTheyWereQueued()
+	        throws Exception {
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getDueHL7OutboxMessages(10);
+		
+		assertThat(hl7OutboxMessages.size(), is(2));
+		assertThat(hl7OutboxMessages.get(0).getHl7OutboxMessageId(), is(2));
+		assertThat(hl7OutboxMessages.get(1).getHl7OutboxMessageId(), is(3));
+		
+		assertThat(radiologyService.getDueHL7OutboxMessages(1).size(), is(1));
+	}
+	
+	/**
+	 * @see RadiologyService#getDueHL7OutboxMessages(int)
+	 * @verifies not return hl7 outbox message not yet due for another attempt
+	 */
+	@Test
+	public void getDueHL7OutboxMessages_shouldNotReturnHl7OutboxMessageNotYetDueForAnotherAttempt() throws Exception {
+		
+		radiologyService.saveHL7OutboxMessageDelivery(radiologyService.getUnsentHL7OutboxMessages(10).get(1), false,
+		    "Connection refused");
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getDueHL7OutboxMessages(10);
+		
+		assertThat(hl7OutboxMessages.size(), is(1));
+		assertThat(hl7OutboxMessages.get(0).getHl7OutboxMessageId(), is(2));
+	}
+	
+	/**
+	 * @see RadiologyService#getDueHL7OutboxMessages(int)
+	 * @verifies not return later hl7 outbox messages of radiology order with earlier message not yet due
+	 */
+	@Test
+	public void getDueHL7OutboxMessages_shouldNotReturnLaterHl7OutboxMessagesOfRadiologyOrderWithEarlierMessageNotYetDue()
+	        throws Exception {
+		
+		radiologyService.saveHL7OutboxMessageDelivery(radiologyService.getUnsentHL7OutboxMessages(10).get(1), false,
+		    "Connection refused");
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(EXISTING_RADIOLOGY_ORDER_ID);
+		radiologyService.discontinueRadiologyOrder(radiologyOrder, radiologyOrder.getOrderer(), new GregorianCalendar(2015,
+		        Calendar.JANUARY, 01).getTime(), "Wrong Procedure");
+		
+		List<HL7OutboxMessage> hl7OutboxMessages = radiologyService.getDueHL7OutboxMessages(10);
+		
+		assertThat(radiologyService.getUnsentHL7OutboxMessages(10).size(), is(3));
+		assertThat(hl7OutboxMessages.size(), is(1));
+		assertThat(hl7OutboxMessages.get(0).getHl7OutboxMessageId(), is(2));
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageDelivery(HL7OutboxMessage, boolean, String)
+	 * @verifies mark hl7 outbox message as sent and set ok mwl status given acknowledged
+	 */
+	@Test
+	public void saveHL7OutboxMessageDelivery_shouldMarkHl7OutboxMessageAsSentAndSetOkMwlStatusGivenAcknowledged()
+	        throws Exception {
+		
+		HL7OutboxMessage hl7OutboxMessage = radiologyService.getUnsentHL7OutboxMessages(10).get(1);
+		
+		hl7OutboxMessage = radiologyService.saveHL7OutboxMessageDelivery(hl7OutboxMessage, true, null);
+		
+		assertThat(hl7OutboxMessage.isSent(), is(true));
+		assertThat(hl7OutboxMessage.getAttempts(), is(1));
+		assertThat(radiologyService.getUnsentHL7OutboxMessages(10).size(), is(1));
+		assertThat(radiologyService.getStudyByStudyId(EXISTING_STUDY_ID).getMwlStatus(), is(MwlStatus.SAVE_OK));
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageDelivery(HL7OutboxMessage, boolean, String)
+	 * @verifies schedule next attempt with exponential backoff and set error mwl status given not
+	 *           acknowledged
+	 */
+	@Test
+	public void saveHL7OutboxMessageDelivery_shouldScheduleNextAttemptWithExponentialBackoffAndSetErrorMwlStatusGivenNotAcknowledged()
+	        throws Exception {
+		
+		HL7OutboxMessage hl7OutboxMessage = radiologyService.getUnsentHL7OutboxMessages(10).get(1);
+		
+		long before = System.currentTimeMillis();
+		hl7OutboxMessage = radiologyService.saveHL7OutboxMessageDelivery(hl7OutboxMessage, false, "Connection refused");
+		long firstDelay = hl7OutboxMessage.getNextAttemptDate().getTime() - before;
+		
+		assertThat(hl7OutboxMessage.isSent(), is(false));
+		assertThat(hl7OutboxMessage.getAttempts(), is(1));
+		assertThat(hl7OutboxMessage.getLastError(), is("Connection refused"));
+		assertThat(firstDelay >= RadiologyConstants.HL7_OUTBOX_INITIAL_RETRY_DELAY, is(true));
+		assertThat(radiologyService.getStudyByStudyId(EXISTING_STUDY_ID).getMwlStatus(), is(MwlStatus.SAVE_ERR));
+		
+		before = System.currentTimeMillis();
+		hl7OutboxMessage = radiologyService.saveHL7OutboxMessageDelivery(hl7OutboxMessage, false, "Connection refused");
+		long secondDelay = hl7OutboxMessage.getNextAttemptDate().getTime() - before;
+		
+		assertThat(hl7OutboxMessage.getAttempts(), is(2));
+		assertThat(secondDelay >= 2 * RadiologyConstants.HL7_OUTBOX_INITIAL_RETRY_DELAY, is(true));
+		assertThat(radiologyService.getUnsentHL7OutboxMessages(10).size(), is(2));
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageDelivery(HL7OutboxMessage, boolean, String)
+	 * @verifies throw illegal argument exception given null
+	 */
+	@Test
+	public void saveHL7OutboxMessageDelivery_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("hl7OutboxMessage is required");
+		radiologyService.saveHL7OutboxMessageDelivery(null, true, null);
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageRejection(HL7OutboxMessage, String)
+	 * @verifies complete hl7 outbox message with error and set error mwl status
+	 */
+	@Test
+	public void saveHL7OutboxMessageRejection_shouldCompleteHl7OutboxMessageWithErrorAndSetErrorMwlStatus()
+	        throws Exception {
+		
+		HL7OutboxMessage hl7OutboxMessage = radiologyService.getUnsentHL7OutboxMessages(10).get(1);
+		
+		hl7OutboxMessage = radiologyService.saveHL7OutboxMessageRejection(hl7OutboxMessage, "AR Unknown patient");
+		
+		assertThat(hl7OutboxMessage.isSent(), is(true));
+		assertThat(hl7OutboxMessage.getAttempts(), is(1));
+		assertThat(hl7OutboxMessage.getLastError(), is("AR Unknown patient"));
+		assertNull(hl7OutboxMessage.getNextAttemptDate());
+		assertThat(radiologyService.getDueHL7OutboxMessages(10).size(), is(1));
+		assertThat(radiologyService.getStudyByStudyId(EXISTING_STUDY_ID).getMwlStatus(), is(MwlStatus.SAVE_ERR));
+	}
+	
+	/**
+	 * @see RadiologyService#saveHL7OutboxMessageRejection(HL7OutboxMessage, String)
+	 * @verifies throw illegal argument exception given null
+	 */
+	@Test
+	public void saveHL7OutboxMessageRejection_shouldThrowIllegalArgumentExceptionGivenNull() throws Exception {
+		
+		expectedException.expect(IllegalArgumentException.class);
+		expectedException.expectMessage("hl7OutboxMessage is required");
+		radiologyService.saveHL7OutboxMessageRejection(null, "AR");
+	}
+	
+	/**
+	 * Enables and clears the statistics of the session factory
+	 * 
+	 * @return statistics counting from now on
+	 */
+	private Statistics getClearedStatistics() {
+		Statistics result = applicationContext.getBean("sessionFactory", SessionFactory.class).getStatistics();
+		result.setStatisticsEnabled(true);
+		result.clear();
+		return result;
+	}
+	
+	/**
+	 * Touches everything the radiology order list and dashboard show of given radiology orders
+	 * 
+	 * @param radiologyOrders radiology orders to render
+	 */
+	private void render(List<RadiologyOrder> radiologyOrders) {
+		for (RadiologyOrder radiologyOrder : radiologyOrders) {
+			assertNotNull(radiologyOrder.getPatient().getPatientIdentifier().getIdentifier());
+			assertNotNull(radiologyOrder.getPatient().getPersonName().getFullName());
+			assertNotNull(radiologyOrder.getOrderer().getName());
+			if (radiologyOrder.getStudy() != null) {
+				assertNotNull(radiologyOrder.getStudy().getModality());
+			}
+		}
+	}
+	
+	/**
+	 * Get the patients with radiology orders separated by more unknown patients than fit into one in
+	 * list chunk
+	 * 
+	 * @return patients which are restricted on in several in list chunks
+	 */
+	private List<Patient> getPatientsSpreadOverSeveralInListChunks() {
+		List<Patient> result = new ArrayList<Patient>();
+		result.add(patientService.getPatient(PATIENT_ID_WITH_ONE_RADIOLOGY_ORDER));
+		for (int i = 0; i < MORE_PATIENTS_THAN_FIT_INTO_ONE_IN_LIST_CHUNK; i++) {
+			result.add(new Patient(UNKNOWN_PATIENT_ID + i));
+		}
+		result.add(patientService.getPatient(PATIENT_ID_WITH_TWO_RADIOLOGY_ORDERS));
+		return result;
+	}
+	
+	/**
+	 * Saves a new obs of given order through the obs service
+	 * 
+	 * @param order order of the obs
+	 * @param previousVersion obs the new obs revises or null
+	 * @return saved obs
+	 */
+	private Obs saveObs(Order order, Obs previousVersion) {
+		Obs result = new Obs(order.getPatient(), conceptService.getConcept(CONCEPT_ID_FOR_FRACTURE), new Date(),
+		        Context.getLocationService().getLocation(1));
+		result.setOrder(order);
+		result.setValueText("Fracture of the left knee");
+		result.setPreviousVersion(previousVersion);
+		return Context.getObsService().saveObs(result, null);
+	}
 }
@@ -0,0 +1,82 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link InListChunks}
+ */
+public class InListChunksTest {
+	
+	/**
+	 * @see InListChunks#of(Collection)
+	 * @verifies pad chunk to next power of two with its last value
+	 */
+	@Test
+	public void of_shouldPadChunkToNextPowerOfTwoWithItsLastValue() throws Exception {
+		
+		List<List<Integer>> chunks = InListChunks.of(Arrays.asList(1, 2, 3, 4, 5));
+		
+		assertThat(chunks.size(), is(1));
+		assertThat(chunks.get(0), is(Arrays.asList(1, 2, 3, 4, 5, 5, 5, 5)));
+	}
+	
+	/**
+	 * @see InListChunks#of(Collection)
+	 * @verifies split values exceeding max chunk size into several chunks
+	 */
+	@Test
+	public void of_shouldSplitValuesExceedingMaxChunkSizeIntoSeveralChunks() throws Exception {
+		
+		List<Integer> values = new ArrayList<Integer>();
+		for (int i = 0; i < InListChunks.MAX_CHUNK_SIZE + 3; i++) {
+			values.add(i);
+		}
+		
+		List<List<Integer>> chunks = InListChunks.of(values);
+		
+		assertThat(chunks.size(), is(2));
+		assertThat(chunks.get(0), is(values.subList(0, InListChunks.MAX_CHUNK_SIZE)));
+		assertThat(chunks.get(1), is(Arrays.asList(InListChunks.MAX_CHUNK_SIZE, InListChunks.MAX_CHUNK_SIZE + 1,
+		    InListChunks.MAX_CHUNK_SIZE + 2, InListChunks.MAX_CHUNK_SIZE + 2)));
+	}
+	
+	/**
+	 * @see InListChunks#of(Collection)
+	 * @verifies remove duplicate values
+	 */
+	@Test
+	public void of_shouldRemoveDuplicateValues() throws Exception {
+		
+		List<List<Integer>> chunks = InListChunks.of(Arrays.asList(2, 1, 2));
+		
+		assertThat(chunks.size(), is(1));
+		assertThat(chunks.get(0), is(Arrays.asList(2, 1)));
+	}
+	
+	/**
+	 * @see InListChunks#of(Collection)
+	 * @verifies return no chunks given empty collection
+	 */
+	@Test
+	public void of_shouldReturnNoChunksGivenEmptyCollection() throws Exception {
+		
+		assertTrue(InListChunks.of(new ArrayList<Integer>()).isEmpty());
+	}
+}
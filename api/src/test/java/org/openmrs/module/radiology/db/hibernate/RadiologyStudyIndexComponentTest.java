@@ -0,0 +1,249 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.db.hibernate;
+
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertThat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Order;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.Modality;
+import org.openmrs.module.radiology.MwlStatus;
+import org.openmrs.module.radiology.PerformedProcedureStepStatus;
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyService;
+import org.openmrs.module.radiology.ScheduledProcedureStepStatus;
+import org.openmrs.module.radiology.Study;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests that the queries of {@link RadiologyOrderDAOImpl} and {@link StudyDAOImpl} on
+ * radiology_study are answered by its indexes, by explaining the statements hibernate prepares for
+ * them against the in-memory database
+ */
+public class RadiologyStudyIndexComponentTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String STUDIES_TEST_DATASET = "org/openmrs/module/radiology/include/RadiologyServiceComponentTestDataset.xml";
+	
+	private static final int GENERATED_RADIOLOGY_ORDERS = 60;
+	
+	private static final int PATIENT_ID = 70011;
+	
+	private static final int CONCEPT_ID = 178;
+	
+	private static final int RADIOLOGY_ORDER_ID_WITH_STUDY = 2001;
+	
+	private static final int OTHER_RADIOLOGY_ORDER_ID_WITH_STUDY = 2002;
+	
+	@Autowired
+	private RadiologyService radiologyService;
+	
+	private final List<String> preparedStatements = new ArrayList<String>();
+	
+	private Session recordingSession;
+	
+	private RadiologyOrderDAOImpl radiologyOrderDAO;
+	
+	private StudyDAOImpl studyDAO;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		
+		executeDataSet(STUDIES_TEST_DATASET);
+		generateRadiologyOrders(GENERATED_RADIOLOGY_ORDERS);
+		
+		// the DAOs under test run on a session sharing the connection of the test transaction
+		final SessionFactory sessionFactory = applicationContext.getBean("sessionFactory", SessionFactory.class);
+		recordingSession = sessionFactory.openSession(sessionFactory.getCurrentSession().connection(),
+		    new EmptyInterceptor() {
+			    
+			    private static final long serialVersionUID = 1L;
+			    
+			    @Override
+			    public String onPrepareStatement(String sql) {
+				    preparedStatements.add(sql);
+				    return sql;
+			    }
+		    });
+		SessionFactory recordingSessionFactory = (SessionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+		    new Class<?>[] { SessionFactory.class }, new InvocationHandler() {
+			    
+			    @Override
+			    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				    if ("getCurrentSession".equals(method.getName())) {
+					    return recordingSession;
+				    }
+				    return method.invoke(sessionFactory, args);
+			    }
+		    });
+		radiologyOrderDAO = new RadiologyOrderDAOImpl();
+		radiologyOrderDAO.setSessionFactory(recordingSessionFactory);
+		studyDAO = new StudyDAOImpl();
+		studyDAO.setSessionFactory(recordingSessionFactory);
+	}
+	
+	@After
+	public void runAfterEachTest() throws Exception {
+		
+		recordingSession.close();
+	}
+	
+	/**
+	 * @see RadiologyOrderDAOImpl#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies query studies by modality status index given modality and statuses
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldQueryStudiesByModalityStatusIndexGivenModalityAndStatuses()
+	        throws Exception {
+		
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setModality(Modality.CT);
+		radiologyOrderSearchCriteria.setScheduledStatus(ScheduledProcedureStepStatus.SCHEDULED);
+		radiologyOrderSearchCriteria.setPerformedStatus(PerformedProcedureStepStatus.IN_PROGRESS);
+		radiologyOrderDAO.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest());
+		
+		assertThat(explainPreparedStatements(), containsString("RADIOLOGY_STUDY_MODALITY_STATUS_INDEX"));
+	}
+	
+	/**
+	 * @see RadiologyOrderDAOImpl#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies query studies by modality status index given modality
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldQueryStudiesByModalityStatusIndexGivenModality() throws Exception {
+		
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setModality(Modality.MR);
+		radiologyOrderDAO.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest());
+		
+		assertThat(explainPreparedStatements(), containsString("RADIOLOGY_STUDY_MODALITY_STATUS_INDEX"));
+	}
+	
+	/**
+	 * @see RadiologyOrderDAOImpl#searchRadiologyOrders(RadiologyOrderSearchCriteria,RadiologyOrderPageRequest)
+	 * @verifies query studies by performed status index given performed status
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldQueryStudiesByPerformedStatusIndexGivenPerformedStatus() throws Exception {
+		
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setPerformedStatus(PerformedProcedureStepStatus.COMPLETED);
+		radiologyOrderDAO.searchRadiologyOrders(radiologyOrderSearchCriteria, new RadiologyOrderPageRequest());
+		
+		assertThat(explainPreparedStatements(), containsString("RADIOLOGY_STUDY_PERFORMED_STATUS_INDEX"));
+	}
+	
+	/**
+	 * @see StudyDAOImpl#getStudiesByRadiologyOrders(List)
+	 * @verifies not scan radiology study
+	 */
+	@Test
+	public void getStudiesByRadiologyOrders_shouldNotScanRadiologyStudy() throws Exception {
+		
+		studyDAO.getStudiesByRadiologyOrders(Arrays.asList(radiologyService
+		        .getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITH_STUDY), radiologyService
+		        .getRadiologyOrderByOrderId(OTHER_RADIOLOGY_ORDER_ID_WITH_STUDY)));
+		
+		String plan = explainPreparedStatements();
+		assertThat(plan, containsString("RADIOLOGY_STUDY"));
+		assertThat(plan, not(containsString("TABLESCAN")));
+	}
+	
+	/**
+	 * Get the query plans the in-memory database chooses for the statements prepared by the DAOs
+	 * under test which select from radiology_study. The statements are explained with all their
+	 * parameters set to null since the plan does not depend on their values.
+	 * 
+	 * @return upper case query plans
+	 */
+	private String explainPreparedStatements() throws SQLException {
+		StringBuilder plans = new StringBuilder();
+		Connection connection = recordingSession.connection();
+		for (String sql : preparedStatements) {
+			if (!sql.toLowerCase().contains("radiology_study")) {
+				continue;
+			}
+			PreparedStatement statement = connection.prepareStatement("explain " + sql);
+			try {
+				for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+					statement.setNull(i, Types.VARCHAR);
+				}
+				ResultSet resultSet = statement.executeQuery();
+				while (resultSet.next()) {
+					plans.append(resultSet.getString(1)).append('\n');
+				}
+			}
+			finally {
+				statement.close();
+			}
+		}
+		return plans.toString().toUpperCase();
+	}
+	
+	/**
+	 * Places given number of expired radiology orders whose studies are spread over all modalities
+	 * and statuses so the database has more than a handful of studies to choose an index for
+	 * 
+	 * @param count number of radiology orders to place
+	 */
+	private void generateRadiologyOrders(int count) {
+		List<RadiologyOrder> radiologyOrders = new ArrayList<RadiologyOrder>(count);
+		for (int i = 0; i < count; i++) {
+			RadiologyOrder radiologyOrder = new RadiologyOrder();
+			radiologyOrder.setPatient(Context.getPatientService().getPatient(PATIENT_ID));
+			radiologyOrder.setOrderer(Context.getProviderService().getProviderByIdentifier("1"));
+			radiologyOrder.setConcept(Context.getConceptService().getConcept(CONCEPT_ID));
+			radiologyOrder.setInstructions("CT ABDOMEN PANCREAS WITH IV CONTRAST");
+			Calendar calendar = Calendar.getInstance();
+			calendar.add(Calendar.DAY_OF_MONTH, 1 + i);
+			radiologyOrder.setScheduledDate(calendar.getTime());
+			radiologyOrder.setUrgency(Order.Urgency.ON_SCHEDULED_DATE);
+			// expired orders of the same concept do not count as duplicate active orders
+			radiologyOrder.setDateActivated(new GregorianCalendar(2015, Calendar.JANUARY, 1).getTime());
+			radiologyOrder.setAutoExpireDate(new GregorianCalendar(2015, Calendar.JANUARY, 2).getTime());
+			
+			Study study = new Study();
+			study.setModality(Modality.values()[i % Modality.values().length]);
+			study.setMwlStatus(MwlStatus.DEFAULT);
+			study.setScheduledStatus(ScheduledProcedureStepStatus.values()[i
+			        % ScheduledProcedureStepStatus.values().length]);
+			study.setPerformedStatus(PerformedProcedureStepStatus.values()[i
+			        % PerformedProcedureStepStatus.values().length]);
+			radiologyOrder.setStudy(study);
+			radiologyOrders.add(radiologyOrder);
+		}
+		radiologyService.placeRadiologyOrders(radiologyOrders);
+		Context.flushSession();
+	}
+}
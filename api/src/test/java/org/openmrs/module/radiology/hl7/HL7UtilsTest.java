@@ -10,6 +10,7 @@
 package org.openmrs.module.radiology.hl7;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
@@ -28,6 +29,8 @@ public class HL7UtilsTest {
 	
 	private static final EncodingCharacters encodingCharacters = new EncodingCharacters('|', '^', '~', '\\', '&');
 	
+	private static final String ACK_HEADER = "MSH|^~\\&|dcm4chee|PACS|OpenMRS|Radiology|20150101000000||ACK^O01|1|P|2.3.1\r";
+	
 	/**
 	 * Test HL7Utils.getExtendedPersonNameFrom
 	 * 
@@ -164,4 +167,35 @@ public class HL7UtilsTest {
 		
 		assertThat(extendedPersonName, is(""));
 	}
+	
+	/**
+	 * @see HL7Utils#getAcknowledgmentCode(byte[])
+	 * @verifies return acknowledgment code of given acknowledgement message
+	 */
+	@Test
+	public void getAcknowledgmentCode_shouldReturnAcknowledgmentCodeOfGivenAcknowledgementMessage() throws Exception {
+		
+		assertThat(HL7Utils.getAcknowledgmentCode((ACK_HEADER + "MSA|AA|1\r").getBytes()), is("AA"));
+		assertThat(HL7Utils.getAcknowledgmentCode((ACK_HEADER + "MSA|AR|1|Unknown patient\r").getBytes()), is("AR"));
+	}
+	
+	/**
+	 * @see HL7Utils#getAcknowledgmentCode(byte[])
+	 * @verifies return null given message without msa segment
+	 */
+	@Test
+	public void getAcknowledgmentCode_shouldReturnNullGivenMessageWithoutMsaSegment() throws Exception {
+		
+		assertThat(HL7Utils.getAcknowledgmentCode(ACK_HEADER.getBytes()), is(nullValue()));
+	}
+	
+	/**
+	 * @see HL7Utils#getAcknowledgmentCode(byte[])
+	 * @verifies return null given null
+	 */
+	@Test
+	public void getAcknowledgmentCode_shouldReturnNullGivenNull() throws Exception {
+		
+		assertThat(HL7Utils.getAcknowledgmentCode(null), is(nullValue()));
+	}
 }
@@ -0,0 +1,257 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License, 
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can 
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under 
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ * 
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS 
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.hl7;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dcm4che.hl7.MLLPConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests {@link MLLPConnectionPool}
+ */
+public class MLLPConnectionPoolTest {
+	
+	private static final byte[] MESSAGE = "MSH|^~\\&|RADIOLOGY|OPENMRS|||||ORM^O01|1|P|2.3.1".getBytes();
+	
+	private static final byte[] ACK = "MSH|^~\\&|||RADIOLOGY|OPENMRS|||ACK^O01|1|P|2.3.1\rMSA|AA|1".getBytes();
+	
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+	
+	private HL7Receiver receiver;
+	
+	private MLLPConnectionPool connectionPool;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		receiver = new HL7Receiver();
+		receiver.start();
+		connectionPool = new MLLPConnectionPool("localhost", receiver.getPort(), 2, 1000, 1000, 60000);
+	}
+	
+	@After
+	public void runAfterEachTest() throws Exception {
+		connectionPool.close();
+		receiver.close();
+	}
+	
+	/**
+	 * @see MLLPConnectionPool#send(byte[])
+	 * @verifies send message and return acknowledgement
+	 */
+	@Test
+	public void send_shouldSendMessageAndReturnAcknowledgement() throws Exception {
+		
+		byte[] ack = connectionPool.send(MESSAGE);
+		
+		assertThat(new String(ack), is(new String(ACK)));
+		assertThat(receiver.getMessageCount(), is(1));
+		assertThat(connectionPool.getIdleCount(), is(1));
+		assertThat(connectionPool.getActiveCount(), is(0));
+	}
+	
+	/**
+	 * @see MLLPConnectionPool#send(byte[])
+	 * @verifies reuse connection for subsequent messages
+	 */
+	@Test
+	public void send_shouldReuseConnectionForSubsequentMessages() throws Exception {
+		
+		connectionPool.send(MESSAGE);
+		connectionPool.send(MESSAGE);
+		connectionPool.send(MESSAGE);
+		
+		assertThat(receiver.getMessageCount(), is(3));
+		assertThat(receiver.getConnectionCount(), is(1));
+	}
+	
+	/**
+	 * @see MLLPConnectionPool#send(byte[])
+	 * @verifies reconnect if receiver closed idle connection
+	 */
+	@Test
+	public void send_shouldReconnectIfReceiverClosedIdleConnection() throws Exception {
+		
+		connectionPool.send(MESSAGE);
+		receiver.closeConnections();
+		
+		byte[] ack = connectionPool.send(MESSAGE);
+		
+		assertThat(new String(ack), is(new String(ACK)));
+		assertThat(receiver.getMessageCount(), is(2));
+		assertThat(receiver.getConnectionCount(), is(2));
+	}
+	
+	/**
+	 * @see MLLPConnectionPool#send(byte[])
+	 * @verifies not resend message if reused connection times out waiting for acknowledgement
+	 */
+	@Test
+	public void send_shouldNotResendMessageIfReusedConnectionTimesOutWaitingForAcknowledgement() throws Exception {
+		
+		connectionPool.send(MESSAGE);
+		receiver.setSilent(true);
+		
+		try {
+			connectionPool.send(MESSAGE);
+			fail("expected SocketTimeoutException");
+		}
+		catch (SocketTimeoutException e) {
+			// expected
+		}
+		assertThat(receiver.getMessageCount(), is(2));
+		assertThat(receiver.getConnectionCount(), is(1));
+	}
+	
+	/**
+	 * @see MLLPConnectionPool#send(byte[])
+	 * @verifies throw io exception if receiver closes connection without acknowledgement
+	 */
+	@Test
+	public void send_shouldThrowIOExceptionIfReceiverClosesConnectionWithoutAcknowledgement() throws Exception {
+		
+		receiver.setAcknowledge(false);
+		
+		expectedException.expect(IOException.class);
+		connectionPool.send(MESSAGE);
+	}
+	
+	/**
+	 * Minimal HL7 receiver acknowledging every message with {@link #ACK}
+	 */
+	private static class HL7Receiver extends Thread {
+		
+		private final ServerSocket serverSocket;
+		
+		private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<Socket>());
+		
+		private final AtomicInteger messageCount = new AtomicInteger();
+		
+		private volatile boolean acknowledge = true;
+		
+		private volatile boolean silent;
+		
+		HL7Receiver() throws IOException {
+			serverSocket = new ServerSocket(0);
+			setDaemon(true);
+		}
+		
+		int getPort() {
+			return serverSocket.getLocalPort();
+		}
+		
+		int getMessageCount() {
+			return messageCount.get();
+		}
+		
+		int getConnectionCount() {
+			return sockets.size();
+		}
+		
+		void setAcknowledge(boolean acknowledge) {
+			this.acknowledge = acknowledge;
+		}
+		
+		/**
+		 * Keep the connection open without acknowledging messages
+		 */
+		void setSilent(boolean silent) {
+			this.silent = silent;
+		}
+		
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final Socket socket = serverSocket.accept();
+					sockets.add(socket);
+					Thread handler = new Thread() {
+						
+						@Override
+						public void run() {
+							handle(socket);
+						}
+					};
+					handler.setDaemon(true);
+					handler.start();
+				}
+			}
+			catch (IOException e) {
+				// server socket closed
+			}
+		}
+		
+		private void handle(Socket socket) {
+			try {
+				MLLPConnection mllp = new MLLPConnection(socket);
+				while (mllp.readMessage() != null) {
+					messageCount.incrementAndGet();
+					if (!acknowledge) {
+						break;
+					}
+					if (!silent) {
+						mllp.writeMessage(ACK);
+					}
+				}
+			}
+			catch (IOException e) {
+				// connection closed
+			}
+			finally {
+				close(socket);
+			}
+		}
+		
+		void closeConnections() throws InterruptedException {
+			synchronized (sockets) {
+				for (Socket socket : sockets) {
+					close(socket);
+				}
+			}
+			// give the client side a moment to notice the closed connection
+			Thread.sleep(100);
+		}
+		
+		void close() throws InterruptedException {
+			try {
+				serverSocket.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+			closeConnections();
+		}
+		
+		private static void close(Socket socket) {
+			try {
+				socket.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+}
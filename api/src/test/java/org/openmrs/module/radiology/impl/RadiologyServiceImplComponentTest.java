@@ -11,6 +11,7 @@ package org.openmrs.module.radiology.impl;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.StringStartsWith.startsWith;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -130,6 +131,7 @@ public class RadiologyServiceImplComponentTest extends BaseModuleContextSensitiv
 		saveStudyMethod.setAccessible(true);
 		
 		executeDataSet(STUDIES_TEST_DATASET);
+		radiologyProperties.clearSnapshot();
 	}
 	
 	/**
@@ -172,7 +174,7 @@ public class RadiologyServiceImplComponentTest extends BaseModuleContextSensitiv
 		assertThat(createdStudy, is(radiologyStudy));
 		assertThat(createdStudy.getStudyId(), is(radiologyStudy.getStudyId()));
 		assertNotNull(createdStudy.getStudyInstanceUid());
-		assertThat(createdStudy.getStudyInstanceUid(), is(radiologyProperties.getStudyPrefix() + createdStudy.getStudyId()));
+		assertThat(createdStudy.getStudyInstanceUid(), startsWith(radiologyProperties.getStudyPrefix()));
 		assertThat(createdStudy.getModality(), is(radiologyStudy.getModality()));
 		assertThat(createdStudy.getRadiologyOrder(), is(radiologyStudy.getRadiologyOrder()));
 	}
@@ -211,4 +213,39 @@ public class RadiologyServiceImplComponentTest extends BaseModuleContextSensitiv
 		assertThat(modalityPreUpdate, is(not(modalityPostUpdate)));
 		assertThat(updatedStudy.getModality(), is(modalityPostUpdate));
 	}
+	
+	/**
+	 * @see RadiologyServiceImpl#saveStudy(Study)
+	 * @verifies give new studies distinct study instance uids
+	 */
+	@Test
+	public void saveStudy_shouldGiveNewStudiesDistinctStudyInstanceUids() throws Exception {
+		
+		Study radiologyStudy = getUnsavedStudy();
+		RadiologyOrder radiologyOrder = radiologyService.getRadiologyOrderByOrderId(RADIOLOGY_ORDER_ID_WITHOUT_STUDY);
+		radiologyOrder.setStudy(radiologyStudy);
+		
+		Study createdStudy = (Study) saveStudyMethod.invoke(radiologyServiceImpl, new Object[] { radiologyStudy });
+		
+		assertThat(createdStudy.getStudyInstanceUid(), is(not(radiologyServiceImpl.getStudyByStudyId(EXISTING_STUDY_ID)
+		        .getStudyInstanceUid())));
+		assertThat(createdStudy.getStudyInstanceUid(), is(not(radiologyServiceImpl.getStudyByStudyId(2)
+		        .getStudyInstanceUid())));
+	}
+	
+	/**
+	 * @see RadiologyServiceImpl#saveStudy(Study)
+	 * @verifies not change study instance uid of existing study
+	 */
+	@Test
+	public void saveStudy_shouldNotChangeStudyInstanceUidOfExistingStudy() throws Exception {
+		
+		Study existingStudy = radiologyServiceImpl.getStudyByStudyId(EXISTING_STUDY_ID);
+		String studyInstanceUid = existingStudy.getStudyInstanceUid();
+		existingStudy.setMwlStatus(MwlStatus.SAVE_OK);
+		
+		Study updatedStudy = (Study) saveStudyMethod.invoke(radiologyServiceImpl, new Object[] { existingStudy });
+		
+		assertThat(updatedStudy.getStudyInstanceUid(), is(studyInstanceUid));
+	}
 }
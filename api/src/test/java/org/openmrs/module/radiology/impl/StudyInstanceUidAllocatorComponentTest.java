@@ -0,0 +1,73 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.impl;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.db.hibernate.StudyDAOImpl;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+
+/**
+ * Tests {@link StudyInstanceUidAllocator}
+ */
+public class StudyInstanceUidAllocatorComponentTest extends BaseModuleContextSensitiveTest {
+	
+	private StudyDAOImpl studyDAO;
+	
+	@Before
+	public void runBeforeEachTest() throws Exception {
+		
+		studyDAO = new StudyDAOImpl();
+		studyDAO.setSessionFactory(Context.getRegisteredComponent("sessionFactory", SessionFactory.class));
+	}
+	
+	/**
+	 * @see StudyInstanceUidAllocator#nextValue()
+	 * @verifies hand out distinct numbers across blocks and allocators
+	 */
+	@Test
+	public void nextValue_shouldHandOutDistinctNumbersAcrossBlocksAndAllocators() throws Exception {
+		
+		// two allocators sharing the database like two openmrs nodes
+		StudyInstanceUidAllocator allocator = new StudyInstanceUidAllocator(studyDAO, 3);
+		StudyInstanceUidAllocator otherAllocator = new StudyInstanceUidAllocator(studyDAO, 3);
+		
+		Set<Long> values = new HashSet<Long>();
+		for (int i = 0; i < 10; i++) {
+			values.add(allocator.nextValue());
+			values.add(otherAllocator.nextValue());
+		}
+		
+		assertThat(values.size(), is(20));
+	}
+	
+	/**
+	 * @see StudyInstanceUidAllocator#nextValue()
+	 * @verifies hand out consecutive numbers within a block
+	 */
+	@Test
+	public void nextValue_shouldHandOutConsecutiveNumbersWithinABlock() throws Exception {
+		
+		StudyInstanceUidAllocator allocator = new StudyInstanceUidAllocator(studyDAO, 3);
+		
+		long first = allocator.nextValue();
+		
+		assertThat(allocator.nextValue(), is(first + 1));
+		assertThat(allocator.nextValue(), is(first + 2));
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.impl;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link StudyInstanceUidCache}
+ */
+public class StudyInstanceUidCacheTest {
+	
+	private static final String STUDY_INSTANCE_UID = "1.2.826.0.1.3680043.8.2186.1.1";
+	
+	private static final String FOREIGN_STUDY_INSTANCE_UID = "1.2.840.113619.2.55.3.604688119.969.1268071029.320";
+	
+	private final StudyInstanceUidCache studyInstanceUidCache = new StudyInstanceUidCache(2, TimeUnit.MINUTES.toMillis(1));
+	
+	/**
+	 * @see StudyInstanceUidCache#getStudyId(String)
+	 * @verifies return study id of known study instance uid
+	 */
+	@Test
+	public void getStudyId_shouldReturnStudyIdOfKnownStudyInstanceUid() throws Exception {
+		
+		studyInstanceUidCache.put(STUDY_INSTANCE_UID, 1);
+		
+		assertThat(studyInstanceUidCache.getStudyId(STUDY_INSTANCE_UID), is(1));
+		assertThat(studyInstanceUidCache.getHits(), is(1L));
+	}
+	
+	/**
+	 * @see StudyInstanceUidCache#getStudyId(String)
+	 * @verifies return null given study instance uid which is not cached
+	 */
+	@Test
+	public void getStudyId_shouldReturnNullGivenStudyInstanceUidWhichIsNotCached() throws Exception {
+		
+		studyInstanceUidCache.putUnknown(FOREIGN_STUDY_INSTANCE_UID);
+		
+		assertThat(studyInstanceUidCache.getStudyId(STUDY_INSTANCE_UID), is(nullValue()));
+		assertThat(studyInstanceUidCache.getStudyId(FOREIGN_STUDY_INSTANCE_UID), is(nullValue()));
+	}
+	
+	/**
+	 * @see StudyInstanceUidCache#isUnknown(String)
+	 * @verifies return true for unknown study instance uid within negative ttl
+	 */
+	@Test
+	public void isUnknown_shouldReturnTrueForUnknownStudyInstanceUidWithinNegativeTtl() throws Exception {
+		
+		studyInstanceUidCache.putUnknown(FOREIGN_STUDY_INSTANCE_UID);
+		
+		assertThat(studyInstanceUidCache.isUnknown(FOREIGN_STUDY_INSTANCE_UID), is(true));
+		assertThat(studyInstanceUidCache.isUnknown(STUDY_INSTANCE_UID), is(false));
+		assertThat(studyInstanceUidCache.getNegativeHits(), is(1L));
+		assertThat(studyInstanceUidCache.getMisses(), is(1L));
+	}
+	
+	/**
+	 * @see StudyInstanceUidCache#isUnknown(String)
+	 * @verifies return false for unknown study instance uid once negative ttl expired
+	 */
+	@Test
+	public void isUnknown_shouldReturnFalseForUnknownStudyInstanceUidOnceNegativeTtlExpired() throws Exception {
+		
+		StudyInstanceUidCache studyInstanceUidCache = new StudyInstanceUidCache(2, 1);
+		studyInstanceUidCache.putUnknown(FOREIGN_STUDY_INSTANCE_UID);
+		
+		Thread.sleep(10);
+		
+		assertThat(studyInstanceUidCache.isUnknown(FOREIGN_STUDY_INSTANCE_UID), is(false));
+	}
+	
+	/**
+	 * @see StudyInstanceUidCache#put(String,Integer)
+	 * @verifies no longer cache study instance uid as unknown
+	 */
+	@Test
+	public void put_shouldNoLongerCacheStudyInstanceUidAsUnknown() throws Exception {
+		
+		studyInstanceUidCache.putUnknown(STUDY_INSTANCE_UID);
+		
+		studyInstanceUidCache.put(STUDY_INSTANCE_UID, 1);
+		
+		assertThat(studyInstanceUidCache.isUnknown(STUDY_INSTANCE_UID), is(false));
+		assertThat(studyInstanceUidCache.getStudyId(STUDY_INSTANCE_UID), is(1));
+	}
+	
+	/**
+	 * @see StudyInstanceUidCache#put(String,Integer)
+	 * @verifies evict least recently used study instance uid beyond capacity
+	 */
+	@Test
+	public void put_shouldEvictLeastRecentlyUsedStudyInstanceUidBeyondCapacity() throws Exception {
+		
+		studyInstanceUidCache.put("1.1", 1);
+		studyInstanceUidCache.put("1.2", 2);
+		studyInstanceUidCache.getStudyId("1.1");
+		
+		studyInstanceUidCache.put("1.3", 3);
+		
+		assertThat(studyInstanceUidCache.getStudyId("1.1"), is(1));
+		assertThat(studyInstanceUidCache.getStudyId("1.2"), is(nullValue()));
+		assertThat(studyInstanceUidCache.getStudyId("1.3"), is(3));
+	}
+}
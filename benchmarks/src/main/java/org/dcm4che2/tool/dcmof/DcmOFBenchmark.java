@@ -0,0 +1,117 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che2.data.DicomObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks loading and storing of a single worklist item by {@link DcmOF} in DICOM and XML
+ * format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DcmOFBenchmark {
+
+	private DcmOF dcmOF;
+
+	private File dir;
+
+	private DicomObject item;
+
+	private File dicomFile;
+
+	private File xmlFile;
+
+	@Setup
+	public void setUp() throws Exception {
+
+		dcmOF = new DcmOF("DCMOF");
+		dir = SyntheticWorklist.createTempDir("dcmof");
+		item = SyntheticWorklist.createItem(1);
+		dicomFile = new File(dir, "item");
+		xmlFile = new File(dir, "item.xml");
+		dcmOF.storeAsDICOM(dicomFile, item);
+		dcmOF.storeAsXML(xmlFile, item);
+	}
+
+	@TearDown
+	public void tearDown() {
+
+		SyntheticWorklist.deleteDir(dir);
+		dcmOF.getExecutor().shutdown();
+	}
+
+	@Benchmark
+	public DicomObject loadDICOM() throws Exception {
+		return dcmOF.load(dicomFile);
+	}
+
+	@Benchmark
+	public DicomObject loadXML() throws Exception {
+		return dcmOF.load(xmlFile);
+	}
+
+	@Benchmark
+	public void storeAsDICOM() throws Exception {
+		dcmOF.storeAsDICOM(dicomFile, item);
+	}
+
+	@Benchmark
+	public void storeAsXML() throws Exception {
+		dcmOF.storeAsXML(xmlFile, item);
+	}
+}
@@ -0,0 +1,131 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.net.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks matching a modality worklist C-FIND against a synthetic worklist of configurable size,
+ * served from a worklist directory as well as from in memory candidates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiFindRSPBenchmark {
+
+	@Param({ "100", "1000" })
+	public int worklistSize;
+
+	@Param({ "dcm", "xml" })
+	public String format;
+
+	private DcmOF dcmOF;
+
+	private File worklistDir;
+
+	private List<DicomObject> worklistItems;
+
+	@Setup
+	public void setUp() throws Exception {
+
+		dcmOF = new DcmOF("DCMOF");
+		worklistDir = SyntheticWorklist.createTempDir("mwl");
+		SyntheticWorklist.store(dcmOF, worklistDir, worklistSize, "xml".equals(format));
+		worklistItems = SyntheticWorklist.createItems(worklistSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+
+		SyntheticWorklist.deleteDir(worklistDir);
+		dcmOF.getExecutor().shutdown();
+	}
+
+	@Benchmark
+	public int matchWorklistDirectory(Blackhole blackhole) {
+		return drain(new MultiFindRSP(dcmOF, SyntheticWorklist.createKeys(), new BasicDicomObject(), worklistDir),
+				blackhole);
+	}
+
+	@Benchmark
+	public int matchWorklistItems(Blackhole blackhole) {
+		return drain(new MultiFindRSP(SyntheticWorklist.createKeys(), new BasicDicomObject(), worklistItems),
+				blackhole);
+	}
+
+	/**
+	 * Consumes all pending responses like the C-FIND SCP does and returns the number of matches.
+	 */
+	private static int drain(MultiFindRSP multiFindRSP, Blackhole blackhole) {
+
+		int matches = 0;
+		while (multiFindRSP.next()) {
+			int status = multiFindRSP.getCommand().getInt(Tag.Status);
+			if (status != Status.Pending && status != Status.PendingWarning) {
+				break;
+			}
+			blackhole.consume(multiFindRSP.getDataset());
+			matches++;
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,175 @@
+/* ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at http://sourceforge.net/projects/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * Gunter Zeilinger, Huetteldorferstr. 24/10, 1150 Vienna/Austria/Europe.
+ * Portions created by the Initial Developer are Copyright (C) 2002-2005
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * Gunter Zeilinger <gunterze@gmail.com>
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package org.dcm4che2.tool.dcmof;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.UID;
+import org.dcm4che2.data.VR;
+
+/**
+ * Creates synthetic modality worklist items and C-FIND keys for the dcmof benchmarks.
+ */
+class SyntheticWorklist {
+
+	static final String STUDY_INSTANCE_UID_PREFIX = "1.2.826.0.1.3680043.8.2186.1.";
+
+	private static final String[] MODALITIES = { "CT", "MR", "US", "CR" };
+
+	private SyntheticWorklist() {
+	}
+
+	/**
+	 * Creates the worklist item with given index, modalities rotate through CT, MR, US and CR.
+	 */
+	static DicomObject createItem(int index) {
+
+		String studyInstanceUid = STUDY_INSTANCE_UID_PREFIX + index;
+
+		DicomObject item = new BasicDicomObject();
+		item.putString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100");
+		item.putString(Tag.AccessionNumber, VR.SH, String.valueOf(index));
+		item.putString(Tag.PatientName, VR.PN, "Doe^John^" + index);
+		item.putString(Tag.PatientID, VR.LO, String.valueOf(100000 + index));
+		item.putString(Tag.PatientBirthDate, VR.DA, "19500401");
+		item.putString(Tag.PatientSex, VR.CS, "M");
+		item.putString(Tag.StudyInstanceUID, VR.UI, studyInstanceUid);
+		item.putString(Tag.RequestedProcedureDescription, VR.LO, "CT ABDOMEN PANCREAS WITH IV CONTRAST");
+		item.putString(Tag.RequestedProcedureID, VR.SH, String.valueOf(index));
+
+		DicomObject scheduledProcedureStep = new BasicDicomObject();
+		scheduledProcedureStep.putString(Tag.Modality, VR.CS, MODALITIES[index % MODALITIES.length]);
+		scheduledProcedureStep.putString(Tag.ScheduledStationAETitle, VR.AE, "DCM4CHEE");
+		scheduledProcedureStep.putString(Tag.ScheduledProcedureStepStartDate, VR.DA, "20150204");
+		scheduledProcedureStep.putString(Tag.ScheduledProcedureStepStartTime, VR.TM, "143500");
+		scheduledProcedureStep.putString(Tag.ScheduledProcedureStepID, VR.SH, String.valueOf(index));
+		item.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, scheduledProcedureStep);
+
+		item.initFileMetaInformation(UID.ModalityWorklistInformationModelFIND, studyInstanceUid,
+				UID.ExplicitVRLittleEndian);
+		return item;
+	}
+
+	/**
+	 * Creates given number of worklist items.
+	 */
+	static List<DicomObject> createItems(int size) {
+
+		List<DicomObject> items = new ArrayList<DicomObject>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(createItem(i));
+		}
+		return items;
+	}
+
+	/**
+	 * Stores given number of worklist items as DICOM or XML files into given directory the way
+	 * worklist directories served by {@link MWLSCP} are laid out.
+	 */
+	static void store(DcmOF dcmOF, File dir, int size, boolean xml) throws Exception {
+
+		for (int i = 0; i < size; i++) {
+			DicomObject item = createItem(i);
+			String iuid = item.getString(Tag.StudyInstanceUID);
+			if (xml) {
+				dcmOF.storeAsXML(new File(dir, iuid + ".xml"), item);
+			} else {
+				dcmOF.storeAsDICOM(new File(dir, iuid), item);
+			}
+		}
+	}
+
+	/**
+	 * Creates C-FIND keys matching the CT worklist items and requesting the attributes a modality
+	 * typically asks for.
+	 */
+	static DicomObject createKeys() {
+
+		DicomObject keys = new BasicDicomObject();
+		keys.putNull(Tag.AccessionNumber, VR.SH);
+		keys.putNull(Tag.PatientName, VR.PN);
+		keys.putNull(Tag.PatientID, VR.LO);
+		keys.putNull(Tag.PatientBirthDate, VR.DA);
+		keys.putNull(Tag.PatientSex, VR.CS);
+		keys.putNull(Tag.StudyInstanceUID, VR.UI);
+		keys.putNull(Tag.RequestedProcedureDescription, VR.LO);
+		keys.putNull(Tag.RequestedProcedureID, VR.SH);
+
+		DicomObject scheduledProcedureStep = new BasicDicomObject();
+		scheduledProcedureStep.putString(Tag.Modality, VR.CS, "CT");
+		scheduledProcedureStep.putNull(Tag.ScheduledStationAETitle, VR.AE);
+		scheduledProcedureStep.putString(Tag.ScheduledProcedureStepStartDate, VR.DA, "20150101-20151231");
+		scheduledProcedureStep.putNull(Tag.ScheduledProcedureStepStartTime, VR.TM);
+		scheduledProcedureStep.putNull(Tag.ScheduledProcedureStepID, VR.SH);
+		keys.putNestedDicomObject(Tag.ScheduledProcedureStepSequence, scheduledProcedureStep);
+		return keys;
+	}
+
+	/**
+	 * Creates a new temporary directory.
+	 */
+	static File createTempDir(String prefix) throws IOException {
+
+		File dir = File.createTempFile(prefix, "");
+		if (!dir.delete() || !dir.mkdir()) {
+			throw new IOException("Could not create temporary directory " + dir);
+		}
+		return dir;
+	}
+
+	/**
+	 * Deletes given directory including its files.
+	 */
+	static void deleteDir(File dir) {
+
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.api.context.ServiceContext;
+import org.springframework.context.support.StaticApplicationContext;
+
+/**
+ * Benchmarks the extraction of MPPS attributes by {@link DicomUtils} which runs for every
+ * N-CREATE/N-SET received from a modality.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DicomUtilsBenchmark {
+	
+	private DicomObject mppsObject;
+	
+	@Setup
+	public void setUp() {
+		
+		// DicomUtils looks up radiologyProperties from the openmrs context when it is loaded
+		StaticApplicationContext applicationContext = new StaticApplicationContext();
+		applicationContext.getBeanFactory().registerSingleton("radiologyProperties", new RadiologyProperties() {
+			
+			@Override
+			public String getSpecificCharacterSet() {
+				return "ISO_IR 100";
+			}
+		});
+		applicationContext.refresh();
+		ServiceContext.getInstance().setApplicationContext(applicationContext);
+		
+		mppsObject = new BasicDicomObject();
+		mppsObject.putString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100");
+		mppsObject.putString(Tag.PerformedProcedureStepStatus, VR.CS, "IN PROGRESS");
+		DicomObject scheduledStepAttributes = new BasicDicomObject();
+		scheduledStepAttributes.putString(Tag.StudyInstanceUID, VR.UI, "1.2.826.0.1.3680043.8.2186.1.1");
+		scheduledStepAttributes.putString(Tag.AccessionNumber, VR.SH, "1");
+		mppsObject.putNestedDicomObject(Tag.ScheduledStepAttributesSequence, scheduledStepAttributes);
+	}
+	
+	@Benchmark
+	public String getStudyInstanceUidFromMpps() {
+		return DicomUtils.getStudyInstanceUidFromMpps(mppsObject);
+	}
+	
+	@Benchmark
+	public String getPerformedProcedureStepStatus() {
+		return DicomUtils.getPerformedProcedureStepStatus(mppsObject);
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che2.data.BasicDicomObject;
+import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.SpecificCharacterSet;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.data.VR;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link MppsAttributeExtractor} against decoding both MPPS attributes with a
+ * {@link SpecificCharacterSet} created per attribute.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MppsAttributeExtractorBenchmark {
+	
+	private static final String SPECIFIC_CHARACTER_SET = "ISO_IR 100";
+	
+	private MppsAttributeExtractor mppsAttributeExtractor;
+	
+	private DicomObject mppsObject;
+	
+	@Setup
+	public void setUp() {
+		
+		mppsAttributeExtractor = new MppsAttributeExtractor(new RadiologyProperties() {
+			
+			@Override
+			public String getSpecificCharacterSet() {
+				return SPECIFIC_CHARACTER_SET;
+			}
+		});
+		
+		mppsObject = new BasicDicomObject();
+		mppsObject.putString(Tag.SpecificCharacterSet, VR.CS, SPECIFIC_CHARACTER_SET);
+		mppsObject.putString(Tag.PerformedProcedureStepStatus, VR.CS, "IN PROGRESS");
+		DicomObject scheduledStepAttributes = new BasicDicomObject();
+		scheduledStepAttributes.putString(Tag.StudyInstanceUID, VR.UI, "1.2.826.0.1.3680043.8.2186.1.1");
+		scheduledStepAttributes.putString(Tag.AccessionNumber, VR.SH, "1");
+		mppsObject.putNestedDicomObject(Tag.ScheduledStepAttributesSequence, scheduledStepAttributes);
+	}
+	
+	@Benchmark
+	public MppsAttributeExtractor.MppsAttributes extract() {
+		return mppsAttributeExtractor.extract(mppsObject);
+	}
+	
+	@Benchmark
+	public void characterSetPerAttribute(Blackhole blackhole) {
+		
+		SpecificCharacterSet specificCharacterSet = new SpecificCharacterSet(SPECIFIC_CHARACTER_SET);
+		blackhole.consume(mppsObject.get(Tag.ScheduledStepAttributesSequence).getDicomObject().get(Tag.StudyInstanceUID)
+		        .getValueAsString(specificCharacterSet, 0));
+		
+		specificCharacterSet = new SpecificCharacterSet(SPECIFIC_CHARACTER_SET);
+		blackhole.consume(mppsObject.get(Tag.PerformedProcedureStepStatus).getValueAsString(specificCharacterSet, 0));
+	}
+}
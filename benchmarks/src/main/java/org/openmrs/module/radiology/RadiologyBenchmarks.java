@@ -0,0 +1,35 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the radiology benchmarks with the GC profiler enabled so allocation rates are reported
+ * next to the timings. Accepts the regular JMH command line options, e.g.
+ * 
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar MultiFindRSPBenchmark -p worklistSize=1000
+ * </pre>
+ */
+public class RadiologyBenchmarks {
+	
+	public static void main(String[] args) throws Exception {
+		
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+		        .addProfiler(GCProfiler.class)
+		        .build();
+		new Runner(options).run();
+	}
+}
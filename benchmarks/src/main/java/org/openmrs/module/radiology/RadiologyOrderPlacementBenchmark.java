@@ -0,0 +1,146 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openmrs.Order;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.context.TestContextManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Benchmarks placing radiology orders one by one with
+ * {@link RadiologyService#placeRadiologyOrder(RadiologyOrder)} against placing them in bulk with
+ * {@link RadiologyService#placeRadiologyOrders(List)} against the in-memory test database, in
+ * orders per second. Every invocation places {@link #ORDERS} orders in a transaction which is
+ * rolled back afterwards, so the database does not grow between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RadiologyOrderPlacementBenchmark {
+	
+	static final int ORDERS = 200;
+	
+	private static final String STUDIES_TEST_DATASET = "org/openmrs/module/radiology/include/RadiologyServiceComponentTestDataset.xml";
+	
+	private static final int PATIENT_ID = 70011;
+	
+	private static final int CONCEPT_ID = 178;
+	
+	private RadiologyService radiologyService;
+	
+	private PlatformTransactionManager transactionManager;
+	
+	private TransactionStatus transaction;
+	
+	private List<RadiologyOrder> radiologyOrders;
+	
+	/**
+	 * Sets up the openmrs context, in-memory database and authentication the way the component
+	 * tests do
+	 */
+	static class InMemoryDatabase extends BaseModuleContextSensitiveTest {
+		
+		void setUp() throws Exception {
+			new TestContextManager(getClass()).prepareTestInstance(this);
+			baseSetupWithStandardDataAndAuthentication();
+			executeDataSet(STUDIES_TEST_DATASET);
+		}
+	}
+	
+	@Setup
+	public void setUp() throws Exception {
+		
+		new InMemoryDatabase().setUp();
+		radiologyService = Context.getService(RadiologyService.class);
+		transactionManager = Context.getRegisteredComponent("transactionManager", PlatformTransactionManager.class);
+	}
+	
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		
+		transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		radiologyOrders = new ArrayList<RadiologyOrder>(ORDERS);
+		for (int i = 0; i < ORDERS; i++) {
+			radiologyOrders.add(getUnsavedRadiologyOrder());
+		}
+	}
+	
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() {
+		
+		transactionManager.rollback(transaction);
+		Context.clearSession();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public void placeRadiologyOrder() {
+		
+		for (RadiologyOrder radiologyOrder : radiologyOrders) {
+			radiologyService.placeRadiologyOrder(radiologyOrder);
+		}
+		Context.flushSession();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public List<RadiologyOrderPlacementResult> placeRadiologyOrders() {
+		
+		List<RadiologyOrderPlacementResult> results = radiologyService.placeRadiologyOrders(radiologyOrders);
+		Context.flushSession();
+		return results;
+	}
+	
+	private RadiologyOrder getUnsavedRadiologyOrder() {
+		
+		RadiologyOrder radiologyOrder = new RadiologyOrder();
+		radiologyOrder.setPatient(Context.getPatientService().getPatient(PATIENT_ID));
+		radiologyOrder.setOrderer(Context.getProviderService().getProviderByIdentifier("1"));
+		radiologyOrder.setConcept(Context.getConceptService().getConcept(CONCEPT_ID));
+		radiologyOrder.setInstructions("CT ABDOMEN PANCREAS WITH IV CONTRAST");
+		
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, 1);
+		radiologyOrder.setScheduledDate(calendar.getTime());
+		radiologyOrder.setUrgency(Order.Urgency.ON_SCHEDULED_DATE);
+		
+		Study study = new Study();
+		study.setModality(Modality.CT);
+		study.setMwlStatus(MwlStatus.DEFAULT);
+		study.setScheduledStatus(ScheduledProcedureStepStatus.SCHEDULED);
+		radiologyOrder.setStudy(study);
+		return radiologyOrder;
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.openmrs.api.context.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Benchmarks looking up a study by orderId with HQL holding the orderId as literal against the
+ * named query binding it as parameter, in lookups per second against the in-memory test database.
+ * Every lookup asks for another of {@link #distinctOrderIds} orderIds, so the literal HQL is
+ * parsed and translated again once there are more distinct orderIds than fit into the query plan
+ * cache of hibernate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudyQueryBenchmark {
+	
+	private static final int FIRST_ORDER_ID = 2001;
+	
+	@Param({ "10000" })
+	public int distinctOrderIds;
+	
+	private SessionFactory sessionFactory;
+	
+	private PlatformTransactionManager transactionManager;
+	
+	private TransactionStatus transaction;
+	
+	private int lookups;
+	
+	@Setup
+	public void setUp() throws Exception {
+		
+		new RadiologyOrderPlacementBenchmark.InMemoryDatabase().setUp();
+		sessionFactory = Context.getRegisteredComponent("sessionFactory", SessionFactory.class);
+		transactionManager = Context.getRegisteredComponent("transactionManager", PlatformTransactionManager.class);
+	}
+	
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		
+		transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+	}
+	
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		
+		transactionManager.rollback(transaction);
+	}
+	
+	@Benchmark
+	public Object getStudyByOrderIdLiteral() {
+		
+		return sessionFactory.getCurrentSession()
+		        .createQuery("from Study s where s.radiologyOrder.orderId = '" + nextOrderId() + "'").uniqueResult();
+	}
+	
+	@Benchmark
+	public Object getStudyByOrderIdNamedQuery() {
+		
+		return sessionFactory.getCurrentSession().getNamedQuery("Study.getStudyByOrderId")
+		        .setInteger("orderId", nextOrderId()).uniqueResult();
+	}
+	
+	private int nextOrderId() {
+		return FIRST_ORDER_ID + lookups++ % distinctOrderIds;
+	}
+}
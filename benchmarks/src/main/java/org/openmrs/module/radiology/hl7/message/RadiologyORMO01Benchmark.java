@@ -0,0 +1,123 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.hl7.message;
+
+import java.lang.reflect.Field;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Order;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.PersonName;
+import org.openmrs.module.radiology.Modality;
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.Study;
+import org.openmrs.module.radiology.hl7.CommonOrderOrderControl;
+import org.openmrs.module.radiology.hl7.CommonOrderPriority;
+
+import ca.uhn.hl7v2.HL7Exception;
+
+/**
+ * Benchmarks {@link RadiologyORMO01} which is created and encoded for every order sent to the PACS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadiologyORMO01Benchmark {
+	
+	private RadiologyOrder radiologyOrder;
+	
+	private RadiologyORMO01 radiologyORMO01;
+	
+	@Setup
+	public void setUp() throws Exception {
+		
+		Patient patient = new Patient();
+		patient.setPatientId(1);
+		
+		PatientIdentifierType patientIdentifierType = new PatientIdentifierType();
+		patientIdentifierType.setPatientIdentifierTypeId(1);
+		patientIdentifierType.setName("Test Identifier Type");
+		PatientIdentifier patientIdentifier = new PatientIdentifier();
+		patientIdentifier.setIdentifierType(patientIdentifierType);
+		patientIdentifier.setIdentifier("100");
+		patientIdentifier.setPreferred(true);
+		Set<PatientIdentifier> patientIdentifiers = new HashSet<PatientIdentifier>();
+		patientIdentifiers.add(patientIdentifier);
+		patient.addIdentifiers(patientIdentifiers);
+		
+		patient.setGender("M");
+		
+		Set<PersonName> personNames = new HashSet<PersonName>();
+		PersonName personName = new PersonName();
+		personName.setFamilyName("Doe");
+		personName.setGivenName("John");
+		personName.setMiddleName("Francis");
+		personNames.add(personName);
+		patient.setNames(personNames);
+		
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(1950, Calendar.APRIL, 1, 0, 0, 0);
+		patient.setBirthdate(calendar.getTime());
+		
+		radiologyOrder = new RadiologyOrder();
+		radiologyOrder.setOrderId(20);
+		
+		Field orderNumber = Order.class.getDeclaredField("orderNumber");
+		orderNumber.setAccessible(true);
+		orderNumber.set(radiologyOrder, "ORD-" + radiologyOrder.getOrderId());
+		
+		radiologyOrder.setPatient(patient);
+		calendar.set(2015, Calendar.FEBRUARY, 4, 14, 35, 0);
+		radiologyOrder.setScheduledDate(calendar.getTime());
+		radiologyOrder.setUrgency(Order.Urgency.ON_SCHEDULED_DATE);
+		radiologyOrder.setInstructions("CT ABDOMEN PANCREAS WITH IV CONTRAST");
+		
+		Study study = new Study();
+		study.setStudyId(1);
+		study.setStudyInstanceUid("1.2.826.0.1.3680043.8.2186.1.1");
+		study.setModality(Modality.CT);
+		radiologyOrder.setStudy(study);
+		
+		radiologyORMO01 = new RadiologyORMO01(radiologyOrder, CommonOrderOrderControl.NEW_ORDER,
+		        CommonOrderPriority.ROUTINE);
+	}
+	
+	/**
+	 * Creates and encodes a new message as done when an order is placed.
+	 */
+	@Benchmark
+	public String createAndEncode() throws HL7Exception {
+		return new RadiologyORMO01(radiologyOrder, CommonOrderOrderControl.NEW_ORDER, CommonOrderPriority.ROUTINE)
+		        .createEncodedRadiologyORMO01Message();
+	}
+	
+	@Benchmark
+	public String encode() throws HL7Exception {
+		return radiologyORMO01.createEncodedRadiologyORMO01Message();
+	}
+}
@@ -21,7 +21,7 @@ import org.apache.commons.logging.LogFactory;
 import org.openmrs.Patient;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
 import org.openmrs.module.radiology.RadiologyService;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -80,11 +80,11 @@ public class PortletsController {
 		
 		if (isEndDateBeforeStartDate(startDate, endDate)) {
 			mav.addObject("exceptionText", "radiology.crossDate");
-			mav.addObject("orderList", new ArrayList<RadiologyOrder>());
+			mav.addObject("orderList", new ArrayList<RadiologyOrderListRow>());
 			return mav;
 		}
 		
-		List<RadiologyOrder> matchedOrders = getRadiologyOrdersForPatientQuery(patientQuery);
+		List<RadiologyOrderListRow> matchedOrders = getRadiologyOrdersForPatientQuery(patientQuery);
 		matchedOrders = filterRadiologyOrdersByDateRange(matchedOrders, startDate, endDate);
 		mav.addObject("orderList", matchedOrders);
 		
@@ -111,15 +111,15 @@ public class PortletsController {
 	 * @should return list of orders started after given start date but given end date null
 	 * @should return list of orders started before given end date but given start date null
 	 */
-	private List<RadiologyOrder> filterRadiologyOrdersByDateRange(List<RadiologyOrder> unfilteredRadiologyOrders,
-	        Date startDate, Date endDate) {
+	private List<RadiologyOrderListRow> filterRadiologyOrdersByDateRange(
+	        List<RadiologyOrderListRow> unfilteredRadiologyOrders, Date startDate, Date endDate) {
 		
-		List<RadiologyOrder> result = new Vector<RadiologyOrder>();
+		List<RadiologyOrderListRow> result = new Vector<RadiologyOrderListRow>();
 		
 		if (startDate == null && endDate == null) {
 			return unfilteredRadiologyOrders;
 		} else if (startDate == null && endDate != null) {
-			for (RadiologyOrder order : unfilteredRadiologyOrders) {
+			for (RadiologyOrderListRow order : unfilteredRadiologyOrders) {
 				if (order.getEffectiveStartDate() != null && order.getEffectiveStartDate().compareTo(endDate) <= 0) {
 					
 					result.add(order);
@@ -127,7 +127,7 @@ public class PortletsController {
 			}
 			
 		} else if (startDate != null && endDate == null) {
-			for (RadiologyOrder order : unfilteredRadiologyOrders) {
+			for (RadiologyOrderListRow order : unfilteredRadiologyOrders) {
 				if (order.getEffectiveStartDate() != null && order.getEffectiveStartDate().compareTo(startDate) >= 0) {
 					result.add(order);
 				}
@@ -135,7 +135,7 @@ public class PortletsController {
 		}
 
 		else {
-			for (RadiologyOrder order : unfilteredRadiologyOrders) {
+			for (RadiologyOrderListRow order : unfilteredRadiologyOrders) {
 				if (order.getEffectiveStartDate() != null && order.getEffectiveStartDate().compareTo(startDate) >= 0
 				        && order.getEffectiveStartDate().compareTo(endDate) <= 0) {
 					result.add(order);
@@ -179,9 +179,9 @@ public class PortletsController {
 	 * @should return empty list for patients without radiology orders
 	 * @should return list of all radiology orders for a patient given valid patientQuery
 	 */
-	private List<RadiologyOrder> getRadiologyOrdersForPatientQuery(String patientQuery) {
+	private List<RadiologyOrderListRow> getRadiologyOrdersForPatientQuery(String patientQuery) {
 		List<Patient> patientList = patientService.getPatients(patientQuery);
-		return radiologyService.getRadiologyOrdersByPatients(patientList);
+		return radiologyService.getRadiologyOrderListRowsByPatients(patientList);
 	}
 	
 	/**
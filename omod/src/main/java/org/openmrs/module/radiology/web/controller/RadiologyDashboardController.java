@@ -14,7 +14,7 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openmrs.Patient;
-import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
 import org.openmrs.module.radiology.RadiologyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -43,7 +43,7 @@ public class RadiologyDashboardController {
 		
 		ModelAndView mav = new ModelAndView("/module/radiology/portlets/RadiologyDashboardTab");
 		
-		List<RadiologyOrder> matchedOrders = radiologyService.getRadiologyOrdersByPatient(patient);
+		List<RadiologyOrderListRow> matchedOrders = radiologyService.getRadiologyOrderListRowsByPatient(patient);
 		mav.addObject("orderList", matchedOrders);
 		mav.addObject("matchedOrdersSize", matchedOrders.size());
 		
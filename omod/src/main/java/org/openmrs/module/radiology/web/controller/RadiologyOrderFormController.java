@@ -27,9 +27,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.radiology.DicomUtils.OrderRequest;
 import org.openmrs.module.radiology.Modality;
-import org.openmrs.module.radiology.MwlStatus;
 import org.openmrs.module.radiology.PerformedProcedureStepStatus;
 import org.openmrs.module.radiology.RadiologyOrder;
 import org.openmrs.module.radiology.RadiologyProperties;
@@ -141,8 +139,6 @@ public class RadiologyOrderFormController {
 	 *         order list when save study was successful
 	 * @should set http session attribute openmrs message to order saved and redirect to patient
 	 *         dashboard when save study was successful and given patient id
-	 * @should set http session attribute openmrs message to saved fail worklist and redirect to
-	 *         patient dashboard when save study was not successful and given patient id
 	 * @should set http session attribute openmrs message to study performed when study performed
 	 *         status is in progress and request was issued by radiology scheduler
 	 * @should not redirect if radiology order is not valid according to order validator
@@ -168,13 +164,9 @@ public class RadiologyOrderFormController {
 			try {
 				radiologyService.placeRadiologyOrder(radiologyOrder);
 				
-				radiologyService.sendModalityWorklist(radiologyOrder, OrderRequest.Save_Order);
-				if (radiologyOrder.getStudy().getMwlStatus() == MwlStatus.SAVE_ERR
-				        || radiologyOrder.getStudy().getMwlStatus() == MwlStatus.UPDATE_ERR) {
-					request.getSession().setAttribute(WebConstants.OPENMRS_MSG_ATTR, "radiology.savedFailWorklist");
-				} else {
-					request.getSession().setAttribute(WebConstants.OPENMRS_MSG_ATTR, "Order.saved");
-				}
+				// the order request is sent to the pacs by the hl7 outbox after commit, the order
+				// list shows its mwl status once it was delivered
+				request.getSession().setAttribute(WebConstants.OPENMRS_MSG_ATTR, "Order.saved");
 				
 				if (patientId == null) {
 					modelAndView.setViewName("redirect:/module/radiology/radiologyOrder.list");
@@ -202,7 +194,7 @@ public class RadiologyOrderFormController {
 	 * @throws Exception
 	 * @should discontinue non discontinued order and redirect to discontinuation order
 	 * @should not redirect if discontinuation failed through date in the future
-	 * @should not redirect if discontinuation failed in pacs
+	 * @should redirect to discontinuation order without waiting for the pacs
 	 */
 	@RequestMapping(value = "/module/radiology/radiologyOrder.form", method = RequestMethod.POST, params = "discontinueOrder")
 	protected ModelAndView postDiscontinueRadiologyOrder(HttpServletRequest request, HttpServletResponse response,
@@ -215,14 +207,9 @@ public class RadiologyOrderFormController {
 			    discontinuationOrder.getOrderer(), discontinuationOrder.getDateActivated(), discontinuationOrder
 			            .getOrderReasonNonCoded());
 			
-			radiologyService.sendModalityWorklist(radiologyOrderToDiscontinue, OrderRequest.Discontinue_Order);
-			if (radiologyOrderToDiscontinue.getStudy().getMwlStatus() == MwlStatus.DISCONTINUE_OK) {
-				request.getSession().setAttribute(WebConstants.OPENMRS_MSG_ATTR, "Order.discontinuedSuccessfully");
-				modelAndView.setViewName("redirect:/module/radiology/radiologyOrder.form?orderId="
-				        + discontinuationOrder.getOrderId());
-			} else {
-				request.getSession().setAttribute(WebConstants.OPENMRS_ERROR_ATTR, "radiology.failWorklist");
-			}
+			request.getSession().setAttribute(WebConstants.OPENMRS_MSG_ATTR, "Order.discontinuedSuccessfully");
+			modelAndView.setViewName("redirect:/module/radiology/radiologyOrder.form?orderId="
+			        + discontinuationOrder.getOrderId());
 		}
 		catch (APIException apiException) {
 			request.getSession().setAttribute(WebConstants.OPENMRS_ERROR_ATTR, apiException.getMessage());
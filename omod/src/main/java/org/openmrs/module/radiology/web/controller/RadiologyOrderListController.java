@@ -9,19 +9,230 @@
  */
 package org.openmrs.module.radiology.web.controller;
 
+import static org.openmrs.module.radiology.RadiologyRoles.READING_PHYSICIAN;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest.SortProperty;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyOrderSearchResult;
+import org.openmrs.module.radiology.RadiologyService;
+import org.openmrs.module.radiology.Study;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
 @Controller
-@RequestMapping("/module/radiology/radiologyOrder.list")
 public class RadiologyOrderListController {
 	
-	@RequestMapping(method = RequestMethod.GET)
+	/**
+	 * Names of the order list columns as sent by the DataTable in sColumns
+	 */
+	static final List<String> ORDER_LIST_COLUMNS = Arrays.asList("orderId", "patientIdentifier", "patientName",
+	    "urgency", "referringPhysician", "appointmentDate", "modality", "scheduledStatus", "performedStatus",
+	    "instructions", "mwlStatus");
+	
+	static final int MAX_PAGE_SIZE = 100;
+	
+	private static final Map<String, SortProperty> SORT_PROPERTIES = new HashMap<String, SortProperty>();
+	static {
+		SORT_PROPERTIES.put("orderId", SortProperty.ORDER_ID);
+		SORT_PROPERTIES.put("urgency", SortProperty.URGENCY);
+		SORT_PROPERTIES.put("appointmentDate", SortProperty.EFFECTIVE_START_DATE);
+	}
+	
+	private static final String APPOINTMENT_DATE_FORMAT = "yyyy-MM-dd HH:mm";
+	
+	@Autowired
+	private RadiologyService radiologyService;
+	
+	/**
+	 * Get the radiology order list page
+	 * 
+	 * @return model and view of the radiology order list page
+	 * @should return model and view of the radiology order list page
+	 * @should populate model with obs id if accessed as reading physician
+	 */
+	@RequestMapping(value = "/module/radiology/radiologyOrder.list", method = RequestMethod.GET)
 	public ModelAndView handleRequest() {
 		ModelAndView mav = new ModelAndView();
 		mav.setViewName("module/radiology/radiologyOrderList");
+		if (Context.getAuthenticatedUser().hasRole(READING_PHYSICIAN, true)) {
+			mav.addObject("obsId", "&obsId");
+		}
 		return mav;
 	}
+	
+	/**
+	 * Write one page of radiology orders matching given criteria as JSON implementing the
+	 * server-side processing protocol of the order list DataTable. Paging, sorting and filtering
+	 * are done by the database so only the requested page is loaded and serialised. The patients
+	 * matching patientQuery and sSearch are resolved by the same query as the radiology orders.
+	 * 
+	 * @param patientQuery patient string the radiology orders have to belong to
+	 * @param startDate date from which on the radiology orders should be returned
+	 * @param endDate date until which the radiology orders should be returned
+	 * @param sEcho draw counter echoed back to the DataTable
+	 * @param iDisplayStart index of the first radiology order of the page
+	 * @param iDisplayLength number of radiology orders on the page
+	 * @param sColumns comma separated column names of the DataTable
+	 * @param iSortCol index of the column to sort by
+	 * @param sSortDir direction to sort in, either asc or desc
+	 * @param sSearch global filter of the DataTable, matched against patients like patientQuery
+	 * @param sVisibleColumns comma separated names of the columns to serialise, all if null. Hidden
+	 *            columns are sent empty since the DataTable expects one value per column
+	 * @param response response the JSON is written to
+	 * @should write requested page of radiology orders as data tables json
+	 * @should pass paging and sorting of data table to radiology order search
+	 * @should restrict radiology orders to patients matching patient query and global filter
+	 * @should only serialise visible columns
+	 * @should write error if start date is after end date
+	 */
+	@RequestMapping(value = "/module/radiology/radiologyOrderSearch.htm", method = RequestMethod.GET)
+	public void searchRadiologyOrders(
+	        @RequestParam(value = "patientQuery", required = false) String patientQuery,
+	        @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = ISO.DATE) Date startDate,
+	        @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = ISO.DATE) Date endDate,
+	        @RequestParam(value = "sEcho", defaultValue = "0") int sEcho,
+	        @RequestParam(value = "iDisplayStart", defaultValue = "0") int iDisplayStart,
+	        @RequestParam(value = "iDisplayLength", defaultValue = "20") int iDisplayLength,
+	        @RequestParam(value = "sColumns", required = false) String sColumns,
+	        @RequestParam(value = "iSortCol_0", defaultValue = "0") int iSortCol,
+	        @RequestParam(value = "sSortDir_0", defaultValue = "asc") String sSortDir,
+	        @RequestParam(value = "sSearch", required = false) String sSearch,
+	        @RequestParam(value = "sVisibleColumns", required = false) String sVisibleColumns,
+	        HttpServletResponse response) throws IOException {
+		
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("sEcho", sEcho);
+		
+		if (startDate != null && endDate != null && startDate.after(endDate)) {
+			result.put("iTotalRecords", 0);
+			result.put("iTotalDisplayRecords", 0);
+			result.put("aaData", new ArrayList<Object>());
+			result.put("sError", "radiology.crossDate");
+			writeJson(response, result);
+			return;
+		}
+		
+		RadiologyOrderSearchCriteria radiologyOrderSearchCriteria = new RadiologyOrderSearchCriteria();
+		radiologyOrderSearchCriteria.setPatientQuery(patientQuery);
+		radiologyOrderSearchCriteria.setPatientFilter(sSearch);
+		radiologyOrderSearchCriteria.setFromDate(startDate);
+		radiologyOrderSearchCriteria.setToDate(endDate);
+		
+		RadiologyOrderPageRequest radiologyOrderPageRequest = new RadiologyOrderPageRequest();
+		radiologyOrderPageRequest.setFirstResult(Math.max(iDisplayStart, 0));
+		radiologyOrderPageRequest.setPageSize(iDisplayLength > 0 && iDisplayLength <= MAX_PAGE_SIZE ? iDisplayLength
+		        : MAX_PAGE_SIZE);
+		List<String> columns = sColumns == null ? ORDER_LIST_COLUMNS : Arrays.asList(sColumns.split(","));
+		if (iSortCol >= 0 && iSortCol < columns.size() && SORT_PROPERTIES.containsKey(columns.get(iSortCol))) {
+			radiologyOrderPageRequest.setSortProperty(SORT_PROPERTIES.get(columns.get(iSortCol)));
+		}
+		radiologyOrderPageRequest.setAscending(!"desc".equalsIgnoreCase(sSortDir));
+		
+		RadiologyOrderSearchResult radiologyOrderSearchResult = radiologyService.searchRadiologyOrders(
+		    radiologyOrderSearchCriteria, radiologyOrderPageRequest);
+		
+		Set<String> visibleColumns = new HashSet<String>(sVisibleColumns == null ? columns : Arrays
+		        .asList(sVisibleColumns.split(",")));
+		List<List<String>> rows = new ArrayList<List<String>>();
+		for (RadiologyOrder radiologyOrder : radiologyOrderSearchResult.getRadiologyOrders()) {
+			rows.add(toRow(radiologyOrder, columns, visibleColumns));
+		}
+		
+		// the unfiltered total is not counted separately to spare a query per draw
+		result.put("iTotalRecords", radiologyOrderSearchResult.getTotalCount());
+		result.put("iTotalDisplayRecords", radiologyOrderSearchResult.getTotalCount());
+		result.put("aaData", rows);
+		writeJson(response, result);
+	}
+	
+	/**
+	 * Convert given radiology order into a DataTable row holding the HTML escaped values of the
+	 * given columns. Columns which are not visible are sent empty, the orderId is always sent since
+	 * the row links to the order by it.
+	 * 
+	 * @param radiologyOrder radiology order to convert
+	 * @param columns names of the columns in the order of the DataTable
+	 * @param visibleColumns names of the columns to serialise
+	 * @return row with one value per column
+	 */
+	private List<String> toRow(RadiologyOrder radiologyOrder, List<String> columns, Set<String> visibleColumns) {
+		List<String> row = new ArrayList<String>(columns.size());
+		for (String column : columns) {
+			if ("orderId".equals(column)) {
+				row.add(String.valueOf(radiologyOrder.getOrderId()));
+			} else if (visibleColumns.contains(column)) {
+				row.add(StringEscapeUtils.escapeHtml(StringUtils.defaultString(getColumnValue(radiologyOrder, column))));
+			} else {
+				row.add("");
+			}
+		}
+		return row;
+	}
+	
+	/**
+	 * Get the value of given column for given radiology order
+	 * 
+	 * @param radiologyOrder radiology order to get the value from
+	 * @param column name of the column
+	 * @return value of the column or null if the radiology order has no such value
+	 */
+	private String getColumnValue(RadiologyOrder radiologyOrder, String column) {
+		Study study = radiologyOrder.getStudy();
+		if ("patientIdentifier".equals(column) && radiologyOrder.getPatient().getPatientIdentifier() != null) {
+			return radiologyOrder.getPatient().getPatientIdentifier().getIdentifier();
+		} else if ("patientName".equals(column) && radiologyOrder.getPatient().getPersonName() != null) {
+			return radiologyOrder.getPatient().getPersonName().getFullName();
+		} else if ("urgency".equals(column) && radiologyOrder.getUrgency() != null) {
+			return radiologyOrder.getUrgency().name();
+		} else if ("referringPhysician".equals(column) && radiologyOrder.getOrderer() != null) {
+			return radiologyOrder.getOrderer().getName();
+		} else if ("appointmentDate".equals(column) && radiologyOrder.getEffectiveStartDate() != null) {
+			return new SimpleDateFormat(APPOINTMENT_DATE_FORMAT).format(radiologyOrder.getEffectiveStartDate());
+		} else if ("instructions".equals(column)) {
+			return radiologyOrder.getInstructions();
+		} else if (study == null) {
+			return null;
+		} else if ("modality".equals(column) && study.getModality() != null) {
+			return study.getModality().getFullName();
+		} else if ("scheduledStatus".equals(column) && study.getScheduledStatus() != null) {
+			return study.getScheduledStatus().name();
+		} else if ("performedStatus".equals(column) && study.getPerformedStatus() != null) {
+			return study.getPerformedStatus().name();
+		} else if ("mwlStatus".equals(column) && study.getMwlStatus() != null) {
+			return study.getMwlStatus().name();
+		}
+		return null;
+	}
+	
+	private void writeJson(HttpServletResponse response, Map<String, Object> result) throws IOException {
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		new ObjectMapper().writeValue(response.getWriter(), result);
+	}
 }
@@ -76,11 +76,11 @@
 										style="cursor: pointer;">${status.count}</a>
 								</c:if></td>
 							<td>${order.urgency}</td>
-							<td>${order.orderer.name}</td>
+							<td>${order.ordererName}</td>
 							<td name="appointmentDate">${order.effectiveStartDate}</td>
-							<td>${order.study.modality.fullName}</td>
-							<td>${order.study.scheduledStatus}</td>
-							<td>${order.study.performedStatus}</td>
+							<td>${order.modality.fullName}</td>
+							<td>${order.scheduledStatus}</td>
+							<td>${order.performedStatus}</td>
 							<td style="max-width: 90px; overflow: hidden;"><a
 								style="cursor: pointer"
 								onclick="$j('<p>'+this.innerHTML+'</p>').dialog({autoOpen:true,modal:true});"
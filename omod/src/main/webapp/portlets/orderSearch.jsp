@@ -35,21 +35,21 @@
 								<!-- TODO  select observation-->
 								<a href="radiologyObs.form?orderId=${order.orderId}${obsId}">${order.orderId}</a>
 							</c:if></td>
-						<td style="text-align: center">${order.patient.patientIdentifier}</td>
-						<td>${order.patient.personName}</td>
+						<td style="text-align: center">${order.patientIdentifier}</td>
+						<td>${order.patientName}</td>
 						<td>${order.urgency}</td>
-						<td>${order.orderer.name}</td>
+						<td>${order.ordererName}</td>
 						<td name="appointmentDate">${order.effectiveStartDate}</td>
-						<td>${order.study.modality.fullName}</td>
-						<td>${order.study.scheduledStatus}</td>
-						<td>${order.study.performedStatus}</td>
+						<td>${order.modality.fullName}</td>
+						<td>${order.scheduledStatus}</td>
+						<td>${order.performedStatus}</td>
 						<td style="max-width: 90px; overflow: hidden;"><a
 							style="cursor: pointer"
 							onclick="$j('<p>'+this.innerHTML+'</p>').dialog({autoOpen:true,modal:true});"
 							title="<spring:message code="general.view"/>">${order.instructions}
 						</a></td>
-						<td><spring:message code="radiology.${order.study.mwlStatus}"
-								text="${order.study.mwlStatus}" /></td>
+						<td><spring:message code="radiology.${order.mwlStatus}"
+								text="${order.mwlStatus}" /></td>
 					</tr>
 				</c:forEach>
 			</tbody>
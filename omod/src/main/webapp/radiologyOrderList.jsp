@@ -65,7 +65,31 @@
 			<td id="errorSpan"></td>
 		</tr>
 	</table>
-	<div id="results"></div>
+	<div id="results">
+		<table id="matchedOrders" cellpadding="2" cellspacing="0" width="100%">
+			<thead>
+				<tr>
+					<th><c:if test="${empty obsId}">
+							<spring:message code="general.edit" />
+						</c:if> <c:if test="${not empty obsId}">
+							Obs.
+						</c:if></th>
+					<th><spring:message code="radiology.patientId" /></th>
+					<th><spring:message code="radiology.patientFullName" /></th>
+					<th><spring:message code="radiology.priority" /></th>
+					<th><spring:message code="radiology.referringPhysician" /></th>
+					<th><spring:message code="radiology.appoinmentDate" /></th>
+					<th><spring:message code="radiology.modality" /></th>
+					<th><spring:message code="radiology.scheduledStatus" /></th>
+					<th><spring:message code="radiology.performedStatus" /></th>
+					<th><spring:message code="general.instructions" /></th>
+					<th><spring:message code="radiology.mwlStatus" /></th>
+				</tr>
+			</thead>
+			<tbody id="matchedOrdersBody">
+			</tbody>
+		</table>
+	</div>
 
 </div>
 <br />
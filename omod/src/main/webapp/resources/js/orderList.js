@@ -8,117 +8,185 @@ var $j=jQuery.noConflict();
 		find=$j('#findButton');
 		results=$j('#results');
 		clearResults=$j('a#clearResults');
-		
-		firstTime();
-		function firstTime(){
-			sendRequest();
+
+		orderLinkPrefix='<c:choose><c:when test="${empty obsId}">radiologyOrder.form</c:when><c:otherwise>radiologyObs.form</c:otherwise></c:choose>?orderId=';
+		orderLinkSuffix='${obsId}';
+		mwlStatusMessages={
+			<c:forTokens items="DEFAULT,SAVE_OK,SAVE_ERR,UPDATE_OK,UPDATE_ERR,VOID_OK,VOID_ERR,DISCONTINUE_OK,DISCONTINUE_ERR,UNDISCONTINUE_OK,UNDISCONTINUE_ERR,UNVOID_OK,UNVOID_ERR"
+				delims="," var="mwlStatus" varStatus="mwlStatusLoop">
+			'${mwlStatus}': '<spring:message code="radiology.${mwlStatus}" text="${mwlStatus}" javaScriptEscape="true"/>'<c:if test="${not mwlStatusLoop.last}">,</c:if>
+			</c:forTokens>
+		};
+
+		// order list page pages, sorts and filters on the server, other pages
+		// including this script render their whole table#matchedOrders
+		if($j('table#searchForm').length>0){
+			loading.hide();
+			oTable=$j('table#matchedOrders').dataTable(serverSideOptions(dataTableOptions()));
+		}
+		else{
+			$j('table#matchedOrders').dataTable(clientSideOptions(dataTableOptions()));
 		}
-		
+
 		function sendRequest(){
-		
-			loading.show();
 			$j('#errorSpan').html('');
-			$j.get('portlets/orderSearch.portlet',
-			{patientQuery:pQuery.val(),startDate:startDate.val(),
-			endDate:endDate.val()},
-			function(data){
-				loading.hide();
-				// crossDate error span rendered/sended from portlet
-				if(data.match(/crossDate/ig)!=null){
-					$j('#errorSpan').html($j(data));
+			oTable.fnSettings()._iDisplayStart=0;
+			oTable.fnDraw();
+		}
+
+		function visibleColumns(oSettings){
+			names=[];
+			for(i=0;i<oSettings.aoColumns.length;i++){
+				if(oSettings.aoColumns[i].bVisible){
+					names.push(oSettings.aoColumns[i].sName);
 				}
-				// no errors
-				else{
-					// load data
-					results.html(data);
-					$j('table#matchedOrders').dataTable({
-						"iDisplayLength": 20,
-						"aLengthMenu": [20,50],
-						"sPaginationType": 'full_numbers',
-						"bJQueryUI": true,
-						"bAutoWidth": false,
-						"sDom": '<"H"<"tableHeader verticalCentered"<"left"l><"center"fr><"right colVisDiv"C>>>'+
-								't<"F" <"verticalCentered"<"left"i><"right"p>>>',
-						"oColVis": {
-							"buttonText": '<spring:message code="radiology.showHideColumns"/>',
-							"aiExclude": [0]
-						},
-						"aoColumnDefs":[
-							{
-							"sType":"num-html",
-							"bSortable":true,
-							"aTargets":[0]
-							}
-						],
-						"fnDrawCallback": function(){
-							
-							$j('#actionSelect > option[value="-1"]').hide();
-							$j('#actionSelect').change(function(){
-								action=$j('#actionSelect').attr('selectedIndex');
-								if(action==1){
-									$j('#voidReasonPopup').dialog('open');
-								}
-								$j('#actionSelect').attr('selectedIndex','0');
-							});
-							$j('div.right.colVisDiv').click(function(){
-								style=$j('div#footer + div + div').attr('style');
-								$j('div#footer + div + div').attr('style',style+' width:103%;');
-							});
-							
-							// ********************** DT Events
-							// *******************
-							
-							$j('#markAll').click(function(){
-								$j('td#actionCheckboxes [type="checkbox"]').attr('checked',true);
-							});
-							
-							$j('#markNone').click(function(){
-								$j('td#actionCheckboxes [type="checkbox"]').attr('checked',false);
-							});
-						},
-						"oLanguage": {
-							"sLengthMenu": '<spring:message code="radiology.show"/>'+
-										   ' _MENU_ <spring:message code="radiology.entries"/>',
-							"sSearch": '<spring:message code="general.search"/>:',
-							"sInfo": '<spring:message code="radiology.viewing"/> _START_ '+
-									 '- _END_ '+
-									 '<spring:message code="radiology.of"/> _TOTAL_',
-							"oPaginate": {
-								"sFirst": '<spring:message code="radiology.first"/>',
-								"sPrevious": '<spring:message code="general.previous"/>',
-								"sNext": '<spring:message code="general.next"/>',
-								"sLast": '<spring:message code="radiology.last"/>',
-							},
-							"sProcessing": '<spring:message code="general.loading"/>'
+			}
+			return names.join(',');
+		}
+
+		function serverSideOptions(options){
+			options.bServerSide=true;
+			options.bProcessing=true;
+			options.sAjaxSource='radiologyOrderSearch.htm';
+			options.aaSorting=[[0,'asc']];
+			options.aoColumns=[
+				{"sName":"orderId","bSortable":true,
+				 "fnRender":function(oObj){
+					orderId=oObj.aData[0];
+					return '<a href="'+orderLinkPrefix+orderId+orderLinkSuffix+'">'+orderId+'</a>';
+				 }},
+				{"sName":"patientIdentifier","bSortable":false},
+				{"sName":"patientName","bSortable":false},
+				{"sName":"urgency","bSortable":true},
+				{"sName":"referringPhysician","bSortable":false},
+				{"sName":"appointmentDate","bSortable":true},
+				{"sName":"modality","bSortable":false},
+				{"sName":"scheduledStatus","bSortable":false},
+				{"sName":"performedStatus","bSortable":false},
+				{"sName":"instructions","bSortable":false,
+				 "fnRender":function(oObj){
+					return '<a style="cursor: pointer" '+
+						'onclick="$j(\'<p>\'+this.innerHTML+\'</p>\').dialog({autoOpen:true,modal:true});" '+
+						'title="<spring:message code="general.view"/>">'+oObj.aData[9]+'</a>';
+				 }},
+				{"sName":"mwlStatus","bSortable":false,
+				 "fnRender":function(oObj){
+					mwlStatus=oObj.aData[10];
+					return mwlStatusMessages[mwlStatus]!=undefined ? mwlStatusMessages[mwlStatus] : mwlStatus;
+				 }}
+			];
+			options.fnServerData=function(sSource,aoData,fnCallback){
+				aoData.push({"name":"patientQuery","value":pQuery.val()});
+				aoData.push({"name":"startDate","value":startDate.val()});
+				aoData.push({"name":"endDate","value":endDate.val()});
+				aoData.push({"name":"sVisibleColumns","value":visibleColumns(this.fnSettings())});
+				$j.ajax({
+					url:sSource,
+					data:aoData,
+					dataType:"json",
+					cache:false,
+					success:function(json){
+						// crossDate error sent from server
+						if(json.sError!=undefined){
+							$j('#errorSpan').html('<span class="error"><spring:message code="radiology.crossDate" javaScriptEscape="true"/></span>');
 						}
+						fnCallback(json);
+					}
+				});
+			};
+			return options;
+		}
+
+		function clientSideOptions(options){
+			options.aoColumnDefs=[
+				{
+				"sType":"num-html",
+				"bSortable":true,
+				"aTargets":[0]
+				}
+			];
+			return options;
+		}
+
+		function dataTableOptions(){
+			return {
+				"iDisplayLength": 20,
+				"aLengthMenu": [20,50],
+				"sPaginationType": 'full_numbers',
+				"bJQueryUI": true,
+				"bAutoWidth": false,
+				"sDom": '<"H"<"tableHeader verticalCentered"<"left"l><"center"fr><"right colVisDiv"C>>>'+
+						't<"F" <"verticalCentered"<"left"i><"right"p>>>',
+				"oColVis": {
+					"buttonText": '<spring:message code="radiology.showHideColumns"/>',
+					"aiExclude": [0]
+				},
+				"fnDrawCallback": function(){
+
+					$j('#actionSelect > option[value="-1"]').hide();
+					$j('#actionSelect').change(function(){
+						action=$j('#actionSelect').attr('selectedIndex');
+						if(action==1){
+							$j('#voidReasonPopup').dialog('open');
+						}
+						$j('#actionSelect').attr('selectedIndex','0');
+					});
+					$j('div.right.colVisDiv').click(function(){
+						style=$j('div#footer + div + div').attr('style');
+						$j('div#footer + div + div').attr('style',style+' width:103%;');
+					});
+
+					// ********************** DT Events
+					// *******************
+
+					$j('#markAll').click(function(){
+						$j('td#actionCheckboxes [type="checkbox"]').attr('checked',true);
 					});
+
+					$j('#markNone').click(function(){
+						$j('td#actionCheckboxes [type="checkbox"]').attr('checked',false);
+					});
+				},
+				"oLanguage": {
+					"sLengthMenu": '<spring:message code="radiology.show"/>'+
+								   ' _MENU_ <spring:message code="radiology.entries"/>',
+					"sSearch": '<spring:message code="general.search"/>:',
+					"sInfo": '<spring:message code="radiology.viewing"/> _START_ '+
+							 '- _END_ '+
+							 '<spring:message code="radiology.of"/> _TOTAL_',
+					"oPaginate": {
+						"sFirst": '<spring:message code="radiology.first"/>',
+						"sPrevious": '<spring:message code="general.previous"/>',
+						"sNext": '<spring:message code="general.next"/>',
+						"sLast": '<spring:message code="radiology.last"/>'
+					},
+					"sProcessing": '<spring:message code="general.loading"/>'
 				}
-			});
+			};
 		}
-		
+
 		// ***********Events*************
 		find.click(function(){
-			page=0;
 			sendRequest();
 		});
-		
+
 		pQuery.keypress(function(event) {
 		if (event.which == '13'){
 			sendRequest();
 		}
 		});
-		
+
 		clearResults.click(function(){
 			$j('table#searchForm input:text').val('');
 			$j('table#searchForm input[type="checkbox"]').attr('checked',false);
-			$j('tbody#matchedOrdersBody').html('');
-		});	
-		
+			sendRequest();
+		});
+
 		$j('input#voidOrderButton').click(function(){
 			// TODO
-			
+
 		});
-		
+
 		// ************Popups***************
 		$j('#voidReasonPopup').dialog({
 			autoOpen: false,
@@ -128,4 +196,4 @@ var $j=jQuery.noConflict();
 			width: '40%'
 		});
 	});
-	</script>
\ No newline at end of file
+	</script>
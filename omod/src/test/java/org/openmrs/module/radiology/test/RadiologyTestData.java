@@ -40,6 +40,7 @@ import org.openmrs.Role;
 import org.openmrs.User;
 import org.openmrs.module.radiology.Modality;
 import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
 import org.openmrs.module.radiology.Study;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.util.RoleConstants;
@@ -189,6 +190,19 @@ public class RadiologyTestData {
 		return mockRadiologyOrder;
 	}
 	
+	/**
+	 * Convenience method constructing the radiology order list row of given mock RadiologyOrder for
+	 * the tests
+	 */
+	public static RadiologyOrderListRow getMockRadiologyOrderListRow(RadiologyOrder mockRadiologyOrder) {
+		
+		Study study = mockRadiologyOrder.getStudy();
+		return new RadiologyOrderListRow(mockRadiologyOrder.getOrderId(), null, null, null, null,
+		        mockRadiologyOrder.getUrgency(), mockRadiologyOrder.getScheduledDate(), mockRadiologyOrder.getDateActivated(),
+		        null, null, null, null, study.getModality(), study.getScheduledStatus(), study.getPerformedStatus(),
+		        study.getMwlStatus(), mockRadiologyOrder.getInstructions());
+	}
+	
 	/**
 	 * Convenience method constructing a mock obs for the tests
 	 */
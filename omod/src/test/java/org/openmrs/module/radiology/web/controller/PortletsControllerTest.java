@@ -33,9 +33,8 @@ import org.openmrs.Patient;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
 import org.openmrs.module.radiology.RadiologyService;
-import org.openmrs.module.radiology.Study;
 import org.openmrs.module.radiology.test.RadiologyTestData;
 import org.openmrs.test.BaseContextMockTest;
 import org.springframework.beans.TypeMismatchException;
@@ -46,13 +45,11 @@ import org.springframework.web.servlet.ModelAndView;
  */
 public class PortletsControllerTest extends BaseContextMockTest {
 	
-	private List<Study> mockStudies;
+	private List<RadiologyOrderListRow> mockRadiologyOrders;
 	
-	private List<RadiologyOrder> mockRadiologyOrders;
+	private RadiologyOrderListRow mockRadiologyOrder1;
 	
-	private RadiologyOrder mockRadiologyOrder1;
-	
-	private RadiologyOrder mockRadiologyOrder2;
+	private RadiologyOrderListRow mockRadiologyOrder2;
 	
 	private Patient mockPatient1;
 	
@@ -73,26 +70,24 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	@Before
 	public void runBeforeAllTests() {
 		
-		mockRadiologyOrders = new ArrayList<RadiologyOrder>();
-		mockRadiologyOrder1 = RadiologyTestData.getMockRadiologyOrder1();
-		mockRadiologyOrder2 = RadiologyTestData.getMockRadiologyOrder2();
+		mockRadiologyOrders = new ArrayList<RadiologyOrderListRow>();
+		mockRadiologyOrder1 = RadiologyTestData
+		        .getMockRadiologyOrderListRow(RadiologyTestData.getMockRadiologyOrder1());
+		mockRadiologyOrder2 = RadiologyTestData
+		        .getMockRadiologyOrderListRow(RadiologyTestData.getMockRadiologyOrder2());
 		mockRadiologyOrders.add(mockRadiologyOrder1);
 		mockRadiologyOrders.add(mockRadiologyOrder2);
 		
-		mockStudies = new ArrayList<Study>();
-		mockStudies.add(RadiologyTestData.getMockStudy1PostSave());
-		mockStudies.add(RadiologyTestData.getMockStudy2PostSave());
-		
 		mockPatient1 = RadiologyTestData.getMockPatient1();
 		mockPatient3 = RadiologyTestData.getMockPatient3();
 		
 		when(Context.getAuthenticatedUser()).thenReturn(RadiologyTestData.getMockRadiologyReferringPhysician());
-		when(radiologyService.getStudiesByRadiologyOrders(mockRadiologyOrders)).thenReturn(mockStudies);
-		when(radiologyService.getRadiologyOrdersByPatients(patientService.getPatients(""))).thenReturn(mockRadiologyOrders);
-		when(radiologyService.getRadiologyOrdersByPatients(Arrays.asList(mockPatient1))).thenReturn(
+		when(radiologyService.getRadiologyOrderListRowsByPatients(patientService.getPatients(""))).thenReturn(
+		    mockRadiologyOrders);
+		when(radiologyService.getRadiologyOrderListRowsByPatients(Arrays.asList(mockPatient1))).thenReturn(
 		    Arrays.asList(mockRadiologyOrder1));
-		when(radiologyService.getRadiologyOrdersByPatients(Arrays.asList(mockPatient3))).thenReturn(
-		    new ArrayList<RadiologyOrder>());
+		when(radiologyService.getRadiologyOrderListRowsByPatients(Arrays.asList(mockPatient3))).thenReturn(
+		    new ArrayList<RadiologyOrderListRow>());
 		when(patientService.getPatients("Johnny")).thenReturn(new ArrayList<Patient>());
 		when(patientService.getPatients("Joh")).thenReturn(Arrays.asList(mockPatient1));
 		when(patientService.getPatients(mockPatient3.getFamilyName())).thenReturn(Arrays.asList(mockPatient3));
@@ -116,7 +111,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		assertThat(mav, is(notNullValue()));
 		
 		assertThat(mav.getModelMap(), hasKey("orderList"));
-		List<RadiologyOrder> orderList = (List<RadiologyOrder>) mav.getModelMap().get("orderList");
+		List<RadiologyOrderListRow> orderList = (List<RadiologyOrderListRow>) mav.getModelMap().get("orderList");
 		assertThat(orderList, is(notNullValue()));
 		assertThat(orderList, is(mockRadiologyOrders));
 	}
@@ -137,7 +132,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		assertThat(mav, is(notNullValue()));
 		
 		assertThat(mav.getModelMap(), hasKey("orderList"));
-		List<RadiologyOrder> orderList = (List<RadiologyOrder>) mav.getModelMap().get("orderList");
+		List<RadiologyOrderListRow> orderList = (List<RadiologyOrderListRow>) mav.getModelMap().get("orderList");
 		assertThat(orderList, is(notNullValue()));
 		assertThat(orderList, is(empty()));
 		
@@ -166,7 +161,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		assertThat(mav, is(notNullValue()));
 		
 		assertThat(mav.getModelMap(), hasKey("orderList"));
-		List<RadiologyOrder> orderList = (List<RadiologyOrder>) mav.getModelMap().get("orderList");
+		List<RadiologyOrderListRow> orderList = (List<RadiologyOrderListRow>) mav.getModelMap().get("orderList");
 		assertThat(orderList, is(notNullValue()));
 		assertThat(orderList, is(Arrays.asList(mockRadiologyOrder1)));
 		
@@ -177,7 +172,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return list of orders matching a given date range
 	 */
 	@Test
@@ -193,7 +188,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -201,7 +196,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return list of all orders with start date if start date is null and end date is null
 	 */
 	@Test
@@ -216,7 +211,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -224,7 +219,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return empty list of orders with given end date and start date before any order has started
 	 */
 	@Test
@@ -240,7 +235,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -248,7 +243,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return empty list of orders with given end date and start date after any order has started
 	 */
 	@Test
@@ -264,7 +259,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -272,7 +267,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return list of orders started after given start date but given end date null
 	 */
 	@Test
@@ -288,7 +283,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -296,7 +291,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 	}
 	
 	/**
-	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrder>, Date, Date)
+	 * @see PortletsController#filterRadiologyOrdersByDateRange(List<RadiologyOrderListRow>, Date, Date)
 	 * @verifies return list of orders started before given end date but given start date null
 	 */
 	@Test
@@ -312,7 +307,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		    new Class[] { java.util.List.class, java.util.Date.class, java.util.Date.class });
 		filterRadiologyOrdersByDateRangeMethod.setAccessible(true);
 		
-		List<RadiologyOrder> filteredRadiologyOrdersByDateRange = (List<RadiologyOrder>) filterRadiologyOrdersByDateRangeMethod
+		List<RadiologyOrderListRow> filteredRadiologyOrdersByDateRange = (List<RadiologyOrderListRow>) filterRadiologyOrdersByDateRangeMethod
 		        .invoke(portletsController, new Object[] { mockRadiologyOrders, startDate, endDate });
 		
 		assertThat(filteredRadiologyOrdersByDateRange, is(notNullValue()));
@@ -486,7 +481,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		
 		String patientQuery = "";
 		
-		List<RadiologyOrder> RadiologyOrdersForPatientQuery = (List<RadiologyOrder>) getRadiologyOrdersForPatientQueryMethod
+		List<RadiologyOrderListRow> RadiologyOrdersForPatientQuery = (List<RadiologyOrderListRow>) getRadiologyOrdersForPatientQueryMethod
 		        .invoke(portletsController, new Object[] { patientQuery });
 		assertThat(RadiologyOrdersForPatientQuery, is(mockRadiologyOrders));
 	}
@@ -505,7 +500,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		
 		String patientQuery = null;
 		
-		List<RadiologyOrder> RadiologyOrdersForPatientQuery = (List<RadiologyOrder>) getRadiologyOrdersForPatientQueryMethod
+		List<RadiologyOrderListRow> RadiologyOrdersForPatientQuery = (List<RadiologyOrderListRow>) getRadiologyOrdersForPatientQueryMethod
 		        .invoke(portletsController, new Object[] { patientQuery });
 		assertThat(RadiologyOrdersForPatientQuery, is(mockRadiologyOrders));
 	}
@@ -524,7 +519,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		
 		String patientQuery = "Johnny";
 		
-		List<RadiologyOrder> RadiologyOrdersForPatientQuery = (List<RadiologyOrder>) getRadiologyOrdersForPatientQueryMethod
+		List<RadiologyOrderListRow> RadiologyOrdersForPatientQuery = (List<RadiologyOrderListRow>) getRadiologyOrdersForPatientQueryMethod
 		        .invoke(portletsController, new Object[] { patientQuery });
 		assertThat(RadiologyOrdersForPatientQuery, is(mockRadiologyOrders));
 	}
@@ -542,7 +537,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		
 		String patientQuery = RadiologyTestData.getMockPatient3().getFamilyName();
 		
-		List<RadiologyOrder> RadiologyOrdersForPatientQuery = (List<RadiologyOrder>) getRadiologyOrdersForPatientQueryMethod
+		List<RadiologyOrderListRow> RadiologyOrdersForPatientQuery = (List<RadiologyOrderListRow>) getRadiologyOrdersForPatientQueryMethod
 		        .invoke(portletsController, new Object[] { patientQuery });
 		assertThat(RadiologyOrdersForPatientQuery, is(empty()));
 	}
@@ -561,7 +556,7 @@ public class PortletsControllerTest extends BaseContextMockTest {
 		
 		String patientQuery = "Joh";
 		
-		List<RadiologyOrder> RadiologyOrdersForPatientQuery = (List<RadiologyOrder>) getRadiologyOrdersForPatientQueryMethod
+		List<RadiologyOrderListRow> RadiologyOrdersForPatientQuery = (List<RadiologyOrderListRow>) getRadiologyOrdersForPatientQueryMethod
 		        .invoke(portletsController, new Object[] { patientQuery });
 		assertThat(RadiologyOrdersForPatientQuery, is(Arrays.asList(mockRadiologyOrder1)));
 	}
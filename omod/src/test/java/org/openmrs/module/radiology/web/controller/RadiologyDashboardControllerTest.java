@@ -13,9 +13,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.openmrs.Patient;
 import org.openmrs.api.context.Context;
-import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderListRow;
 import org.openmrs.module.radiology.RadiologyService;
-import org.openmrs.module.radiology.Study;
 import org.openmrs.module.radiology.test.RadiologyTestData;
 import org.openmrs.test.BaseContextMockTest;
 import org.openmrs.test.Verifies;
@@ -26,14 +25,12 @@ import org.springframework.web.servlet.ModelAndView;
  */
 public class RadiologyDashboardControllerTest extends BaseContextMockTest {
 	
-	private List<RadiologyOrder> mockOrders;
+	private List<RadiologyOrderListRow> mockOrders;
 	
 	private Patient mockPatient1;
 	
 	private Patient invalidPatient;
 	
-	private List<Study> mockStudies;
-	
 	@Mock
 	private RadiologyService radiologyService;
 	
@@ -44,18 +41,14 @@ public class RadiologyDashboardControllerTest extends BaseContextMockTest {
 	public void runBeforeAllTests() {
 		mockPatient1 = RadiologyTestData.getMockPatient1();
 		invalidPatient = new Patient();
-		mockOrders = new ArrayList<RadiologyOrder>();
-		mockOrders.add(RadiologyTestData.getMockRadiologyOrder1());
-		
-		mockStudies = new ArrayList<Study>();
-		mockStudies.add(RadiologyTestData.getMockStudy1PostSave());
+		mockOrders = new ArrayList<RadiologyOrderListRow>();
+		mockOrders.add(RadiologyTestData.getMockRadiologyOrderListRow(RadiologyTestData.getMockRadiologyOrder1()));
 		
-		ArrayList<RadiologyOrder> emptyOrdersList = new ArrayList<RadiologyOrder>();
+		ArrayList<RadiologyOrderListRow> emptyOrdersList = new ArrayList<RadiologyOrderListRow>();
 		
 		when(Context.getAuthenticatedUser()).thenReturn(RadiologyTestData.getMockRadiologyReferringPhysician());
-		when(radiologyService.getStudiesByRadiologyOrders(mockOrders)).thenReturn(mockStudies);
-		when((radiologyService.getRadiologyOrdersByPatient(mockPatient1))).thenReturn(mockOrders);
-		when((radiologyService.getRadiologyOrdersByPatient(invalidPatient))).thenReturn(emptyOrdersList);
+		when((radiologyService.getRadiologyOrderListRowsByPatient(mockPatient1))).thenReturn(mockOrders);
+		when((radiologyService.getRadiologyOrderListRowsByPatient(invalidPatient))).thenReturn(emptyOrdersList);
 	}
 	
 	/**
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Calendar;
@@ -34,6 +36,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.OrderService;
+import org.openmrs.module.radiology.DicomUtils.OrderRequest;
 import org.openmrs.module.radiology.MwlStatus;
 import org.openmrs.module.radiology.PerformedProcedureStepStatus;
 import org.openmrs.module.radiology.RadiologyOrder;
@@ -238,54 +241,6 @@ public class RadiologyOrderFormControllerTest extends BaseContextMockTest {
 		assertThat((String) mockSession.getAttribute(WebConstants.OPENMRS_MSG_ATTR), is("Order.saved"));
 	}
 	
-	/**
-	 * @see RadiologyOrderFormController#postSaveRadiologyOrder(HttpServletRequest, Integer, Order,
-	 *      BindingResult)
-	 */
-	@Test
-	@Verifies(value = "should set http session attribute openmrs message to saved fail worklist and redirect to patient dashboard when save study was not successful and given patient id", method = "postSaveRadiologyOrder(HttpServletRequest, Integer, RadiologyOrder, BindingResult)")
-	public void postSaveRadiologyOrder_shouldSetHttpSessionAttributeOpenmrsMessageToSavedFailWorklistAndRedirectToPatientDashboardWhenSaveStudyWasNotSuccessfulAndGivenPatientId()
-	        throws Exception {
-		
-		//given
-		RadiologyOrder mockRadiologyOrder = RadiologyTestData.getMockRadiologyOrder1();
-		mockRadiologyOrder.getStudy().setMwlStatus(MwlStatus.SAVE_ERR);
-		
-		when(radiologyService.placeRadiologyOrder(mockRadiologyOrder)).thenReturn(mockRadiologyOrder);
-		
-		MockHttpServletRequest mockRequest = new MockHttpServletRequest();
-		mockRequest.addParameter("saveOrder", "saveOrder");
-		MockHttpSession mockSession = new MockHttpSession();
-		mockRequest.setSession(mockSession);
-		
-		BindingResult orderErrors = mock(BindingResult.class);
-		when(orderErrors.hasErrors()).thenReturn(false);
-		
-		ModelAndView modelAndView = radiologyOrderFormController.postSaveRadiologyOrder(mockRequest, mockRadiologyOrder
-		        .getPatient().getPatientId(), mockRadiologyOrder, mockRadiologyOrder, orderErrors);
-		
-		assertNotNull(modelAndView);
-		assertThat(modelAndView.getViewName(), is("redirect:/patientDashboard.form?patientId="
-		        + mockRadiologyOrder.getPatient().getPatientId()));
-		assertThat((String) mockSession.getAttribute(WebConstants.OPENMRS_MSG_ATTR), is("radiology.savedFailWorklist"));
-		
-		mockRequest = new MockHttpServletRequest();
-		mockRequest.addParameter("saveOrder", "saveOrder");
-		mockSession = new MockHttpSession();
-		mockRequest.setSession(mockSession);
-		
-		mockRadiologyOrder.getStudy().setMwlStatus(MwlStatus.SAVE_ERR);
-		when(radiologyService.placeRadiologyOrder(mockRadiologyOrder)).thenReturn(mockRadiologyOrder);
-		
-		modelAndView = radiologyOrderFormController.postSaveRadiologyOrder(mockRequest, mockRadiologyOrder.getPatient()
-		        .getPatientId(), mockRadiologyOrder, mockRadiologyOrder, orderErrors);
-		
-		assertNotNull(modelAndView);
-		assertThat(modelAndView.getViewName(), is("redirect:/patientDashboard.form?patientId="
-		        + mockRadiologyOrder.getPatient().getPatientId()));
-		assertThat((String) mockSession.getAttribute(WebConstants.OPENMRS_MSG_ATTR), is("radiology.savedFailWorklist"));
-	}
-	
 	/**
 	 * @see RadiologyOrderFormController#postSaveRadiologyOrder(HttpServletRequest, Integer, Order,
 	 *      BindingResult)
@@ -454,11 +409,12 @@ public class RadiologyOrderFormControllerTest extends BaseContextMockTest {
 	 *      HttpServletResponse, Order, String, Date)
 	 */
 	@Test
-	@Verifies(value = "should not redirect if discontinuation failed in pacs", method = "postDiscontinueRadiologyOrder(HttpServletRequest, HttpServletResponse, Order, String, Date)")
-	public void postDiscontinueRadiologyOrder_shouldNotRedirectIfDiscontinuationFailedInPacs() throws Exception {
+	@Verifies(value = "should redirect to discontinuation order without waiting for the pacs", method = "postDiscontinueRadiologyOrder(HttpServletRequest, HttpServletResponse, Order, String, Date)")
+	public void postDiscontinueRadiologyOrder_shouldRedirectToDiscontinuationOrderWithoutWaitingForThePacs()
+	        throws Exception {
 		//given
 		RadiologyOrder mockRadiologyOrderToDiscontinue = RadiologyTestData.getMockRadiologyOrder1();
-		mockRadiologyOrderToDiscontinue.getStudy().setMwlStatus(MwlStatus.DISCONTINUE_ERR);
+		mockRadiologyOrderToDiscontinue.getStudy().setMwlStatus(MwlStatus.SAVE_OK);
 		String discontinueReason = "Wrong Procedure";
 		Date discontinueDate = new GregorianCalendar(2015, Calendar.JANUARY, 01).getTime();
 		
@@ -467,6 +423,7 @@ public class RadiologyOrderFormControllerTest extends BaseContextMockTest {
 		mockDiscontinuationOrder.setAction(Order.Action.DISCONTINUE);
 		mockDiscontinuationOrder.setOrderer(mockRadiologyOrderToDiscontinue.getOrderer());
 		mockDiscontinuationOrder.setOrderReasonNonCoded(discontinueReason);
+		mockDiscontinuationOrder.setDateActivated(discontinueDate);
 		mockDiscontinuationOrder.setPreviousOrder(mockRadiologyOrderToDiscontinue);
 		
 		MockHttpServletRequest mockRequest = new MockHttpServletRequest();
@@ -477,25 +434,18 @@ public class RadiologyOrderFormControllerTest extends BaseContextMockTest {
 		when(radiologyService.getRadiologyOrderByOrderId(mockRadiologyOrderToDiscontinue.getOrderId())).thenReturn(
 		    mockRadiologyOrderToDiscontinue);
 		when(
-		    orderService.discontinueOrder(mockRadiologyOrderToDiscontinue, discontinueReason, discontinueDate,
-		        mockRadiologyOrderToDiscontinue.getOrderer(), mockRadiologyOrderToDiscontinue.getEncounter())).thenReturn(
-		    mockDiscontinuationOrder);
+		    radiologyService.discontinueRadiologyOrder(mockRadiologyOrderToDiscontinue, mockDiscontinuationOrder
+		            .getOrderer(), mockDiscontinuationOrder.getDateActivated(), mockDiscontinuationOrder
+		            .getOrderReasonNonCoded())).thenReturn(mockDiscontinuationOrder);
 		
 		ModelAndView modelAndView = radiologyOrderFormController.postDiscontinueRadiologyOrder(mockRequest, null,
 		    mockRadiologyOrderToDiscontinue, mockDiscontinuationOrder);
 		
 		assertNotNull(modelAndView);
-		assertThat(modelAndView.getViewName(), is("module/radiology/radiologyOrderForm"));
-		
-		assertThat(modelAndView.getModelMap(), hasKey("order"));
-		Order order = (Order) modelAndView.getModelMap().get("order");
-		assertThat(order, is((Order) mockRadiologyOrderToDiscontinue));
-		
-		assertThat(modelAndView.getModelMap(), hasKey("radiologyOrder"));
-		RadiologyOrder radiologyOrder = (RadiologyOrder) modelAndView.getModelMap().get("radiologyOrder");
-		assertThat(radiologyOrder, is(mockRadiologyOrderToDiscontinue));
-		
-		assertNotNull(mockSession.getAttribute(WebConstants.OPENMRS_ERROR_ATTR));
-		assertThat((String) mockSession.getAttribute(WebConstants.OPENMRS_ERROR_ATTR), is("radiology.failWorklist"));
+		assertThat(modelAndView.getViewName(), is("redirect:/module/radiology/radiologyOrder.form?orderId="
+		        + mockDiscontinuationOrder.getOrderId()));
+		assertThat((String) mockSession.getAttribute(WebConstants.OPENMRS_MSG_ATTR), is("Order.discontinuedSuccessfully"));
+		verify(radiologyService, never()).sendModalityWorklist(mockRadiologyOrderToDiscontinue,
+		    OrderRequest.Discontinue_Order);
 	}
 }
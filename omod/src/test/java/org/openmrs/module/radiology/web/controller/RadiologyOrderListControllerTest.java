@@ -0,0 +1,211 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.radiology.web.controller;
+
+import static org.hamcrest.collection.IsMapContaining.hasKey;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.radiology.RadiologyOrder;
+import org.openmrs.module.radiology.RadiologyOrderPageRequest;
+import org.openmrs.module.radiology.RadiologyOrderSearchCriteria;
+import org.openmrs.module.radiology.RadiologyOrderSearchResult;
+import org.openmrs.module.radiology.RadiologyService;
+import org.openmrs.module.radiology.test.RadiologyTestData;
+import org.openmrs.test.BaseContextMockTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Tests {@link RadiologyOrderListController}
+ */
+public class RadiologyOrderListControllerTest extends BaseContextMockTest {
+	
+	private static final String COLUMNS = "orderId,patientIdentifier,patientName,urgency,referringPhysician,appointmentDate,modality,scheduledStatus,performedStatus,instructions,mwlStatus";
+	
+	@Mock
+	private RadiologyService radiologyService;
+	
+	@InjectMocks
+	private RadiologyOrderListController radiologyOrderListController = new RadiologyOrderListController();
+	
+	private RadiologyOrder mockRadiologyOrder1;
+	
+	private MockHttpServletResponse response;
+	
+	@Before
+	public void runBeforeAllTests() {
+		
+		mockRadiologyOrder1 = RadiologyTestData.getMockRadiologyOrder1();
+		response = new MockHttpServletResponse();
+		
+		when(Context.getAuthenticatedUser()).thenReturn(RadiologyTestData.getMockRadiologyReferringPhysician());
+		when(
+		    radiologyService.searchRadiologyOrders(any(RadiologyOrderSearchCriteria.class),
+		        any(RadiologyOrderPageRequest.class))).thenReturn(
+		    new RadiologyOrderSearchResult(Arrays.asList(mockRadiologyOrder1), 41, mockRadiologyOrder1.getOrderId()));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#handleRequest()
+	 * @verifies return model and view of the radiology order list page
+	 */
+	@Test
+	public void handleRequest_shouldReturnModelAndViewOfTheRadiologyOrderListPage() throws Exception {
+		
+		ModelAndView mav = radiologyOrderListController.handleRequest();
+		
+		assertThat(mav.getViewName(), is("module/radiology/radiologyOrderList"));
+		assertThat(mav.getModelMap().get("obsId"), is(nullValue()));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#handleRequest()
+	 * @verifies populate model with obs id if accessed as reading physician
+	 */
+	@Test
+	public void handleRequest_shouldPopulateModelWithObsIdIfAccessedAsReadingPhysician() throws Exception {
+		
+		when(Context.getAuthenticatedUser()).thenReturn(RadiologyTestData.getMockRadiologyReadingPhysician());
+		
+		ModelAndView mav = radiologyOrderListController.handleRequest();
+		
+		assertThat(mav.getModelMap(), hasKey("obsId"));
+		assertThat((String) mav.getModelMap().get("obsId"), is("&obsId"));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#searchRadiologyOrders(String,Date,Date,int,int,int,String,int,String,String,String,HttpServletResponse)
+	 * @verifies write requested page of radiology orders as data tables json
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldWriteRequestedPageOfRadiologyOrdersAsDataTablesJson() throws Exception {
+		
+		radiologyOrderListController.searchRadiologyOrders(null, null, null, 3, 20, 20, COLUMNS, 0, "asc", null, null,
+		    response);
+		
+		assertThat(response.getContentType().startsWith("application/json"), is(true));
+		Map<String, Object> json = readJson(response);
+		assertThat((Integer) json.get("sEcho"), is(3));
+		assertThat((Integer) json.get("iTotalRecords"), is(41));
+		assertThat((Integer) json.get("iTotalDisplayRecords"), is(41));
+		List<List<String>> rows = (List<List<String>>) json.get("aaData");
+		assertThat(rows.size(), is(1));
+		assertThat(rows.get(0), is(Arrays.asList("1", "100", "John Francis Doe", "ON_SCHEDULED_DATE", "",
+		    "2015-02-04 14:35", "Computed Tomography", "", "", "CT ABDOMEN PANCREAS WITH IV CONTRAST", "DEFAULT")));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#searchRadiologyOrders(String,Date,Date,int,int,int,String,int,String,String,String,HttpServletResponse)
+	 * @verifies pass paging and sorting of data table to radiology order search
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldPassPagingAndSortingOfDataTableToRadiologyOrderSearch() throws Exception {
+		
+		Date startDate = new GregorianCalendar(2015, Calendar.FEBRUARY, 1).getTime();
+		Date endDate = new GregorianCalendar(2015, Calendar.MARCH, 1).getTime();
+		
+		radiologyOrderListController.searchRadiologyOrders(null, startDate, endDate, 1, 40, 20, COLUMNS, 5, "desc", "",
+		    null, response);
+		
+		ArgumentCaptor<RadiologyOrderSearchCriteria> radiologyOrderSearchCriteria = ArgumentCaptor
+		        .forClass(RadiologyOrderSearchCriteria.class);
+		ArgumentCaptor<RadiologyOrderPageRequest> radiologyOrderPageRequest = ArgumentCaptor
+		        .forClass(RadiologyOrderPageRequest.class);
+		verify(radiologyService).searchRadiologyOrders(radiologyOrderSearchCriteria.capture(),
+		    radiologyOrderPageRequest.capture());
+		assertThat(radiologyOrderSearchCriteria.getValue().getPatientQuery(), is(nullValue()));
+		assertThat(radiologyOrderSearchCriteria.getValue().getFromDate(), is(startDate));
+		assertThat(radiologyOrderSearchCriteria.getValue().getToDate(), is(endDate));
+		assertThat(radiologyOrderPageRequest.getValue().getFirstResult(), is(40));
+		assertThat(radiologyOrderPageRequest.getValue().getPageSize(), is(20));
+		assertThat(radiologyOrderPageRequest.getValue().getSortProperty(),
+		    is(RadiologyOrderPageRequest.SortProperty.EFFECTIVE_START_DATE));
+		assertThat(radiologyOrderPageRequest.getValue().isAscending(), is(false));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#searchRadiologyOrders(String,Date,Date,int,int,int,String,int,String,String,String,HttpServletResponse)
+	 * @verifies restrict radiology orders to patients matching patient query and global filter
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldRestrictRadiologyOrdersToPatientsMatchingPatientQueryAndGlobalFilter()
+	        throws Exception {
+		
+		radiologyOrderListController.searchRadiologyOrders("Do", null, null, 1, 0, 20, COLUMNS, 0, "asc", "John", null,
+		    response);
+		
+		ArgumentCaptor<RadiologyOrderSearchCriteria> radiologyOrderSearchCriteria = ArgumentCaptor
+		        .forClass(RadiologyOrderSearchCriteria.class);
+		verify(radiologyService).searchRadiologyOrders(radiologyOrderSearchCriteria.capture(),
+		    any(RadiologyOrderPageRequest.class));
+		assertThat(radiologyOrderSearchCriteria.getValue().getPatientQuery(), is("Do"));
+		assertThat(radiologyOrderSearchCriteria.getValue().getPatientFilter(), is("John"));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#searchRadiologyOrders(String,Date,Date,int,int,int,String,int,String,String,String,HttpServletResponse)
+	 * @verifies only serialise visible columns
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldOnlySerialiseVisibleColumns() throws Exception {
+		
+		radiologyOrderListController.searchRadiologyOrders(null, null, null, 1, 0, 20, COLUMNS, 0, "asc", null,
+		    "orderId,patientName,modality", response);
+		
+		List<List<String>> rows = (List<List<String>>) readJson(response).get("aaData");
+		assertThat(rows.get(0), is(Arrays.asList("1", "", "John Francis Doe", "", "", "", "Computed Tomography", "", "",
+		    "", "")));
+	}
+	
+	/**
+	 * @see RadiologyOrderListController#searchRadiologyOrders(String,Date,Date,int,int,int,String,int,String,String,String,HttpServletResponse)
+	 * @verifies write error if start date is after end date
+	 */
+	@Test
+	public void searchRadiologyOrders_shouldWriteErrorIfStartDateIsAfterEndDate() throws Exception {
+		
+		Date startDate = new GregorianCalendar(2015, Calendar.MARCH, 1).getTime();
+		Date endDate = new GregorianCalendar(2015, Calendar.FEBRUARY, 1).getTime();
+		
+		radiologyOrderListController.searchRadiologyOrders(null, startDate, endDate, 1, 0, 20, COLUMNS, 0, "asc", null,
+		    null, response);
+		
+		Map<String, Object> json = readJson(response);
+		assertThat((String) json.get("sError"), is("radiology.crossDate"));
+		assertThat((Integer) json.get("iTotalDisplayRecords"), is(0));
+		assertThat(((List<?>) json.get("aaData")).size(), is(0));
+		verify(radiologyService, never()).searchRadiologyOrders(any(RadiologyOrderSearchCriteria.class),
+		    any(RadiologyOrderPageRequest.class));
+	}
+	
+	private Map<String, Object> readJson(MockHttpServletResponse response) throws Exception {
+		return new ObjectMapper().readValue(response.getContentAsString(), Map.class);
+	}
+}